@@ -0,0 +1,262 @@
+package com.managementcontent.benchmark;
+
+import com.managementcontent.dto.InternalDocumentDTO;
+import com.managementcontent.model.Department;
+import com.managementcontent.model.DocumentHistory;
+import com.managementcontent.model.DocumentType;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.model.InternalDocumentRecipient;
+import com.managementcontent.model.OutgoingDocument;
+import com.managementcontent.model.Role;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.DistributionType;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.repository.DepartmentRepository;
+import com.managementcontent.repository.DocumentDepartmentRepository;
+import com.managementcontent.repository.UserRepository;
+import com.managementcontent.service.DepartmentService;
+import com.managementcontent.service.InternalDocumentService;
+import com.managementcontent.service.UserService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Entities shaped like production rows and repository stubs for the
+ * benchmarks, so that services run without Spring or a database.
+ * Fixtures are built from the index alone, so every run sees the same data.
+ */
+final class BenchmarkFixtures {
+
+    static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 3, 1, 8, 30);
+
+    /**
+     * InternalDocumentService#buildDTO(document, isRead, readAt, replyCount).
+     * convertToDTO around it only adds the read status lookups, which need a
+     * security context.
+     */
+    static final MethodHandle BUILD_INTERNAL_DTO;
+
+    static {
+        try {
+            BUILD_INTERNAL_DTO = MethodHandles.privateLookupIn(InternalDocumentService.class, MethodHandles.lookup())
+                    .findVirtual(InternalDocumentService.class, "buildDTO", MethodType.methodType(
+                            InternalDocumentDTO.class, InternalDocument.class, boolean.class, LocalDateTime.class,
+                            int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final DocumentProcessingStatus[] STATUSES = DocumentProcessingStatus.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Stub of a repository interface. Methods named in answers return the
+     * result of their function applied to the arguments; every other method
+     * returns an empty value (0, false, empty Optional or collection, null).
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Function<Object[], Object> answer = answers.get(method.getName());
+            return answer != null ? answer.apply(args) : emptyValue(method);
+        });
+    }
+
+    /**
+     * Set a field normally injected by Spring, such as a {@code @Value}
+     */
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * InternalDocumentService with only what its DTO mapping uses
+     */
+    static InternalDocumentService internalDocumentService() {
+        DepartmentService departmentService = new DepartmentService(
+                stub(DepartmentRepository.class, Map.of()),
+                stub(UserRepository.class, Map.of()),
+                stub(DocumentDepartmentRepository.class, Map.of()),
+                null);
+        UserService userService = new UserService(null, null, null, null, null, null);
+        return new InternalDocumentService(null, null, null, null, null, departmentService, userService,
+                null, null, null, null, null, null, null);
+    }
+
+    private static Object emptyValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        } else if (returnType == int.class) {
+            return 0;
+        } else if (returnType == long.class) {
+            return 0L;
+        } else if (returnType == Optional.class) {
+            return Optional.empty();
+        } else if (List.class.isAssignableFrom(returnType) || returnType == Collection.class) {
+            return List.of();
+        } else if (Set.class.isAssignableFrom(returnType)) {
+            return Set.of();
+        }
+        return null;
+    }
+
+    static Department department(long id) {
+        return Department.builder()
+                .id(id)
+                .name("Phòng nghiệp vụ " + id)
+                .abbreviation("PNV" + id)
+                .codeDepartment("D" + id)
+                .email("phong" + id + "@example.vn")
+                .build();
+    }
+
+    static User user(long id, Department department, String roleName) {
+        Role role = Role.builder().rid(id % 10).name(roleName).build();
+        return User.builder()
+                .id(id)
+                .name("user" + id)
+                .fullName("Nguyễn Văn " + id)
+                .mail("user" + id + "@example.vn")
+                .phone("0900000" + (100 + id % 900))
+                .created(BASE_TIME.minusDays(id))
+                .department(department)
+                .roles(Set.of(role))
+                .build();
+    }
+
+    static DocumentProcessingStatus status(int index) {
+        return STATUSES[index % STATUSES.length];
+    }
+
+    static IncomingDocument incomingDocument(long id, User creator, DocumentType type) {
+        IncomingDocument document = new IncomingDocument();
+        fillCommon(document, id, creator, type);
+        document.setIssuingAuthority("Bộ Quốc phòng");
+        document.setSummary("Trích yếu công văn đến số " + id);
+        document.setReceivedDate(document.getCreated());
+        return document;
+    }
+
+    static OutgoingDocument outgoingDocument(long id, User creator, DocumentType type) {
+        OutgoingDocument document = new OutgoingDocument();
+        fillCommon(document, id, creator, type);
+        document.setSigner(creator);
+        document.setSummary("Trích yếu công văn đi số " + id);
+        return document;
+    }
+
+    private static void fillCommon(com.managementcontent.model.Document document, long id, User creator,
+            DocumentType type) {
+        document.setId(id);
+        document.setTitle("Về việc triển khai kế hoạch công tác quý " + (1 + id % 4) + " năm 2025, văn bản " + id);
+        document.setDocumentNumber(id + "/CV-BTL");
+        document.setReferenceNumber("REF-" + id);
+        document.setSigningDate(BASE_TIME.minusDays(id % 365));
+        document.setCreated(BASE_TIME.minusHours(id * 7 % 8760));
+        document.setChanged(document.getCreated().plusHours(2));
+        document.setStatus(status((int) id));
+        document.setAttachmentFilename(id % 3 == 0 ? null : "uploads/2025/03/document-" + id + ".pdf");
+        document.setCreator(creator);
+        document.setDocumentType(type);
+    }
+
+    /**
+     * History of a document: assignments to the given users and commented
+     * status changes
+     */
+    static List<DocumentHistory> history(com.managementcontent.model.Document document, List<User> users, int size) {
+        List<DocumentHistory> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = users.get(i % users.size());
+            history.add(DocumentHistory.builder()
+                    .id(document.getId() * 100 + i)
+                    .document(document)
+                    .action(i % 3 == 0 ? "ASSIGNMENT" : "STATUS_CHANGE")
+                    .newStatus(status(i).name())
+                    .comments(i % 2 == 0 ? "Đề nghị phòng xử lý và báo cáo kết quả trước hạn" : null)
+                    .assignedTo(i % 3 == 0 ? user : null)
+                    .performedBy(user)
+                    .timestamp(BASE_TIME.minusHours(i))
+                    .build());
+        }
+        return history;
+    }
+
+    static InternalDocument internalDocument(long id, User sender, List<User> recipients, int attachments) {
+        InternalDocument document = InternalDocument.builder()
+                .id(id)
+                .documentNumber(id + "/NB-BTL")
+                .numberReceive(id)
+                .title("Thông báo nội bộ về lịch công tác tuần " + (id % 52) + ", văn bản " + id)
+                .summary("Nội dung tóm tắt của công văn nội bộ số " + id)
+                .documentType("Thông báo")
+                .signingDate(BASE_TIME.minusDays(id % 30))
+                .signer("Trần Văn B")
+                .notes("Ghi chú " + id)
+                .status(status((int) id))
+                .sender(sender)
+                .createdAt(BASE_TIME.minusHours(id))
+                .updatedAt(BASE_TIME.minusHours(id).plusMinutes(15))
+                .draftingDepartment(sender.getDepartment())
+                .documentSigner(sender)
+                .processingDeadline(BASE_TIME.plusDays(7))
+                .issuingAgency("Bộ Tư lệnh")
+                .distributionType(DistributionType.REGULAR)
+                .numberOfCopies(3)
+                .numberOfPages(5)
+                .build();
+        for (int i = 0; i < recipients.size(); i++) {
+            User recipient = recipients.get(i);
+            InternalDocumentRecipient row = document.addRecipient(recipient.getDepartment(), recipient);
+            row.setId(id * 100 + i);
+            row.setReceivedAt(document.getCreatedAt());
+        }
+        for (int i = 0; i < attachments; i++) {
+            InternalDocumentAttachment attachment = document.addAttachment("tai-lieu-" + i + ".pdf",
+                    "internal/" + id + "/tai-lieu-" + i + ".pdf", "application/pdf", 250_000L + i);
+            attachment.setId(id * 100 + i);
+            attachment.setUploadedAt(document.getCreatedAt());
+            attachment.setUploadedBy(sender);
+        }
+        return document;
+    }
+
+    static DocumentType documentType(long id, String name) {
+        DocumentType type = new DocumentType();
+        type.setId(id);
+        type.setName(name);
+        return type;
+    }
+}
@@ -0,0 +1,114 @@
+package com.managementcontent.benchmark;
+
+import com.managementcontent.dto.InternalDocumentDTO;
+import com.managementcontent.dto.UnifiedDocumentDTO;
+import com.managementcontent.model.Department;
+import com.managementcontent.model.DocumentHistory;
+import com.managementcontent.model.DocumentType;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.OutgoingDocument;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.DocumentHistoryRepository;
+import com.managementcontent.service.DocumentMapperService;
+import com.managementcontent.service.InternalDocumentService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Entity to DTO mapping of a page of documents: {@link DocumentMapperService}
+ * for incoming and outgoing documents and the internal document mapping of
+ * {@link InternalDocumentService}. Repositories are stubs answering from
+ * memory, so the measured work is the mapping itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentMappingBenchmark {
+
+    @Param({ "20", "100" })
+    public int pageSize;
+
+    @Param({ "10" })
+    public int historySize;
+
+    private DocumentMapperService documentMapperService;
+    private InternalDocumentService internalDocumentService;
+    private List<IncomingDocument> incomingDocuments;
+    private List<OutgoingDocument> outgoingDocuments;
+    private List<InternalDocument> internalDocuments;
+
+    @Setup
+    public void setUp() {
+        List<Department> departments = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            departments.add(BenchmarkFixtures.department(i));
+        }
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            users.add(BenchmarkFixtures.user(i, departments.get((int) (i % departments.size())), "ROLE_NHAN_VIEN"));
+        }
+        DocumentType type = BenchmarkFixtures.documentType(1, "Công văn");
+
+        incomingDocuments = new ArrayList<>();
+        outgoingDocuments = new ArrayList<>();
+        internalDocuments = new ArrayList<>();
+        Map<Object, List<DocumentHistory>> histories = new IdentityHashMap<>();
+        for (int i = 0; i < pageSize; i++) {
+            User user = users.get(i % users.size());
+            IncomingDocument incoming = BenchmarkFixtures.incomingDocument(1 + i, user, type);
+            OutgoingDocument outgoing = BenchmarkFixtures.outgoingDocument(100_000 + i, user, type);
+            histories.put(incoming, BenchmarkFixtures.history(incoming, users, historySize));
+            histories.put(outgoing, BenchmarkFixtures.history(outgoing, users, historySize));
+            incomingDocuments.add(incoming);
+            outgoingDocuments.add(outgoing);
+            internalDocuments.add(BenchmarkFixtures.internalDocument(1 + i, user,
+                    users.subList(i % 40, i % 40 + 8), 2));
+        }
+
+        Map<String, Function<Object[], Object>> historyAnswers = new HashMap<>();
+        historyAnswers.put("findByDocumentOrderByTimestampDesc", args -> histories.get(args[0]));
+        historyAnswers.put("findByDocumentAndActionOrderByTimestampDesc", args -> histories.get(args[0]).stream()
+                .filter(h -> h.getAction().equals(args[1]))
+                .toList());
+        documentMapperService = new DocumentMapperService(
+                BenchmarkFixtures.stub(DocumentHistoryRepository.class, historyAnswers), null);
+
+        internalDocumentService = BenchmarkFixtures.internalDocumentService();
+    }
+
+    @Benchmark
+    public List<UnifiedDocumentDTO> mapIncomingPage() {
+        List<UnifiedDocumentDTO> page = new ArrayList<>(incomingDocuments.size());
+        for (IncomingDocument document : incomingDocuments) {
+            page.add(documentMapperService.mapIncomingDocumentToDTO(document));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<UnifiedDocumentDTO> mapOutgoingPage() {
+        List<UnifiedDocumentDTO> page = new ArrayList<>(outgoingDocuments.size());
+        for (OutgoingDocument document : outgoingDocuments) {
+            page.add(documentMapperService.mapOutgoingDocumentToDTO(document));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public void mapInternalPage(Blackhole blackhole) throws Throwable {
+        for (InternalDocument document : internalDocuments) {
+            blackhole.consume((InternalDocumentDTO) BenchmarkFixtures.BUILD_INTERNAL_DTO.invokeExact(
+                    internalDocumentService, document, false, (LocalDateTime) null, 0));
+        }
+    }
+}
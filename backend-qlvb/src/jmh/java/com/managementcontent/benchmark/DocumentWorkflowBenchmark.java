@@ -0,0 +1,56 @@
+package com.managementcontent.benchmark;
+
+import com.managementcontent.model.Document;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.repository.DocumentRepository;
+import com.managementcontent.service.DocumentWorkflowService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Transition rules of {@link DocumentWorkflowService#canChangeStatus}, over
+ * every pair of current and target status. The document lookup is a stub,
+ * so only the rule evaluation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DocumentWorkflowBenchmark {
+
+    private static final DocumentProcessingStatus[] STATUSES = DocumentProcessingStatus.values();
+
+    private DocumentWorkflowService workflowService;
+    private Document[] documents;
+    private int pair;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        documents = new Document[STATUSES.length];
+        for (int i = 0; i < STATUSES.length; i++) {
+            documents[i] = new Document();
+            documents[i].setId((long) i);
+            documents[i].setStatus(STATUSES[i]);
+        }
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("findById", args -> Optional.of(documents[((Long) args[0]).intValue()]));
+        DocumentRepository<Document> documentRepository = BenchmarkFixtures.stub(DocumentRepository.class, answers);
+        workflowService = new DocumentWorkflowService(documentRepository, null, null, null, null, null, null);
+    }
+
+    /**
+     * Check the next pair of current and target status
+     */
+    @Benchmark
+    public boolean canChangeStatus() {
+        int next = pair;
+        pair = next + 1 == STATUSES.length * STATUSES.length ? 0 : next + 1;
+        return workflowService.canChangeStatus(documents[next / STATUSES.length].getId(),
+                STATUSES[next % STATUSES.length]);
+    }
+}
@@ -0,0 +1,61 @@
+package com.managementcontent.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.managementcontent.config.JacksonConfig;
+import com.managementcontent.dto.InternalDocumentDTO;
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.model.Department;
+import com.managementcontent.model.User;
+import com.managementcontent.service.InternalDocumentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a page of {@link InternalDocumentDTO} wrapped in
+ * a {@link ResponseDTO}, with the ObjectMapper of {@link JacksonConfig}, as
+ * returned by the internal document list endpoints
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ResponseDTO<Page<InternalDocumentDTO>> response;
+
+    @Setup
+    public void setUp() throws Throwable {
+        objectMapper = new JacksonConfig().objectMapper();
+
+        InternalDocumentService internalDocumentService = BenchmarkFixtures.internalDocumentService();
+
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 50; i++) {
+            Department department = BenchmarkFixtures.department(1 + i % 10);
+            users.add(BenchmarkFixtures.user(i, department, "ROLE_NHAN_VIEN"));
+        }
+        List<InternalDocumentDTO> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add((InternalDocumentDTO) BenchmarkFixtures.BUILD_INTERNAL_DTO.invoke(internalDocumentService,
+                    BenchmarkFixtures.internalDocument(1 + i, users.get(i % users.size()),
+                            users.subList(i % 40, i % 40 + 8), 2),
+                    i % 2 == 0, i % 2 == 0 ? BenchmarkFixtures.BASE_TIME : null, i % 3));
+        }
+        response = ResponseDTO.success(new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000));
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
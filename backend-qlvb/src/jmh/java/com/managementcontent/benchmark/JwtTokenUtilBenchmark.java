@@ -0,0 +1,50 @@
+package com.managementcontent.benchmark;
+
+import com.managementcontent.security.JwtTokenUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token handling done on every authenticated request by JwtAuthenticationFilter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenUtilBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        BenchmarkFixtures.setField(jwtTokenUtil, "secretKey",
+                Base64.getEncoder().encodeToString("benchmark-secret-key-of-at-least-256-bits!".getBytes()));
+        BenchmarkFixtures.setField(jwtTokenUtil, "jwtExpiration", 86_400_000L);
+        BenchmarkFixtures.setField(jwtTokenUtil, "refreshExpiration", 604_800_000L);
+        userDetails = org.springframework.security.core.userdetails.User.withUsername("vanthu01")
+                .password("unused")
+                .authorities("ROLE_VAN_THU")
+                .build();
+        token = jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtTokenUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtTokenUtil.isTokenValid(token, userDetails);
+    }
+}
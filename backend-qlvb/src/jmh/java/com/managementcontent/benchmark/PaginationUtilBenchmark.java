@@ -0,0 +1,99 @@
+package com.managementcontent.benchmark;
+
+import com.managementcontent.dto.UnifiedDocumentDTO;
+import com.managementcontent.model.Document;
+import com.managementcontent.model.DocumentType;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.OutgoingDocument;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.DocumentHistoryRepository;
+import com.managementcontent.repository.IncomingDocumentRepository;
+import com.managementcontent.repository.OutgoingDocumentRepository;
+import com.managementcontent.service.DocumentMapperService;
+import com.managementcontent.service.IncomingDocumentService;
+import com.managementcontent.service.OutgoingDocumentService;
+import com.managementcontent.util.PaginationUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Merging of incoming and outgoing documents into one sorted page by
+ * {@link PaginationUtil}. The repositories are stubs serving in-memory pages;
+ * the document history used by the mapping is empty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaginationUtilBenchmark {
+
+    @Param({ "20", "50" })
+    public int pageSize;
+
+    /**
+     * Documents of each kind
+     */
+    @Param({ "1000" })
+    public int documents;
+
+    @Param({ "receivedDate", "subject", "" })
+    public String sortBy;
+
+    private PaginationUtil paginationUtil;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.user(1, BenchmarkFixtures.department(1), "ROLE_VAN_THU");
+        DocumentType type = BenchmarkFixtures.documentType(1, "Công văn");
+        List<IncomingDocument> incoming = new ArrayList<>();
+        List<OutgoingDocument> outgoing = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            incoming.add(BenchmarkFixtures.incomingDocument(1 + i, user, type));
+            outgoing.add(BenchmarkFixtures.outgoingDocument(100_000 + i, user, type));
+        }
+
+        Map<String, Function<Object[], Object>> incomingAnswers = new HashMap<>();
+        incomingAnswers.put("findAll", args -> page(incoming, (Pageable) args[0]));
+        Map<String, Function<Object[], Object>> outgoingAnswers = new HashMap<>();
+        outgoingAnswers.put("findAll", args -> page(outgoing, (Pageable) args[0]));
+
+        IncomingDocumentService incomingDocumentService = new IncomingDocumentService(
+                BenchmarkFixtures.stub(IncomingDocumentRepository.class, incomingAnswers),
+                null, null, null, null, null, null, null, null, null, null, null);
+        OutgoingDocumentService outgoingDocumentService = new OutgoingDocumentService(null,
+                BenchmarkFixtures.stub(OutgoingDocumentRepository.class, outgoingAnswers),
+                null, null, null, null, null, null, null, null, null);
+        DocumentMapperService documentMapperService = new DocumentMapperService(
+                BenchmarkFixtures.stub(DocumentHistoryRepository.class, Map.of()), null);
+        paginationUtil = new PaginationUtil(incomingDocumentService, outgoingDocumentService, documentMapperService);
+
+        pageable = sortBy.isEmpty()
+                ? PageRequest.of(0, pageSize)
+                : PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, sortBy));
+    }
+
+    private static <T extends Document> Page<T> page(List<T> all, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(all);
+        }
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+
+    @Benchmark
+    public Page<UnifiedDocumentDTO> getUnifiedDocumentsPage() {
+        return paginationUtil.getUnifiedDocumentsPage(pageable);
+    }
+}
@@ -0,0 +1,42 @@
+package com.managementcontent.benchmark;
+
+import com.managementcontent.model.enums.UserRole;
+import com.managementcontent.util.RoleGroupUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role group resolution used by the access checks of most list endpoints
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoleGroupUtilBenchmark {
+
+    /**
+     * Role set of the user: a commander matches in the first loop, a
+     * specialist only in the last one
+     */
+    @Param({ "CHI_HUY_CUC", "CHI_HUY_DON_VI", "NHAN_VIEN", "NONE" })
+    public String roles;
+
+    private Set<String> roleSet;
+
+    @Setup
+    public void setUp() {
+        roleSet = switch (roles) {
+            case "CHI_HUY_CUC" -> Set.of(UserRole.CUC_TRUONG.getCode(), UserRole.USER.getCode());
+            case "CHI_HUY_DON_VI" -> Set.of(UserRole.TRUONG_PHONG.getCode(), UserRole.USER.getCode());
+            case "NHAN_VIEN" -> Set.of(UserRole.NHAN_VIEN.getCode(), UserRole.USER.getCode(),
+                    UserRole.EDITOR.getCode());
+            default -> Set.of(UserRole.USER.getCode(), UserRole.ADMIN.getCode());
+        };
+    }
+
+    @Benchmark
+    public RoleGroupUtil.RoleGroup getHighestRoleGroup() {
+        return RoleGroupUtil.getHighestRoleGroup(roleSet);
+    }
+}
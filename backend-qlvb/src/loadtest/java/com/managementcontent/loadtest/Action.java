@@ -0,0 +1,49 @@
+package com.managementcontent.loadtest;
+
+/**
+ * What a simulated user does next, with its default share of the traffic mix
+ * (overridable with {@code --mix.<action>=<weight>})
+ */
+enum Action {
+
+    /**
+     * Log in again, as after a token expiry or a new browser session
+     */
+    LOGIN(2),
+
+    /**
+     * List a page of the work inbox
+     */
+    INBOX(25),
+
+    /**
+     * Open a document from the inbox and mark it as read
+     */
+    OPEN(25),
+
+    /**
+     * Poll the dashboard metrics and inbox counters
+     */
+    DASHBOARD(25),
+
+    /**
+     * Start processing an incoming document of the inbox
+     */
+    WORKFLOW(5),
+
+    /**
+     * Download an attachment of a document of the inbox
+     */
+    DOWNLOAD(10),
+
+    /**
+     * Upload an attachment to an incoming document of the inbox
+     */
+    UPLOAD(3);
+
+    final int defaultWeight;
+
+    Action(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+}
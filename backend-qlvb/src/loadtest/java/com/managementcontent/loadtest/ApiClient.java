@@ -0,0 +1,156 @@
+package com.managementcontent.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP calls of one simulated user, each timed and recorded under its
+ * endpoint template. Calls never throw: a failed call is recorded as an
+ * error and returns null.
+ */
+final class ApiClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Metrics metrics;
+    private final URI baseUrl;
+    private String token;
+
+    ApiClient(HttpClient httpClient, ObjectMapper objectMapper, Metrics metrics, URI baseUrl) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.baseUrl = baseUrl;
+    }
+
+    String token() {
+        return token;
+    }
+
+    /**
+     * Log in and keep the access token for the following calls
+     */
+    boolean login(String username, String password) {
+        JsonNode data = send("POST /api/auth/login", json("/api/auth/login", "POST",
+                Map.of("username", username, "password", password, "rememberMe", false), false));
+        if (data == null || !data.hasNonNull("accessToken")) {
+            return false;
+        }
+        token = data.get("accessToken").asText();
+        return true;
+    }
+
+    /**
+     * GET a ResponseDTO and return its data
+     */
+    JsonNode get(String endpoint, String path) {
+        return send(endpoint, request(path).GET().build());
+    }
+
+    JsonNode post(String endpoint, String path) {
+        return send(endpoint, request(path).POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    JsonNode put(String endpoint, String path, Object body) {
+        return send(endpoint, json(path, "PUT", body, true));
+    }
+
+    /**
+     * Download a file to the end, without keeping it
+     */
+    void download(String endpoint, String path) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request(path).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            metrics.record(endpoint, System.nanoTime() - start, statusError(response.statusCode()));
+        } catch (IOException e) {
+            metrics.record(endpoint, System.nanoTime() - start, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Upload one file as the {@code files} part of a multipart request
+     */
+    JsonNode upload(String endpoint, String path, String filename, byte[] content) {
+        String boundary = "----loadtest" + System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 512);
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\""
+                + filename + "\"\r\nContent-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return send(endpoint, request(path)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest json(String path, String method, Object body, boolean authenticated) {
+        try {
+            HttpRequest.Builder builder = authenticated ? request(path)
+                    : HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(REQUEST_TIMEOUT);
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Send a request answering a ResponseDTO. A 2xx answer whose success
+     * flag is false also counts as an error.
+     */
+    private JsonNode send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            String error = statusError(response.statusCode());
+            JsonNode body = null;
+            if (error == null && response.body().length > 0) {
+                body = objectMapper.readTree(response.body());
+                if (body.has("success") && !body.get("success").asBoolean()) {
+                    error = "success=false";
+                }
+            }
+            metrics.record(endpoint, elapsed, error);
+            if (error != null) {
+                return null;
+            }
+            return body != null ? body.path("data") : objectMapper.nullNode();
+        } catch (IOException e) {
+            metrics.record(endpoint, System.nanoTime() - start, e.getClass().getSimpleName());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String statusError(int status) {
+        return status >= 200 && status < 300 ? null : "HTTP " + status;
+    }
+}
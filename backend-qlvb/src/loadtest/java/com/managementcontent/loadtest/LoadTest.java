@@ -0,0 +1,108 @@
+package com.managementcontent.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of a running backend with the traffic mix of {@link Action}:
+ * login, inbox listing, document open and mark-as-read, dashboard polling,
+ * workflow transitions, downloads and uploads, plus a STOMP subscription per
+ * user. Users start evenly over the ramp-up, run for the duration, and every
+ * request is timed per endpoint; the summary gives percentiles and error
+ * rates and is also written as CSV.
+ * <p>
+ * Intended for a local backend whose database was filled by
+ * {@code ./gradlew generateSyntheticData}, whose users it logs in as:
+ * <pre>
+ * ./gradlew loadTest --args='--users=2000 --duration=PT10M --ramp-up=PT2M'
+ * </pre>
+ * Options: base-url, users, user-prefix, first-user-id, accounts, password,
+ * ramp-up, duration, think-time, websocket-share, upload-bytes,
+ * report-interval, report, seed, max-error-rate and mix.&lt;action&gt; (see
+ * {@link LoadTestConfig}). The workflow and upload actions change the data.
+ * <p>
+ * Each user runs on a virtual thread when the JVM has them (Java 21, the
+ * launcher of the Gradle task); on Java 17 it falls back to one platform
+ * thread per user, which limits the number of users.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Metrics metrics = new Metrics();
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        byte[] uploadContent = new byte[config.uploadBytes];
+        Arrays.fill(uploadContent, (byte) ' ');
+        byte[] header = "%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(header, 0, uploadContent, 0, Math.min(header.length, uploadContent.length));
+
+        ExecutorService virtualThreads = virtualThreadExecutor();
+        ExecutorService users = virtualThreads != null ? virtualThreads : Executors.newCachedThreadPool();
+        System.out.printf("Load test of %s: %d users, ramp-up %s, duration %s, %s%n", config.baseUrl, config.users,
+                config.rampUp, config.duration, virtualThreads != null ? "virtual threads" : "platform threads");
+
+        long start = System.nanoTime();
+        long end = start + config.rampUp.toNanos() + config.duration.toNanos();
+        AtomicInteger activeUsers = new AtomicInteger();
+        for (int i = 0; i < config.users; i++) {
+            long startAt = start + config.rampUp.toNanos() * i / Math.max(1, config.users);
+            users.execute(new VirtualUser(i, config, httpClient, objectMapper, metrics, startAt, end, activeUsers,
+                    uploadContent));
+        }
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        double intervalSeconds = config.reportInterval.toMillis() / 1000.0;
+        reporter.scheduleAtFixedRate(() -> metrics.reportInterval(System.out,
+                (System.nanoTime() - start) / 1_000_000_000, intervalSeconds, activeUsers.get()),
+                config.reportInterval.toMillis(), config.reportInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        users.shutdown();
+        if (!users.awaitTermination(end - System.nanoTime() + TimeUnit.MINUTES.toNanos(2), TimeUnit.NANOSECONDS)) {
+            System.out.println("Some users did not stop in time; stopping them");
+            users.shutdownNow();
+        }
+        reporter.shutdown();
+        reporter.awaitTermination(10, TimeUnit.SECONDS);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        metrics.reportInterval(System.out, (long) seconds, intervalSeconds, activeUsers.get());
+        double errorRate = metrics.printSummary(System.out, seconds);
+        metrics.writeCsv(config.reportFile, seconds);
+        System.out.printf("Summary written to %s%n", config.reportFile.toAbsolutePath());
+
+        if (errorRate > config.maxErrorRate) {
+            System.out.printf("Error rate %.2f%% is above the limit of %.2f%%%n", errorRate * 100,
+                    config.maxErrorRate * 100);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Executor starting a virtual thread per task, or null before Java 21.
+     * Looked up reflectively because the project compiles for Java 17.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.managementcontent.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as {@code --name=value} arguments.
+ * Durations use the ISO-8601 form ({@code PT10M}) or plain seconds.
+ */
+final class LoadTestConfig {
+
+    final URI baseUrl;
+
+    /**
+     * Simulated users running at the same time
+     */
+    final int users;
+
+    /**
+     * Accounts the simulated users log in with: prefix followed by an id in
+     * [firstUserId, firstUserId + accounts), as created by the synthetic data
+     * generator (sd2, sd3, ... on an empty database)
+     */
+    final String userPrefix;
+    final long firstUserId;
+    final int accounts;
+    final String password;
+
+    final Duration rampUp;
+    final Duration duration;
+
+    /**
+     * Mean pause between two actions of a user, exponentially distributed
+     */
+    final Duration thinkTime;
+
+    /**
+     * Share of users holding a STOMP subscription for the whole session
+     */
+    final double websocketShare;
+
+    final int uploadBytes;
+    final Duration reportInterval;
+    final Path reportFile;
+    final long seed;
+
+    /**
+     * The run fails (exit code 1) when more requests than this share fail
+     */
+    final double maxErrorRate;
+
+    final Map<Action, Integer> mix;
+
+    private LoadTestConfig(Map<String, String> options) {
+        baseUrl = URI.create(stripSlash(options.getOrDefault("base-url", "http://localhost:8080")));
+        users = Integer.parseInt(options.getOrDefault("users", "500"));
+        userPrefix = options.getOrDefault("user-prefix", "sd");
+        firstUserId = Long.parseLong(options.getOrDefault("first-user-id", "2"));
+        accounts = Integer.parseInt(options.getOrDefault("accounts", "3000"));
+        password = options.getOrDefault("password", "Synthetic@123");
+        rampUp = duration(options.getOrDefault("ramp-up", "PT1M"));
+        duration = duration(options.getOrDefault("duration", "PT5M"));
+        thinkTime = duration(options.getOrDefault("think-time", "PT3S"));
+        websocketShare = Double.parseDouble(options.getOrDefault("websocket-share", "0.8"));
+        uploadBytes = Integer.parseInt(options.getOrDefault("upload-bytes", "262144"));
+        reportInterval = duration(options.getOrDefault("report-interval", "PT10S"));
+        reportFile = Path.of(options.getOrDefault("report", "build/loadtest/summary.csv"));
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        maxErrorRate = Double.parseDouble(options.getOrDefault("max-error-rate", "0.01"));
+
+        mix = new EnumMap<>(Action.class);
+        for (Action action : Action.values()) {
+            String weight = options.get("mix." + action.name().toLowerCase());
+            mix.put(action, weight != null ? Integer.parseInt(weight) : action.defaultWeight);
+        }
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return new LoadTestConfig(options);
+    }
+
+    String userName(int user) {
+        return userPrefix + (firstUserId + user % accounts);
+    }
+
+    URI webSocketUri() {
+        return URI.create(baseUrl.toString().replaceFirst("^http", "ws") + "/ws");
+    }
+
+    private static Duration duration(String value) {
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static String stripSlash(String value) {
+        return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+    }
+}
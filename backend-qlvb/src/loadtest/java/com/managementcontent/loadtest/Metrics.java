@@ -0,0 +1,137 @@
+package com.managementcontent.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and errors per endpoint. Requests are recorded into HdrHistogram
+ * recorders without locking; the reporter thread moves them into the run
+ * totals at every interval. Latencies are in microseconds.
+ */
+final class Metrics {
+
+    private static final long HIGHEST_LATENCY_MICROS = 10 * 60 * 1_000_000L;
+
+    private static final class EndpointStats {
+        final Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+        final Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder intervalErrors = new LongAdder();
+        final ConcurrentMap<String, LongAdder> errorKinds = new ConcurrentHashMap<>();
+        Histogram interval;
+    }
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder messagesReceived = new LongAdder();
+
+    /**
+     * Record one request
+     *
+     * @param endpoint Method and path template, e.g. {@code GET /api/inbox}
+     * @param error    Why the request failed, or null if it succeeded
+     */
+    void record(String endpoint, long nanos, String error) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        stats.recorder.recordValue(Math.min(HIGHEST_LATENCY_MICROS, Math.max(1, nanos / 1_000)));
+        if (error != null) {
+            stats.errors.increment();
+            stats.intervalErrors.increment();
+            stats.errorKinds.computeIfAbsent(error, key -> new LongAdder()).increment();
+        }
+    }
+
+    void messageReceived() {
+        messagesReceived.increment();
+    }
+
+    /**
+     * Move the requests recorded since the last call into the totals and
+     * print one line for the interval
+     */
+    synchronized void reportInterval(PrintStream out, long elapsedSeconds, double intervalSeconds, int activeUsers) {
+        Histogram interval = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long errors = 0;
+        for (EndpointStats stats : endpoints.values()) {
+            stats.interval = stats.recorder.getIntervalHistogram(stats.interval);
+            stats.total.add(stats.interval);
+            interval.add(stats.interval);
+            errors += stats.intervalErrors.sumThenReset();
+        }
+        out.printf("[%5ds] users %5d | %8.1f req/s | errors %6d | p50 %8.1f ms | p99 %8.1f ms | ws messages %d%n",
+                elapsedSeconds, activeUsers, interval.getTotalCount() / intervalSeconds, errors,
+                millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+                messagesReceived.sum());
+    }
+
+    /**
+     * Print the per-endpoint summary of the run
+     *
+     * @return Share of failed requests over all endpoints
+     */
+    synchronized double printSummary(PrintStream out, double seconds) {
+        long requests = 0;
+        long errors = 0;
+        out.println();
+        out.printf("%-58s %9s %8s %7s %9s %9s %9s %9s %9s %9s%n", "Endpoint", "Requests", "Errors", "Error%",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram total = entry.getValue().total;
+            long failed = entry.getValue().errors.sum();
+            requests += total.getTotalCount();
+            errors += failed;
+            out.printf("%-58s %9d %8d %6.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                    total.getTotalCount(), failed, percent(failed, total.getTotalCount()),
+                    total.getTotalCount() / seconds, millis(total.getValueAtPercentile(50)),
+                    millis(total.getValueAtPercentile(90)), millis(total.getValueAtPercentile(99)),
+                    millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue()));
+        }
+        out.printf("%-58s %9d %8d %6.2f%% %9.1f%n", "TOTAL", requests, errors, percent(errors, requests),
+                requests / seconds);
+        out.printf("WebSocket messages received: %d%n", messagesReceived.sum());
+
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            if (!entry.getValue().errorKinds.isEmpty()) {
+                out.printf("Errors of %s: %s%n", entry.getKey(), new TreeMap<>(entry.getValue().errorKinds));
+            }
+        }
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    synchronized void writeCsv(Path file, double seconds) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,errors,req_per_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram total = entry.getValue().total;
+            lines.add(String.format(Locale.ROOT, "\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    entry.getKey(), total.getTotalCount(), entry.getValue().errors.sum(),
+                    total.getTotalCount() / seconds, millis(total.getValueAtPercentile(50)),
+                    millis(total.getValueAtPercentile(90)), millis(total.getValueAtPercentile(99)),
+                    millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue())));
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, lines);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+}
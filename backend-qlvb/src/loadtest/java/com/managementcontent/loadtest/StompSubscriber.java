@@ -0,0 +1,113 @@
+package com.managementcontent.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STOMP session on the native {@code /ws} endpoint, subscribed to the user's
+ * notification queue like the web client. The handshake and the STOMP CONNECT
+ * are timed as endpoints; notifications pushed by the backend are counted.
+ */
+final class StompSubscriber implements WebSocket.Listener {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Metrics metrics;
+    private final CompletableFuture<Boolean> connected = new CompletableFuture<>();
+    private final StringBuilder frame = new StringBuilder();
+    private WebSocket webSocket;
+
+    private StompSubscriber(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Open a session and subscribe, or return null if either step failed
+     */
+    static StompSubscriber open(HttpClient httpClient, URI uri, String token, Metrics metrics) {
+        StompSubscriber subscriber = new StompSubscriber(metrics);
+        long start = System.nanoTime();
+        try {
+            subscriber.webSocket = httpClient.newWebSocketBuilder()
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .buildAsync(uri, subscriber)
+                    .get(CONNECT_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            metrics.record("WS /ws handshake", System.nanoTime() - start, null);
+        } catch (Exception e) {
+            metrics.record("WS /ws handshake", System.nanoTime() - start, rootCause(e));
+            return null;
+        }
+
+        start = System.nanoTime();
+        subscriber.send("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\nAuthorization:Bearer "
+                + token + "\n\n");
+        try {
+            boolean accepted = subscriber.connected.get(CONNECT_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            metrics.record("STOMP CONNECT", System.nanoTime() - start, accepted ? null : "ERROR frame");
+            if (!accepted) {
+                subscriber.close();
+                return null;
+            }
+        } catch (Exception e) {
+            metrics.record("STOMP CONNECT", System.nanoTime() - start, rootCause(e));
+            subscriber.close();
+            return null;
+        }
+        subscriber.send("SUBSCRIBE\nid:sub-0\ndestination:/user/queue/notifications\n\n");
+        return subscriber;
+    }
+
+    void close() {
+        if (webSocket != null && !webSocket.isOutputClosed()) {
+            send("DISCONNECT\n\n");
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+
+    private void send(String frameText) {
+        // The web socket allows one outstanding send; frames are small, so wait for each
+        webSocket.sendText(frameText + "\0", true).join();
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        frame.append(data);
+        int end;
+        while ((end = frame.indexOf("\0")) >= 0) {
+            String command = frame.substring(0, end).stripLeading();
+            frame.delete(0, end + 1);
+            if (command.startsWith("CONNECTED")) {
+                connected.complete(true);
+            } else if (command.startsWith("ERROR")) {
+                connected.complete(false);
+            } else if (command.startsWith("MESSAGE")) {
+                metrics.messageReceived();
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        connected.complete(false);
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        connected.complete(false);
+        return null;
+    }
+
+    private static String rootCause(Throwable error) {
+        while (error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error.getClass().getSimpleName();
+    }
+}
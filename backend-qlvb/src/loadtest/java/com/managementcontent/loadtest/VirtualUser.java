@@ -0,0 +1,249 @@
+package com.managementcontent.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One simulated user: logs in, optionally holds a STOMP subscription, then
+ * picks actions from the traffic mix with a random think time in between
+ * until the end of the run. Documents come from the user's own inbox, so
+ * every request touches data the user may see.
+ */
+final class VirtualUser implements Runnable {
+
+    private record InboxItem(String kind, long documentId, boolean read, boolean pending) {
+    }
+
+    private final int index;
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final Metrics metrics;
+    private final ApiClient api;
+    private final SplittableRandom random;
+    private final long startAtNanos;
+    private final long endAtNanos;
+    private final AtomicInteger activeUsers;
+    private final byte[] uploadContent;
+    private final Action[] actions;
+    private final int[] cumulativeWeights;
+    private List<InboxItem> inbox = List.of();
+
+    VirtualUser(int index, LoadTestConfig config, HttpClient httpClient, ObjectMapper objectMapper, Metrics metrics,
+            long startAtNanos, long endAtNanos, AtomicInteger activeUsers, byte[] uploadContent) {
+        this.index = index;
+        this.config = config;
+        this.httpClient = httpClient;
+        this.metrics = metrics;
+        this.api = new ApiClient(httpClient, objectMapper, metrics, config.baseUrl);
+        this.random = new SplittableRandom(config.seed * 1_000_003L + index);
+        this.startAtNanos = startAtNanos;
+        this.endAtNanos = endAtNanos;
+        this.activeUsers = activeUsers;
+        this.uploadContent = uploadContent;
+
+        actions = Action.values();
+        cumulativeWeights = new int[actions.length];
+        int sum = 0;
+        for (int i = 0; i < actions.length; i++) {
+            sum += Math.max(0, config.mix.get(actions[i]));
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!sleepUntil(startAtNanos)) {
+            return;
+        }
+        activeUsers.incrementAndGet();
+        StompSubscriber subscriber = null;
+        try {
+            while (!api.login(config.userName(index), config.password)) {
+                if (!think()) {
+                    return;
+                }
+            }
+            if (random.nextDouble() < config.websocketShare) {
+                subscriber = StompSubscriber.open(httpClient, config.webSocketUri(), api.token(), metrics);
+            }
+            while (System.nanoTime() < endAtNanos) {
+                perform(nextAction());
+                if (!think()) {
+                    return;
+                }
+            }
+        } finally {
+            if (subscriber != null) {
+                subscriber.close();
+            }
+            activeUsers.decrementAndGet();
+        }
+    }
+
+    private Action nextAction() {
+        int total = cumulativeWeights[cumulativeWeights.length - 1];
+        int pick = random.nextInt(Math.max(1, total));
+        for (int i = 0; i < actions.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return actions[i];
+            }
+        }
+        return Action.INBOX;
+    }
+
+    private void perform(Action action) {
+        // Actions on a document need one from the inbox first
+        if (action != Action.LOGIN && action != Action.DASHBOARD && inbox.isEmpty()) {
+            action = Action.INBOX;
+        }
+        switch (action) {
+            case LOGIN -> api.login(config.userName(index), config.password);
+            case INBOX -> listInbox();
+            case OPEN -> openDocument();
+            case DASHBOARD -> pollDashboard();
+            case WORKFLOW -> startProcessing();
+            case DOWNLOAD -> downloadAttachment();
+            case UPLOAD -> uploadAttachment();
+        }
+    }
+
+    private void listInbox() {
+        int page = random.nextInt(10) < 8 ? 0 : 1 + random.nextInt(3);
+        JsonNode data = api.get("GET /api/inbox", "/api/inbox?page=" + page + "&size=20");
+        if (data == null || !data.has("content")) {
+            return;
+        }
+        List<InboxItem> items = new ArrayList<>();
+        for (JsonNode item : data.get("content")) {
+            items.add(new InboxItem(item.path("documentKind").asText(), item.path("documentId").asLong(),
+                    item.path("isRead").asBoolean(), "PENDING".equals(item.path("state").asText())));
+        }
+        if (!items.isEmpty() || page == 0) {
+            inbox = items;
+        }
+    }
+
+    private void openDocument() {
+        InboxItem item = inbox.get(random.nextInt(inbox.size()));
+        long id = item.documentId();
+        switch (item.kind()) {
+            case "INTERNAL" -> {
+                if (api.get("GET /api/internal-documents/{id}", "/api/internal-documents/" + id) != null
+                        && !item.read()) {
+                    api.post("POST /api/internal-documents/{id}/mark-read",
+                            "/api/internal-documents/" + id + "/mark-read");
+                }
+            }
+            case "OUTGOING" -> {
+                if (api.get("GET /api/documents/outgoing/{id}", "/api/documents/outgoing/" + id) != null) {
+                    markRead(id, "OUTGOING_EXTERNAL");
+                }
+            }
+            default -> {
+                if (api.get("GET /api/documents/incoming/{id}", "/api/documents/incoming/" + id) != null) {
+                    markRead(id, "INCOMING_EXTERNAL");
+                }
+            }
+        }
+        replace(item, new InboxItem(item.kind(), id, true, item.pending()));
+    }
+
+    private void markRead(long id, String documentType) {
+        api.post("POST /api/documents/read-status/{id}/mark-read",
+                "/api/documents/read-status/" + id + "/mark-read?documentType=" + documentType);
+    }
+
+    private void pollDashboard() {
+        api.get("GET /api/dashboard/quick-metrics", "/api/dashboard/quick-metrics");
+        api.get("GET /api/inbox/counts", "/api/inbox/counts");
+    }
+
+    private void startProcessing() {
+        InboxItem item = pick("INCOMING", true);
+        if (item == null) {
+            listInbox();
+            return;
+        }
+        api.put("PUT /api/workflow/{id}/start-processing", "/api/workflow/" + item.documentId() + "/start-processing",
+                Map.of("comments", "Kiểm thử tải"));
+        replace(item, new InboxItem(item.kind(), item.documentId(), item.read(), false));
+    }
+
+    private void downloadAttachment() {
+        InboxItem item = inbox.get(random.nextInt(inbox.size()));
+        long id = item.documentId();
+        if ("INTERNAL".equals(item.kind())) {
+            JsonNode document = api.get("GET /api/internal-documents/{id}", "/api/internal-documents/" + id);
+            JsonNode attachment = first(document == null ? null : document.path("attachments"));
+            if (attachment != null) {
+                api.download("GET /api/internal-documents/{id}/attachments/{attachmentId}",
+                        "/api/internal-documents/" + id + "/attachments/" + attachment.path("id").asLong());
+            }
+        } else if ("INCOMING".equals(item.kind())) {
+            JsonNode attachment = first(api.get("GET /api/documents/incoming/{id}/attachments",
+                    "/api/documents/incoming/" + id + "/attachments"));
+            if (attachment != null) {
+                api.download("GET /api/documents/incoming/{id}/attachments/{attachmentId}",
+                        "/api/documents/incoming/" + id + "/attachments/" + attachment.path("id").asLong());
+            }
+        }
+    }
+
+    private void uploadAttachment() {
+        InboxItem item = pick("INCOMING", false);
+        if (item == null) {
+            return;
+        }
+        api.upload("POST /api/documents/incoming/{id}/attachments",
+                "/api/documents/incoming/" + item.documentId() + "/attachments",
+                "kiem-thu-tai-" + index + ".pdf", uploadContent);
+    }
+
+    private InboxItem pick(String kind, boolean pendingOnly) {
+        List<InboxItem> candidates = inbox.stream()
+                .filter(item -> item.kind().equals(kind) && (!pendingOnly || item.pending()))
+                .toList();
+        return candidates.isEmpty() ? null : candidates.get(random.nextInt(candidates.size()));
+    }
+
+    private void replace(InboxItem item, InboxItem updated) {
+        List<InboxItem> items = new ArrayList<>(inbox);
+        items.set(items.indexOf(item), updated);
+        inbox = items;
+    }
+
+    private static JsonNode first(JsonNode array) {
+        return array != null && array.isArray() && !array.isEmpty() ? array.get(0) : null;
+    }
+
+    /**
+     * Pause for an exponentially distributed think time
+     *
+     * @return false once the run is over
+     */
+    private boolean think() {
+        double mean = config.thinkTime.toNanos();
+        long pause = (long) (-mean * Math.log(1.0 - random.nextDouble()));
+        return sleepUntil(Math.min(endAtNanos, System.nanoTime() + pause)) && System.nanoTime() < endAtNanos;
+    }
+
+    private static boolean sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            try {
+                Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package com.managementcontent.config;
+
+import com.managementcontent.service.storage.BlobStore;
+import com.managementcontent.service.storage.LocalBlobStore;
+import com.managementcontent.service.storage.S3BlobStore;
+import com.managementcontent.service.storage.TieredBlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Blob stores for the different kinds of uploaded files. With
+ * {@code storage.type=local} each store is a directory on this node; with
+ * {@code storage.type=s3} all stores share one bucket under separate prefixes.
+ * Local attachment stores are tiered, so cold files can be moved into pack
+ * files (see {@link com.managementcontent.service.StorageTieringService}).
+ */
+@Configuration
+@Slf4j
+public class BlobStoreConfig {
+
+    @Bean(name = "attachmentBlobStore")
+    public BlobStore attachmentBlobStore(StorageProperties properties,
+            ObjectProvider<S3Client> s3Client, ObjectProvider<S3Presigner> s3Presigner,
+            @Value("${file.upload-dir:./uploads}") String directory) throws IOException {
+        return create(properties, s3Client, s3Presigner, directory, "attachments/", true);
+    }
+
+    @Bean(name = "internalDocumentBlobStore")
+    public BlobStore internalDocumentBlobStore(StorageProperties properties,
+            ObjectProvider<S3Client> s3Client, ObjectProvider<S3Presigner> s3Presigner,
+            @Value("${document.upload-dir:./document-uploads}") String directory) throws IOException {
+        return create(properties, s3Client, s3Presigner, directory, "internal/", true);
+    }
+
+    @Bean(name = "signatureBlobStore")
+    public BlobStore signatureBlobStore(StorageProperties properties,
+            ObjectProvider<S3Client> s3Client, ObjectProvider<S3Presigner> s3Presigner,
+            @Value("${file.signature-upload-dir:./signature-uploads}") String directory) throws IOException {
+        return create(properties, s3Client, s3Presigner, directory, "signatures/", false);
+    }
+
+    @Bean(name = "guideFileBlobStore")
+    public BlobStore guideFileBlobStore(StorageProperties properties,
+            ObjectProvider<S3Client> s3Client, ObjectProvider<S3Presigner> s3Presigner,
+            @Value("${app.upload.guide-files-dir:uploads/guide-files}") String directory) throws IOException {
+        return create(properties, s3Client, s3Presigner, directory, "guides/", false);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "storage.type", havingValue = "s3")
+    public S3Client s3Client(StorageProperties properties) {
+        StorageProperties.S3 s3 = properties.getS3();
+        var builder = S3Client.builder()
+                .region(Region.of(s3.getRegion()))
+                .credentialsProvider(credentials(s3))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(s3.isPathStyle())
+                        .build());
+        if (StringUtils.hasText(s3.getEndpoint())) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        S3Client client = builder.build();
+        ensureBucket(client, s3.getBucket());
+        return client;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "storage.type", havingValue = "s3")
+    public S3Presigner s3Presigner(StorageProperties properties) {
+        StorageProperties.S3 s3 = properties.getS3();
+        var builder = S3Presigner.builder()
+                .region(Region.of(s3.getRegion()))
+                .credentialsProvider(credentials(s3))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(s3.isPathStyle())
+                        .build());
+        if (StringUtils.hasText(s3.getEndpoint())) {
+            builder.endpointOverride(URI.create(s3.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    private BlobStore create(StorageProperties properties, ObjectProvider<S3Client> s3Client,
+            ObjectProvider<S3Presigner> s3Presigner, String directory, String prefix, boolean tiered)
+            throws IOException {
+        if (properties.isS3()) {
+            return new S3BlobStore(s3Client.getObject(), s3Presigner.getObject(),
+                    properties.getS3().getBucket(), prefix);
+        }
+        LocalBlobStore local = new LocalBlobStore(Paths.get(directory));
+        if (tiered && properties.getTiering().isEnabled()) {
+            return new TieredBlobStore(local);
+        }
+        return local;
+    }
+
+    private AwsCredentialsProvider credentials(StorageProperties.S3 s3) {
+        if (StringUtils.hasText(s3.getAccessKey())) {
+            return StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(s3.getAccessKey(), s3.getSecretKey()));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+
+    private void ensureBucket(S3Client client, String bucket) {
+        try {
+            client.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+        } catch (NoSuchBucketException e) {
+            try {
+                client.createBucket(CreateBucketRequest.builder().bucket(bucket).build());
+                log.info("Đã tạo bucket lưu trữ {}", bucket);
+            } catch (BucketAlreadyOwnedByYouException ignored) {
+                // Created concurrently by another node
+            }
+        }
+    }
+}
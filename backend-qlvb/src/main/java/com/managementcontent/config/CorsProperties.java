@@ -62,7 +62,8 @@ public class CorsProperties {
                         "Access-Control-Request-Method",
                         "Access-Control-Request-Headers",
                         "ngrok-skip-browser-warning",
-                        "X-Requested-With");
+                        "X-Requested-With",
+                        "X-Signature-Token");
 
         /**
          * Whether credentials are allowed in CORS requests.
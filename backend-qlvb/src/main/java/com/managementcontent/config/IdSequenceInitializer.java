@@ -0,0 +1,77 @@
+package com.managementcontent.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entities whose ids come from pooled sequences (allocation size 50) instead
+ * of IDENTITY columns, so Hibernate can batch their inserts. The sequences are
+ * created by the V2 migration; this moves each one past the ids already in its
+ * table, which were assigned by the identity column before the switch.
+ * Runs once when the entity manager factory is ready, before any request is
+ * served.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+
+    /**
+     * Must match the allocationSize of the entity sequence generators
+     */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Sequence name to the table whose ids it generates
+     */
+    private static final Map<String, String> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("node_seq", "node");
+        SEQUENCES.put("document_history_seq", "document_history");
+        SEQUENCES.put("document_attachments_seq", "document_attachments");
+        SEQUENCES.put("internal_document_recipient_seq", "internal_document_recipient");
+        SEQUENCES.put("internal_document_history_seq", "internal_document_history");
+        SEQUENCES.put("document_read_status_seq", "document_read_status");
+        SEQUENCES.put("notifications_seq", "notifications");
+        SEQUENCES.put("activity_logs_seq", "activity_logs");
+        SEQUENCES.put("document_download_logs_seq", "document_download_logs");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                align(sequence, table);
+            } catch (DataAccessException e) {
+                log.warn("Không thể đồng bộ sequence {} với bảng {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+
+    private void align(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(state.get("is_called"));
+
+        // The pooled optimizer hands out (next - ALLOCATION_SIZE, next]
+        long next = called ? lastValue + ALLOCATION_SIZE : lastValue;
+        if (maxId == null || maxId == 0 || next - ALLOCATION_SIZE >= maxId) {
+            return;
+        }
+        jdbcTemplate.queryForObject("SELECT setval(CAST(? AS regclass), ?, true)", Long.class, sequence, maxId);
+        log.info("Đã đồng bộ sequence {} với id lớn nhất {} của bảng {}", sequence, maxId, table);
+    }
+}
@@ -0,0 +1,114 @@
+package com.managementcontent.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration for attachment storage: the multipart staging area and the
+ * executors used to write, preview, index and sign attachments.
+ */
+@Configuration
+public class StorageConfig {
+
+    /**
+     * Multipart configuration whose staging directory lives next to the upload
+     * directory, so large parts spooled by Tomcat are moved into place with a
+     * rename instead of being copied a second time.
+     * An explicit {@code spring.servlet.multipart.location} still wins.
+     */
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties multipartProperties,
+            @Value("${file.upload-dir:./uploads}") String uploadDir) {
+        if (!StringUtils.hasText(multipartProperties.getLocation())) {
+            Path staging = Paths.get(uploadDir, ".incoming").toAbsolutePath().normalize();
+            try {
+                Files.createDirectories(staging);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Không thể tạo thư mục tạm cho upload: " + staging, e);
+            }
+            multipartProperties.setLocation(staging.toString());
+        }
+        return multipartProperties.createMultipartConfig();
+    }
+
+    /**
+     * Executor used to store the parts of one multipart request in parallel
+     */
+    @Bean(name = "attachmentStorageExecutor")
+    public ThreadPoolTaskExecutor attachmentStorageExecutor(
+            @Value("${file.storage.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("attachment-store-");
+        // When saturated, the request thread stores the part itself
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool for PDF preview rendering. Rendering is CPU and memory
+     * heavy, so excess requests are rejected instead of queuing without limit.
+     */
+    @Bean(name = "previewRenderExecutor")
+    public ThreadPoolTaskExecutor previewRenderExecutor(
+            @Value("${file.preview.threads:2}") int threads,
+            @Value("${file.preview.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pdf-preview-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool that extracts attachment text for the content index. Jobs are only
+     * handed over when a worker is free, the queue itself lives in the database.
+     */
+    @Bean(name = "textExtractionExecutor")
+    public ThreadPoolTaskExecutor textExtractionExecutor(
+            @Value("${file.text-extraction.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("text-extract-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool that signs the documents of a batch in parallel. When saturated the
+     * request thread signs the document itself.
+     */
+    @Bean(name = "pdfSigningExecutor")
+    public ThreadPoolTaskExecutor pdfSigningExecutor(
+            @Value("${file.signing.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("pdf-sign-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,111 @@
+package com.managementcontent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties selecting where uploaded files are kept.
+ * {@code local} keeps them in the upload directories of this node; {@code s3}
+ * keeps them in an S3-compatible bucket shared by every node.
+ */
+@Component
+@ConfigurationProperties(prefix = "storage")
+@Data
+public class StorageProperties {
+
+    /**
+     * Storage backend: local or s3
+     */
+    private String type = "local";
+
+    private S3 s3 = new S3();
+
+    private Tiering tiering = new Tiering();
+
+    private Gc gc = new Gc();
+
+    @Data
+    public static class S3 {
+
+        /**
+         * Endpoint URL, e.g. http://localhost:9000 for MinIO. Empty for AWS.
+         */
+        private String endpoint;
+
+        private String region = "us-east-1";
+
+        private String accessKey;
+
+        private String secretKey;
+
+        private String bucket = "qlvb";
+
+        /**
+         * Path-style addressing, required by MinIO
+         */
+        private boolean pathStyle = true;
+
+        /**
+         * Validity of presigned download URLs
+         */
+        private int presignTtlMinutes = 10;
+
+        /**
+         * Answer downloads with a redirect to a presigned URL instead of
+         * streaming the file through the application
+         */
+        private boolean redirectDownloads = false;
+    }
+
+    /**
+     * Moving cold attachments of local storage into pack files
+     */
+    @Data
+    public static class Tiering {
+
+        private boolean enabled = true;
+
+        /**
+         * Files unchanged for this many days leave the hot tier
+         */
+        private int coldAfterDays = 365;
+
+        /**
+         * Size at which a pack file is sealed; at most 2GB so it can be mapped
+         */
+        private DataSize packSize = DataSize.ofGigabytes(1);
+    }
+
+    @Data
+    public static class Gc {
+
+        private boolean enabled = true;
+
+        /**
+         * Younger files are never collected, their rows may not be committed yet
+         */
+        private int minAgeHours = 24;
+
+        /**
+         * Days an orphan stays in quarantine before it is deleted
+         */
+        private int quarantineDays = 30;
+
+        /**
+         * Threads walking the file tree, each holds a database connection while
+         * checking a directory
+         */
+        private int parallelism = 4;
+
+        /**
+         * Files checked against the database per query
+         */
+        private int batchSize = 500;
+    }
+
+    public boolean isS3() {
+        return "s3".equalsIgnoreCase(type);
+    }
+}
@@ -0,0 +1,94 @@
+package com.managementcontent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Size and shape of the synthetic data set loaded by
+ * {@link com.managementcontent.service.SyntheticDataGenerator}. Every count is
+ * multiplied by {@code scale}, so one setting grows the whole data set while
+ * keeping its proportions. The same seed, scale and end date always give the
+ * same rows.
+ */
+@Component
+@ConfigurationProperties(prefix = "synthetic-data")
+@Data
+public class SyntheticDataProperties {
+
+    private long seed = 42;
+
+    /**
+     * Factor applied to the departments and document counts below
+     */
+    private double scale = 1.0;
+
+    private int departments = 300;
+
+    /**
+     * Users of each department: head, deputy, clerk, assistant, then specialists.
+     * At least 4.
+     */
+    private int usersPerDepartment = 10;
+
+    private int incomingDocuments = 200_000;
+
+    private int outgoingDocuments = 100_000;
+
+    private int internalDocuments = 100_000;
+
+    /**
+     * Users of the processing department with a read status on each document
+     */
+    private int readersPerDocument = 4;
+
+    /**
+     * Departments an internal document is sent to
+     */
+    private int recipientsPerInternalDocument = 5;
+
+    /**
+     * Share of documents with an attachment
+     */
+    private double attachmentRatio = 0.8;
+
+    /**
+     * Share of internal documents that reply to an earlier one
+     */
+    private double replyRatio = 0.1;
+
+    /**
+     * Documents are created evenly over this many months up to the end date
+     */
+    private int months = 24;
+
+    /**
+     * Last day of the generated history; today when empty. Set it to get the
+     * same rows on another day.
+     */
+    private LocalDate endDate;
+
+    /**
+     * Tables are loaded in chunks of this many rows, on up to parallelism
+     * connections at once (keep it below the connection pool size)
+     */
+    private int chunkSize = 20_000;
+
+    private int parallelism = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Distinct placeholder files shared by the generated attachments
+     */
+    private int placeholderFiles = 64;
+
+    /**
+     * Password of every generated user, whose user names are sd followed by the id
+     */
+    private String password = "Synthetic@123";
+
+    public int scaled(int count) {
+        return (int) Math.max(1, Math.round(count * scale));
+    }
+}
@@ -0,0 +1,45 @@
+package com.managementcontent.config;
+
+import com.managementcontent.service.SyntheticDataGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Loads the synthetic data set once the application has started with the
+ * {@code synthetic-data} profile, then stops the application.
+ * {@code ./gradlew generateSyntheticData --args='--synthetic-data.scale=2'}
+ * runs it against the configured database.
+ */
+@Component
+@Profile("synthetic-data")
+@RequiredArgsConstructor
+@Slf4j
+@Order(Ordered.LOWEST_PRECEDENCE) // Sau khi đã tạo roles và tài khoản admin
+public class SyntheticDataRunner implements CommandLineRunner {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(String... args) throws Exception {
+        int exitCode = 0;
+        try {
+            Map<String, Long> rows = syntheticDataGenerator.generate();
+            rows.forEach((table, count) -> log.info("  {}: {} dòng", table, count));
+        } catch (RuntimeException e) {
+            log.error("Sinh dữ liệu mẫu thất bại: {}", e.getMessage(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
@@ -0,0 +1,75 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.AttachmentTextHitDTO;
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.model.AttachmentTextJob.SourceType;
+import com.managementcontent.model.User;
+import com.managementcontent.service.AttachmentTextIndexService;
+import com.managementcontent.service.DocumentAccessControlService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search over the content of attachments, plus monitoring and
+ * maintenance of the extraction queue that fills the index.
+ */
+@RestController
+@RequestMapping("/api/attachment-text")
+@RequiredArgsConstructor
+@Tag(name = "Attachment Content Search", description = "APIs for searching the text of attachments")
+public class AttachmentTextController {
+
+        private final AttachmentTextIndexService attachmentTextIndexService;
+        private final DocumentAccessControlService accessControlService;
+
+        @Operation(summary = "Search attachment content", description = "Returns matching attachment pages with highlighted excerpts, best matches first")
+        @GetMapping("/search")
+        public ResponseEntity<ResponseDTO<List<AttachmentTextHitDTO>>> search(
+                        @Parameter(description = "Words to search for") @RequestParam("q") String query,
+                        @RequestParam(defaultValue = "20") int limit) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        return ResponseEntity.ok(ResponseDTO.success(
+                                        attachmentTextIndexService.search(query, limit, currentUser)));
+                } catch (Exception e) {
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(ResponseDTO.error("Lỗi khi tìm kiếm nội dung file đính kèm: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Extraction metrics", description = "Queue sizes and extraction throughput since startup")
+        @GetMapping("/metrics")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<ResponseDTO<Map<String, Object>>> getMetrics() {
+                return ResponseEntity.ok(ResponseDTO.success(attachmentTextIndexService.getMetrics()));
+        }
+
+        @Operation(summary = "Re-extract attachment", description = "Queues an attachment for text extraction again")
+        @PostMapping("/reindex/{sourceType}/{attachmentId}")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<ResponseDTO<String>> reindex(@PathVariable SourceType sourceType,
+                        @PathVariable Long attachmentId) {
+                try {
+                        attachmentTextIndexService.reindex(sourceType, attachmentId);
+                        return ResponseEntity.ok(ResponseDTO.success("Đã đưa file đính kèm vào hàng đợi trích xuất"));
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ResponseDTO.error(e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Queue unindexed attachments", description = "Queues every attachment that has never been extracted")
+        @PostMapping("/reconcile")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<ResponseDTO<Integer>> reconcile() {
+                return ResponseEntity.ok(ResponseDTO.success(attachmentTextIndexService.reconcile()));
+        }
+}
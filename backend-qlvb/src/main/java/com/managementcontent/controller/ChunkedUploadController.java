@@ -0,0 +1,142 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.CompleteUploadDTO;
+import com.managementcontent.dto.CreateUploadSessionDTO;
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.dto.UploadSessionDTO;
+import com.managementcontent.exception.UploadOffsetMismatchException;
+import com.managementcontent.exception.UploadSessionBusyException;
+import com.managementcontent.model.User;
+import com.managementcontent.service.ChunkedUploadService;
+import com.managementcontent.service.DocumentAccessControlService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Resumable upload protocol for large scanned documents:
+ * POST creates a session, PUT sends chunks with their offset, GET returns the
+ * offset to resume from after a dropped connection, and POST .../complete
+ * attaches the finished file to a document.
+ */
+@RestController
+@RequestMapping("/api/chunked-uploads")
+@RequiredArgsConstructor
+@Tag(name = "Chunked Upload", description = "APIs for resumable chunked file uploads")
+public class ChunkedUploadController {
+
+        private final ChunkedUploadService chunkedUploadService;
+        private final DocumentAccessControlService accessControlService;
+
+        @Operation(summary = "Create upload session", description = "Starts a resumable upload")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "201", description = "Session created"),
+                        @ApiResponse(responseCode = "400", description = "Invalid file name or size")
+        })
+        @PostMapping
+        public ResponseEntity<ResponseDTO<UploadSessionDTO>> createSession(
+                        @RequestBody CreateUploadSessionDTO request) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        UploadSessionDTO session = chunkedUploadService.createSession(request, currentUser);
+                        return ResponseEntity.status(HttpStatus.CREATED).body(ResponseDTO.success(session));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi tạo phiên upload: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Get upload session", description = "Returns the session state, including the offset to resume from")
+        @GetMapping("/{sessionId}")
+        public ResponseEntity<ResponseDTO<UploadSessionDTO>> getSession(@PathVariable String sessionId) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        return ResponseEntity.ok(ResponseDTO.success(
+                                        chunkedUploadService.getSession(sessionId, currentUser)));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi lấy phiên upload: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Upload chunk", description = "Writes the raw request body at the given offset")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Chunk stored"),
+                        @ApiResponse(responseCode = "409", description = "Offset is ahead of the received data, or another request is writing to the session; resume from the returned offset")
+        })
+        @PutMapping(value = "/{sessionId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+        public ResponseEntity<ResponseDTO<UploadSessionDTO>> uploadChunk(
+                        @PathVariable String sessionId,
+                        @Parameter(description = "Byte offset of the chunk in the file") @RequestParam long offset,
+                        HttpServletRequest request) {
+                User currentUser = accessControlService.getCurrentUser();
+                try {
+                        UploadSessionDTO session = chunkedUploadService.writeChunk(sessionId, offset,
+                                        request.getInputStream(), request.getContentLengthLong(), currentUser);
+                        return ResponseEntity.ok(ResponseDTO.success(session));
+                } catch (UploadOffsetMismatchException | UploadSessionBusyException e) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                        .body(new ResponseDTO<>(false, e.getMessage(),
+                                                        chunkedUploadService.getSession(sessionId, currentUser)));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi upload chunk: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Complete upload", description = "Verifies the upload and attaches it to an incoming, outgoing or internal document")
+        @PostMapping("/{sessionId}/complete")
+        public ResponseEntity<ResponseDTO<UploadSessionDTO>> completeSession(
+                        @PathVariable String sessionId,
+                        @RequestBody CompleteUploadDTO request) {
+                User currentUser = accessControlService.getCurrentUser();
+                try {
+                        UploadSessionDTO session = chunkedUploadService.completeSession(sessionId, request,
+                                        currentUser);
+                        return ResponseEntity.ok(ResponseDTO.success("Đã đính kèm file", session));
+                } catch (UploadOffsetMismatchException e) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                        .body(new ResponseDTO<>(false, "File chưa được tải lên đầy đủ",
+                                                        chunkedUploadService.getSession(sessionId, currentUser)));
+                } catch (UploadSessionBusyException e) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                        .body(new ResponseDTO<>(false, e.getMessage(),
+                                                        chunkedUploadService.getSession(sessionId, currentUser)));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi hoàn tất upload: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Cancel upload", description = "Aborts the upload and deletes the chunks stored so far")
+        @DeleteMapping("/{sessionId}")
+        public ResponseEntity<ResponseDTO<Void>> cancelSession(@PathVariable String sessionId) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        chunkedUploadService.cancelSession(sessionId, currentUser);
+                        return ResponseEntity.ok(ResponseDTO.success("Đã hủy phiên upload", null));
+                } catch (UploadSessionBusyException e) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT).body(ResponseDTO.error(e.getMessage()));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi hủy phiên upload: " + e.getMessage()));
+                }
+        }
+}
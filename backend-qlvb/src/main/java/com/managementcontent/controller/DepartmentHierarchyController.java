@@ -1,8 +1,10 @@
 package com.managementcontent.controller;
 
+import com.managementcontent.dto.DepartmentDTO;
 import com.managementcontent.dto.ResponseDTO;
 import com.managementcontent.model.Department;
 import com.managementcontent.repository.DepartmentRepository;
+import com.managementcontent.service.DepartmentService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,15 +15,18 @@ import java.util.List;
 public class DepartmentHierarchyController {
 
     private final DepartmentRepository departmentRepository;
+    private final DepartmentService departmentService;
 
-    public DepartmentHierarchyController(DepartmentRepository departmentRepository) {
+    public DepartmentHierarchyController(DepartmentRepository departmentRepository,
+            DepartmentService departmentService) {
         this.departmentRepository = departmentRepository;
+        this.departmentService = departmentService;
     }
 
     @GetMapping("/hierarchy")
-    public ResponseEntity<ResponseDTO<List<Department>>> getDepartmentHierarchy() {
+    public ResponseEntity<ResponseDTO<List<DepartmentDTO>>> getDepartmentHierarchy() {
         try {
-            List<Department> departments = departmentRepository.findRootDepartments();
+            List<DepartmentDTO> departments = departmentService.getDepartmentHierarchy();
             return ResponseEntity.ok(ResponseDTO.success(departments));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -30,11 +35,12 @@ public class DepartmentHierarchyController {
     }
 
     @GetMapping("/{id}/children")
-    public ResponseEntity<ResponseDTO<List<Department>>> getChildDepartments(@PathVariable Long id) {
+    public ResponseEntity<ResponseDTO<List<DepartmentDTO>>> getChildDepartments(@PathVariable Long id) {
         try {
-            Department parent = departmentRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Không tìm thấy phòng ban"));
-            List<Department> children = departmentRepository.findByParentDepartment(parent);
+            if (!departmentRepository.existsById(id)) {
+                throw new RuntimeException("Không tìm thấy phòng ban");
+            }
+            List<DepartmentDTO> children = departmentService.getChildDepartments(id);
             return ResponseEntity.ok(ResponseDTO.success(children));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -0,0 +1,74 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.service.DocumentArchiveService;
+import com.managementcontent.service.DocumentArchiveService.Archive;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * ZIP downloads of all files of a document, a work case or an internal
+ * document. The archive is written to the response while the files are read,
+ * so its size is not known in advance and nothing is buffered.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Tag(name = "Document Archives", description = "APIs for downloading all files of a document or work case as one ZIP")
+public class DocumentArchiveController {
+
+        private static final String ZIP_CONTENT_TYPE = "application/zip";
+
+        private final DocumentArchiveService documentArchiveService;
+
+        @Operation(summary = "Download document files as ZIP", description = "Streams the attachments, processing history files and replies of an incoming or outgoing document")
+        @GetMapping("/documents/{id}/attachments.zip")
+        public void downloadDocumentArchive(
+                        @Parameter(description = "ID of the document") @PathVariable Long id,
+                        HttpServletResponse response) throws IOException {
+                send(documentArchiveService.documentArchive(id), response);
+        }
+
+        @Operation(summary = "Download work case files as ZIP", description = "Streams the files of every document of a work case, one folder per document")
+        @GetMapping("/cases/{id}/attachments.zip")
+        public void downloadWorkCaseArchive(
+                        @Parameter(description = "ID of the work case") @PathVariable Long id,
+                        HttpServletResponse response) throws IOException {
+                send(documentArchiveService.workCaseArchive(id), response);
+        }
+
+        @Operation(summary = "Download internal document files as ZIP", description = "Streams the attachments of an internal document and of its replies")
+        @GetMapping("/internal-documents/{id}/attachments.zip")
+        public void downloadInternalDocumentArchive(
+                        @Parameter(description = "ID of the internal document") @PathVariable Long id,
+                        HttpServletResponse response) throws IOException {
+                send(documentArchiveService.internalDocumentArchive(id), response);
+        }
+
+        private void send(Optional<Archive> archive, HttpServletResponse response) throws IOException {
+                if (archive.isEmpty()) {
+                        response.sendError(HttpStatus.NOT_FOUND.value(), "Không tìm thấy văn bản");
+                        return;
+                }
+                response.setContentType(ZIP_CONTENT_TYPE);
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename(archive.get().filename(), StandardCharsets.UTF_8)
+                                .build()
+                                .toString());
+                documentArchiveService.write(archive.get(), response.getOutputStream());
+                response.flushBuffer();
+        }
+}
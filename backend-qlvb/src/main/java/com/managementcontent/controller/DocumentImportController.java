@@ -0,0 +1,59 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.service.IncomingDocumentImportService;
+import com.managementcontent.service.IncomingDocumentImportService.ImportResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * Bulk registration of incoming documents from a manifest and a ZIP of
+ * attachments
+ */
+@RestController
+@RequestMapping("/api/documents/incoming")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Document Import", description = "APIs for registering incoming documents in bulk")
+public class DocumentImportController {
+
+        private final IncomingDocumentImportService incomingDocumentImportService;
+
+        @Operation(summary = "Import incoming documents", description = "Registers one incoming document per manifest row (CSV or XLSX with the columns of the incoming register export, plus a 'Tệp đính kèm' column naming files in the ZIP separated by ';'). Invalid rows are skipped and reported with their row number.")
+        @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        public ResponseEntity<ResponseDTO<ImportResult>> importIncomingDocuments(
+                        @Parameter(description = "CSV or XLSX manifest") @RequestPart("manifest") MultipartFile manifest,
+                        @Parameter(description = "ZIP with the attachments named in the manifest") @RequestPart(value = "attachments", required = false) MultipartFile attachments,
+                        @Parameter(description = "Only validate the rows") @RequestParam(defaultValue = "false") boolean dryRun) {
+                try {
+                        ImportResult result = incomingDocumentImportService.importDocuments(manifest, attachments, dryRun);
+                        String message = dryRun
+                                        ? "Kiểm tra xong: " + result.imported() + " dòng hợp lệ, " + result.failed() + " dòng lỗi"
+                                        : "Đã nhập " + result.imported() + " công văn đến, " + result.failed() + " dòng lỗi";
+                        return ResponseEntity.ok(ResponseDTO.success(message, result));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(ResponseDTO.error(e.getMessage()));
+                } catch (IOException e) {
+                        log.error("Lỗi khi nhập công văn đến hàng loạt", e);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(ResponseDTO.error("Không thể đọc tệp tải lên: " + e.getMessage()));
+                }
+        }
+}
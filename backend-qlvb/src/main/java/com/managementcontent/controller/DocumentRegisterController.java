@@ -0,0 +1,88 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.service.DocumentRegisterExportService;
+import com.managementcontent.service.DocumentRegisterExportService.Format;
+import com.managementcontent.service.DocumentRegisterExportService.Register;
+import com.managementcontent.util.DateTimeRange;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Exports of the document registers for a year or a quarter. Rows are written
+ * to the response as they are read from the database.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Tag(name = "Document Registers", description = "APIs for exporting the incoming, outgoing and internal document registers")
+public class DocumentRegisterController {
+
+        private final DocumentRegisterExportService documentRegisterExportService;
+
+        @Operation(summary = "Export incoming register", description = "Streams the incoming documents received in a year or quarter as CSV or XLSX")
+        @GetMapping("/documents/incoming/export")
+        public void exportIncoming(
+                        @Parameter(description = "Year") @RequestParam int year,
+                        @Parameter(description = "Quarter (1-4), the whole year if omitted") @RequestParam(required = false) Integer quarter,
+                        @Parameter(description = "csv or xlsx") @RequestParam(defaultValue = "xlsx") String format,
+                        HttpServletResponse response) throws IOException {
+                export(Register.INCOMING, year, quarter, format, response);
+        }
+
+        @Operation(summary = "Export outgoing register", description = "Streams the outgoing documents signed in a year or quarter as CSV or XLSX")
+        @GetMapping("/documents/outgoing/export")
+        public void exportOutgoing(
+                        @Parameter(description = "Year") @RequestParam int year,
+                        @Parameter(description = "Quarter (1-4), the whole year if omitted") @RequestParam(required = false) Integer quarter,
+                        @Parameter(description = "csv or xlsx") @RequestParam(defaultValue = "xlsx") String format,
+                        HttpServletResponse response) throws IOException {
+                export(Register.OUTGOING, year, quarter, format, response);
+        }
+
+        @Operation(summary = "Export internal register", description = "Streams the internal documents signed in a year or quarter as CSV or XLSX")
+        @GetMapping("/internal-documents/export")
+        public void exportInternal(
+                        @Parameter(description = "Year") @RequestParam int year,
+                        @Parameter(description = "Quarter (1-4), the whole year if omitted") @RequestParam(required = false) Integer quarter,
+                        @Parameter(description = "csv or xlsx") @RequestParam(defaultValue = "xlsx") String format,
+                        HttpServletResponse response) throws IOException {
+                export(Register.INTERNAL, year, quarter, format, response);
+        }
+
+        private void export(Register register, int year, Integer quarter, String format,
+                        HttpServletResponse response) throws IOException {
+                Format exportFormat;
+                DateTimeRange range;
+                try {
+                        exportFormat = Format.valueOf(format.toUpperCase(Locale.ROOT));
+                        range = quarter != null ? DateTimeRange.ofQuarter(year, quarter) : DateTimeRange.of(year, null);
+                } catch (IllegalArgumentException e) {
+                        response.sendError(HttpStatus.BAD_REQUEST.value(), "Định dạng hoặc quý không hợp lệ");
+                        return;
+                }
+
+                String fileName = register.getFileName() + "-" + year + (quarter != null ? "-Q" + quarter : "")
+                                + "." + exportFormat.getExtension();
+                response.setContentType(exportFormat.getContentType());
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename(fileName, StandardCharsets.UTF_8)
+                                .build()
+                                .toString());
+                documentRegisterExportService.export(register, range, exportFormat, response.getOutputStream());
+                response.flushBuffer();
+        }
+}
@@ -17,6 +17,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -45,6 +46,7 @@ public class DocumentWorkflowController {
     private final UserService userService;
     private final DepartmentRepository departmentRepository;
     private final DocumentHistoryRepository documentHistoryRepository;
+    private final FileStorageService fileStorageService;
     private final OutgoingDocumentService outgoingDocumentService;
     private final DocumentRelationshipService documentRelationshipService;
     private final DepartmentService departmentService;
@@ -841,10 +843,10 @@ public class DocumentWorkflowController {
                 : ".pdf";
         String savedFilename = prefix + System.currentTimeMillis() + extension;
 
-        // Lưu file vào hệ thống
-        java.nio.file.Files.createDirectories(java.nio.file.Paths.get("uploads"));
-        java.nio.file.Path path = java.nio.file.Paths.get("uploads/" + savedFilename);
-        file.transferTo(path);
+        // Lưu file vào kho lưu trữ file đính kèm
+        try (java.io.InputStream in = file.getInputStream()) {
+            fileStorageService.storeRaw(savedFilename, in, file.getSize(), file.getContentType());
+        }
 
         return savedFilename;
     }
@@ -1279,18 +1281,18 @@ public class DocumentWorkflowController {
                         }
 
                         try {
-                            // Lấy file từ đường dẫn
-                            java.nio.file.Path path = java.nio.file.Paths.get(attachmentPath);
-                            if (!java.nio.file.Files.exists(path)) {
+                            // Đường dẫn lưu trong lịch sử có dạng uploads/<tên file>
+                            String key = attachmentPath.startsWith("uploads/")
+                                    ? attachmentPath.substring("uploads/".length())
+                                    : attachmentPath;
+                            Resource data = fileStorageService.loadAsResource(key, key);
+                            if (!data.exists()) {
                                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                                         .body(ResponseDTO.error("File đính kèm không tồn tại"));
                             }
 
-                            // Đọc nội dung file
-                            byte[] data = java.nio.file.Files.readAllBytes(path);
-
                             // Lấy tên file từ đường dẫn
-                            String filename = path.getFileName().toString();
+                            String filename = key.substring(key.lastIndexOf('/') + 1);
 
                             // Xác định loại MIME
                             String contentType = determineContentType(filename);
@@ -1300,7 +1302,7 @@ public class DocumentWorkflowController {
                                     .contentType(MediaType.parseMediaType(contentType))
                                     .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
                                     .body(data);
-                        } catch (IOException e) {
+                        } catch (RuntimeException e) {
                             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                     .body(ResponseDTO.error("Error reading attachment: " + e.getMessage()));
                         }
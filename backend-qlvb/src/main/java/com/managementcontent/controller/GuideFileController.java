@@ -7,7 +7,6 @@ import com.managementcontent.service.GuideFileService;
 import com.managementcontent.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,8 +18,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -307,8 +304,7 @@ public class GuideFileController {
 
             GuideFile guideFile = guideFileOpt.get();
             String fileName = guideFile.getFileUrl().substring("/api/guide-files/download/".length());
-            Path filePath = guideFileService.getFilePath(fileName);
-            Resource resource = new UrlResource(filePath.toUri());
+            Resource resource = guideFileService.loadAsResource(fileName);
 
             if (resource.exists() && resource.isReadable()) {
                 return ResponseEntity.ok(ResponseDTO.success(resource));
@@ -331,8 +327,7 @@ public class GuideFileController {
     @GetMapping("/download/{fileName}")
     public ResponseEntity<ResponseDTO<Resource>> downloadGuideFile(@PathVariable String fileName) {
         try {
-            Path filePath = guideFileService.getFilePath(fileName);
-            Resource resource = new UrlResource(filePath.toUri());
+            Resource resource = guideFileService.loadAsResource(fileName);
 
             if (resource.exists() && resource.isReadable()) {
                 return ResponseEntity.ok(ResponseDTO.success(resource));
@@ -340,7 +335,7 @@ public class GuideFileController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(ResponseDTO.error("Không tìm thấy tệp"));
             }
-        } catch (MalformedURLException e) {
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ResponseDTO.error("Đường dẫn tệp không hợp lệ: " + e.getMessage()));
         } catch (Exception e) {
@@ -37,7 +37,8 @@ public class NotificationController {
             Pageable pageable) {
         try {
             User currentUser = this.documentAccessControlService.getCurrentUser();
-            Page<Notification> notifications = notificationRepository.findByUser(currentUser, pageable);
+            Page<Notification> notifications = notificationRepository.findRecentByUser(currentUser,
+                    notificationService.visibleSince(), pageable);
             return ResponseEntity.ok(ResponseDTO.success(notifications));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -54,7 +55,8 @@ public class NotificationController {
     public ResponseEntity<ResponseDTO<Integer>> getUnreadCount() {
         try {
             User currentUser = documentAccessControlService.getCurrentUser();
-            int count = notificationRepository.countByUserIdAndReadFalse(currentUser.getId());
+            int count = notificationRepository.countRecentUnread(currentUser.getId(),
+                    notificationService.visibleSince());
             return ResponseEntity.ok(ResponseDTO.success(count));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -0,0 +1,55 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.BatchSignRequestDTO;
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.dto.SignDocumentResultDTO;
+import com.managementcontent.model.User;
+import com.managementcontent.service.DocumentAccessControlService;
+import com.managementcontent.service.PdfSigningService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Digital signing of the PDF attachments of documents with a stored signature
+ */
+@RestController
+@RequestMapping("/api/signing")
+@RequiredArgsConstructor
+@Tag(name = "PDF Signing", description = "APIs for digitally signing document PDFs")
+public class PdfSigningController {
+
+        private final PdfSigningService pdfSigningService;
+        private final DocumentAccessControlService accessControlService;
+
+        @Operation(summary = "Sign documents", description = "Signs the latest PDF attachment of each document the user is assigned to with one unlocked signature, optionally approving them")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Batch processed; see the result of each document"),
+                        @ApiResponse(responseCode = "401", description = "Wrong signature password"),
+                        @ApiResponse(responseCode = "403", description = "Signature belongs to another user or user may not approve")
+        })
+        @PostMapping("/batch")
+        public ResponseEntity<ResponseDTO<List<SignDocumentResultDTO>>> signBatch(
+                        @RequestBody BatchSignRequestDTO request) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        List<SignDocumentResultDTO> results = pdfSigningService.signBatch(request, currentUser);
+                        return ResponseEntity.ok(ResponseDTO.success("Đã xử lý ký công văn", results));
+                } catch (BadCredentialsException e) {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ResponseDTO.error(e.getMessage()));
+                } catch (SecurityException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi ký công văn: " + e.getMessage()));
+                }
+        }
+}
@@ -0,0 +1,139 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.model.User;
+import com.managementcontent.service.DocumentAccessControlService;
+import com.managementcontent.service.PdfPreviewService;
+import com.managementcontent.service.PdfPreviewService.PreviewInfo;
+import com.managementcontent.service.PdfPreviewService.PreviewSize;
+import com.managementcontent.service.PdfPreviewService.SourceType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.FileNotFoundException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page thumbnails and low resolution page images for PDF attachments, so the
+ * document lists and the viewer do not have to download whole files.
+ * Image URLs carry the content hash, which makes the responses safe to cache
+ * forever in the browser.
+ */
+@RestController
+@RequestMapping("/api/previews")
+@RequiredArgsConstructor
+@Tag(name = "PDF Preview", description = "APIs for PDF thumbnails and page previews")
+public class PreviewController {
+
+        private final PdfPreviewService pdfPreviewService;
+        private final DocumentAccessControlService accessControlService;
+
+        @Operation(summary = "Get preview info", description = "Returns the page count and the image URLs of a PDF attachment")
+        @GetMapping("/{source}/{id}")
+        public ResponseEntity<ResponseDTO<Map<String, Object>>> getPreviewInfo(
+                        @Parameter(description = "attachment, internal or guide") @PathVariable String source,
+                        @PathVariable Long id) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        SourceType type = parseSource(source);
+                        PreviewInfo info = pdfPreviewService.getInfo(type, id, currentUser);
+
+                        String base = "/api/previews/" + source.toLowerCase(Locale.ROOT) + "/" + id + "/pages/";
+                        Map<String, Object> result = new LinkedHashMap<>();
+                        result.put("pageCount", info.pageCount());
+                        result.put("checksum", info.checksum());
+                        result.put("thumbnailUrl", base + "1?size=THUMBNAIL&v=" + info.checksum());
+                        result.put("pageUrlTemplate", base + "{page}?size=PAGE&v=" + info.checksum());
+                        return ResponseEntity.ok(ResponseDTO.success(result));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ResponseDTO.error(e.getMessage()));
+                } catch (FileNotFoundException | NoSuchFileException e) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ResponseDTO.error(e.getMessage()));
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(ResponseDTO.error(e.getMessage()));
+                } catch (RejectedExecutionException e) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                        .header(HttpHeaders.RETRY_AFTER, "5")
+                                        .body(ResponseDTO.error("Máy chủ đang bận tạo ảnh xem trước, vui lòng thử lại"));
+                } catch (Exception e) {
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(ResponseDTO.error("Lỗi khi lấy thông tin xem trước: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Get page image", description = "Returns a JPEG thumbnail or page preview, rendered on first request and cached")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Page image"),
+                        @ApiResponse(responseCode = "304", description = "Client copy is current"),
+                        @ApiResponse(responseCode = "503", description = "Rendering queue is full; retry later")
+        })
+        @GetMapping("/{source}/{id}/pages/{page}")
+        public ResponseEntity<Resource> getPageImage(
+                        @PathVariable String source,
+                        @PathVariable Long id,
+                        @Parameter(description = "1-based page number") @PathVariable int page,
+                        @RequestParam(defaultValue = "THUMBNAIL") PreviewSize size,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        SourceType type = parseSource(source);
+                        PreviewInfo info = pdfPreviewService.getInfo(type, id, currentUser);
+                        String etag = "\"" + info.checksum() + "-" + size.name().toLowerCase(Locale.ROOT) + "-" + page
+                                        + "\"";
+                        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+
+                        if (etag.equals(ifNoneMatch)) {
+                                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                                .eTag(etag)
+                                                .cacheControl(cacheControl)
+                                                .build();
+                        }
+
+                        Path image = pdfPreviewService.getPageImage(type, id, page, size, currentUser);
+                        return ResponseEntity.ok()
+                                        .contentType(MediaType.IMAGE_JPEG)
+                                        .eTag(etag)
+                                        .cacheControl(cacheControl)
+                                        .body(new FileSystemResource(image));
+                } catch (AccessDeniedException e) {
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+                } catch (FileNotFoundException | NoSuchFileException e) {
+                        return ResponseEntity.notFound().build();
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().build();
+                } catch (RejectedExecutionException e) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                        .header(HttpHeaders.RETRY_AFTER, "5")
+                                        .build();
+                } catch (Exception e) {
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                }
+        }
+
+        private SourceType parseSource(String source) {
+                try {
+                        return SourceType.valueOf(source.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Loại tài liệu không hỗ trợ: " + source);
+                }
+        }
+}
@@ -20,6 +20,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.Map;
 import com.managementcontent.service.PublicDocumentService;
+import com.managementcontent.service.WriteBehindLogService;
 import com.managementcontent.model.DocumentDownloadLog;
 import com.managementcontent.repository.DocumentDownloadLogRepository;
 import io.swagger.v3.oas.annotations.Operation;
@@ -48,6 +49,7 @@ public class PublicPortalController {
     private final UserService userService;
     private final NotificationService notificationService;
     private final DocumentDownloadLogRepository downloadLogRepository;
+    private final WriteBehindLogService writeBehindLogService;
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -226,47 +228,14 @@ public class PublicPortalController {
     public ResponseEntity<?> download(@PathVariable Long documentId, @PathVariable Long attachmentId,
             HttpServletRequest request) {
         try {
-            // Increment document download count and optionally log downloader
-            var docOpt = documentRepository.findById(documentId);
-            docOpt.ifPresent(d -> {
-                Long c = d.getDownloadCount() == null ? 0L : d.getDownloadCount();
-                d.setDownloadCount(c + 1);
-                documentRepository.save(d);
-            });
-
-            // Save simple download log
-            try {
-                Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-                if (auth != null && auth.getName() != null) {
-                    userService.findByName(auth.getName()).ifPresent(u -> {
-                        // inner lambda can't set outer vars if not effectively final, so use array
-                    });
-                }
-                // Build log entry
-                DocumentDownloadLog log = DocumentDownloadLog.builder()
-                        .documentId(documentId)
-                        .attachmentId(attachmentId)
-                        .downloadedAt(java.time.LocalDateTime.now())
-                        .build();
-                if (auth != null && auth.getName() != null) {
-                    var userOpt = userService.findByName(auth.getName());
-                    if (userOpt.isPresent()) {
-                        var u = userOpt.get();
-                        log.setUserId(u.getId());
-                        log.setUserName(u.getFullName());
-                    } else {
-                        log.setUserName(auth.getName());
-                    }
-                }
-                try {
-                    String xfwd = request.getHeader("X-Forwarded-For");
-                    String ip = (xfwd != null && !xfwd.isBlank()) ? xfwd.split(",")[0].trim() : request.getRemoteAddr();
-                    log.setIpAddress(ip);
-                } catch (Exception ignored) {
-                }
-                downloadLogRepository.save(log);
-            } catch (Exception ignore) {
-            }
+            // Counted and logged in the background, nothing is written here
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            String userName = auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getName())
+                    ? auth.getName()
+                    : null;
+            String xfwd = request.getHeader("X-Forwarded-For");
+            String ip = (xfwd != null && !xfwd.isBlank()) ? xfwd.split(",")[0].trim() : request.getRemoteAddr();
+            writeBehindLogService.logDownload(documentId, attachmentId, userName, ip);
             return documentAttachmentService.downloadAttachment(attachmentId);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ResponseDTO.error(e.getMessage()));
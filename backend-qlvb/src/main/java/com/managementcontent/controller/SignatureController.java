@@ -4,6 +4,9 @@ import com.managementcontent.dto.ResponseDTO;
 import com.managementcontent.dto.SignatureDTO;
 import com.managementcontent.model.Signature;
 import com.managementcontent.service.SignatureService;
+import com.managementcontent.service.SignatureService.SignatureImage;
+import com.managementcontent.service.SignatureUnlockTokenService.Scope;
+import com.managementcontent.service.SignatureUnlockTokenService.UnlockToken;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -13,9 +16,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
@@ -25,6 +31,8 @@ import org.springframework.http.MediaType;
 @RequiredArgsConstructor
 public class SignatureController {
 
+    private static final String SIGNATURE_TOKEN_HEADER = "X-Signature-Token";
+
     private final SignatureService signatureService;
 
     @GetMapping
@@ -53,13 +61,53 @@ public class SignatureController {
         }
     }
 
+    @PostMapping("/{id}/unlock")
+    @Operation(summary = "Unlock a signature", description = "Verifies the signature password once and returns a short-lived token for the requested scopes (IMAGE, DELETE).")
+    public ResponseEntity<ResponseDTO<Map<String, Object>>> unlockSignature(
+            @PathVariable("id") Long id,
+            @RequestParam("password") String password,
+            @RequestParam(value = "scopes", required = false) List<Scope> scopes) {
+        try {
+            UnlockToken unlock = signatureService.unlockSignature(id, password, scopes);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("token", unlock.token());
+            body.put("expiresAt", unlock.expiresAt().toString());
+            body.put("scopes", unlock.scopes());
+            return ResponseEntity.ok(ResponseDTO.success("Mở khóa chữ ký thành công", body));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ResponseDTO.error("Mở khóa chữ ký thất bại: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}/image")
+    @Operation(summary = "Get signature image with unlock token", description = "Returns the signature image; authorized by a token from the unlock endpoint in the X-Signature-Token header.")
+    public ResponseEntity<byte[]> getSignatureImageWithToken(
+            @PathVariable("id") Long id,
+            @RequestHeader(SIGNATURE_TOKEN_HEADER) String token) {
+        try {
+            SignatureImage image = signatureService.getSignatureImageWithToken(id, token);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(image.contentType()))
+                    .cacheControl(CacheControl.noStore())
+                    .body(image.data());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
     @DeleteMapping("/{id}")
-    @Operation(summary = "Delete a signature", description = "Deletes a signature by its ID, requires password verification.")
+    @Operation(summary = "Delete a signature", description = "Deletes a signature by its ID, requires the password or an unlock token with the DELETE scope.")
     public ResponseEntity<ResponseDTO<Void>> deleteSignature(
             @PathVariable("id") Long id,
-            @RequestParam("password") String password) {
+            @RequestParam(value = "password", required = false) String password,
+            @RequestHeader(value = SIGNATURE_TOKEN_HEADER, required = false) String token) {
         try {
-            signatureService.deleteSignature(id, password);
+            if (token != null) {
+                signatureService.deleteSignatureWithToken(id, token);
+            } else {
+                signatureService.deleteSignature(id, password);
+            }
             return ResponseEntity.ok(ResponseDTO.success("Xóa chữ ký thành công", null));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -67,6 +115,22 @@ public class SignatureController {
         }
     }
 
+    @PostMapping(value = "/{id}/keystore", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Attach signing keystore", description = "Attaches a PKCS#12 keystore, protected by the signature password, used to digitally sign PDFs.")
+    public ResponseEntity<ResponseDTO<SignatureDTO>> attachKeystore(
+            @PathVariable("id") Long id,
+            @RequestParam("keystore") MultipartFile keystore,
+            @RequestParam("password") String password) {
+        try {
+            Signature signature = signatureService.attachKeystore(id, keystore, password);
+            return ResponseEntity.ok(ResponseDTO.success("Cập nhật chứng thư số thành công",
+                    new SignatureDTO(signature.getId(), signature.getFileName())));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseDTO.error("Cập nhật chứng thư số thất bại: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/{id}/image")
     @Operation(summary = "Get signature image data", description = "Retrieves the raw image data for a signature, requires password verification.")
     public ResponseEntity<byte[]> getSignatureImage(
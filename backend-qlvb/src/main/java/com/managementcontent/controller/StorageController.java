@@ -0,0 +1,86 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.model.StorageUsage;
+import com.managementcontent.service.OrphanFileCollectorService;
+import com.managementcontent.service.OrphanFileCollectorService.CollectionResult;
+import com.managementcontent.service.StorageTieringService;
+import com.managementcontent.service.StorageUsageService;
+import com.managementcontent.service.StorageUsageService.UsageTotal;
+import com.managementcontent.service.storage.TieredBlobStore.TieringResult;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Administration of file storage: tiering of cold attachments into pack files,
+ * usage totals and collection of orphaned files.
+ */
+@RestController
+@RequestMapping("/api/storage")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Storage", description = "APIs for administering file storage")
+public class StorageController {
+
+        private final StorageTieringService storageTieringService;
+        private final StorageUsageService storageUsageService;
+        private final OrphanFileCollectorService orphanFileCollectorService;
+
+        @Operation(summary = "Get tiering status", description = "Returns pack counts and sizes per store and the last tiering run")
+        @GetMapping("/tiering")
+        public ResponseEntity<ResponseDTO<Map<String, Object>>> getTieringStatus() {
+                return ResponseEntity.ok(ResponseDTO.success(storageTieringService.getStatus()));
+        }
+
+        @Operation(summary = "Run tiering now", description = "Moves cold attachments into pack files without waiting for the nightly run")
+        @PostMapping("/tiering/run")
+        public ResponseEntity<ResponseDTO<Map<String, TieringResult>>> runTiering() {
+                return ResponseEntity.ok(ResponseDTO.success("Đã phân tầng lưu trữ", storageTieringService.runTiering()));
+        }
+
+        @Operation(summary = "List storage usage", description = "Returns the usage totals of a scope (DEPARTMENT, DOCUMENT_TYPE, DOCUMENT, INTERNAL_DOCUMENT), largest first")
+        @GetMapping("/usage")
+        public ResponseEntity<ResponseDTO<List<StorageUsage>>> getUsage(
+                        @RequestParam(defaultValue = "DEPARTMENT") StorageUsage.Scope scope) {
+                return ResponseEntity.ok(ResponseDTO.success(storageUsageService.getUsage(scope)));
+        }
+
+        @Operation(summary = "Get department storage usage", description = "Returns the number and total size of files attributed to a department")
+        @GetMapping("/usage/departments/{departmentId}")
+        public ResponseEntity<ResponseDTO<UsageTotal>> getDepartmentUsage(@PathVariable Long departmentId) {
+                return ResponseEntity.ok(ResponseDTO.success(storageUsageService.getDepartmentUsage(departmentId)));
+        }
+
+        @Operation(summary = "Get document type storage usage", description = "Returns the number and total size of files attributed to a document type")
+        @GetMapping("/usage/document-types")
+        public ResponseEntity<ResponseDTO<UsageTotal>> getDocumentTypeUsage(@RequestParam String name) {
+                return ResponseEntity.ok(ResponseDTO.success(storageUsageService.getDocumentTypeUsage(name)));
+        }
+
+        @Operation(summary = "Recompute storage usage", description = "Rebuilds every usage total from the attachment tables")
+        @PostMapping("/usage/recompute")
+        public ResponseEntity<ResponseDTO<String>> recomputeUsage() {
+                storageUsageService.recompute();
+                return ResponseEntity.ok(ResponseDTO.success("Đã tính lại dung lượng lưu trữ"));
+        }
+
+        @Operation(summary = "Get orphan collection status", description = "Returns the collector configuration and the last run per store")
+        @GetMapping("/gc")
+        public ResponseEntity<ResponseDTO<Map<String, Object>>> getCollectionStatus() {
+                return ResponseEntity.ok(ResponseDTO.success(orphanFileCollectorService.getStatus()));
+        }
+
+        @Operation(summary = "Collect orphaned files now", description = "Moves files no row refers to into quarantine; with dryRun only counts them")
+        @PostMapping("/gc/run")
+        public ResponseEntity<ResponseDTO<Map<String, CollectionResult>>> collectOrphans(
+                        @RequestParam(defaultValue = "false") boolean dryRun) {
+                return ResponseEntity.ok(ResponseDTO.success("Đã dọn file mồ côi", orphanFileCollectorService.collect(dryRun)));
+        }
+}
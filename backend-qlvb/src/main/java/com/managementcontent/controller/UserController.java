@@ -18,7 +18,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -77,16 +76,7 @@ public class UserController {
                         @Parameter(description = "Keyword to search in name, username, email") @RequestParam(required = false) String keyword,
                         @Parameter(description = "Department ID to filter by") @RequestParam(required = false) Long departmentId) {
                 try {
-                        // Get filtered users from service
-                        List<UserDTO> filteredUsers = userService.getFilteredUsers(roleId, status, keyword, departmentId);
-
-                        // Manual pagination on filtered results
-                        int start = (int) pageable.getOffset();
-                        int end = Math.min((start + pageable.getPageSize()), filteredUsers.size());
-                        List<UserDTO> pageContent = start < filteredUsers.size() ? 
-                                filteredUsers.subList(start, end) : new ArrayList<>();
-
-                        Page<UserDTO> page = new PageImpl<>(pageContent, pageable, filteredUsers.size());
+                        Page<UserDTO> page = userService.searchUsers(roleId, status, keyword, departmentId, pageable);
                         return ResponseEntity.ok(ResponseDTO.success(page));
                 } catch (Exception e) {
                         return ResponseEntity.badRequest()
@@ -95,6 +85,25 @@ public class UserController {
                 }
         }
 
+        @Operation(summary = "Suggest users", description = "Typeahead search over full name, username and department, ignoring case and diacritics.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Successfully retrieved suggestions")
+        })
+        @GetMapping("/suggest")
+        public ResponseEntity<ResponseDTO<List<UserDTO>>> suggestUsers(
+                        @Parameter(description = "Text typed so far") @RequestParam(required = false, defaultValue = "") String q,
+                        @Parameter(description = "Department ID to restrict to") @RequestParam(required = false) Long departmentId,
+                        @Parameter(description = "Only return active users") @RequestParam(defaultValue = "true") boolean activeOnly,
+                        @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "10") int limit) {
+                try {
+                        return ResponseEntity.ok(ResponseDTO.success(
+                                        userService.suggestUsers(q, departmentId, activeOnly, limit)));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi tìm kiếm người dùng: " + e.getMessage()));
+                }
+        }
+
         @Operation(summary = "Get user by ID", description = "Returns a single user by ID. Requires ADMIN role or to be the user requested.")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Successfully retrieved user"),
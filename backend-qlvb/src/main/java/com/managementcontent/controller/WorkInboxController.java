@@ -0,0 +1,99 @@
+package com.managementcontent.controller;
+
+import com.managementcontent.dto.ResponseDTO;
+import com.managementcontent.dto.WorkInboxItemDTO;
+import com.managementcontent.model.User;
+import com.managementcontent.model.WorkInboxItem.DocumentKind;
+import com.managementcontent.model.WorkInboxItem.State;
+import com.managementcontent.service.DocumentAccessControlService;
+import com.managementcontent.service.WorkInboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inbox")
+@RequiredArgsConstructor
+@Tag(name = "Work Inbox", description = "APIs for the per-user inbox of documents to act on")
+public class WorkInboxController {
+
+        private final WorkInboxService workInboxService;
+        private final DocumentAccessControlService accessControlService;
+
+        @Operation(summary = "Get inbox", description = "Returns the current user's inbox, newest first")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Inbox retrieved successfully"),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping
+        public ResponseEntity<ResponseDTO<Page<WorkInboxItemDTO>>> getInbox(
+                        @Parameter(description = "PENDING (default) or PROCESSED") @RequestParam(required = false) State state,
+                        @Parameter(description = "INCOMING, OUTGOING or INTERNAL") @RequestParam(required = false) DocumentKind kind,
+                        @RequestParam(defaultValue = "0") int page,
+                        @RequestParam(defaultValue = "20") int size) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        Page<WorkInboxItemDTO> items = workInboxService.getInbox(currentUser.getId(), state, kind,
+                                        PageRequest.of(page, size));
+                        return ResponseEntity.ok(ResponseDTO.success(items));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi lấy hộp công việc: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Get urgent items", description = "Returns pending urgent items ordered by deadline")
+        @GetMapping("/urgent")
+        public ResponseEntity<ResponseDTO<Page<WorkInboxItemDTO>>> getUrgent(
+                        @RequestParam(defaultValue = "0") int page,
+                        @RequestParam(defaultValue = "20") int size) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        return ResponseEntity.ok(ResponseDTO.success(
+                                        workInboxService.getUrgent(currentUser.getId(), PageRequest.of(page, size))));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi lấy công văn khẩn: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Get inbox counters", description = "Returns unread and pending counts for the current user")
+        @GetMapping("/counts")
+        public ResponseEntity<ResponseDTO<Map<String, Long>>> getCounts(
+                        @Parameter(description = "Restrict the unread count to one document kind") @RequestParam(required = false) DocumentKind kind) {
+                try {
+                        User currentUser = accessControlService.getCurrentUser();
+                        Map<String, Long> counts = new HashMap<>();
+                        counts.put("unread", workInboxService.countUnread(currentUser.getId(), kind));
+                        counts.put("pending", workInboxService.countPending(currentUser.getId()));
+                        return ResponseEntity.ok(ResponseDTO.success(counts));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi đếm công văn: " + e.getMessage()));
+                }
+        }
+
+        @Operation(summary = "Rebuild inbox", description = "Backfills inbox rows from existing recipients and assignments")
+        @PostMapping("/rebuild")
+        @PreAuthorize("hasRole('ADMIN')")
+        public ResponseEntity<ResponseDTO<Integer>> rebuild() {
+                try {
+                        int inserted = workInboxService.rebuild();
+                        return ResponseEntity.ok(ResponseDTO.success("Đã đồng bộ hộp công việc", inserted));
+                } catch (Exception e) {
+                        return ResponseEntity.badRequest()
+                                        .body(ResponseDTO.error("Lỗi khi đồng bộ hộp công việc: " + e.getMessage()));
+                }
+        }
+}
@@ -0,0 +1,34 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one page of an attachment whose content matches a search
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentTextHitDTO {
+
+    /**
+     * ATTACHMENT for incoming/outgoing documents, INTERNAL for internal documents
+     */
+    private String sourceType;
+
+    private Long attachmentId;
+
+    private Long documentId;
+
+    private Integer pageNumber;
+
+    /**
+     * Matching excerpt with the search terms wrapped in &lt;b&gt; tags
+     */
+    private String snippet;
+
+    private Double rank;
+}
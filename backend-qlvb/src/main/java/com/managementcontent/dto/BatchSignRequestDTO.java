@@ -0,0 +1,62 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for signing several documents with one stored signature
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSignRequestDTO {
+
+    private Long signatureId;
+
+    /**
+     * Signature password; unlocks both the image and the keystore
+     */
+    private String password;
+
+    private List<Long> documentIds;
+
+    /**
+     * 1-based page for the signature stamp; the last page when empty
+     */
+    private Integer page;
+
+    /**
+     * Stamp position in points from the left edge of the page
+     */
+    @Builder.Default
+    private Float x = 350f;
+
+    /**
+     * Stamp position in points from the top edge of the page
+     */
+    @Builder.Default
+    private Float y = 600f;
+
+    /**
+     * Stamp width in points; the height follows the image aspect ratio
+     */
+    @Builder.Default
+    private Float width = 150f;
+
+    private String reason;
+
+    private String location;
+
+    /**
+     * Also approve each successfully signed document
+     */
+    @Builder.Default
+    private Boolean approve = false;
+
+    private String comments;
+}
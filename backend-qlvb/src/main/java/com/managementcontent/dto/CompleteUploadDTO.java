@@ -0,0 +1,30 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for finishing a resumable upload and attaching the file to a
+ * document
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompleteUploadDTO {
+
+    /**
+     * INCOMING, OUTGOING or INTERNAL
+     */
+    private TargetType targetType;
+
+    private Long documentId;
+
+    private String description;
+
+    public enum TargetType {
+        INCOMING,
+        OUTGOING,
+        INTERNAL
+    }
+}
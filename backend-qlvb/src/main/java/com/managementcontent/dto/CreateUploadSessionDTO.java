@@ -0,0 +1,25 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request body for starting a resumable upload
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateUploadSessionDTO {
+
+    private String filename;
+
+    private String contentType;
+
+    private Long totalSize;
+
+    /**
+     * Optional hex encoded SHA-256 of the whole file
+     */
+    private String checksum;
+}
@@ -0,0 +1,34 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing the outcome of signing one document of a batch
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignDocumentResultDTO {
+
+    private Long documentId;
+
+    /**
+     * The signed PDF attachment
+     */
+    private Long attachmentId;
+
+    private boolean signed;
+
+    private boolean approved;
+
+    private String message;
+
+    /**
+     * SHA-256 of the attachment after signing
+     */
+    private String checksum;
+}
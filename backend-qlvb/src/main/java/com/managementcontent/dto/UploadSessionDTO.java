@@ -0,0 +1,43 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing a resumable upload session
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDTO {
+
+    private String id;
+
+    private String filename;
+
+    private String contentType;
+
+    private Long totalSize;
+
+    /**
+     * Offset of the next chunk the server expects
+     */
+    private Long receivedBytes;
+
+    /**
+     * UPLOADING, COMPLETED or CANCELLED
+     */
+    private String status;
+
+    /**
+     * Largest chunk the server accepts in one request
+     */
+    private Long maxChunkSize;
+
+    private LocalDateTime expiresAt;
+}
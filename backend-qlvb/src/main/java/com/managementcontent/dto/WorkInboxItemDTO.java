@@ -0,0 +1,46 @@
+package com.managementcontent.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one row of a user's work inbox
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkInboxItemDTO {
+
+    private Long id;
+
+    /**
+     * INCOMING, OUTGOING or INTERNAL
+     */
+    private String documentKind;
+
+    private String documentKindDisplayName;
+
+    private Long documentId;
+
+    /**
+     * PENDING or PROCESSED
+     */
+    private String state;
+
+    private String stateDisplayName;
+
+    private Boolean isRead;
+
+    private String priority;
+
+    private Boolean urgent;
+
+    private LocalDateTime deadline;
+
+    private LocalDateTime receivedAt;
+}
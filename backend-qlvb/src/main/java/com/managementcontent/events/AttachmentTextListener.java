@@ -0,0 +1,43 @@
+package com.managementcontent.events;
+
+import com.managementcontent.model.AttachmentTextJob.SourceType;
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.service.AttachmentTextIndexService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that queues new attachments for text extraction and drops the
+ * extracted text of deleted ones, whichever service saves or removes them.
+ */
+@Component
+public class AttachmentTextListener {
+
+    @Autowired
+    @Lazy
+    private AttachmentTextIndexService attachmentTextIndexService;
+
+    @PostPersist
+    public void onAttachmentSaved(Object entity) {
+        if (entity instanceof DocumentAttachment attachment) {
+            attachmentTextIndexService.enqueueAfterCommit(SourceType.ATTACHMENT, attachment.getId(),
+                    attachment.getDocument() != null ? attachment.getDocument().getId() : null);
+        } else if (entity instanceof InternalDocumentAttachment attachment) {
+            attachmentTextIndexService.enqueueAfterCommit(SourceType.INTERNAL, attachment.getId(),
+                    attachment.getDocument() != null ? attachment.getDocument().getId() : null);
+        }
+    }
+
+    @PostRemove
+    public void onAttachmentRemoved(Object entity) {
+        if (entity instanceof DocumentAttachment attachment) {
+            attachmentTextIndexService.removeAfterCommit(SourceType.ATTACHMENT, attachment.getId());
+        } else if (entity instanceof InternalDocumentAttachment attachment) {
+            attachmentTextIndexService.removeAfterCommit(SourceType.INTERNAL, attachment.getId());
+        }
+    }
+}
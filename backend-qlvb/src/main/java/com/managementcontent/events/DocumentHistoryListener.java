@@ -0,0 +1,31 @@
+package com.managementcontent.events;
+
+import com.managementcontent.model.DocumentHistory;
+import com.managementcontent.service.DocumentClassificationService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener that keeps per-user document classifications in sync with the
+ * document history. Instantiated by Spring through Hibernate's bean container.
+ */
+@Component
+public class DocumentHistoryListener {
+
+    @Autowired
+    @Lazy
+    private DocumentClassificationService documentClassificationService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onHistoryChanged(DocumentHistory history) {
+        if (history.getDocument() != null) {
+            documentClassificationService.evictDocument(history.getDocument().getId());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.managementcontent.events;
+
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.service.StorageUsageService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * JPA listener that keeps the storage usage totals in step with attachments
+ * being saved, resized or removed, whichever service changes them.
+ */
+@Component
+public class StorageUsageListener {
+
+    @Autowired
+    @Lazy
+    private StorageUsageService storageUsageService;
+
+    @PostLoad
+    public void onAttachmentLoaded(Object entity) {
+        if (entity instanceof DocumentAttachment attachment) {
+            attachment.setLoadedFileSize(attachment.getFileSize());
+        } else if (entity instanceof InternalDocumentAttachment attachment) {
+            attachment.setLoadedFileSize(attachment.getFileSize());
+        }
+    }
+
+    @PostPersist
+    public void onAttachmentSaved(Object entity) {
+        if (entity instanceof DocumentAttachment attachment) {
+            storageUsageService.attachmentAdded(attachment);
+            attachment.setLoadedFileSize(attachment.getFileSize());
+        } else if (entity instanceof InternalDocumentAttachment attachment) {
+            storageUsageService.attachmentAdded(attachment);
+            attachment.setLoadedFileSize(attachment.getFileSize());
+        }
+    }
+
+    @PreUpdate
+    public void onAttachmentUpdated(Object entity) {
+        if (entity instanceof DocumentAttachment attachment
+                && !Objects.equals(attachment.getFileSize(), attachment.getLoadedFileSize())) {
+            storageUsageService.attachmentResized(attachment,
+                    sizeOf(attachment.getFileSize()) - sizeOf(attachment.getLoadedFileSize()));
+            attachment.setLoadedFileSize(attachment.getFileSize());
+        } else if (entity instanceof InternalDocumentAttachment attachment
+                && !Objects.equals(attachment.getFileSize(), attachment.getLoadedFileSize())) {
+            storageUsageService.attachmentResized(attachment,
+                    sizeOf(attachment.getFileSize()) - sizeOf(attachment.getLoadedFileSize()));
+            attachment.setLoadedFileSize(attachment.getFileSize());
+        }
+    }
+
+    @PostRemove
+    public void onAttachmentRemoved(Object entity) {
+        if (entity instanceof DocumentAttachment attachment) {
+            storageUsageService.attachmentRemoved(attachment);
+        } else if (entity instanceof InternalDocumentAttachment attachment) {
+            storageUsageService.attachmentRemoved(attachment);
+        }
+    }
+
+    private static long sizeOf(Long size) {
+        return size != null ? size : 0L;
+    }
+}
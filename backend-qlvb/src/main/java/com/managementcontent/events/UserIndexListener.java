@@ -0,0 +1,51 @@
+package com.managementcontent.events;
+
+import com.managementcontent.model.User;
+import com.managementcontent.service.UserDirectoryIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener that keeps the in-memory user typeahead index in sync with
+ * user creation, updates and deletion, whichever service performs them.
+ * Changes reach the index after the transaction commits, so a rolled back
+ * change never shows up in suggestions.
+ */
+@Component
+public class UserIndexListener {
+
+    @Autowired
+    @Lazy
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onUserSaved(User user) {
+        afterCommit(() -> userDirectoryIndex.put(user));
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        Long userId = user.getId();
+        afterCommit(() -> userDirectoryIndex.remove(userId));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package com.managementcontent.exception;
+
+/**
+ * Thrown when a chunk is sent for an offset the upload session has not reached
+ * yet. Carries the offset the client should resume from.
+ */
+public class UploadOffsetMismatchException extends RuntimeException {
+    private final long expectedOffset;
+
+    public UploadOffsetMismatchException(long expectedOffset) {
+        super("Offset không hợp lệ, cần tiếp tục từ byte " + expectedOffset);
+        this.expectedOffset = expectedOffset;
+    }
+
+    public long getExpectedOffset() {
+        return expectedOffset;
+    }
+}
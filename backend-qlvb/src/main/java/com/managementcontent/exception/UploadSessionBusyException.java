@@ -0,0 +1,12 @@
+package com.managementcontent.exception;
+
+/**
+ * Thrown when another request, possibly on another node, is writing to the
+ * same upload session. The client retries after querying the session.
+ */
+public class UploadSessionBusyException extends RuntimeException {
+
+    public UploadSessionBusyException() {
+        super("Phiên upload đang được ghi bởi yêu cầu khác, vui lòng thử lại");
+    }
+}
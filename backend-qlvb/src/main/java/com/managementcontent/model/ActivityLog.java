@@ -6,7 +6,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "activity_logs")
+@Table(name = "activity_logs", indexes = {
+        @Index(name = "idx_activity_logs_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_activity_logs_user_timestamp", columnList = "user_id, timestamp")
+})
 @Data
 @Getter
 @Setter
@@ -15,7 +18,8 @@ import java.time.LocalDateTime;
 @Builder
 public class ActivityLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "activity_logs_seq")
+    @SequenceGenerator(name = "activity_logs_seq", sequenceName = "activity_logs_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "action_type", nullable = false)
@@ -47,6 +51,8 @@ public class ActivityLog {
     
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
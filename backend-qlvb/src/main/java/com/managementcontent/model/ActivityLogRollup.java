@@ -0,0 +1,60 @@
+package com.managementcontent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of activity log entries per hour or day, user, action type and
+ * document. Rows are written by {@code ActivityRollupService} for buckets
+ * that have closed, so analytics read these instead of scanning
+ * {@code activity_logs}. Missing dimensions are stored as {@link #NONE} or an
+ * empty action type so that they take part in the unique key.
+ */
+@Entity
+@Table(name = "activity_log_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_activity_log_rollup_bucket", columnNames = { "granularity", "bucket_start",
+                "user_id", "action_type", "document_id" })
+})
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivityLogRollup {
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    /**
+     * User or document ID of entries without one
+     */
+    public static final long NONE = 0;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "action_type", nullable = false)
+    private String actionType;
+
+    @Column(name = "document_id", nullable = false)
+    private long documentId;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+}
@@ -0,0 +1,33 @@
+package com.managementcontent.model;
+
+import com.managementcontent.model.ActivityLogRollup.Granularity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * End of the rolled-up range of one granularity: every bucket starting before
+ * {@code rolledUpTo} is complete in {@code activity_log_rollup}
+ */
+@Entity
+@Table(name = "activity_log_rollup_watermark")
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivityLogRollupWatermark {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 10)
+    private Granularity granularity;
+
+    @Column(name = "rolled_up_to", nullable = false)
+    private LocalDateTime rolledUpTo;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,114 @@
+package com.managementcontent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the persistent text extraction queue. One row per attachment;
+ * workers claim {@code PENDING} rows with a lease they renew while running,
+ * so extraction survives restarts and node failures, and a failed attachment
+ * is retried with a growing delay.
+ */
+@Entity
+@Table(name = "attachment_text_jobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attachment_text_jobs_source", columnNames = { "source_type", "attachment_id" })
+}, indexes = {
+        @Index(name = "idx_attachment_text_jobs_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_attachment_text_jobs_status_lease", columnList = "status, lease_until")
+})
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttachmentTextJob {
+
+    public enum SourceType {
+        /**
+         * {@link DocumentAttachment} of an incoming or outgoing document
+         */
+        ATTACHMENT,
+        /**
+         * {@link InternalDocumentAttachment}
+         */
+        INTERNAL
+    }
+
+    public enum Status {
+        PENDING,
+        PROCESSING,
+        DONE,
+        /**
+         * File type has no text reader
+         */
+        SKIPPED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", nullable = false, length = 20)
+    private SourceType sourceType;
+
+    @Column(name = "attachment_id", nullable = false)
+    private Long attachmentId;
+
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "char_count")
+    private Long charCount;
+
+    /**
+     * Worker that holds the lease of a {@code PROCESSING} job
+     */
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    /**
+     * The job goes back to the queue if its worker has not renewed the
+     * lease by then
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+        if (nextAttemptAt == null) {
+            nextAttemptAt = now;
+        }
+    }
+}
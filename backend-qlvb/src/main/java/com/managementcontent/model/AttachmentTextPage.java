@@ -0,0 +1,46 @@
+package com.managementcontent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Extracted text of one page (or one chunk of a file without pages) of an
+ * attachment. Searched through a PostgreSQL full-text index, see
+ * {@link com.managementcontent.repository.AttachmentTextPageRepository}.
+ */
+@Entity
+@Table(name = "attachment_text_pages", indexes = {
+        @Index(name = "idx_attachment_text_pages_source", columnList = "source_type, attachment_id"),
+        @Index(name = "idx_attachment_text_pages_document", columnList = "document_id")
+})
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttachmentTextPage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_type", nullable = false, length = 20)
+    private AttachmentTextJob.SourceType sourceType;
+
+    @Column(name = "attachment_id", nullable = false)
+    private Long attachmentId;
+
+    @Column(name = "document_id")
+    private Long documentId;
+
+    /**
+     * 1-based page number, or chunk number for files without pages
+     */
+    @Column(name = "page_number", nullable = false)
+    private Integer pageNumber;
+
+    @Column(name = "content", columnDefinition = "TEXT", nullable = false)
+    private String content;
+}
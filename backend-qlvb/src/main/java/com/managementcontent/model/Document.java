@@ -11,7 +11,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "node")
+@Table(name = "node", indexes = {
+        @Index(name = "idx_node_status", columnList = "status"),
+        @Index(name = "idx_node_created", columnList = "created")
+})
 @Data
 @Getter
 @Setter
@@ -20,7 +23,8 @@ import java.util.Set;
 @Inheritance(strategy = InheritanceType.JOINED)
 public class Document {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "node_seq")
+    @SequenceGenerator(name = "node_seq", sequenceName = "node_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "vid")
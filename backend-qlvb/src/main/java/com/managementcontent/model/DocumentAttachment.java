@@ -1,12 +1,17 @@
 package com.managementcontent.model;
 
+import com.managementcontent.events.AttachmentTextListener;
+import com.managementcontent.events.StorageUsageListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "document_attachments")
+@Table(name = "document_attachments", indexes = {
+        @Index(name = "idx_document_attachments_document", columnList = "document_id")
+})
+@EntityListeners({ AttachmentTextListener.class, StorageUsageListener.class })
 @Data
 @Getter
 @Setter
@@ -16,7 +21,8 @@ import java.time.LocalDateTime;
 public class DocumentAttachment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_attachments_seq")
+    @SequenceGenerator(name = "document_attachments_seq", sequenceName = "document_attachments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,6 +44,12 @@ public class DocumentAttachment {
     @Column
     private Long fileSize;
 
+    /**
+     * Hex encoded SHA-256 of the stored content
+     */
+    @Column(length = 64)
+    private String checksum;
+
     @Column(nullable = false)
     private LocalDateTime uploadedDate;
 
@@ -48,6 +60,14 @@ public class DocumentAttachment {
     @Column
     private String description;
 
+    /**
+     * File size as loaded from the database, used to account size changes
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long loadedFileSize;
+
     @PrePersist
     protected void onCreate() {
         uploadedDate = LocalDateTime.now();
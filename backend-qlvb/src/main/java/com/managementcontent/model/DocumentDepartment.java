@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
  * with designation of primary vs. collaborating departments.
  */
 @Entity
-@Table(name = "document_department")
+@Table(name = "document_department", indexes = {
+        @Index(name = "idx_document_department_document", columnList = "document_id"),
+        @Index(name = "idx_document_department_department", columnList = "department_id")
+})
 @Data
 @Getter
 @Setter
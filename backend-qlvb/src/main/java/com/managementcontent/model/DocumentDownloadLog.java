@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "document_download_logs")
+@Table(name = "document_download_logs", indexes = {
+        @Index(name = "idx_document_download_logs_document", columnList = "document_id, downloaded_at")
+})
 @Getter
 @Setter
 @Builder
@@ -13,7 +15,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class DocumentDownloadLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_download_logs_seq")
+    @SequenceGenerator(name = "document_download_logs_seq", sequenceName = "document_download_logs_seq", allocationSize = 50)
     private Long id;
 
     private Long documentId;
@@ -21,5 +24,7 @@ public class DocumentDownloadLog {
     private Long userId; // nullable if anonymous
     private String userName;
     private String ipAddress;
+    // Partition key of the monthly partitions
+    @Column(nullable = false)
     private LocalDateTime downloadedAt;
 }
@@ -4,13 +4,18 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.managementcontent.events.DocumentHistoryListener;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "document_history")
+@Table(name = "document_history", indexes = {
+        @Index(name = "idx_document_history_document_timestamp", columnList = "document_id, timestamp"),
+        @Index(name = "idx_document_history_performer_timestamp", columnList = "performed_by_id, timestamp")
+})
+@EntityListeners(DocumentHistoryListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,7 +23,8 @@ import java.util.Set;
 @Builder
 public class DocumentHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_history_seq")
+    @SequenceGenerator(name = "document_history_seq", sequenceName = "document_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
  * types
  */
 @Entity
-@Table(name = "document_read_status")
+@Table(name = "document_read_status", indexes = {
+        @Index(name = "idx_document_read_status_user_type_read", columnList = "user_id, document_type, is_read"),
+        @Index(name = "idx_document_read_status_document", columnList = "document_id, document_type, user_id")
+})
 @Data
 @Getter
 @Setter
@@ -20,7 +23,8 @@ import java.time.LocalDateTime;
 @Builder
 public class DocumentReadStatus {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_read_status_seq")
+    @SequenceGenerator(name = "document_read_status_seq", sequenceName = "document_read_status_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -63,6 +63,12 @@ public class GuideFile {
     @Column(name = "file_url", nullable = false)
     private String fileUrl;
 
+    /**
+     * Hex encoded SHA-256 of the stored file, filled in lazily
+     */
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
     /**
      * Category of the guide file (e.g., "User Manual", "Process Guide", etc.)
      */
@@ -12,7 +12,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "internal_document")
+@Table(name = "internal_document", indexes = {
+        @Index(name = "idx_internal_document_sender_created", columnList = "sender_id, created_at"),
+        @Index(name = "idx_internal_document_created", columnList = "created_at"),
+        @Index(name = "idx_internal_document_reply_to", columnList = "reply_to_id")
+})
 @Data
 @Getter
 @Setter
@@ -1,13 +1,18 @@
 package com.managementcontent.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.managementcontent.events.AttachmentTextListener;
+import com.managementcontent.events.StorageUsageListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "internal_document_attachment")
+@Table(name = "internal_document_attachment", indexes = {
+        @Index(name = "idx_internal_document_attachment_document", columnList = "document_id")
+})
+@EntityListeners({ AttachmentTextListener.class, StorageUsageListener.class })
 @Data
 @Getter
 @Setter
@@ -36,6 +41,12 @@ public class InternalDocumentAttachment {
     @Column(name = "file_size")
     private Long fileSize;
 
+    /**
+     * Hex encoded SHA-256 of the stored content
+     */
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+
     @Column(name = "uploaded_at", nullable = false)
     private LocalDateTime uploadedAt;
 
@@ -46,6 +57,14 @@ public class InternalDocumentAttachment {
     @Column(name = "description")
     private String description;
 
+    /**
+     * File size as loaded from the database, used to account size changes
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Long loadedFileSize;
+
     @PrePersist
     protected void onCreate() {
         if (uploadedAt == null) {
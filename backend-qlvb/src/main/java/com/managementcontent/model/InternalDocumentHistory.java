@@ -7,7 +7,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "internal_document_history")
+@Table(name = "internal_document_history", indexes = {
+        @Index(name = "idx_internal_document_history_document", columnList = "document_id")
+})
 @Data
 @Getter
 @Setter
@@ -16,7 +18,8 @@ import java.time.LocalDateTime;
 @Builder
 public class InternalDocumentHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "internal_document_history_seq")
+    @SequenceGenerator(name = "internal_document_history_seq", sequenceName = "internal_document_history_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
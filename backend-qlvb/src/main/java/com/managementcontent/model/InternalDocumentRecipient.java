@@ -7,7 +7,11 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "internal_document_recipient")
+@Table(name = "internal_document_recipient", indexes = {
+        @Index(name = "idx_internal_document_recipient_user_read", columnList = "user_id, is_read"),
+        @Index(name = "idx_internal_document_recipient_document", columnList = "document_id"),
+        @Index(name = "idx_internal_document_recipient_department", columnList = "department_id")
+})
 @Data
 @Getter
 @Setter
@@ -16,7 +20,8 @@ import java.time.LocalDateTime;
 @Builder
 public class InternalDocumentRecipient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "internal_document_recipient_seq")
+    @SequenceGenerator(name = "internal_document_recipient_seq", sequenceName = "internal_document_recipient_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
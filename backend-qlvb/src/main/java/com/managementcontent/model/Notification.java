@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 import com.managementcontent.model.enums.NotificationType;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_active_read_created", columnList = "user_id, active, read, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +16,8 @@ import com.managementcontent.model.enums.NotificationType;
 @Builder
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
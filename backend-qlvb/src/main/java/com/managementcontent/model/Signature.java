@@ -32,6 +32,13 @@ public class Signature {
     @Column(name = "file_name", nullable = false)
     private String fileName;
 
+    /**
+     * PKCS#12 keystore holding the signer's key and certificate chain, protected
+     * by the same password as the signature. Required for digital signing.
+     */
+    @Column(name = "keystore_file_name")
+    private String keystoreFileName;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
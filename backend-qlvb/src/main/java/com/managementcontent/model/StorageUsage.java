@@ -0,0 +1,69 @@
+package com.managementcontent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running total of the attachments stored for one department, document type
+ * or document. Kept up to date incrementally as attachments are added and
+ * removed, so reading a total is a single row lookup; the storage garbage
+ * collector recomputes all rows from the attachment tables.
+ */
+@Entity
+@Table(name = "storage_usage", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_storage_usage_scope_key", columnNames = { "scope", "scope_key" })
+})
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageUsage {
+
+    public enum Scope {
+        /**
+         * Key is the department ID, or {@link #UNASSIGNED}
+         */
+        DEPARTMENT,
+        /**
+         * Key is the document type name, or {@link #UNASSIGNED}
+         */
+        DOCUMENT_TYPE,
+        /**
+         * Key is the ID of an incoming or outgoing document
+         */
+        DOCUMENT,
+        /**
+         * Key is the ID of an internal document
+         */
+        INTERNAL_DOCUMENT
+    }
+
+    /**
+     * Key for attachments without a department or document type
+     */
+    public static final String UNASSIGNED = "-";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 20)
+    private Scope scope;
+
+    @Column(name = "scope_key", nullable = false)
+    private String scopeKey;
+
+    @Column(name = "file_count", nullable = false)
+    private long fileCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,119 @@
+package com.managementcontent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumable chunked upload in progress.
+ * Chunks are stored as part objects in the attachment store, so any node can
+ * take the next one; the client can ask for {@code receivedBytes} after a
+ * dropped connection and continue from there. Completed uploads are attached to a document through
+ * the regular attachment services.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+        @Index(name = "idx_upload_sessions_status_expires", columnList = "status, expires_at"),
+        @Index(name = "idx_upload_sessions_user", columnList = "user_id")
+})
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    /**
+     * User who created the session; only this user may write to it
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "filename", nullable = false)
+    private String filename;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    /**
+     * Length of the contiguous prefix received so far, i.e. the offset of the
+     * next expected chunk
+     */
+    @Column(name = "received_bytes", nullable = false)
+    @Builder.Default
+    private Long receivedBytes = 0L;
+
+    /**
+     * Optional SHA-256 announced by the client, verified on completion
+     */
+    @Column(name = "expected_checksum", length = 64)
+    private String expectedChecksum;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Status status = Status.UPLOADING;
+
+    /**
+     * Key prefix of the parts in the attachment store; each part is stored
+     * under the prefix followed by its start offset
+     */
+    @Column(name = "staging_path", nullable = false)
+    private String stagingPath;
+
+    /**
+     * Request that holds the lease of the session while it writes a chunk,
+     * completes or discards it
+     */
+    @Column(name = "locked_by", length = 100)
+    private String lockedBy;
+
+    /**
+     * Another request may take the session over after this time, e.g. when
+     * the node holding it died
+     */
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isComplete() {
+        return receivedBytes != null && receivedBytes.equals(totalSize);
+    }
+
+    public enum Status {
+        UPLOADING,
+        COMPLETED,
+        CANCELLED
+    }
+}
@@ -1,16 +1,21 @@
 package com.managementcontent.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.managementcontent.events.UserIndexListener;
 import com.managementcontent.model.enums.UserStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_department", columnList = "department_id")
+})
+@EntityListeners(UserIndexListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -50,6 +55,7 @@ public class User {
     private LocalDateTime lastLogin;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @JoinTable(name = "users_roles", joinColumns = @JoinColumn(name = "uid"), inverseJoinColumns = @JoinColumn(name = "rid"))
     @Builder.Default
     @JsonIgnore
@@ -0,0 +1,123 @@
+package com.managementcontent.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized "documents I must act on" row for one user.
+ * Maintained by workflow transitions, internal sends and department
+ * assignments so inbox pages, unread counts and urgent lists are plain
+ * index range reads instead of DISTINCT/JOIN queries over the document tables.
+ */
+@Entity
+@Table(name = "work_inbox", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_work_inbox_user_document", columnNames = { "user_id", "document_kind",
+                "document_id" })
+}, indexes = {
+        @Index(name = "idx_work_inbox_user_state_received", columnList = "user_id, state, received_at"),
+        @Index(name = "idx_work_inbox_user_kind_state_received", columnList = "user_id, document_kind, state, received_at"),
+        @Index(name = "idx_work_inbox_user_state_unread", columnList = "user_id, state, is_read, document_kind"),
+        @Index(name = "idx_work_inbox_user_urgent_deadline", columnList = "user_id, state, urgent, deadline"),
+        @Index(name = "idx_work_inbox_document", columnList = "document_kind, document_id")
+})
+@Data
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorkInboxItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * User who has to act on the document
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "document_kind", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private DocumentKind documentKind;
+
+    /**
+     * ID of the document (node id for incoming/outgoing, internal_document id for internal)
+     */
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(name = "state", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private State state = State.PENDING;
+
+    @Column(name = "is_read", nullable = false)
+    @Builder.Default
+    private Boolean isRead = false;
+
+    /**
+     * Urgency level code (HOA_TOC, KHAN, ...)
+     */
+    @Column(name = "priority", length = 50)
+    private String priority;
+
+    @Column(name = "urgent", nullable = false)
+    @Builder.Default
+    private Boolean urgent = false;
+
+    @Column(name = "deadline")
+    private LocalDateTime deadline;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (receivedAt == null) {
+            receivedAt = LocalDateTime.now();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum DocumentKind {
+        INCOMING("Công văn đến"),
+        OUTGOING("Công văn đi"),
+        INTERNAL("Công văn nội bộ");
+
+        private final String displayName;
+
+        DocumentKind(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    public enum State {
+        PENDING("Chờ xử lý"),
+        PROCESSED("Đã xử lý");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
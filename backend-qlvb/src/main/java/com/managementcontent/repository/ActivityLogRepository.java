@@ -36,21 +36,4 @@ public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long>
     @Query("SELECT a FROM ActivityLog a WHERE a.document = :document AND a.actionType = :actionType")
     List<ActivityLog> findByDocumentAndActionType(@Param("document") Document document, 
                                                  @Param("actionType") String actionType);
-    
-    @Query("SELECT u.id, COUNT(a) FROM ActivityLog a JOIN a.user u GROUP BY u.id ORDER BY COUNT(a) DESC")
-    List<Object[]> findMostActiveUsers(Pageable pageable);
-
-    @Query(value = "SELECT EXTRACT(YEAR FROM al.timestamp) as year, " +
-            "EXTRACT(MONTH FROM al.timestamp) as month, " +
-            "COUNT(al.id) " +
-            "FROM activity_logs al " +
-            "WHERE al.timestamp BETWEEN :start AND :end " +
-            "AND al.document_id IS NOT NULL " +
-            "GROUP BY 1, 2 " +
-            "ORDER BY 1, 2",
-            nativeQuery = true)
-    List<Object[]> countDocumentActivityByMonth(@Param("start") LocalDateTime start,
-                                                @Param("end") LocalDateTime end);
-    @Query("SELECT a.actionType, COUNT(a) FROM ActivityLog a GROUP BY a.actionType")
-    List<Object[]> countByActionType();
-}
\ No newline at end of file
+}
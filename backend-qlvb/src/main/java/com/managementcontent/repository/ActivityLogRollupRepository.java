@@ -0,0 +1,44 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.ActivityLogRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ActivityLogRollupRepository extends JpaRepository<ActivityLogRollup, Long> {
+
+    /**
+     * Count the activity log entries of the whole hours in [from, to). Counts
+     * replace existing rows, so rolling up a range again is harmless.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO activity_log_rollup (granularity, bucket_start, user_id, action_type, document_id, event_count) " +
+            "SELECT 'HOUR', date_trunc('hour', a.timestamp), COALESCE(a.user_id, 0), COALESCE(a.action_type, ''), " +
+            "COALESCE(a.document_id, 0), COUNT(*) " +
+            "FROM activity_logs a WHERE a.timestamp >= :from AND a.timestamp < :to " +
+            "GROUP BY 2, 3, 4, 5 " +
+            "ON CONFLICT (granularity, bucket_start, user_id, action_type, document_id) " +
+            "DO UPDATE SET event_count = EXCLUDED.event_count", nativeQuery = true)
+    int rollUpHours(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Sum the hourly rows of the whole days in [from, to) into daily rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO activity_log_rollup (granularity, bucket_start, user_id, action_type, document_id, event_count) " +
+            "SELECT 'DAY', date_trunc('day', r.bucket_start), r.user_id, r.action_type, r.document_id, SUM(r.event_count) " +
+            "FROM activity_log_rollup r " +
+            "WHERE r.granularity = 'HOUR' AND r.bucket_start >= :from AND r.bucket_start < :to " +
+            "GROUP BY 2, 3, 4, 5 " +
+            "ON CONFLICT (granularity, bucket_start, user_id, action_type, document_id) " +
+            "DO UPDATE SET event_count = EXCLUDED.event_count", nativeQuery = true)
+    int rollUpDays(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(a.timestamp) FROM ActivityLog a")
+    LocalDateTime findFirstActivityTime();
+}
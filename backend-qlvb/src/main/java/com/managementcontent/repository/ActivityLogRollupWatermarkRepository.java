@@ -0,0 +1,10 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.ActivityLogRollup.Granularity;
+import com.managementcontent.model.ActivityLogRollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ActivityLogRollupWatermarkRepository extends JpaRepository<ActivityLogRollupWatermark, Granularity> {
+}
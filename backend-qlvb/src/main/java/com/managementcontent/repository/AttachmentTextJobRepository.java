@@ -0,0 +1,107 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.AttachmentTextJob;
+import com.managementcontent.model.AttachmentTextJob.SourceType;
+import com.managementcontent.model.AttachmentTextJob.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentTextJobRepository extends JpaRepository<AttachmentTextJob, Long> {
+
+    Optional<AttachmentTextJob> findBySourceTypeAndAttachmentId(SourceType sourceType, Long attachmentId);
+
+    boolean existsBySourceTypeAndAttachmentId(SourceType sourceType, Long attachmentId);
+
+    /**
+     * IDs of pending jobs that are due, oldest first
+     */
+    @Query("SELECT j.id FROM AttachmentTextJob j WHERE j.status = :status AND j.nextAttemptAt <= :now ORDER BY j.id")
+    List<Long> findDueJobIds(@Param("status") Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Move a job from PENDING to PROCESSING under a lease held by the worker.
+     * Returns 0 when another worker claimed it first.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AttachmentTextJob j SET j.status = :processing, j.attempts = j.attempts + 1, " +
+            "j.lockedBy = :owner, j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = :pending")
+    int claim(@Param("id") Long id, @Param("pending") Status pending, @Param("processing") Status processing,
+            @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Extend the lease of a running job. Returns 0 when the worker no longer
+     * holds it, e.g. because it expired and the job was taken over.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AttachmentTextJob j SET j.leaseUntil = :leaseUntil, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = :processing AND j.lockedBy = :owner")
+    int renewLease(@Param("id") Long id, @Param("processing") Status processing, @Param("owner") String owner,
+            @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Store the outcome of a running job and release its lease, if the
+     * worker still holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AttachmentTextJob j SET j.status = :status, j.pageCount = :pageCount, " +
+            "j.charCount = :charCount, j.lastError = :lastError, j.nextAttemptAt = :nextAttemptAt, " +
+            "j.lockedBy = NULL, j.leaseUntil = NULL, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = :processing AND j.lockedBy = :owner")
+    int release(@Param("id") Long id, @Param("processing") Status processing, @Param("owner") String owner,
+            @Param("status") Status status, @Param("pageCount") Integer pageCount,
+            @Param("charCount") Long charCount, @Param("lastError") String lastError,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("now") LocalDateTime now);
+
+    /**
+     * Put jobs whose lease expired (their worker died or hung) back in the queue
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AttachmentTextJob j SET j.status = :pending, j.lockedBy = NULL, j.leaseUntil = NULL, " +
+            "j.nextAttemptAt = :now, j.updatedAt = :now " +
+            "WHERE j.status = :processing AND j.leaseUntil < :now")
+    int requeueExpired(@Param("pending") Status pending, @Param("processing") Status processing,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Number of jobs per status, as rows of [status, count]
+     */
+    @Query("SELECT j.status, COUNT(j) FROM AttachmentTextJob j GROUP BY j.status")
+    List<Object[]> countGroupedByStatus();
+
+    /**
+     * Document attachments that have never been queued, as rows of [attachmentId, documentId]
+     */
+    @Query("SELECT a.id, a.document.id FROM DocumentAttachment a WHERE NOT EXISTS (" +
+            "SELECT 1 FROM AttachmentTextJob j WHERE j.sourceType = :sourceType AND j.attachmentId = a.id) " +
+            "ORDER BY a.id")
+    List<Object[]> findUnqueuedDocumentAttachments(@Param("sourceType") SourceType sourceType, Pageable pageable);
+
+    /**
+     * Internal document attachments that have never been queued, as rows of [attachmentId, documentId]
+     */
+    @Query("SELECT a.id, a.document.id FROM InternalDocumentAttachment a WHERE NOT EXISTS (" +
+            "SELECT 1 FROM AttachmentTextJob j WHERE j.sourceType = :sourceType AND j.attachmentId = a.id) " +
+            "ORDER BY a.id")
+    List<Object[]> findUnqueuedInternalAttachments(@Param("sourceType") SourceType sourceType, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AttachmentTextJob j WHERE j.sourceType = :sourceType AND j.attachmentId = :attachmentId")
+    int deleteBySource(@Param("sourceType") SourceType sourceType, @Param("attachmentId") Long attachmentId);
+}
@@ -0,0 +1,56 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.AttachmentTextJob.SourceType;
+import com.managementcontent.model.AttachmentTextPage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface AttachmentTextPageRepository extends JpaRepository<AttachmentTextPage, Long> {
+
+    /**
+     * Search hit projection of {@link #search}
+     */
+    interface TextHit {
+        String getSourceType();
+
+        Long getAttachmentId();
+
+        Long getDocumentId();
+
+        Integer getPageNumber();
+
+        String getSnippet();
+
+        Double getRank();
+    }
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AttachmentTextPage p WHERE p.sourceType = :sourceType AND p.attachmentId = :attachmentId")
+    int deleteBySource(@Param("sourceType") SourceType sourceType, @Param("attachmentId") Long attachmentId);
+
+    /**
+     * Full-text search over extracted pages, best matches first.
+     * Uses the expression index idx_attachment_text_pages_fts of the V2
+     * migration.
+     */
+    @Query(value = "SELECT r.source_type AS sourceType, r.attachment_id AS attachmentId, " +
+            "r.document_id AS documentId, r.page_number AS pageNumber, " +
+            "ts_headline('simple', r.content, r.query, 'MaxWords=35, MinWords=15, MaxFragments=2') AS snippet, " +
+            "r.rank AS rank " +
+            "FROM (SELECT p.source_type, p.attachment_id, p.document_id, p.page_number, p.content, q.query, " +
+            "ts_rank(to_tsvector('simple', p.content), q.query) AS rank " +
+            "FROM attachment_text_pages p, plainto_tsquery('simple', :text) AS q(query) " +
+            "WHERE to_tsvector('simple', p.content) @@ q.query " +
+            "ORDER BY rank DESC, p.document_id DESC, p.page_number LIMIT :limit) r " +
+            // Snippets are only built for the rows that are returned
+            "ORDER BY r.rank DESC, r.document_id DESC, r.page_number", nativeQuery = true)
+    List<TextHit> search(@Param("text") String text, @Param("limit") int limit);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.nio.channels.FileChannel;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -87,4 +88,22 @@ public interface DepartmentRepository extends JpaRepository<Department, Long> {
      * @return List of departments with the specified parent
      */
     List<Department> findByParentDepartment(Department parent);
+
+    /**
+     * Find the children of several departments at once
+     *
+     * @param parentIds IDs of the parent departments
+     * @return List of departments whose parent is one of the given IDs
+     */
+    @Query("SELECT d FROM Department d WHERE d.parentDepartment.id IN :parentIds ORDER BY d.name")
+    List<Department> findByParentDepartmentIdIn(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * Load every department with its parent in a single query, used to build the
+     * hierarchy in memory
+     *
+     * @return Flat list of all departments ordered by name
+     */
+    @Query("SELECT d FROM Department d LEFT JOIN FETCH d.parentDepartment ORDER BY d.name")
+    List<Department> findAllWithParent();
 }
@@ -5,8 +5,10 @@ import com.managementcontent.model.Document;
 import com.managementcontent.model.DocumentDepartment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -65,4 +67,19 @@ public interface DocumentDepartmentRepository extends JpaRepository<DocumentDepa
     Set<DocumentDepartment> findByDocumentId(Long documentId);
 
     Set<DocumentDepartment> findByDocumentIdAndDepartmentId(Long documentId, Long departmentId);
-}
\ No newline at end of file
+
+    /**
+     * Count document assignments per department for a set of departments in one
+     * grouped query. Each row is [departmentId, documentCount].
+     */
+    @Query("SELECT dd.department.id, COUNT(dd) FROM DocumentDepartment dd " +
+            "WHERE dd.department.id IN :departmentIds GROUP BY dd.department.id")
+    List<Object[]> countAssignmentsGroupedByDepartment(@Param("departmentIds") Collection<Long> departmentIds);
+
+    /**
+     * Count document assignments per department across all departments.
+     * Each row is [departmentId, documentCount].
+     */
+    @Query("SELECT dd.department.id, COUNT(dd) FROM DocumentDepartment dd GROUP BY dd.department.id")
+    List<Object[]> countAssignmentsGroupedByDepartment();
+}
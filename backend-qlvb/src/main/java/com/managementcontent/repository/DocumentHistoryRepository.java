@@ -6,6 +6,8 @@ import com.managementcontent.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -75,4 +77,25 @@ public interface DocumentHistoryRepository extends JpaRepository<DocumentHistory
      * @return Optional containing the latest document history
      */
     Optional<DocumentHistory> findFirstByPerformedBy_IdAndNewStatusOrderByTimestampDesc(Long performedById, String newStatus);
+
+    /**
+     * Find, for each document, the new status of the user's last action, the
+     * latest new status recorded by anyone and whether any entry was
+     * LEADER_APPROVED, in a single pass over the history
+     *
+     * @param documentIds IDs of the documents
+     * @param userId      ID of the user
+     * @return Rows of [document_id, last_user_status, latest_status, leader_approved]
+     */
+    @Query(value = "SELECT r.document_id, " +
+            "MAX(CASE WHEN r.user_rank = 1 AND r.performed_by_id = :userId THEN r.new_status END) AS last_user_status, " +
+            "MAX(CASE WHEN r.doc_rank = 1 THEN r.new_status END) AS latest_status, " +
+            "BOOL_OR(r.new_status = 'LEADER_APPROVED') AS leader_approved " +
+            "FROM (SELECT h.document_id, h.performed_by_id, h.new_status, " +
+            "ROW_NUMBER() OVER (PARTITION BY h.document_id ORDER BY h.timestamp DESC, h.id DESC) AS doc_rank, " +
+            "ROW_NUMBER() OVER (PARTITION BY h.document_id, h.performed_by_id ORDER BY h.timestamp DESC, h.id DESC) AS user_rank " +
+            "FROM document_history h WHERE h.document_id IN (:documentIds)) r " +
+            "GROUP BY r.document_id", nativeQuery = true)
+    List<Object[]> findLastStatusesForUser(@Param("documentIds") Collection<Long> documentIds,
+                                           @Param("userId") Long userId);
 }
\ No newline at end of file
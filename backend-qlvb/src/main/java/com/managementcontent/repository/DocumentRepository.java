@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -67,4 +68,10 @@ public interface DocumentRepository<T extends Document> extends JpaRepository<Do
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end,
             Pageable pageable);
+
+    /**
+     * Those of the given document numbers that are already taken
+     */
+    @Query("SELECT d.documentNumber FROM Document d WHERE d.documentNumber IN :numbers")
+    List<String> findExistingDocumentNumbers(@Param("numbers") Collection<String> numbers);
 }
\ No newline at end of file
@@ -2,16 +2,20 @@ package com.managementcontent.repository;
 
 import com.managementcontent.model.IncomingDocument;
 import com.managementcontent.model.enums.DocumentProcessingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IncomingDocumentRepository extends JpaRepository<IncomingDocument, Long> {
@@ -53,4 +57,26 @@ public interface IncomingDocumentRepository extends JpaRepository<IncomingDocume
            ") " +
            "ORDER BY d.changed DESC")
     Page<IncomingDocument> findByAssignedUser(@Param("user") com.managementcontent.model.User user, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Register rows of incoming documents received in a period, streamed with a
+     * database cursor. Unless {@code all} is set, only documents assigned to
+     * {@code departmentId}, created by {@code userId} or assigned to
+     * {@code userId} in the processing history are returned.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT d.id, d.receiptNumber, d.receivedDate, d.documentNumber, d.referenceNumber, d.signingDate, " +
+           "d.issuingAuthority, d.title, d.summary, d.urgencyLevel, d.securityLevel, po.fullName, d.status " +
+           "FROM IncomingDocument d LEFT JOIN d.processingOfficer po " +
+           "WHERE COALESCE(d.receivedDate, d.created) BETWEEN :start AND :end " +
+           "AND (:all = true " +
+           "    OR EXISTS (SELECT 1 FROM DocumentDepartment dd WHERE dd.document = d AND dd.department.id = :departmentId) " +
+           "    OR d.creator.id = :userId " +
+           "    OR EXISTS (SELECT 1 FROM DocumentHistory h WHERE h.document = d AND h.assignedTo.id = :userId " +
+           "        AND h.action = 'ASSIGNMENT')) " +
+           "ORDER BY COALESCE(d.receivedDate, d.created), d.id")
+    Stream<Object[]> streamRegister(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+            @Param("all") boolean all, @Param("departmentId") Long departmentId, @Param("userId") Long userId);
+}
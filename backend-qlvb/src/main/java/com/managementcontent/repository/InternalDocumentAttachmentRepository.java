@@ -0,0 +1,9 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.InternalDocumentAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InternalDocumentAttachmentRepository extends JpaRepository<InternalDocumentAttachment, Long> {
+}
@@ -3,16 +3,21 @@ package com.managementcontent.repository;
 import com.managementcontent.model.InternalDocument;
 import com.managementcontent.model.InternalDocument.Priority;
 import com.managementcontent.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InternalDocumentRepository extends JpaRepository<InternalDocument, Long> {
@@ -196,4 +201,64 @@ public interface InternalDocumentRepository extends JpaRepository<InternalDocume
                         @Param("keyword") String keyword,
                         Pageable pageable);
 
-}
\ No newline at end of file
+        // Find the root of a reply thread by walking reply_to links upwards in the database
+        @Query(value = "WITH RECURSIVE up AS ( " +
+                        "SELECT d.id, d.reply_to_id FROM internal_document d WHERE d.id = :documentId " +
+                        "UNION " +
+                        "SELECT p.id, p.reply_to_id FROM internal_document p JOIN up ON p.id = up.reply_to_id) " +
+                        "SELECT up.id FROM up WHERE up.reply_to_id IS NULL LIMIT 1", nativeQuery = true)
+        Optional<Long> findRootDocumentId(@Param("documentId") Long documentId);
+
+        // Find IDs of every document in the reply thread containing the given document
+        @Query(value = "WITH RECURSIVE up AS ( " +
+                        "SELECT d.id, d.reply_to_id FROM internal_document d WHERE d.id = :documentId " +
+                        "UNION " +
+                        "SELECT p.id, p.reply_to_id FROM internal_document p JOIN up ON p.id = up.reply_to_id), " +
+                        "down AS ( " +
+                        "SELECT up.id FROM up WHERE up.reply_to_id IS NULL " +
+                        "UNION " +
+                        "SELECT c.id FROM internal_document c JOIN down ON c.reply_to_id = down.id) " +
+                        "SELECT down.id FROM down", nativeQuery = true)
+        List<Long> findThreadDocumentIds(@Param("documentId") Long documentId);
+
+        // Load documents together with sender and recipients
+        @Query("SELECT DISTINCT d FROM InternalDocument d " +
+                        "JOIN FETCH d.sender s " +
+                        "LEFT JOIN FETCH s.department " +
+                        "LEFT JOIN FETCH d.recipients r " +
+                        "LEFT JOIN FETCH r.user " +
+                        "LEFT JOIN FETCH r.department " +
+                        "LEFT JOIN FETCH d.replyTo " +
+                        "WHERE d.id IN :ids")
+        List<InternalDocument> findAllWithRecipientsByIdIn(@Param("ids") Collection<Long> ids);
+
+        // Load attachments for documents already in the persistence context
+        @Query("SELECT DISTINCT d FROM InternalDocument d " +
+                        "LEFT JOIN FETCH d.attachments a " +
+                        "LEFT JOIN FETCH a.uploadedBy " +
+                        "WHERE d.id IN :ids")
+        List<InternalDocument> findAllWithAttachmentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Register rows of internal documents signed in a period, streamed with a
+     * database cursor. Applies the rules of
+     * {@code DocumentAccessControlService.canUserAccessDocument} in the query.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT d.id, d.documentNumber, d.numberReceive, d.signingDate, d.documentType, d.title, d.summary, " +
+           "s.fullName, dd.name, d.signer, d.urgencyLevel, d.securityLevel, d.status " +
+           "FROM InternalDocument d JOIN d.sender s LEFT JOIN d.draftingDepartment dd " +
+           "WHERE COALESCE(d.signingDate, d.createdAt) BETWEEN :start AND :end " +
+           "AND (:all = true OR s.id = :userId " +
+           "    OR EXISTS (SELECT 1 FROM InternalDocumentRecipient r WHERE r.document = d " +
+           "        AND (r.user.id = :userId OR (r.user IS NULL AND r.department.id = :departmentId))) " +
+           "    OR (:departmentLead = true AND (s.department.id = :departmentId " +
+           "        OR EXISTS (SELECT 1 FROM InternalDocumentRecipient r2 WHERE r2.document = d " +
+           "            AND r2.department.id = :departmentId)))) " +
+           "ORDER BY COALESCE(d.signingDate, d.createdAt), d.id")
+    Stream<Object[]> streamRegister(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+            @Param("all") boolean all, @Param("departmentId") Long departmentId, @Param("userId") Long userId,
+            @Param("departmentLead") boolean departmentLead);
+}
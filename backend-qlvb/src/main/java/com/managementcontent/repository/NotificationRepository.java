@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -25,6 +26,34 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Find unread active notifications for a user
     List<Notification> findByUserAndReadFalseAndActiveTrue(User user);
 
+    // Recent notifications only: the lower bound on created_at (the partition key)
+    // lets the planner skip the monthly partitions before it
+
+    @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.active = true AND n.createdAt >= :since")
+    Page<Notification> findRecentByUser(@Param("user") User user, @Param("since") LocalDateTime since,
+            Pageable pageable);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.read = false AND n.active = true " +
+            "AND n.createdAt >= :since")
+    int countRecentUnread(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.type = :type AND n.active = true " +
+            "AND n.createdAt >= :since")
+    Page<Notification> findRecentByUserAndType(@Param("user") User user, @Param("type") NotificationType type,
+            @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.read = false AND n.active = true " +
+            "AND n.createdAt >= :since")
+    List<Notification> findRecentUnread(@Param("user") User user, @Param("since") LocalDateTime since);
+
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.user = :user AND n.active = true AND n.createdAt >= :since")
+    long countRecentByUser(@Param("user") User user, @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.active = false WHERE n.user = :user AND n.active = true " +
+            "AND n.createdAt >= :since")
+    int softDeleteRecentByUser(@Param("user") User user, @Param("since") LocalDateTime since);
+
     // Soft delete all notifications for a user
     @Modifying
     @Query("UPDATE Notification n SET n.active = false WHERE n.user = :user AND n.active = true")
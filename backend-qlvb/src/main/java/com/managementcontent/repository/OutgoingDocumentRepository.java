@@ -2,16 +2,20 @@ package com.managementcontent.repository;
 
 import com.managementcontent.model.Document;
 import com.managementcontent.model.OutgoingDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OutgoingDocumentRepository extends JpaRepository<OutgoingDocument, Long> {
@@ -49,4 +53,28 @@ public interface OutgoingDocumentRepository extends JpaRepository<OutgoingDocume
     Page<OutgoingDocument> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
     List<Document> findByDraftingDepartment(String name);
-}
\ No newline at end of file
+
+    /**
+     * Register rows of outgoing documents signed in a period, streamed with a
+     * database cursor. Unless {@code all} is set, only documents created by
+     * {@code userId}, drafted by or assigned to {@code departmentId}, or with
+     * {@code creatorDepartment} also created by a member of {@code departmentId}
+     * are returned.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT d.id, d.documentNumber, d.signingDate, d.title, d.summary, d.receivingDepartmentText, " +
+           "COALESCE(dd.name, d.draftingDepartment), COALESCE(ds.fullName, s.fullName), d.securityLevel, " +
+           "d.numberOfCopies, d.status " +
+           "FROM OutgoingDocument d LEFT JOIN d.creator c LEFT JOIN d.draftingDepartmentEntity dd " +
+           "LEFT JOIN d.documentSigner ds LEFT JOIN d.signer s " +
+           "WHERE COALESCE(d.signingDate, d.created) BETWEEN :start AND :end " +
+           "AND (:all = true OR c.id = :userId OR dd.id = :departmentId " +
+           "    OR (:creatorDepartment = true AND c.department.id = :departmentId) " +
+           "    OR EXISTS (SELECT 1 FROM DocumentDepartment a WHERE a.document = d AND a.department.id = :departmentId)) " +
+           "ORDER BY COALESCE(d.signingDate, d.created), d.id")
+    Stream<Object[]> streamRegister(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+            @Param("all") boolean all, @Param("departmentId") Long departmentId, @Param("userId") Long userId,
+            @Param("creatorDepartment") boolean creatorDepartment);
+}
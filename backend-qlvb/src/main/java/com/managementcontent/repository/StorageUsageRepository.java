@@ -0,0 +1,83 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.StorageUsage;
+import com.managementcontent.model.StorageUsage.Scope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, Long> {
+
+    Optional<StorageUsage> findByScopeAndScopeKey(Scope scope, String scopeKey);
+
+    List<StorageUsage> findByScopeOrderByTotalBytesDesc(Scope scope);
+
+    /**
+     * Add to a running total, creating the row if needed. A single statement,
+     * so concurrent uploads never lose an update.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at) " +
+            "VALUES (:scope, :scopeKey, :files, :bytes, now()) " +
+            "ON CONFLICT (scope, scope_key) DO UPDATE SET " +
+            "file_count = storage_usage.file_count + EXCLUDED.file_count, " +
+            "total_bytes = storage_usage.total_bytes + EXCLUDED.total_bytes, " +
+            "updated_at = now()", nativeQuery = true)
+    int add(@Param("scope") String scope, @Param("scopeKey") String scopeKey, @Param("files") long files,
+            @Param("bytes") long bytes);
+
+    @Modifying
+    @Query(value = "DELETE FROM storage_usage", nativeQuery = true)
+    int deleteAllRows();
+
+    /**
+     * Recompute per-document totals from the attachment tables
+     */
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at) " +
+            "SELECT 'DOCUMENT', CAST(a.document_id AS varchar), COUNT(*), COALESCE(SUM(a.file_size), 0), now() " +
+            "FROM document_attachments a GROUP BY a.document_id " +
+            "UNION ALL " +
+            "SELECT 'INTERNAL_DOCUMENT', CAST(a.document_id AS varchar), COUNT(*), COALESCE(SUM(a.file_size), 0), now() " +
+            "FROM internal_document_attachment a GROUP BY a.document_id", nativeQuery = true)
+    int insertDocumentTotals();
+
+    /**
+     * Recompute per-department totals. An attachment counts for the uploader's
+     * department, falling back to the document creator's; internal documents
+     * count for their drafting department first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at) " +
+            "SELECT 'DEPARTMENT', x.k, COUNT(*), COALESCE(SUM(x.s), 0), now() FROM (" +
+            " SELECT COALESCE(CAST(COALESCE(u.department_id, c.department_id) AS varchar), '-') AS k, a.file_size AS s" +
+            " FROM document_attachments a JOIN node n ON n.id = a.document_id" +
+            " LEFT JOIN users u ON u.id = a.uploaded_by LEFT JOIN users c ON c.id = n.uid" +
+            " UNION ALL" +
+            " SELECT COALESCE(CAST(COALESCE(d.drafting_department_id, u.department_id) AS varchar), '-'), a.file_size" +
+            " FROM internal_document_attachment a JOIN internal_document d ON d.id = a.document_id" +
+            " LEFT JOIN users u ON u.id = a.uploaded_by" +
+            ") x GROUP BY x.k", nativeQuery = true)
+    int insertDepartmentTotals();
+
+    /**
+     * Recompute per-document-type totals
+     */
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at) " +
+            "SELECT 'DOCUMENT_TYPE', x.k, COUNT(*), COALESCE(SUM(x.s), 0), now() FROM (" +
+            " SELECT COALESCE(t.name, '-') AS k, a.file_size AS s" +
+            " FROM document_attachments a JOIN node n ON n.id = a.document_id" +
+            " LEFT JOIN document_types t ON t.id = n.document_type_id" +
+            " UNION ALL" +
+            " SELECT COALESCE(NULLIF(d.document_type, ''), '-'), a.file_size" +
+            " FROM internal_document_attachment a JOIN internal_document d ON d.id = a.document_id" +
+            ") x GROUP BY x.k", nativeQuery = true)
+    int insertDocumentTypeTotals();
+}
@@ -0,0 +1,52 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * Take the lease of a session that is still uploading. Returns 0 when
+     * another request holds an unexpired lease.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.lockedBy = :owner, s.leaseUntil = :leaseUntil, s.updatedAt = :now " +
+            "WHERE s.id = :id AND s.status = :uploading AND (s.leaseUntil IS NULL OR s.leaseUntil < :now)")
+    int claim(@Param("id") String id, @Param("uploading") UploadSession.Status uploading,
+            @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Release the lease, if the request still holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.lockedBy = NULL, s.leaseUntil = NULL WHERE s.id = :id AND s.lockedBy = :owner")
+    int release(@Param("id") String id, @Param("owner") String owner);
+
+    /**
+     * Move the received offset forward after a part has been stored, if the
+     * request still holds the lease. Never moves it backwards.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.receivedBytes = :received, s.updatedAt = :now " +
+            "WHERE s.id = :id AND s.lockedBy = :owner AND s.receivedBytes < :received")
+    int advanceReceivedBytes(@Param("id") String id, @Param("owner") String owner,
+            @Param("received") long received, @Param("now") LocalDateTime now);
+
+    /**
+     * Sessions that are not completed and have passed their expiry time
+     */
+    List<UploadSession> findByStatusNotAndExpiresAtBefore(UploadSession.Status status, LocalDateTime time);
+}
@@ -3,13 +3,15 @@ package com.managementcontent.repository;
 import com.managementcontent.model.User;
 import com.managementcontent.model.enums.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
     Optional<User> findByName(String username);
 
     boolean existsByName(String username);
@@ -19,6 +21,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Fix: Change return type to long for count operation
     int countByDepartmentId(Long departmentId);
 
+    /**
+     * Count users per department for a set of departments in one grouped query.
+     * Each row is [departmentId, userCount].
+     */
+    @Query("SELECT u.department.id, COUNT(u) FROM User u WHERE u.department.id IN :departmentIds GROUP BY u.department.id")
+    List<Object[]> countUsersGroupedByDepartment(@Param("departmentIds") Collection<Long> departmentIds);
+
+    /**
+     * Count users per department across the whole department tree.
+     * Each row is [departmentId, userCount].
+     */
+    @Query("SELECT u.department.id, COUNT(u) FROM User u WHERE u.department IS NOT NULL GROUP BY u.department.id")
+    List<Object[]> countUsersGroupedByDepartment();
+
     // Add method to find users by department
     List<User> findByDepartmentId(Long departmentId);
 
@@ -46,4 +62,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByIsCommanderOfUnitTrue();
 
+    /**
+     * Username and full name of every user, without loading roles or departments.
+     * Each row is [id, name, fullName].
+     */
+    @Query("SELECT u.id, u.name, u.fullName FROM User u")
+    List<Object[]> findAllNames();
+
+    /**
+     * Same as {@link #findAllNames()} for the given usernames only
+     */
+    @Query("SELECT u.id, u.name, u.fullName FROM User u WHERE u.name IN :names")
+    List<Object[]> findNamesByNameIn(@Param("names") Collection<String> names);
+
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.Role;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.UserStatus;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Reusable JPA specifications for querying users in the database instead of
+ * filtering {@code findAll()} results in memory.
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    /**
+     * Users holding the role with the given ID
+     */
+    public static Specification<User> hasRoleId(Long roleId) {
+        return (root, query, cb) -> {
+            if (roleId == null) {
+                return null;
+            }
+            Subquery<Long> subquery = query.subquery(Long.class);
+            var subRoot = subquery.from(User.class);
+            Join<User, Role> roles = subRoot.join("roles");
+            subquery.select(subRoot.get("id"))
+                    .where(cb.equal(subRoot.get("id"), root.get("id")),
+                            cb.equal(roles.get("rid"), roleId));
+            return cb.exists(subquery);
+        };
+    }
+
+    /**
+     * Users holding the role with the given name (e.g. ROLE_TRUONG_PHONG)
+     */
+    public static Specification<User> hasRoleName(String roleName) {
+        return (root, query, cb) -> {
+            if (roleName == null || roleName.isBlank()) {
+                return null;
+            }
+            Subquery<Long> subquery = query.subquery(Long.class);
+            var subRoot = subquery.from(User.class);
+            Join<User, Role> roles = subRoot.join("roles");
+            subquery.select(subRoot.get("id"))
+                    .where(cb.equal(subRoot.get("id"), root.get("id")),
+                            cb.equal(roles.get("name"), roleName));
+            return cb.exists(subquery);
+        };
+    }
+
+    /**
+     * Users with exactly the given status value
+     */
+    public static Specification<User> hasStatus(Integer status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Status filter of the user management screen: 1 means active, 0 means
+     * anything that is not active (including no status), other values match
+     * exactly
+     */
+    public static Specification<User> matchesScreenStatus(Integer status) {
+        return (root, query, cb) -> {
+            if (status == null) {
+                return null;
+            }
+            if (status == 0) {
+                int active = UserStatus.ACTIVE.getValue();
+                return cb.or(cb.isNull(root.get("status")), cb.notEqual(root.get("status"), active));
+            }
+            return cb.equal(root.get("status"), status);
+        };
+    }
+
+    /**
+     * Case-insensitive keyword match on username, full name or email
+     */
+    public static Specification<User> matchesKeyword(String keyword) {
+        return (root, query, cb) -> {
+            if (keyword == null || keyword.isBlank()) {
+                return null;
+            }
+            String pattern = "%" + keyword.trim().toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("fullName")), pattern),
+                    cb.like(cb.lower(root.get("mail")), pattern));
+        };
+    }
+
+    /**
+     * Users belonging to the given department
+     */
+    public static Specification<User> inDepartment(Long departmentId) {
+        return (root, query, cb) -> departmentId == null
+                ? null
+                : cb.equal(root.get("department").get("id"), departmentId);
+    }
+}
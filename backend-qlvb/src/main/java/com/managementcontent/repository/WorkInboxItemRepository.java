@@ -0,0 +1,103 @@
+package com.managementcontent.repository;
+
+import com.managementcontent.model.WorkInboxItem;
+import com.managementcontent.model.WorkInboxItem.DocumentKind;
+import com.managementcontent.model.WorkInboxItem.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkInboxItemRepository extends JpaRepository<WorkInboxItem, Long> {
+
+    Optional<WorkInboxItem> findByUserIdAndDocumentKindAndDocumentId(Long userId, DocumentKind documentKind,
+                                                                     Long documentId);
+
+    List<WorkInboxItem> findByDocumentKindAndDocumentIdAndUserIdIn(DocumentKind documentKind, Long documentId,
+                                                                  Collection<Long> userIds);
+
+    Page<WorkInboxItem> findByUserIdAndStateOrderByReceivedAtDesc(Long userId, State state, Pageable pageable);
+
+    Page<WorkInboxItem> findByUserIdAndDocumentKindAndStateOrderByReceivedAtDesc(Long userId,
+                                                                                DocumentKind documentKind,
+                                                                                State state, Pageable pageable);
+
+    Page<WorkInboxItem> findByUserIdAndStateAndUrgentTrueOrderByDeadlineAsc(Long userId, State state,
+                                                                           Pageable pageable);
+
+    long countByUserIdAndStateAndIsReadFalse(Long userId, State state);
+
+    long countByUserIdAndDocumentKindAndStateAndIsReadFalse(Long userId, DocumentKind documentKind, State state);
+
+    long countByUserIdAndState(Long userId, State state);
+
+    @Modifying
+    @Query("UPDATE WorkInboxItem i SET i.isRead = :isRead, i.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE i.userId = :userId AND i.documentKind = :kind AND i.documentId = :documentId")
+    int updateReadFlag(@Param("userId") Long userId, @Param("kind") DocumentKind kind,
+                       @Param("documentId") Long documentId, @Param("isRead") boolean isRead);
+
+    @Modifying
+    @Query("UPDATE WorkInboxItem i SET i.state = :state, i.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE i.userId = :userId AND i.documentKind = :kind AND i.documentId = :documentId")
+    int updateState(@Param("userId") Long userId, @Param("kind") DocumentKind kind,
+                    @Param("documentId") Long documentId, @Param("state") State state);
+
+    @Modifying
+    @Query("UPDATE WorkInboxItem i SET i.state = :state, i.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE i.documentKind = :kind AND i.documentId = :documentId")
+    int updateStateForDocument(@Param("kind") DocumentKind kind, @Param("documentId") Long documentId,
+                               @Param("state") State state);
+
+    @Modifying
+    @Query("DELETE FROM WorkInboxItem i WHERE i.documentKind = :kind AND i.documentId = :documentId")
+    int deleteByDocument(@Param("kind") DocumentKind kind, @Param("documentId") Long documentId);
+
+    /**
+     * Backfill internal document recipients (direct and department-wide) that have no inbox row yet
+     */
+    @Modifying
+    @Query(value = "INSERT INTO work_inbox (user_id, document_kind, document_id, state, is_read, priority, urgent, " +
+            "deadline, received_at, updated_at) " +
+            "SELECT u.id, 'INTERNAL', d.id, 'PENDING', BOOL_OR(r.is_read), d.urgency_level, " +
+            "d.urgency_level IN ('HOA_TOC', 'HOA_TOC_HEN_GIO', 'THUONG_KHAN'), d.processing_deadline, " +
+            "MIN(r.received_at), NOW() " +
+            "FROM internal_document_recipient r " +
+            "JOIN internal_document d ON d.id = r.document_id " +
+            "JOIN users u ON (u.id = r.user_id OR (r.user_id IS NULL AND u.department_id = r.department_id)) " +
+            "GROUP BY u.id, d.id, d.urgency_level, d.processing_deadline " +
+            "ON CONFLICT (user_id, document_kind, document_id) DO NOTHING", nativeQuery = true)
+    int backfillInternalRecipients();
+
+    /**
+     * Backfill incoming/outgoing documents assigned to a user through the workflow history
+     */
+    @Modifying
+    @Query(value = "INSERT INTO work_inbox (user_id, document_kind, document_id, state, is_read, priority, urgent, " +
+            "deadline, received_at, updated_at) " +
+            "SELECT h.assigned_to_id, CASE WHEN n.type = 'outgoing_document' THEN 'OUTGOING' ELSE 'INCOMING' END, " +
+            "n.id, 'PENDING', FALSE, p.priority, " +
+            "COALESCE(p.priority IN ('HOA_TOC', 'HOA_TOC_HEN_GIO', 'THUONG_KHAN'), FALSE), " +
+            "n.process_deadline, MAX(h.timestamp), NOW() " +
+            "FROM document_history h " +
+            "JOIN node n ON n.id = h.document_id " +
+            "LEFT JOIN incoming_document i ON i.id = n.id " +
+            // Same mapping as WorkInboxService.priorityOf
+            "CROSS JOIN LATERAL (SELECT CASE UPPER(TRIM(i.urgency_level)) " +
+            "WHEN 'NORMAL' THEN 'THUONG' WHEN 'URGENT' THEN 'KHAN' WHEN 'HIGH' THEN 'THUONG_KHAN' " +
+            "WHEN 'CRITICAL' THEN 'HOA_TOC' WHEN 'EMERGENCY' THEN 'HOA_TOC_HEN_GIO' " +
+            "WHEN 'THUONG' THEN 'THUONG' WHEN 'KHAN' THEN 'KHAN' WHEN 'THUONG_KHAN' THEN 'THUONG_KHAN' " +
+            "WHEN 'HOA_TOC' THEN 'HOA_TOC' WHEN 'HOA_TOC_HEN_GIO' THEN 'HOA_TOC_HEN_GIO' END AS priority) p " +
+            "WHERE h.assigned_to_id IS NOT NULL " +
+            "GROUP BY h.assigned_to_id, n.id, n.type, n.process_deadline, p.priority " +
+            "ON CONFLICT (user_id, document_kind, document_id) DO NOTHING", nativeQuery = true)
+    int backfillWorkflowAssignments();
+}
@@ -14,7 +14,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,34 +28,20 @@ public class ActivityLogService {
     private final UserRepository userRepository;
     private final DocumentRepository<Document> documentRepository;
     private final WorkCaseRepository workCaseRepository;
+    private final WriteBehindLogService writeBehindLogService;
+    private final ActivityRollupService activityRollupService;
     
-    @Transactional
-    public ActivityLogDTO logActivity(String actionType, String actionDescription, Long userId, 
-                                     Long documentId, Long workCaseId, String ipAddress, 
-                                     String additionalData) {
-        ActivityLog log = new ActivityLog();
-        log.setActionType(actionType);
-        log.setActionDescription(actionDescription);
-        log.setIpAddress(ipAddress);
-        log.setAdditionalData(additionalData);
-        
-        // Set user if provided
-        if (userId != null) {
-            userRepository.findById(userId).ifPresent(log::setUser);
-        }
-        
-        // Set document if provided
-        if (documentId != null) {
-            documentRepository.findById(documentId).ifPresent(log::setDocument);
-        }
-        
-        // Set work case if provided
-        if (workCaseId != null) {
-            workCaseRepository.findById(workCaseId).ifPresent(log::setWorkCase);
-        }
-        
-        ActivityLog savedLog = activityLogRepository.save(log);
-        return convertToDTO(savedLog);
+    /**
+     * Queue an activity log entry; it is written in a batch shortly after,
+     * with its users, documents and work cases referenced by ID
+     *
+     * @return false if the log queue was full and the entry was dropped
+     */
+    public boolean logActivity(String actionType, String actionDescription, Long userId,
+                               Long documentId, Long workCaseId, String ipAddress,
+                               String additionalData) {
+        return writeBehindLogService.logActivity(actionType, actionDescription, userId, documentId, workCaseId,
+                ipAddress, additionalData);
     }
     
     public List<ActivityLogDTO> getLogsByUser(Long userId) {
@@ -130,16 +115,15 @@ public class ActivityLogService {
     }
     
     public List<Object[]> getMostActiveUsers(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return activityLogRepository.findMostActiveUsers(pageable);
+        return activityRollupService.getMostActiveUsers(limit);
     }
     
     public List<Object[]> getDocumentActivityByMonth(LocalDateTime start, LocalDateTime end) {
-        return activityLogRepository.countDocumentActivityByMonth(start, end);
+        return activityRollupService.getDocumentActivityByMonth(start, end);
     }
     
     public List<Object[]> getActionTypeCounts() {
-        return activityLogRepository.countByActionType();
+        return activityRollupService.getActionTypeCounts();
     }
     
     private ActivityLogDTO convertToDTO(ActivityLog activityLog) {
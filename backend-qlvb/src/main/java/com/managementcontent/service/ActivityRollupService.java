@@ -0,0 +1,252 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.ActivityLogRollup.Granularity;
+import com.managementcontent.model.ActivityLogRollupWatermark;
+import com.managementcontent.repository.ActivityLogRollupRepository;
+import com.managementcontent.repository.ActivityLogRollupWatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Activity analytics over hourly and daily rollups of {@code activity_logs}.
+ * A scheduled job counts each hour once it has closed (plus a grace period
+ * for log entries still queued in {@link WriteBehindLogService}) and sums
+ * closed days from the hourly rows, advancing a watermark per granularity.
+ * Queued entries keep the time they were logged, so a flush delayed past the
+ * grace period lands in an hour already rolled up; each run therefore counts
+ * a trailing window of hours below the watermark again and re-sums the days
+ * it touches. The rollup upserts are idempotent, so this only corrects counts.
+ * Queries read whole days and hours from the rollups and only scan
+ * {@code activity_logs} for what lies past the hourly watermark and for the
+ * partial hours at the edges of the requested range.
+ */
+@Service
+@Slf4j
+public class ActivityRollupService {
+
+    private static final LocalDateTime ALL_TIME_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime ALL_TIME_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final String ROLLUP_SOURCE = "SELECT r.bucket_start AS ts, r.user_id, r.action_type, r.document_id, " +
+            "r.event_count AS n FROM activity_log_rollup r " +
+            "WHERE r.granularity = '%s' AND r.bucket_start >= ? AND r.bucket_start < ?";
+
+    private static final String RAW_SOURCE = "SELECT a.timestamp, COALESCE(a.user_id, 0), a.action_type, " +
+            "COALESCE(a.document_id, 0), 1 FROM activity_logs a WHERE a.timestamp >= ? AND a.timestamp < ?";
+
+    /**
+     * Entries of a range as (ts, user_id, action_type, document_id, n) rows,
+     * bound with the parameters of a {@link Plan}
+     */
+    private static final String SOURCE = "(" +
+            ROLLUP_SOURCE.formatted(Granularity.DAY) +
+            " UNION ALL " + ROLLUP_SOURCE.formatted(Granularity.HOUR) +
+            " UNION ALL " + ROLLUP_SOURCE.formatted(Granularity.HOUR) +
+            " UNION ALL " + RAW_SOURCE +
+            " UNION ALL " + RAW_SOURCE +
+            ") src";
+
+    /**
+     * Half-open range [from, to), empty if from is not before to
+     */
+    private record Range(LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Split of a queried range between the daily rows, the hourly rows on
+     * either side of them and the raw entries on either side of those
+     */
+    private record Plan(Range days, Range hoursBefore, Range hoursAfter, Range rawBefore, Range rawAfter) {
+
+        List<Object> parameters() {
+            List<Object> parameters = new ArrayList<>();
+            for (Range range : List.of(days, hoursBefore, hoursAfter, rawBefore, rawAfter)) {
+                parameters.add(range.from());
+                parameters.add(range.to());
+            }
+            return parameters;
+        }
+    }
+
+    private final ActivityLogRollupRepository rollupRepository;
+    private final ActivityLogRollupWatermarkRepository watermarkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lag;
+    private final Duration reRollWindow;
+    private final int chunkDays;
+
+    public ActivityRollupService(ActivityLogRollupRepository rollupRepository,
+            ActivityLogRollupWatermarkRepository watermarkRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${activity-rollup.lag-minutes:5}") long lagMinutes,
+            @Value("${activity-rollup.reroll-hours:2}") long reRollHours,
+            @Value("${activity-rollup.chunk-days:7}") int chunkDays) {
+        this.rollupRepository = rollupRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lag = Duration.ofMinutes(lagMinutes);
+        this.reRollWindow = Duration.ofHours(Math.max(0, reRollHours));
+        this.chunkDays = Math.max(1, chunkDays);
+    }
+
+    /**
+     * [userId, count] of the users with the most activity, most active first
+     */
+    public List<Object[]> getMostActiveUsers(int limit) {
+        Plan plan = plan(ALL_TIME_START, ALL_TIME_END);
+        List<Object> parameters = plan.parameters();
+        parameters.add(limit);
+        return jdbcTemplate.query("SELECT src.user_id, SUM(src.n) FROM " + SOURCE +
+                " WHERE src.user_id <> 0 GROUP BY src.user_id ORDER BY 2 DESC, 1 LIMIT ?",
+                (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getLong(2) },
+                parameters.toArray());
+    }
+
+    /**
+     * [year, month, count] of the activity on documents between start and
+     * end, both inclusive
+     */
+    public List<Object[]> getDocumentActivityByMonth(LocalDateTime start, LocalDateTime end) {
+        Plan plan = plan(start, end.plus(1, ChronoUnit.MICROS));
+        return jdbcTemplate.query("SELECT CAST(EXTRACT(YEAR FROM src.ts) AS int), " +
+                "CAST(EXTRACT(MONTH FROM src.ts) AS int), SUM(src.n) FROM " + SOURCE +
+                " WHERE src.document_id <> 0 GROUP BY 1, 2 ORDER BY 1, 2",
+                (rs, rowNum) -> new Object[] { rs.getInt(1), rs.getInt(2), rs.getLong(3) },
+                plan.parameters().toArray());
+    }
+
+    /**
+     * [actionType, count] over all activity
+     */
+    public List<Object[]> getActionTypeCounts() {
+        Plan plan = plan(ALL_TIME_START, ALL_TIME_END);
+        return jdbcTemplate.query("SELECT src.action_type, SUM(src.n) FROM " + SOURCE +
+                " GROUP BY src.action_type",
+                (rs, rowNum) -> new Object[] { rs.getString(1), rs.getLong(2) },
+                plan.parameters().toArray());
+    }
+
+    /**
+     * Roll up the hours and days that closed since the last run, and roll up
+     * the trailing window of hours and the days it touches again
+     */
+    @Scheduled(fixedDelayString = "${activity-rollup.interval-ms:300000}", initialDelayString = "${activity-rollup.initial-delay-ms:60000}")
+    public void rollUp() {
+        try {
+            LocalDateTime hourMark = rollUp(Granularity.HOUR,
+                    LocalDateTime.now().minus(lag).truncatedTo(ChronoUnit.HOURS));
+            LocalDateTime since = hourMark.minus(reRollWindow);
+            reRoll(Granularity.HOUR, since, hourMark);
+            LocalDateTime dayMark = rollUp(Granularity.DAY, hourMark.truncatedTo(ChronoUnit.DAYS));
+            reRoll(Granularity.DAY, since.truncatedTo(ChronoUnit.DAYS), dayMark);
+        } catch (RuntimeException e) {
+            log.error("Lỗi khi tổng hợp nhật ký hoạt động", e);
+        }
+    }
+
+    /**
+     * Advance the watermark of a granularity to target, one chunk per
+     * transaction so a long backlog is not rolled up in a single statement
+     *
+     * @return The new watermark
+     */
+    private LocalDateTime rollUp(Granularity granularity, LocalDateTime target) {
+        ChronoUnit unit = granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime mark = watermarks().get(granularity);
+        if (mark == null) {
+            LocalDateTime first = rollupRepository.findFirstActivityTime();
+            mark = first != null && first.isBefore(target) ? first.truncatedTo(unit) : target;
+            saveWatermark(granularity, mark);
+        }
+        while (mark.isBefore(target)) {
+            LocalDateTime from = mark;
+            LocalDateTime to = min(from.plusDays(chunkDays), target);
+            transactionTemplate.executeWithoutResult(status -> {
+                int rows = granularity == Granularity.HOUR
+                        ? rollupRepository.rollUpHours(from, to)
+                        : rollupRepository.rollUpDays(from, to);
+                saveWatermark(granularity, to);
+                log.debug("Đã tổng hợp {} dòng {} từ {} đến {}", rows, granularity, from, to);
+            });
+            mark = to;
+        }
+        return mark;
+    }
+
+    /**
+     * Count [from, to) again, below the watermark, so entries written after
+     * their bucket was rolled up are included
+     */
+    private void reRoll(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        int rows = transactionTemplate.execute(status -> granularity == Granularity.HOUR
+                ? rollupRepository.rollUpHours(from, to)
+                : rollupRepository.rollUpDays(from, to));
+        log.debug("Đã tổng hợp lại {} dòng {} từ {} đến {}", rows, granularity, from, to);
+    }
+
+    private void saveWatermark(Granularity granularity, LocalDateTime rolledUpTo) {
+        watermarkRepository.save(ActivityLogRollupWatermark.builder()
+                .granularity(granularity)
+                .rolledUpTo(rolledUpTo)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Map<Granularity, LocalDateTime> watermarks() {
+        Map<Granularity, LocalDateTime> watermarks = new EnumMap<>(Granularity.class);
+        watermarkRepository.findAll().forEach(w -> watermarks.put(w.getGranularity(), w.getRolledUpTo()));
+        return watermarks;
+    }
+
+    private Plan plan(LocalDateTime from, LocalDateTime to) {
+        Map<Granularity, LocalDateTime> watermarks = watermarks();
+        LocalDateTime hourMark = watermarks.getOrDefault(Granularity.HOUR, ALL_TIME_START);
+        LocalDateTime dayMark = min(watermarks.getOrDefault(Granularity.DAY, ALL_TIME_START), hourMark);
+
+        LocalDateTime hoursStart = ceil(from, ChronoUnit.HOURS);
+        LocalDateTime hoursEnd = min(to.truncatedTo(ChronoUnit.HOURS), hourMark);
+        if (!hoursStart.isBefore(hoursEnd)) {
+            Range none = new Range(from, from);
+            return new Plan(none, none, none, new Range(from, to), none);
+        }
+        LocalDateTime daysStart = ceil(hoursStart, ChronoUnit.DAYS);
+        LocalDateTime daysEnd = min(hoursEnd.truncatedTo(ChronoUnit.DAYS), dayMark);
+        if (!daysStart.isBefore(daysEnd)) {
+            daysStart = hoursEnd;
+            daysEnd = hoursEnd;
+        }
+        return new Plan(new Range(daysStart, daysEnd),
+                new Range(hoursStart, daysStart),
+                new Range(daysEnd, hoursEnd),
+                new Range(from, hoursStart),
+                new Range(hoursEnd, to));
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,252 @@
+package com.managementcontent.service;
+
+import com.managementcontent.service.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Writes uploaded multipart parts to their final location.
+ * Parts small enough to be held in memory by the multipart resolver are
+ * written once while their SHA-256 is computed on the fly. Larger parts that
+ * were spooled to the staging directory are moved into place (a rename when
+ * both are on the same volume) and hashed with a single sequential read, so no
+ * upload is written to disk twice. Stores without a local filesystem receive
+ * the part as a single stream that is hashed on the way. Several parts of one
+ * request are stored concurrently.
+ */
+@Service
+@Slf4j
+public class AttachmentIngestionService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long memoryThreshold;
+
+    public AttachmentIngestionService(
+            @Qualifier("attachmentStorageExecutor") ThreadPoolTaskExecutor executor,
+            @Value("${spring.servlet.multipart.file-size-threshold:0B}") DataSize memoryThreshold) {
+        this.executor = executor;
+        this.memoryThreshold = memoryThreshold.toBytes();
+    }
+
+    /**
+     * Result of storing one part
+     *
+     * @param source       The uploaded part
+     * @param relativePath Path relative to the storage root (year/month/day/filename)
+     * @param size         Number of bytes written
+     * @param checksum     Hex encoded SHA-256 of the content
+     */
+    public record StoredFile(MultipartFile source, String relativePath, long size, String checksum) {
+
+        public String storedFilename() {
+            int slash = relativePath.lastIndexOf('/');
+            return slash >= 0 ? relativePath.substring(slash + 1) : relativePath;
+        }
+
+        public String originalFilename() {
+            return source.getOriginalFilename();
+        }
+
+        public String contentType() {
+            return source.getContentType();
+        }
+    }
+
+    /**
+     * Result of storing content that is not an uploaded part
+     *
+     * @param relativePath Path relative to the storage root
+     * @param size         Number of bytes written
+     * @param checksum     Hex encoded SHA-256 of the content
+     */
+    public record StoredContent(String relativePath, long size, String checksum) {
+    }
+
+    /**
+     * Store one part in the given store
+     *
+     * @param file         The uploaded part
+     * @param store        Target blob store
+     * @param relativePath Target key (year/month/day/filename)
+     * @return Information about the stored file
+     */
+    public StoredFile store(MultipartFile file, BlobStore store, String relativePath) throws IOException {
+        Path target = store.localPath(relativePath).orElse(null);
+        if (target == null) {
+            return putWithDigest(file, store, relativePath);
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            if (file.getSize() <= memoryThreshold) {
+                return writeWithDigest(file, target, relativePath);
+            }
+            // Spooled part: Part.write lets the container rename its temp file into place
+            file.transferTo(target.toFile());
+            return new StoredFile(file, relativePath, Files.size(target), digest(target));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    /**
+     * Store a stream, such as an entry of an uploaded archive, hashing it on
+     * the way. The stream is read to the end but not closed.
+     *
+     * @param content      Content to store
+     * @param store        Target blob store
+     * @param relativePath Target key
+     * @param length       Number of bytes, or -1 if unknown
+     * @param contentType  MIME type, may be null
+     * @return Information about the stored content
+     */
+    public StoredContent storeContent(InputStream content, BlobStore store, String relativePath, long length,
+            String contentType) throws IOException {
+        MessageDigest digest = newDigest();
+        long size = store.put(relativePath, new DigestInputStream(content, digest), length, contentType).size();
+        return new StoredContent(relativePath, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Store several parts concurrently. Either every non-empty part is stored or,
+     * when one fails, the parts already written are removed and the failure is
+     * rethrown.
+     *
+     * @param files        Uploaded parts; empty parts are skipped
+     * @param store        Target blob store
+     * @param pathResolver Produces the relative target path for a part
+     * @return Stored files in the order of the input
+     */
+    public List<StoredFile> storeAll(List<MultipartFile> files, BlobStore store,
+            Function<MultipartFile, String> pathResolver) throws IOException {
+        List<MultipartFile> parts = files == null ? List.of()
+                : files.stream().filter(file -> file != null && !file.isEmpty()).toList();
+        if (parts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (parts.size() == 1) {
+            MultipartFile only = parts.get(0);
+            return new ArrayList<>(List.of(store(only, store, pathResolver.apply(only))));
+        }
+
+        List<CompletableFuture<StoredFile>> futures = parts.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return store(file, store, pathResolver.apply(file));
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor))
+                .toList();
+
+        List<StoredFile> stored = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        for (CompletableFuture<StoredFile> future : futures) {
+            try {
+                stored.add(future.join());
+            } catch (CompletionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if (failure != null) {
+            deleteQuietly(store, stored);
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Lỗi khi lưu file đính kèm: " + failure.getMessage(), failure);
+        }
+        return stored;
+    }
+
+    /**
+     * Remove stored files again if the surrounding transaction rolls back, so a
+     * failed metadata insert does not leave orphaned files behind
+     */
+    public void deleteOnRollback(BlobStore store, List<StoredFile> stored) {
+        if (stored.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    deleteQuietly(store, stored);
+                }
+            }
+        });
+    }
+
+    private StoredFile writeWithDigest(MultipartFile file, Path target, String relativePath) throws IOException {
+        MessageDigest digest = newDigest();
+        long size;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE)) {
+            size = in.transferTo(out);
+        }
+        return new StoredFile(file, relativePath, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private StoredFile putWithDigest(MultipartFile file, BlobStore store, String relativePath) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            long size = store.put(relativePath, in, file.getSize(), file.getContentType()).size();
+            return new StoredFile(file, relativePath, size, HexFormat.of().formatHex(digest.digest()));
+        }
+    }
+
+    private String digest(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void deleteQuietly(BlobStore store, List<StoredFile> stored) {
+        for (StoredFile file : stored) {
+            try {
+                store.delete(file.relativePath());
+            } catch (IOException e) {
+                log.warn("Không thể xóa file {}: {}", file.relativePath(), e.getMessage());
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.managementcontent.service;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the text of PDF, plain text and DOCX files one page (or one chunk for
+ * formats without pages) at a time and hands each piece to a {@link PageSink},
+ * so the memory used does not grow with the size of the file.
+ */
+@Component
+public class AttachmentTextExtractor {
+
+    /**
+     * Target size of a chunk for formats without pages
+     */
+    static final int CHUNK_CHARS = 32 * 1024;
+
+    /**
+     * Receives extracted text; called once per non-empty page or chunk
+     */
+    @FunctionalInterface
+    public interface PageSink {
+        void accept(int pageNumber, String text) throws IOException;
+    }
+
+    private enum Format {
+        PDF, TEXT, DOCX
+    }
+
+    /**
+     * Whether a reader exists for the given file
+     */
+    public boolean supports(String contentType, String filename) {
+        return detect(contentType, filename) != null;
+    }
+
+    /**
+     * Extract the text of a file
+     *
+     * @return Number of pages or chunks read
+     * @throws IllegalArgumentException when the file type is not supported
+     */
+    public int extract(Path file, String contentType, String filename, PageSink sink) throws IOException {
+        Format format = detect(contentType, filename);
+        if (format == null) {
+            throw new IllegalArgumentException("Không hỗ trợ trích xuất nội dung: " + filename);
+        }
+        return switch (format) {
+            case PDF -> extractPdf(file, sink);
+            case TEXT -> extractText(file, sink);
+            case DOCX -> extractDocx(file, sink);
+        };
+    }
+
+    private int extractPdf(Path file, PageSink sink) throws IOException {
+        try (PDDocument document = PDDocument.load(file.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            // Fonts and images of pages already read are not needed again
+            document.setResourceCache(null);
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            int pages = document.getNumberOfPages();
+            for (int page = 1; page <= pages; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                String text = stripper.getText(document);
+                if (!text.isBlank()) {
+                    sink.accept(page, text);
+                }
+            }
+            return pages;
+        }
+    }
+
+    private int extractText(Path file, PageSink sink) throws IOException {
+        var decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        int chunk = 0;
+        StringBuilder buffer = new StringBuilder(CHUNK_CHARS + 1024);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), decoder))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                buffer.append(line).append('\n');
+                if (buffer.length() >= CHUNK_CHARS) {
+                    chunk = flush(buffer, chunk, sink);
+                }
+            }
+        }
+        return flush(buffer, chunk, sink);
+    }
+
+    private int extractDocx(Path file, PageSink sink) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        int chunk = 0;
+        StringBuilder buffer = new StringBuilder(CHUNK_CHARS + 1024);
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            ZipEntry entry = zip.getEntry("word/document.xml");
+            if (entry == null) {
+                throw new IOException("File DOCX không hợp lệ: thiếu word/document.xml");
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                XMLStreamReader reader = factory.createXMLStreamReader(in);
+                try {
+                    boolean inText = false;
+                    while (reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            switch (reader.getLocalName()) {
+                                case "t" -> inText = true;
+                                case "tab" -> buffer.append('\t');
+                                case "br", "cr" -> buffer.append('\n');
+                                default -> {
+                                }
+                            }
+                        } else if (event == XMLStreamConstants.CHARACTERS && inText) {
+                            buffer.append(reader.getText());
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                            String name = reader.getLocalName();
+                            if ("t".equals(name)) {
+                                inText = false;
+                            } else if ("p".equals(name)) {
+                                buffer.append('\n');
+                                if (buffer.length() >= CHUNK_CHARS) {
+                                    chunk = flush(buffer, chunk, sink);
+                                }
+                            }
+                        }
+                    }
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                throw new IOException("Không thể đọc nội dung DOCX: " + e.getMessage(), e);
+            }
+        }
+        return flush(buffer, chunk, sink);
+    }
+
+    private int flush(StringBuilder buffer, int chunk, PageSink sink) throws IOException {
+        if (buffer.isEmpty()) {
+            return chunk;
+        }
+        String text = buffer.toString();
+        buffer.setLength(0);
+        if (text.isBlank()) {
+            return chunk;
+        }
+        sink.accept(chunk + 1, text);
+        return chunk + 1;
+    }
+
+    private Format detect(String contentType, String filename) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (type.equals("application/pdf") || name.endsWith(".pdf")) {
+            return Format.PDF;
+        }
+        if (type.equals("application/vnd.openxmlformats-officedocument.wordprocessingml.document")
+                || name.endsWith(".docx")) {
+            return Format.DOCX;
+        }
+        if (type.startsWith("text/") || name.endsWith(".txt") || name.endsWith(".csv")) {
+            return Format.TEXT;
+        }
+        return null;
+    }
+}
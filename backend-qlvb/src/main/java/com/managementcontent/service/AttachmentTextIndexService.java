@@ -0,0 +1,559 @@
+package com.managementcontent.service;
+
+import com.managementcontent.dto.AttachmentTextHitDTO;
+import com.managementcontent.model.AttachmentTextJob;
+import com.managementcontent.model.AttachmentTextJob.SourceType;
+import com.managementcontent.model.AttachmentTextJob.Status;
+import com.managementcontent.model.AttachmentTextPage;
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.AttachmentTextJobRepository;
+import com.managementcontent.repository.AttachmentTextPageRepository;
+import com.managementcontent.repository.AttachmentTextPageRepository.TextHit;
+import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.repository.InternalDocumentAttachmentRepository;
+import com.managementcontent.repository.InternalDocumentRepository;
+import com.managementcontent.service.storage.BlobStore;
+import com.managementcontent.service.storage.BlobStore.LocalCopy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background pipeline that extracts the text of uploaded attachments and
+ * stores it page by page in a PostgreSQL full-text index.
+ * <p>
+ * New attachments are queued in {@code attachment_text_jobs} once their
+ * transaction commits (see {@link com.managementcontent.events.AttachmentTextListener}).
+ * A scheduled poller claims due jobs and hands them to a small worker pool.
+ * Because the queue is a table, pending work survives restarts, and
+ * attachments that were never queued are picked up by a reconciliation sweep.
+ * A claimed job carries a lease naming its worker; the worker renews it while
+ * extracting and in the same transaction as every write of pages, so when
+ * several nodes share the queue only jobs whose lease expired (their node died
+ * or hung) are put back, and a worker that lost its lease stops before it
+ * touches the pages again.
+ */
+@Service
+@Slf4j
+public class AttachmentTextIndexService {
+
+    private static final int PAGE_BATCH_SIZE = 20;
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    private final AttachmentTextJobRepository jobRepository;
+    private final AttachmentTextPageRepository pageRepository;
+    private final DocumentAttachmentRepository documentAttachmentRepository;
+    private final InternalDocumentAttachmentRepository internalDocumentAttachmentRepository;
+    private final InternalDocumentRepository internalDocumentRepository;
+    private final BlobStore attachmentStore;
+    private final BlobStore internalDocumentStore;
+    private final DocumentAccessControlService accessControlService;
+    private final AttachmentTextExtractor extractor;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate newTransaction;
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+    private final String workerId;
+
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    // Throughput counters since startup
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong jobsCompleted = new AtomicLong();
+    private final AtomicLong jobsSkipped = new AtomicLong();
+    private final AtomicLong jobsFailed = new AtomicLong();
+    private final AtomicLong pagesExtracted = new AtomicLong();
+    private final AtomicLong charsExtracted = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    public AttachmentTextIndexService(AttachmentTextJobRepository jobRepository,
+            AttachmentTextPageRepository pageRepository,
+            DocumentAttachmentRepository documentAttachmentRepository,
+            InternalDocumentAttachmentRepository internalDocumentAttachmentRepository,
+            InternalDocumentRepository internalDocumentRepository,
+            @Qualifier("attachmentBlobStore") BlobStore attachmentStore,
+            @Qualifier("internalDocumentBlobStore") BlobStore internalDocumentStore,
+            DocumentAccessControlService accessControlService,
+            AttachmentTextExtractor extractor,
+            @Qualifier("textExtractionExecutor") ThreadPoolTaskExecutor executor,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.text-extraction.max-attempts:5}") int maxAttempts,
+            @Value("${file.text-extraction.lease-minutes:5}") long leaseMinutes) {
+        this.jobRepository = jobRepository;
+        this.pageRepository = pageRepository;
+        this.documentAttachmentRepository = documentAttachmentRepository;
+        this.internalDocumentAttachmentRepository = internalDocumentAttachmentRepository;
+        this.internalDocumentRepository = internalDocumentRepository;
+        this.attachmentStore = attachmentStore;
+        this.internalDocumentStore = internalDocumentStore;
+        this.accessControlService = accessControlService;
+        this.extractor = extractor;
+        this.executor = executor;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = Duration.ofMinutes(leaseMinutes);
+        String node = ManagementFactory.getRuntimeMXBean().getName();
+        this.workerId = (node.length() > 80 ? node.substring(0, 80) : node) + "/"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Jobs interrupted by the last shutdown go back to the queue once their lease expires
+        reconcile();
+    }
+
+    /**
+     * Queue an attachment for extraction. Does nothing if it is already queued.
+     */
+    public void enqueue(SourceType sourceType, Long attachmentId, Long documentId) {
+        if (attachmentId == null || jobRepository.existsBySourceTypeAndAttachmentId(sourceType, attachmentId)) {
+            return;
+        }
+        try {
+            jobRepository.save(AttachmentTextJob.builder()
+                    .sourceType(sourceType)
+                    .attachmentId(attachmentId)
+                    .documentId(documentId)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Queued concurrently by the reconciliation sweep
+        }
+    }
+
+    /**
+     * Queue an attachment once the current transaction has committed, so the
+     * worker never sees an attachment whose row and file may still be rolled back
+     */
+    public void enqueueAfterCommit(SourceType sourceType, Long attachmentId, Long documentId) {
+        runAfterCommit(() -> enqueue(sourceType, attachmentId, documentId));
+    }
+
+    /**
+     * Drop the extracted text and the job of a deleted attachment once the
+     * deletion has committed
+     */
+    public void removeAfterCommit(SourceType sourceType, Long attachmentId) {
+        runAfterCommit(() -> {
+            pageRepository.deleteBySource(sourceType, attachmentId);
+            jobRepository.deleteBySource(sourceType, attachmentId);
+        });
+    }
+
+    /**
+     * Extract an attachment again, e.g. after a reader has been improved
+     */
+    public void reindex(SourceType sourceType, Long attachmentId) {
+        Optional<AttachmentTextJob> existing = jobRepository.findBySourceTypeAndAttachmentId(sourceType, attachmentId);
+        if (existing.isPresent()) {
+            AttachmentTextJob job = existing.get();
+            if (job.getStatus() == Status.PROCESSING) {
+                return;
+            }
+            job.setStatus(Status.PENDING);
+            job.setAttempts(0);
+            job.setLastError(null);
+            job.setNextAttemptAt(LocalDateTime.now());
+            job.setUpdatedAt(LocalDateTime.now());
+            jobRepository.save(job);
+            return;
+        }
+        Long documentId = switch (sourceType) {
+            case ATTACHMENT -> documentAttachmentRepository.findById(attachmentId)
+                    .map(a -> a.getDocument().getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy file đính kèm"));
+            case INTERNAL -> internalDocumentAttachmentRepository.findById(attachmentId)
+                    .map(a -> a.getDocument().getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy file đính kèm"));
+        };
+        enqueue(sourceType, attachmentId, documentId);
+    }
+
+    /**
+     * Queue every attachment that has no job yet, e.g. files uploaded before
+     * the pipeline existed or whose enqueue was lost in a crash
+     */
+    public int reconcile() {
+        int queued = 0;
+        queued += reconcile(SourceType.ATTACHMENT);
+        queued += reconcile(SourceType.INTERNAL);
+        if (queued > 0) {
+            log.info("Đã thêm {} file đính kèm chưa được lập chỉ mục vào hàng đợi trích xuất", queued);
+        }
+        return queued;
+    }
+
+    private int reconcile(SourceType sourceType) {
+        int queued = 0;
+        while (true) {
+            PageRequest batch = PageRequest.of(0, RECONCILE_BATCH_SIZE);
+            List<Object[]> rows = sourceType == SourceType.ATTACHMENT
+                    ? jobRepository.findUnqueuedDocumentAttachments(sourceType, batch)
+                    : jobRepository.findUnqueuedInternalAttachments(sourceType, batch);
+            if (rows.isEmpty()) {
+                return queued;
+            }
+            List<AttachmentTextJob> jobs = rows.stream()
+                    .map(row -> AttachmentTextJob.builder()
+                            .sourceType(sourceType)
+                            .attachmentId((Long) row[0])
+                            .documentId((Long) row[1])
+                            .build())
+                    .toList();
+            try {
+                jobRepository.saveAll(jobs);
+            } catch (DataIntegrityViolationException e) {
+                // Some were queued concurrently; queue the rest one by one
+                jobs.forEach(job -> enqueue(job.getSourceType(), job.getAttachmentId(), job.getDocumentId()));
+            }
+            queued += jobs.size();
+            if (rows.size() < RECONCILE_BATCH_SIZE) {
+                return queued;
+            }
+        }
+    }
+
+    /**
+     * Claim due jobs and hand them to the workers, never more than there are
+     * free workers, so the rest stays visible in the database queue
+     */
+    @Scheduled(fixedDelayString = "${file.text-extraction.poll-interval-ms:5000}")
+    public void pollQueue() {
+        LocalDateTime now = LocalDateTime.now();
+        int requeued = jobRepository.requeueExpired(Status.PENDING, Status.PROCESSING, now);
+        if (requeued > 0) {
+            log.info("Đã đưa lại {} tác vụ trích xuất nội dung hết hạn thuê vào hàng đợi", requeued);
+        }
+
+        int free = executor.getMaxPoolSize() - running.size();
+        if (free <= 0) {
+            return;
+        }
+        for (Long jobId : jobRepository.findDueJobIds(Status.PENDING, now, PageRequest.of(0, free))) {
+            LocalDateTime claimedAt = LocalDateTime.now();
+            if (jobRepository.claim(jobId, Status.PENDING, Status.PROCESSING, workerId,
+                    claimedAt.plus(leaseDuration), claimedAt) == 0) {
+                continue;
+            }
+            running.add(jobId);
+            try {
+                executor.execute(() -> process(jobId));
+            } catch (RejectedExecutionException e) {
+                running.remove(jobId);
+                jobRepository.findById(jobId).ifPresent(job -> {
+                    job.setStatus(Status.PENDING);
+                    job.setAttempts(job.getAttempts() - 1);
+                    job.setLockedBy(null);
+                    job.setLeaseUntil(null);
+                    jobRepository.save(job);
+                });
+                return;
+            }
+        }
+    }
+
+    private void process(Long jobId) {
+        long start = System.nanoTime();
+        AttachmentTextJob job = null;
+        try {
+            job = jobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return;
+            }
+            ExtractionSource source = resolveSource(job);
+            if (source == null) {
+                // Attachment deleted while queued
+                jobRepository.delete(job);
+                return;
+            }
+            if (!extractor.supports(source.contentType(), source.filename())) {
+                finish(job, Status.SKIPPED, null, null);
+                jobsSkipped.incrementAndGet();
+                return;
+            }
+
+            Lease lease = new Lease(jobId);
+            AttachmentTextJob current = job;
+            lease.write(() -> pageRepository.deleteBySource(current.getSourceType(), current.getAttachmentId()));
+            List<AttachmentTextPage> batch = new ArrayList<>(PAGE_BATCH_SIZE);
+            long[] chars = { 0 };
+            long size;
+            int pages;
+            try (LocalCopy copy = source.store().localCopy(source.key())) {
+                size = Files.size(copy.path());
+                pages = extractor.extract(copy.path(), source.contentType(), source.filename(), (page, text) -> {
+                    lease.renewIfDue();
+                    // PostgreSQL text columns cannot hold NUL characters
+                    String content = text.indexOf('\0') >= 0 ? text.replace("\0", "") : text;
+                    chars[0] += content.length();
+                    batch.add(AttachmentTextPage.builder()
+                            .sourceType(current.getSourceType())
+                            .attachmentId(current.getAttachmentId())
+                            .documentId(current.getDocumentId())
+                            .pageNumber(page)
+                            .content(content)
+                            .build());
+                    if (batch.size() >= PAGE_BATCH_SIZE) {
+                        lease.write(() -> pageRepository.saveAll(batch));
+                        batch.clear();
+                    }
+                });
+            }
+            if (!batch.isEmpty()) {
+                lease.write(() -> pageRepository.saveAll(batch));
+            }
+
+            finish(job, Status.DONE, pages, chars[0]);
+            jobsCompleted.incrementAndGet();
+            pagesExtracted.addAndGet(pages);
+            charsExtracted.addAndGet(chars[0]);
+            bytesRead.addAndGet(size);
+        } catch (LeaseLostException e) {
+            log.warn("Tác vụ trích xuất {} không còn thuộc tiến trình này, dừng xử lý", jobId);
+        } catch (Exception e) {
+            if (job != null) {
+                fail(job, e);
+            }
+        } finally {
+            running.remove(jobId);
+            busyNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Lease of the job a worker is running. Writes of pages renew it in the
+     * same transaction, whose row lock keeps the job from being requeued
+     * until they commit.
+     */
+    private final class Lease {
+        private final Long jobId;
+        private long renewedAt = System.nanoTime();
+
+        private Lease(Long jobId) {
+            this.jobId = jobId;
+        }
+
+        /**
+         * Renew once a third of the lease has passed, so a long extraction
+         * between two writes keeps it
+         */
+        void renewIfDue() {
+            if (System.nanoTime() - renewedAt >= leaseDuration.toNanos() / 3) {
+                newTransaction.executeWithoutResult(status -> renew());
+            }
+        }
+
+        void write(Runnable action) {
+            newTransaction.executeWithoutResult(status -> {
+                renew();
+                action.run();
+            });
+        }
+
+        private void renew() {
+            LocalDateTime now = LocalDateTime.now();
+            if (jobRepository.renewLease(jobId, Status.PROCESSING, workerId, now.plus(leaseDuration), now) == 0) {
+                throw new LeaseLostException();
+            }
+            renewedAt = System.nanoTime();
+        }
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+        private LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private record ExtractionSource(BlobStore store, String key, String contentType, String filename) {
+    }
+
+    private ExtractionSource resolveSource(AttachmentTextJob job) {
+        return switch (job.getSourceType()) {
+            case ATTACHMENT -> documentAttachmentRepository.findById(job.getAttachmentId())
+                    .map(this::toSource)
+                    .orElse(null);
+            case INTERNAL -> internalDocumentAttachmentRepository.findById(job.getAttachmentId())
+                    .map(this::toSource)
+                    .orElse(null);
+        };
+    }
+
+    private ExtractionSource toSource(DocumentAttachment attachment) {
+        return new ExtractionSource(attachmentStore, attachment.getFilePath(),
+                attachment.getContentType(), attachment.getOriginalFilename());
+    }
+
+    private ExtractionSource toSource(InternalDocumentAttachment attachment) {
+        return new ExtractionSource(internalDocumentStore, attachment.getFilePath(),
+                attachment.getContentType(), attachment.getFilename());
+    }
+
+    private void finish(AttachmentTextJob job, Status status, Integer pageCount, Long charCount) {
+        release(job, status, pageCount, charCount, null, job.getNextAttemptAt());
+    }
+
+    /**
+     * Store the outcome unless the job was taken over by another worker
+     */
+    private void release(AttachmentTextJob job, Status status, Integer pageCount, Long charCount, String lastError,
+            LocalDateTime nextAttemptAt) {
+        if (jobRepository.release(job.getId(), Status.PROCESSING, workerId, status, pageCount, charCount, lastError,
+                nextAttemptAt, LocalDateTime.now()) == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private void fail(AttachmentTextJob job, Exception e) {
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        boolean giveUp = job.getAttempts() >= maxAttempts;
+        log.warn("Trích xuất nội dung file đính kèm {} {} thất bại (lần {}): {}", job.getSourceType(),
+                job.getAttachmentId(), job.getAttempts(), message);
+        try {
+            // 2, 4, 8 ... minutes, at most an hour
+            release(job, giveUp ? Status.FAILED : Status.PENDING, null, null,
+                    message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message,
+                    LocalDateTime.now().plusMinutes(Math.min(60, 1L << Math.min(job.getAttempts(), 6))));
+        } catch (LeaseLostException lost) {
+            log.warn("Tác vụ trích xuất {} không còn thuộc tiến trình này, bỏ qua kết quả", job.getId());
+            return;
+        } catch (DataAccessException dbError) {
+            log.error("Không thể cập nhật tác vụ trích xuất {}: {}", job.getId(), dbError.getMessage());
+        }
+        if (giveUp) {
+            jobsFailed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Search the extracted text. Hits on internal documents the user may not
+     * see are left out.
+     *
+     * @param text  Words to search for
+     * @param limit Maximum number of hits
+     * @param user  Current user
+     * @return Matching pages, best first
+     */
+    public List<AttachmentTextHitDTO> search(String text, int limit, User user) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        // Over-fetch a little since some internal hits may be filtered out
+        List<TextHit> hits = pageRepository.search(text.trim(), k * 3);
+
+        List<Long> userDepartmentIds = null;
+        Map<Long, Boolean> internalAccess = new HashMap<>();
+        List<AttachmentTextHitDTO> result = new ArrayList<>(k);
+        for (TextHit hit : hits) {
+            if (SourceType.INTERNAL.name().equals(hit.getSourceType())) {
+                if (userDepartmentIds == null) {
+                    userDepartmentIds = accessControlService.getUserDepartmentIds(user);
+                }
+                List<Long> departmentIds = userDepartmentIds;
+                boolean allowed = internalAccess.computeIfAbsent(hit.getDocumentId(), id -> {
+                    InternalDocument document = internalDocumentRepository.findById(id).orElse(null);
+                    return document != null && accessControlService.canUserAccessDocument(document, user, departmentIds);
+                });
+                if (!allowed) {
+                    continue;
+                }
+            }
+            result.add(AttachmentTextHitDTO.builder()
+                    .sourceType(hit.getSourceType())
+                    .attachmentId(hit.getAttachmentId())
+                    .documentId(hit.getDocumentId())
+                    .pageNumber(hit.getPageNumber())
+                    .snippet(hit.getSnippet())
+                    .rank(hit.getRank())
+                    .build());
+            if (result.size() == k) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Queue sizes and throughput since startup
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Long> queue = new LinkedHashMap<>();
+        for (Status status : Status.values()) {
+            queue.put(status.name(), 0L);
+        }
+        for (Object[] row : jobRepository.countGroupedByStatus()) {
+            queue.put(((Status) row[0]).name(), (Long) row[1]);
+        }
+
+        double busySeconds = busyNanos.get() / 1_000_000_000.0;
+        double uptimeMinutes = Math.max(Duration.between(startedAt, Instant.now()).toMillis() / 60_000.0, 1.0 / 60);
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queue", queue);
+        metrics.put("running", running.size());
+        metrics.put("workers", executor.getMaxPoolSize());
+        metrics.put("startedAt", startedAt.toString());
+        metrics.put("jobsCompleted", jobsCompleted.get());
+        metrics.put("jobsSkipped", jobsSkipped.get());
+        metrics.put("jobsFailed", jobsFailed.get());
+        metrics.put("pagesExtracted", pagesExtracted.get());
+        metrics.put("charsExtracted", charsExtracted.get());
+        metrics.put("bytesRead", bytesRead.get());
+        metrics.put("busySeconds", Math.round(busySeconds * 10) / 10.0);
+        metrics.put("jobsPerMinute", Math.round(jobsCompleted.get() / uptimeMinutes * 10) / 10.0);
+        metrics.put("pagesPerBusySecond",
+                busySeconds > 0 ? Math.round(pagesExtracted.get() / busySeconds * 10) / 10.0 : 0.0);
+        return metrics;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                newTransaction.executeWithoutResult(status -> action.run());
+            } catch (RuntimeException e) {
+                // The reconciliation sweep queues anything missed here
+                log.warn("Không thể cập nhật hàng đợi trích xuất nội dung: {}", e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,523 @@
+package com.managementcontent.service;
+
+import com.managementcontent.dto.CompleteUploadDTO;
+import com.managementcontent.dto.CreateUploadSessionDTO;
+import com.managementcontent.dto.UploadSessionDTO;
+import com.managementcontent.exception.UploadOffsetMismatchException;
+import com.managementcontent.exception.UploadSessionBusyException;
+import com.managementcontent.model.UploadSession;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.UploadSessionRepository;
+import com.managementcontent.service.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resumable chunked uploads: create a session, PUT chunks at their offsets,
+ * then complete the session to attach the file to a document.
+ * Each chunk is stored as a part object in the attachment store under the
+ * offset where its new bytes start, so chunks of one session may reach
+ * different nodes and a dropped connection only costs the chunk in flight.
+ * A request takes a short lease on the session row before it writes,
+ * completes or discards it, which keeps concurrent requests for the same
+ * session apart across nodes. Part writes are not run inside a database
+ * transaction; only the lease and offset updates are.
+ */
+@Service
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String STAGING_PREFIX = ".chunks/";
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final IncomingDocumentService incomingDocumentService;
+    private final OutgoingDocumentService outgoingDocumentService;
+    private final InternalDocumentService internalDocumentService;
+    private final BlobStore stagingStore;
+
+    private final long maxFileSize;
+    private final long maxChunkSize;
+    private final long expiryHours;
+    private final Duration leaseDuration;
+    private final String nodeId;
+
+    public ChunkedUploadService(UploadSessionRepository uploadSessionRepository,
+            IncomingDocumentService incomingDocumentService,
+            OutgoingDocumentService outgoingDocumentService,
+            InternalDocumentService internalDocumentService,
+            @Qualifier("attachmentBlobStore") BlobStore stagingStore,
+            @Value("${file.chunked-upload.max-file-size:2GB}") DataSize maxFileSize,
+            @Value("${file.chunked-upload.max-chunk-size:16MB}") DataSize maxChunkSize,
+            @Value("${file.chunked-upload.expiry-hours:24}") long expiryHours,
+            @Value("${file.chunked-upload.lease-minutes:5}") long leaseMinutes) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.incomingDocumentService = incomingDocumentService;
+        this.outgoingDocumentService = outgoingDocumentService;
+        this.internalDocumentService = internalDocumentService;
+        this.stagingStore = stagingStore;
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxChunkSize = maxChunkSize.toBytes();
+        this.expiryHours = expiryHours;
+        this.leaseDuration = Duration.ofMinutes(leaseMinutes);
+        String node = ManagementFactory.getRuntimeMXBean().getName();
+        this.nodeId = node.length() > 60 ? node.substring(0, 60) : node;
+    }
+
+    /**
+     * Start a new upload
+     */
+    public UploadSessionDTO createSession(CreateUploadSessionDTO request, User user) {
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new IllegalArgumentException("Tên file không được để trống");
+        }
+        if (request.getTotalSize() == null || request.getTotalSize() <= 0) {
+            throw new IllegalArgumentException("Kích thước file không hợp lệ");
+        }
+        if (request.getTotalSize() > maxFileSize) {
+            throw new IllegalArgumentException("File vượt quá dung lượng cho phép (" + maxFileSize + " bytes)");
+        }
+
+        String id = UUID.randomUUID().toString();
+        UploadSession session = UploadSession.builder()
+                .id(id)
+                .userId(user.getId())
+                .filename(request.getFilename())
+                .contentType(request.getContentType())
+                .totalSize(request.getTotalSize())
+                .expectedChecksum(request.getChecksum() != null ? request.getChecksum().toLowerCase() : null)
+                .stagingPath(STAGING_PREFIX + id + "/")
+                .expiresAt(LocalDateTime.now().plusHours(expiryHours))
+                .build();
+        session = uploadSessionRepository.save(session);
+        log.info("Tạo phiên upload {} cho file {} ({} bytes)", id, request.getFilename(), request.getTotalSize());
+        return convertToDTO(session);
+    }
+
+    /**
+     * Get the state of a session, used by clients to find the resume offset
+     */
+    public UploadSessionDTO getSession(String sessionId, User user) {
+        return convertToDTO(findOwnedSession(sessionId, user));
+    }
+
+    /**
+     * Store one chunk sent for the given offset.
+     * The offset may not be beyond the bytes received so far; the part of a
+     * re-sent chunk that was already received is skipped.
+     *
+     * @param sessionId     Session ID
+     * @param offset        Position of the first byte of the chunk
+     * @param content       Chunk bytes
+     * @param contentLength Declared chunk length, or -1 if unknown
+     * @param user          Current user
+     * @return Updated session state
+     * @throws UploadSessionBusyException if another request is writing to the session
+     */
+    public UploadSessionDTO writeChunk(String sessionId, long offset, InputStream content, long contentLength,
+            User user) throws IOException {
+        if (contentLength > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk vượt quá kích thước cho phép (" + maxChunkSize + " bytes)");
+        }
+        findOwnedSession(sessionId, user);
+        String owner = claim(sessionId);
+        try {
+            UploadSession session = findOwnedSession(sessionId, user);
+            long received = session.getReceivedBytes();
+            if (offset < 0 || offset > received) {
+                throw new UploadOffsetMismatchException(received);
+            }
+
+            long skipped = skip(content, received - offset);
+            long length = contentLength < 0 ? -1 : Math.max(contentLength - skipped, 0);
+            LimitedInputStream part = session.getTotalSize() - received <= maxChunkSize - skipped
+                    ? new LimitedInputStream(content, session.getTotalSize() - received,
+                            "Chunk vượt quá kích thước file đã khai báo")
+                    : new LimitedInputStream(content, maxChunkSize - skipped,
+                            "Chunk vượt quá kích thước cho phép (" + maxChunkSize + " bytes)");
+            if (length != 0) {
+                stagingStore.put(partKey(session, received), part, length, null);
+                if (part.count() == 0) {
+                    stagingStore.delete(partKey(session, received));
+                }
+            }
+
+            long end = received + part.count();
+            if (end > received) {
+                if (uploadSessionRepository.advanceReceivedBytes(sessionId, owner, end, LocalDateTime.now()) == 0) {
+                    // The lease expired and another request took the session over
+                    throw new UploadSessionBusyException();
+                }
+                session.setReceivedBytes(end);
+            }
+            return convertToDTO(session);
+        } finally {
+            uploadSessionRepository.release(sessionId, owner);
+        }
+    }
+
+    /**
+     * Assemble a fully received upload, verify it and attach it to the
+     * target document through the existing attachment services
+     *
+     * @throws UploadSessionBusyException if another request is writing to the session
+     */
+    public UploadSessionDTO completeSession(String sessionId, CompleteUploadDTO request, User user)
+            throws IOException {
+        if (request.getTargetType() == null || request.getDocumentId() == null) {
+            throw new IllegalArgumentException("Thiếu loại công văn hoặc ID công văn");
+        }
+        findOwnedSession(sessionId, user);
+        String owner = claim(sessionId);
+        Path assembled = null;
+        try {
+            UploadSession session = findOwnedSession(sessionId, user);
+            if (!session.isComplete()) {
+                throw new UploadOffsetMismatchException(session.getReceivedBytes());
+            }
+
+            assembled = Files.createTempFile("upload-", ".tmp");
+            String checksum = assemble(session, assembled);
+            if (session.getExpectedChecksum() != null && !checksum.equals(session.getExpectedChecksum())) {
+                throw new IllegalStateException("Checksum không khớp, file tải lên bị lỗi");
+            }
+
+            MultipartFile file = new CompletedUploadFile(assembled, session.getFilename(),
+                    session.getContentType(), session.getTotalSize());
+            switch (request.getTargetType()) {
+                case INCOMING -> incomingDocumentService.addMultipleAttachments(request.getDocumentId(),
+                        List.of(file), user);
+                case OUTGOING -> outgoingDocumentService.addMultipleAttachments(request.getDocumentId(),
+                        List.of(file), user);
+                case INTERNAL -> internalDocumentService.addAttachment(request.getDocumentId(), file,
+                        request.getDescription());
+            }
+
+            session.setStatus(UploadSession.Status.COMPLETED);
+            session.setLockedBy(null);
+            session.setLeaseUntil(null);
+            session = uploadSessionRepository.save(session);
+            deleteParts(session);
+            log.info("Hoàn tất phiên upload {} và đính kèm vào công văn {} ({})", sessionId,
+                    request.getDocumentId(), request.getTargetType());
+            return convertToDTO(session);
+        } finally {
+            if (assembled != null) {
+                Files.deleteIfExists(assembled);
+            }
+            uploadSessionRepository.release(sessionId, owner);
+        }
+    }
+
+    /**
+     * Abort an upload and delete its parts
+     *
+     * @throws UploadSessionBusyException if another request is writing to the session
+     */
+    public void cancelSession(String sessionId, User user) throws IOException {
+        findOwnedSession(sessionId, user);
+        String owner = claim(sessionId);
+        try {
+            UploadSession session = findOwnedSession(sessionId, user);
+            deleteParts(session);
+            session.setStatus(UploadSession.Status.CANCELLED);
+            session.setLockedBy(null);
+            session.setLeaseUntil(null);
+            uploadSessionRepository.save(session);
+        } finally {
+            uploadSessionRepository.release(sessionId, owner);
+        }
+    }
+
+    /**
+     * Remove the parts of sessions that were abandoned. Sessions that are
+     * being written to right now are left for the next run.
+     */
+    @Scheduled(fixedDelayString = "${file.chunked-upload.cleanup-interval-ms:3600000}")
+    public void cleanupExpiredSessions() {
+        List<UploadSession> expired = uploadSessionRepository
+                .findByStatusNotAndExpiresAtBefore(UploadSession.Status.COMPLETED, LocalDateTime.now());
+        int removed = 0;
+        for (UploadSession session : expired) {
+            try {
+                if (session.getStatus() == UploadSession.Status.UPLOADING) {
+                    String owner = nodeId + "/" + UUID.randomUUID();
+                    LocalDateTime now = LocalDateTime.now();
+                    if (uploadSessionRepository.claim(session.getId(), UploadSession.Status.UPLOADING, owner,
+                            now.plus(leaseDuration), now) == 0) {
+                        continue;
+                    }
+                }
+                deleteParts(session);
+                uploadSessionRepository.delete(session);
+                removed++;
+            } catch (IOException e) {
+                log.warn("Không thể xóa file tạm của phiên upload {}: {}", session.getId(), e.getMessage());
+            }
+        }
+        if (removed > 0) {
+            log.info("Đã dọn {} phiên upload hết hạn", removed);
+        }
+    }
+
+    /**
+     * Take the lease of a session for one request
+     *
+     * @return Lease owner to release it with
+     * @throws UploadSessionBusyException if another request holds the lease
+     */
+    private String claim(String sessionId) {
+        String owner = nodeId + "/" + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        if (uploadSessionRepository.claim(sessionId, UploadSession.Status.UPLOADING, owner,
+                now.plus(leaseDuration), now) == 0) {
+            UploadSession session = uploadSessionRepository.findById(sessionId).orElse(null);
+            if (session != null && session.getStatus() != UploadSession.Status.UPLOADING) {
+                throw new IllegalStateException("Phiên upload đã kết thúc");
+            }
+            throw new UploadSessionBusyException();
+        }
+        return owner;
+    }
+
+    private UploadSession findOwnedSession(String sessionId, User user) {
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy phiên upload: " + sessionId));
+        if (!session.getUserId().equals(user.getId())) {
+            throw new AccessDeniedException("Không có quyền truy cập phiên upload này");
+        }
+        return session;
+    }
+
+    /**
+     * Read past the first bytes of a request body
+     *
+     * @return Number of bytes skipped, less than {@code count} if the body ended
+     */
+    private static long skip(InputStream content, long count) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long skipped = 0;
+        while (skipped < count) {
+            int read = content.read(buffer, 0, (int) Math.min(buffer.length, count - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    private static String partKey(UploadSession session, long start) {
+        return session.getStagingPath() + start;
+    }
+
+    /**
+     * Concatenate the parts of a session into a local file
+     *
+     * @return SHA-256 of the content
+     */
+    private String assemble(UploadSession session, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+        long position = 0;
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(target), digest)) {
+            while (position < session.getTotalSize()) {
+                long copied;
+                try (InputStream in = stagingStore.get(partKey(session, position))) {
+                    copied = in.transferTo(out);
+                } catch (NoSuchFileException e) {
+                    throw new IllegalStateException("Thiếu dữ liệu của phiên upload từ byte " + position);
+                }
+                if (copied == 0) {
+                    throw new IllegalStateException("Thiếu dữ liệu của phiên upload từ byte " + position);
+                }
+                position += copied;
+            }
+        }
+        if (position != session.getTotalSize()) {
+            throw new IllegalStateException("Dữ liệu của phiên upload không khớp với kích thước đã khai báo");
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Delete the parts of a session, following them from offset 0 until one
+     * is missing
+     */
+    private void deleteParts(UploadSession session) throws IOException {
+        if (!session.getStagingPath().endsWith("/")) {
+            // Staging file of a session created before parts were used
+            stagingStore.delete(session.getStagingPath());
+            return;
+        }
+        long position = 0;
+        Optional<BlobStore.BlobInfo> part;
+        while ((part = stagingStore.stat(partKey(session, position))).isPresent()) {
+            stagingStore.delete(partKey(session, position));
+            if (part.get().size() == 0) {
+                break;
+            }
+            position += part.get().size();
+        }
+    }
+
+    private UploadSessionDTO convertToDTO(UploadSession session) {
+        return UploadSessionDTO.builder()
+                .id(session.getId())
+                .filename(session.getFilename())
+                .contentType(session.getContentType())
+                .totalSize(session.getTotalSize())
+                .receivedBytes(session.getReceivedBytes())
+                .status(session.getStatus().name())
+                .maxChunkSize(maxChunkSize)
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+
+    /**
+     * Presents an assembled upload to the attachment services as a multipart
+     * file. {@link #transferTo(File)} hard-links the file into place when
+     * possible, so the content is not copied again and the assembled file
+     * survives a rolled back attach.
+     */
+    private static final class CompletedUploadFile implements MultipartFile {
+        private final Path path;
+        private final String filename;
+        private final String contentType;
+        private final long size;
+
+        private CompletedUploadFile(Path path, String filename, String contentType, long size) {
+            this.path = path;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.size = size;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            transferTo(dest.toPath());
+        }
+
+        @Override
+        public void transferTo(Path dest) throws IOException {
+            try {
+                Files.createLink(dest, path);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Stream that fails if the body goes on beyond a limit
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private final String message;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long limit, String message) {
+            super(in);
+            this.limit = limit;
+            this.message = message;
+        }
+
+        long count() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // One byte more than allowed is enough to tell the body is too long
+            int n = in.read(b, off, (int) Math.min(len, limit - count + 1));
+            if (n > 0) {
+                count += n;
+                if (count > limit) {
+                    throw new IllegalArgumentException(message);
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            return 0;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
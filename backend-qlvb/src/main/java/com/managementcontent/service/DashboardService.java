@@ -32,6 +32,7 @@ public class DashboardService {
     private final DepartmentRepository departmentRepository;
     private final WorkPlanRepository workPlanRepository;
     private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
     private final ScheduleEventRepository scheduleEventRepository;
     private final UserService userService;
     private final InternalDocumentRepository internalDocumentRepository;
@@ -222,7 +223,8 @@ public class DashboardService {
         dashboard.setActiveWorkPlans(convertToWorkPlanSummaries(activeWorkPlans, 10));
 
         // Thông báo chưa đọc
-        int unreadNotifications = notificationRepository.countByUserIdAndReadFalse(userId);
+        int unreadNotifications = notificationRepository.countRecentUnread(userId,
+                notificationService.visibleSince());
         dashboard.setUnreadNotifications(unreadNotifications);
 
         // Hiệu suất xử lý cá nhân
@@ -7,6 +7,7 @@ import com.managementcontent.repository.DepartmentRepository;
 import com.managementcontent.repository.DocumentDepartmentRepository;
 import com.managementcontent.repository.UserRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,12 +27,14 @@ public class DepartmentService {
     private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
     private final DocumentDepartmentRepository documentDepartmentRepository;
+    private final UserDirectoryIndex userDirectoryIndex;
 
     public DepartmentService(DepartmentRepository departmentRepository, UserRepository userRepository,
-            DocumentDepartmentRepository documentDepartmentRepository) {
+            DocumentDepartmentRepository documentDepartmentRepository, UserDirectoryIndex userDirectoryIndex) {
         this.departmentRepository = departmentRepository;
         this.userRepository = userRepository;
         this.documentDepartmentRepository = documentDepartmentRepository;
+        this.userDirectoryIndex = userDirectoryIndex;
 
     }
 
@@ -42,8 +45,7 @@ public class DepartmentService {
      * @return Page of department DTOs
      */
     public Page<DepartmentDTO> getAllDepartments(Pageable pageable) {
-        return departmentRepository.findAll(pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(departmentRepository.findAll(pageable));
     }
 
     /**
@@ -120,6 +122,7 @@ public class DepartmentService {
                     }
 
                     Department updatedDepartment = departmentRepository.save(existingDepartment);
+                    userDirectoryIndex.renameDepartment(updatedDepartment.getId(), updatedDepartment.getName());
                     return convertToDTO(updatedDepartment);
                 });
     }
@@ -147,8 +150,7 @@ public class DepartmentService {
      * @return Page of matching department DTOs
      */
     public Page<DepartmentDTO> searchDepartments(String keyword, Pageable pageable) {
-        return departmentRepository.searchByKeyword(keyword, pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(departmentRepository.searchByKeyword(keyword, pageable));
     }
 
     /**
@@ -159,8 +161,7 @@ public class DepartmentService {
      * @return Page of matching department DTOs
      */
     public Page<DepartmentDTO> findDepartmentsByType(DepartmentType type, Pageable pageable) {
-        return departmentRepository.findByTypeCode(type.getCode(), pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(departmentRepository.findByTypeCode(type.getCode(), pageable));
     }
 
     /**
@@ -171,8 +172,7 @@ public class DepartmentService {
      * @return Page of matching department DTOs
      */
     public Page<DepartmentDTO> findDepartmentsByGroup(String group, Pageable pageable) {
-        return departmentRepository.findByGroup(group, pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(departmentRepository.findByGroup(group, pageable));
     }
 
     /**
@@ -191,6 +191,94 @@ public class DepartmentService {
         return statistics;
     }
 
+    /**
+     * Get the full department tree.
+     * Departments are loaded as one flat list, user and document counts come from
+     * two grouped queries, and the tree is assembled in memory in a single pass.
+     *
+     * @return Root department DTOs with nested children
+     */
+    @Transactional(readOnly = true)
+    public List<DepartmentDTO> getDepartmentHierarchy() {
+        List<Department> departments = departmentRepository.findAllWithParent();
+        Map<Long, Long> userCounts = toCountMap(userRepository.countUsersGroupedByDepartment());
+        Map<Long, Long> documentCounts = toCountMap(documentDepartmentRepository.countAssignmentsGroupedByDepartment());
+
+        Map<Long, DepartmentDTO> dtoById = new LinkedHashMap<>();
+        for (Department department : departments) {
+            DepartmentDTO dto = buildDTO(department, userCounts, documentCounts);
+            dto.setChildDepartments(new LinkedHashSet<>());
+            dtoById.put(department.getId(), dto);
+        }
+
+        List<DepartmentDTO> roots = new ArrayList<>();
+        for (DepartmentDTO dto : dtoById.values()) {
+            DepartmentDTO parent = dto.getParentDepartmentId() != null
+                    ? dtoById.get(dto.getParentDepartmentId())
+                    : null;
+            if (parent != null) {
+                parent.getChildDepartments().add(dto);
+            } else {
+                roots.add(dto);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Get the direct children of a department with their counts
+     *
+     * @param parentId Parent department ID
+     * @return Child department DTOs
+     */
+    @Transactional(readOnly = true)
+    public List<DepartmentDTO> getChildDepartments(Long parentId) {
+        return convertListToDTO(departmentRepository.findByParentDepartmentIdIn(List.of(parentId)));
+    }
+
+    /**
+     * Convert a page of departments to DTOs.
+     * User counts, document counts and children for the whole page are fetched
+     * with three queries instead of several per department.
+     *
+     * @param page Page of department entities
+     * @return Page of department DTOs
+     */
+    public Page<DepartmentDTO> convertPageToDTO(Page<Department> page) {
+        List<DepartmentDTO> dtos = convertListToDTO(page.getContent());
+        return new PageImpl<>(dtos, page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Convert a list of departments to DTOs using grouped count queries
+     *
+     * @param departments Department entities
+     * @return Department DTOs in the same order
+     */
+    public List<DepartmentDTO> convertListToDTO(List<Department> departments) {
+        if (departments.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = departments.stream().map(Department::getId).toList();
+        Map<Long, Long> userCounts = toCountMap(userRepository.countUsersGroupedByDepartment(ids));
+        Map<Long, Long> documentCounts = toCountMap(documentDepartmentRepository.countAssignmentsGroupedByDepartment(ids));
+        Map<Long, List<Department>> childrenByParent = departmentRepository.findByParentDepartmentIdIn(ids).stream()
+                .collect(Collectors.groupingBy(child -> child.getParentDepartment().getId()));
+
+        List<DepartmentDTO> dtos = new ArrayList<>(departments.size());
+        for (Department department : departments) {
+            DepartmentDTO dto = buildDTO(department, userCounts, documentCounts);
+            List<Department> children = childrenByParent.getOrDefault(department.getId(), List.of());
+            if (!children.isEmpty()) {
+                dto.setChildDepartments(children.stream()
+                        .map(child -> toChildDTO(child, department))
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
+            }
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
     /**
      * Convert Department entity to DepartmentDTO
      *
@@ -224,18 +312,7 @@ public class DepartmentService {
         if (department.getChildDepartments() != null && !department.getChildDepartments().isEmpty()) {
             // To avoid infinite recursion, we'll create simplified DTOs for children
             Set<DepartmentDTO> childDtos = department.getChildDepartments().stream()
-                    .map(child -> {
-                        return DepartmentDTO.builder()
-                                .id(child.getId())
-                                .name(child.getName())
-                                .abbreviation(child.getAbbreviation())
-                                .storageLocation(child.getStorageLocation())
-
-                                .codeDepartment(child.getCodeDepartment())
-                                .parentDepartmentId(department.getId())
-                                .parentDepartmentName(department.getName())
-                                .build();
-                    })
+                    .map(child -> toChildDTO(child, department))
                     .collect(Collectors.toSet());
 
             dto.setChildDepartments(childDtos);
@@ -244,6 +321,56 @@ public class DepartmentService {
         return dto;
     }
 
+    /**
+     * Build a department DTO from pre-computed count maps
+     */
+    private DepartmentDTO buildDTO(Department department, Map<Long, Long> userCounts,
+            Map<Long, Long> documentCounts) {
+        return DepartmentDTO.builder()
+                .id(department.getId())
+                .name(department.getName())
+                .abbreviation(department.getAbbreviation())
+                .storageLocation(department.getStorageLocation())
+                .codeDepartment(department.getCodeDepartment())
+                .email(department.getEmail())
+                .type(department.getType())
+                .externalId(department.getExternalId())
+                .group(department.getGroup())
+                .userCount(userCounts.getOrDefault(department.getId(), 0L).intValue())
+                .assignedDocumentsCount(documentCounts.getOrDefault(department.getId(), 0L).intValue())
+                .parentDepartmentId(
+                        department.getParentDepartment() != null ? department.getParentDepartment().getId() : null)
+                .parentDepartmentName(
+                        department.getParentDepartment() != null ? department.getParentDepartment().getName() : null)
+                .build();
+    }
+
+    /**
+     * Build the simplified DTO used for child departments (no nested children)
+     */
+    private DepartmentDTO toChildDTO(Department child, Department parent) {
+        return DepartmentDTO.builder()
+                .id(child.getId())
+                .name(child.getName())
+                .abbreviation(child.getAbbreviation())
+                .storageLocation(child.getStorageLocation())
+                .codeDepartment(child.getCodeDepartment())
+                .parentDepartmentId(parent.getId())
+                .parentDepartmentName(parent.getName())
+                .build();
+    }
+
+    /**
+     * Turn [departmentId, count] rows from a grouped query into a map
+     */
+    private Map<Long, Long> toCountMap(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
     /**
      * Convert DepartmentDTO to Department entity
      *
@@ -329,10 +456,8 @@ public class DepartmentService {
         if (department == null) {
             return 0;
         }
-        if (department.getAssignedDocuments() == null) {
-            return 0;
-        }
-        return department.getAssignedDocuments().size();
+        return toCountMap(documentDepartmentRepository.countAssignmentsGroupedByDepartment(List.of(department.getId())))
+                .getOrDefault(department.getId(), 0L).intValue();
     }
 
     /**
@@ -1,7 +1,10 @@
 package com.managementcontent.service;
 
+import com.managementcontent.model.Document;
 import com.managementcontent.model.InternalDocument;
 import com.managementcontent.model.User;
+import com.managementcontent.repository.DocumentDepartmentRepository;
+import com.managementcontent.repository.DocumentHistoryRepository;
 import com.managementcontent.util.RoleGroupUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +14,7 @@ import org.springframework.stereotype.Service;
 import com.managementcontent.repository.UserRepository;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -24,6 +28,9 @@ import java.util.stream.Collectors;
 public class DocumentAccessControlService {
 
     private final UserRepository userRepository;
+    private final DocumentHistoryRepository documentHistoryRepository;
+    private final DocumentDepartmentRepository documentDepartmentRepository;
+    private final WorkInboxService workInboxService;
 
     /**
      * Lấy current user từ SecurityContext
@@ -70,14 +77,78 @@ public class DocumentAccessControlService {
      * Kiểm tra user có thể access document không
      */
     public boolean canUserAccessDocument(InternalDocument document, User user, List<Long> userDepartmentIds) {
+        return canAccess(document, user, userDepartmentIds, isChiHuyCuc(user), isChiHuyDonVi(user));
+    }
+
+    /**
+     * Kiểm tra user có thể access công văn đến/đi không: chỉ huy cục và văn thư
+     * xem tất cả, người khác xem công văn được giao cho họ hoặc đã phân cho
+     * phòng ban của họ
+     */
+    public boolean canUserAccessDocument(Document document, User user, List<Long> userDepartmentIds) {
+        if (isChiHuyCuc(user) || isVanThu(user) || isAssignedTo(document, user)) {
+            return true;
+        }
+        return !userDepartmentIds.isEmpty() && documentDepartmentRepository.findByDocumentId(document.getId()).stream()
+                .anyMatch(assignment -> assignment.getDepartment() != null
+                        && userDepartmentIds.contains(assignment.getDepartment().getId()));
+    }
+
+    /**
+     * Công văn đến/đi được giao cho user: do user tạo, xử lý chính, được phân
+     * công trong lịch sử xử lý hoặc đã được chuyển vào hộp công việc của user
+     */
+    public boolean isAssignedTo(Document document, User user) {
+        Long userId = user.getId();
+        if ((document.getCreator() != null && userId.equals(document.getCreator().getId()))
+                || (document.getUserPrimaryProcessor() != null
+                        && userId.equals(document.getUserPrimaryProcessor().getId()))) {
+            return true;
+        }
+        boolean assigned = documentHistoryRepository
+                .findByDocumentAndActionOrderByTimestampDesc(document, "ASSIGNMENT").stream()
+                .anyMatch(history -> history.getAssignedTo() != null
+                        && userId.equals(history.getAssignedTo().getId()));
+        return assigned
+                || workInboxService.isDelivered(userId, WorkInboxService.kindOf(document), document.getId());
+    }
+
+    /**
+     * Lọc các công văn user có quyền truy cập.
+     * Role của user chỉ được đánh giá một lần cho cả danh sách; recipients nên được fetch sẵn.
+     */
+    public List<InternalDocument> filterAccessibleDocuments(Collection<InternalDocument> documents, User user,
+                                                           List<Long> userDepartmentIds) {
+        boolean isChiHuyCuc = isChiHuyCuc(user);
+        boolean isChiHuyDonVi = isChiHuyDonVi(user);
+        return documents.stream()
+                .filter(document -> canAccess(document, user, userDepartmentIds, isChiHuyCuc, isChiHuyDonVi))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isChiHuyCuc(User user) {
+        return user.getRoles() != null && user.getRoles().stream()
+                .anyMatch(role -> RoleGroupUtil.isChiHuyCuc(role.getName()));
+    }
+
+    private boolean isVanThu(User user) {
+        return user.getRoles() != null && user.getRoles().stream()
+                .anyMatch(role -> RoleGroupUtil.isVanThu(role.getName()));
+    }
+
+    private boolean isChiHuyDonVi(User user) {
+        return user.getRoles() != null && user.getRoles().stream()
+                .anyMatch(role -> RoleGroupUtil.isChiHuyDonVi(role.getName()));
+    }
+
+    private boolean canAccess(InternalDocument document, User user, List<Long> userDepartmentIds,
+                              boolean isChiHuyCuc, boolean isChiHuyDonVi) {
         // User can access if they are sender
         if (document.getSender().equals(user)) {
             return true;
         }
 
         // Check if user is CHI_HUY_CUC (can access all)
-        boolean isChiHuyCuc = user.getRoles().stream()
-                .anyMatch(role -> RoleGroupUtil.isChiHuyCuc(role.getName()));
         if (isChiHuyCuc) {
             return true;
         }
@@ -92,28 +163,23 @@ public class DocumentAccessControlService {
         }
 
         // Check if user is department leadership and document involves their department
-        if (user.getRoles() != null && !user.getRoles().isEmpty() && user.getDepartment() != null) {
-            boolean isChiHuyDonVi = user.getRoles().stream()
-                    .anyMatch(role -> RoleGroupUtil.isChiHuyDonVi(role.getName()));
-
-            if (isChiHuyDonVi) {
-                // Check if sender is from same department
-                boolean isDepartmentInvolved = false;
-
-                if (document.getSender().getDepartment() != null &&
-                        document.getSender().getDepartment().getId().equals(user.getDepartment().getId())) {
-                    isDepartmentInvolved = true;
-                }
-
-                // Check if any recipient department matches user's department
-                if (!isDepartmentInvolved) {
-                    isDepartmentInvolved = document.getRecipients().stream()
-                            .anyMatch(r -> r.getDepartment() != null &&
-                                    r.getDepartment().getId().equals(user.getDepartment().getId()));
-                }
-
-                return isDepartmentInvolved;
+        if (isChiHuyDonVi && user.getDepartment() != null) {
+            // Check if sender is from same department
+            boolean isDepartmentInvolved = false;
+
+            if (document.getSender().getDepartment() != null &&
+                    document.getSender().getDepartment().getId().equals(user.getDepartment().getId())) {
+                isDepartmentInvolved = true;
             }
+
+            // Check if any recipient department matches user's department
+            if (!isDepartmentInvolved) {
+                isDepartmentInvolved = document.getRecipients().stream()
+                        .anyMatch(r -> r.getDepartment() != null &&
+                                r.getDepartment().getId().equals(user.getDepartment().getId()));
+            }
+
+            return isDepartmentInvolved;
         }
 
         return false;
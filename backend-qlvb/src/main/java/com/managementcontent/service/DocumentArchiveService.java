@@ -0,0 +1,330 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.Document;
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.DocumentHistory;
+import com.managementcontent.model.DocumentRelationship;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.model.User;
+import com.managementcontent.model.WorkCase;
+import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.repository.DocumentHistoryRepository;
+import com.managementcontent.repository.DocumentRelationshipRepository;
+import com.managementcontent.repository.DocumentRepository;
+import com.managementcontent.repository.InternalDocumentRepository;
+import com.managementcontent.repository.WorkCaseRepository;
+import com.managementcontent.service.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds ZIP archives of the files of a document, its replies and its
+ * processing history, of every document of a work case, and of an internal
+ * document with its replies. The file list is collected inside a read-only
+ * transaction, then {@link #write} streams each file from storage straight
+ * into the response with a fixed buffer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentArchiveService {
+
+    private static final String HISTORY_DIR = "lich-su-xu-ly";
+    private static final String REPLY_DIR = "van-ban-tra-loi";
+    private static final String MISSING_FILES_ENTRY = "TEP-KHONG-TIM-THAY.txt";
+    private static final String HISTORY_PREFIX = "uploads/";
+
+    /**
+     * Formats that are already compressed, stored as-is instead of deflated
+     */
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "pdf", "zip", "rar", "7z", "gz", "jpg", "jpeg", "png", "gif", "webp",
+            "docx", "xlsx", "pptx", "odt", "ods", "mp3", "mp4", "p12", "pfx");
+
+    private final DocumentRepository<Document> documentRepository;
+    private final DocumentAttachmentRepository documentAttachmentRepository;
+    private final DocumentHistoryRepository documentHistoryRepository;
+    private final DocumentRelationshipRepository documentRelationshipRepository;
+    private final WorkCaseRepository workCaseRepository;
+    private final InternalDocumentRepository internalDocumentRepository;
+    private final DocumentAccessControlService accessControlService;
+    @Qualifier("attachmentBlobStore")
+    private final BlobStore attachmentStore;
+    @Qualifier("internalDocumentBlobStore")
+    private final BlobStore internalDocumentStore;
+
+    /**
+     * One file of an archive
+     */
+    public record ArchiveEntry(BlobStore store, String key, String name) {
+    }
+
+    /**
+     * Download name and files of an archive
+     */
+    public record Archive(String filename, List<ArchiveEntry> entries) {
+    }
+
+    /**
+     * Attachments, history files and replies of an incoming or outgoing
+     * document. Replies the current user cannot see are left out.
+     *
+     * @throws AccessDeniedException if the current user cannot see the document
+     */
+    @Transactional(readOnly = true)
+    public Optional<Archive> documentArchive(Long documentId) {
+        Viewer viewer = currentViewer();
+        return documentRepository.findById(documentId).map(document -> {
+            if (!viewer.canSee(document)) {
+                throw new AccessDeniedException("Access denied");
+            }
+            Collector collector = new Collector();
+            addDocument(collector, viewer, document, "", true);
+            return new Archive(folderName(document.getDocumentNumber(), document.getId()) + ".zip",
+                    collector.entries);
+        });
+    }
+
+    /**
+     * Every document of a work case the current user can see, one folder per
+     * document
+     *
+     * @throws AccessDeniedException if the case has documents and the current
+     *                               user can see none of them
+     */
+    @Transactional(readOnly = true)
+    public Optional<Archive> workCaseArchive(Long workCaseId) {
+        Viewer viewer = currentViewer();
+        return workCaseRepository.findById(workCaseId).map(workCase -> {
+            List<Document> documents = workCase.getDocuments().stream()
+                    .sorted(Comparator.comparing(Document::getId))
+                    .toList();
+            List<Document> visible = documents.stream().filter(viewer::canSee).toList();
+            if (visible.isEmpty() && !documents.isEmpty()) {
+                throw new AccessDeniedException("Access denied");
+            }
+            Collector collector = new Collector();
+            visible.forEach(document -> addDocument(collector, viewer, document,
+                    folderName(document.getDocumentNumber(), document.getId()) + "/", true));
+            return new Archive(caseFilename(workCase), collector.entries);
+        });
+    }
+
+    /**
+     * Attachments of an internal document and of its replies
+     *
+     * @throws AccessDeniedException if the current user cannot see the document
+     */
+    @Transactional(readOnly = true)
+    public Optional<Archive> internalDocumentArchive(Long documentId) {
+        User currentUser = accessControlService.getCurrentUser();
+        List<Long> userDepartmentIds = accessControlService.getUserDepartmentIds(currentUser);
+        return internalDocumentRepository.findById(documentId).map(document -> {
+            if (!accessControlService.canUserAccessDocument(document, currentUser, userDepartmentIds)) {
+                throw new AccessDeniedException("Access denied");
+            }
+            Collector collector = new Collector();
+            addInternalDocument(collector, document, "", new HashSet<>());
+            return new Archive(folderName(document.getDocumentNumber(), document.getId()) + ".zip",
+                    collector.entries);
+        });
+    }
+
+    /**
+     * Stream the archive. Files that are no longer in storage are skipped and
+     * listed in a text entry at the end.
+     */
+    public void write(Archive archive, OutputStream out) throws IOException {
+        List<String> missing = new ArrayList<>();
+        byte[] buffer = new byte[64 * 1024];
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        for (ArchiveEntry entry : archive.entries()) {
+            ZipEntry zipEntry = new ZipEntry(entry.name());
+            InputStream in;
+            try {
+                if (isCompressed(entry.name())) {
+                    // STORED entries need their CRC and size before the data
+                    CRC32 crc = new CRC32();
+                    long size = 0;
+                    try (InputStream scan = entry.store().get(entry.key())) {
+                        int read;
+                        while ((read = scan.read(buffer)) != -1) {
+                            crc.update(buffer, 0, read);
+                            size += read;
+                        }
+                    }
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(size);
+                    zipEntry.setCompressedSize(size);
+                    zipEntry.setCrc(crc.getValue());
+                }
+                in = entry.store().get(entry.key());
+            } catch (NoSuchFileException e) {
+                log.warn("Bỏ qua tệp không tồn tại khi nén {}: {}", archive.filename(), entry.key());
+                missing.add(entry.name());
+                continue;
+            }
+            try (InputStream content = in) {
+                zip.putNextEntry(zipEntry);
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    zip.write(buffer, 0, read);
+                }
+                zip.closeEntry();
+            }
+        }
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry(MISSING_FILES_ENTRY));
+            zip.write(String.join("\r\n", missing).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private void addDocument(Collector collector, Viewer viewer, Document document, String folder,
+            boolean withReplies) {
+        for (DocumentAttachment attachment : documentAttachmentRepository.findByDocumentId(document.getId())) {
+            collector.add(attachmentStore, attachment.getFilePath(), folder, attachment.getOriginalFilename());
+        }
+        if (hasText(document.getAttachmentFilename())) {
+            collector.add(attachmentStore, document.getAttachmentFilename(), folder,
+                    baseName(document.getAttachmentFilename()));
+        }
+        for (DocumentHistory history : documentHistoryRepository.findByDocument(document)) {
+            String path = history.getAttachmentPath();
+            if (hasText(path)) {
+                String key = path.startsWith(HISTORY_PREFIX) ? path.substring(HISTORY_PREFIX.length()) : path;
+                collector.add(attachmentStore, key, folder + HISTORY_DIR + "/", baseName(key));
+            }
+        }
+        if (withReplies) {
+            for (DocumentRelationship relationship : documentRelationshipRepository
+                    .findByIncomingDocument_Id(document.getId())) {
+                Document reply = relationship.getOutgoingDocument();
+                if (reply != null && viewer.canSee(reply)) {
+                    addDocument(collector, viewer, reply, folder + REPLY_DIR + "/"
+                            + folderName(reply.getDocumentNumber(), reply.getId()) + "/", false);
+                }
+            }
+        }
+    }
+
+    private void addInternalDocument(Collector collector, InternalDocument document, String folder,
+            Set<Long> visited) {
+        if (!visited.add(document.getId())) {
+            return;
+        }
+        for (InternalDocumentAttachment attachment : document.getAttachments()) {
+            collector.add(internalDocumentStore, attachment.getFilePath(), folder, attachment.getFilename());
+        }
+        document.getReplies().stream()
+                .sorted(Comparator.comparing(InternalDocument::getId))
+                .forEach(reply -> addInternalDocument(collector, reply, folder + REPLY_DIR + "/"
+                        + folderName(reply.getDocumentNumber(), reply.getId()) + "/", visited));
+    }
+
+    private Viewer currentViewer() {
+        User user = accessControlService.getCurrentUser();
+        return new Viewer(user, accessControlService.getUserDepartmentIds(user));
+    }
+
+    /**
+     * Current user and departments, looked up once per archive
+     */
+    private final class Viewer {
+
+        private final User user;
+        private final List<Long> departmentIds;
+
+        Viewer(User user, List<Long> departmentIds) {
+            this.user = user;
+            this.departmentIds = departmentIds;
+        }
+
+        boolean canSee(Document document) {
+            return accessControlService.canUserAccessDocument(document, user, departmentIds);
+        }
+    }
+
+    /**
+     * Archive entries without duplicate files or names
+     */
+    private static final class Collector {
+
+        private record StoredKey(BlobStore store, String key) {
+        }
+
+        private final List<ArchiveEntry> entries = new ArrayList<>();
+        private final Set<StoredKey> files = new HashSet<>();
+        private final Set<String> names = new HashSet<>();
+
+        void add(BlobStore store, String key, String folder, String filename) {
+            if (!hasText(key) || !files.add(new StoredKey(store, key))) {
+                return;
+            }
+            String base = folder + sanitize(hasText(filename) ? filename : baseName(key));
+            String name = base;
+            for (int n = 2; !names.add(name.toLowerCase(Locale.ROOT)); n++) {
+                name = withSuffix(base, n);
+            }
+            entries.add(new ArchiveEntry(store, key, name));
+        }
+
+        private static String withSuffix(String name, int n) {
+            int slash = name.lastIndexOf('/');
+            int dot = name.lastIndexOf('.');
+            if (dot > slash + 1) {
+                return name.substring(0, dot) + " (" + n + ")" + name.substring(dot);
+            }
+            return name + " (" + n + ")";
+        }
+    }
+
+    private static boolean isCompressed(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static String caseFilename(WorkCase workCase) {
+        String name = hasText(workCase.getCaseCode()) ? workCase.getCaseCode() : "ho-so-" + workCase.getId();
+        return sanitize(name) + ".zip";
+    }
+
+    private static String folderName(String documentNumber, Long id) {
+        return hasText(documentNumber) ? sanitize(documentNumber) + " (" + id + ")" : "van-ban-" + id;
+    }
+
+    private static String baseName(String key) {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[\\\\/:*?\"<>|\\p{Cntrl}]", "_").trim();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -1,20 +1,23 @@
 package com.managementcontent.service;
 
+import com.managementcontent.config.StorageProperties;
 import com.managementcontent.model.Document;
 import com.managementcontent.model.DocumentAttachment;
 import com.managementcontent.model.User;
 import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.service.AttachmentIngestionService.StoredFile;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -25,40 +28,37 @@ public class DocumentAttachmentService {
 
     private final DocumentAttachmentRepository documentAttachmentRepository;
     private final FileStorageService fileStorageService;
+    private final StorageProperties storageProperties;
+    private final StorageUsageService storageUsageService;
 
     /**
-     * Add multiple attachments to a document
+     * Add multiple attachments to a document.
+     * Files are stored concurrently and their metadata is inserted in one batch.
      */
     @Transactional
     public List<DocumentAttachment> addMultipleAttachments(Document document, List<MultipartFile> files,
             User uploadedBy) throws IOException {
-        List<DocumentAttachment> attachments = new ArrayList<>();
-
-        if (files != null && !files.isEmpty()) {
-            // Use FileStorageService.storeFiles() for efficient multi-file storage
-            List<String> filePaths = fileStorageService.storeFiles(files, document);
-
-            for (int i = 0; i < files.size(); i++) {
-                MultipartFile file = files.get(i);
-                String filePath = filePaths.get(i);
-
-                if (file != null && !file.isEmpty() && filePath != null) {
-                    DocumentAttachment attachment = DocumentAttachment.builder()
-                            .document(document)
-                            .originalFilename(file.getOriginalFilename())
-                            .storedFilename(extractFilename(filePath))
-                            .filePath(filePath)
-                            .contentType(file.getContentType())
-                            .fileSize(file.getSize())
-                            .uploadedBy(uploadedBy)
-                            .build();
-
-                    attachments.add(documentAttachmentRepository.save(attachment));
-                }
-            }
+        if (files == null || files.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        return attachments;
+        List<StoredFile> storedFiles = fileStorageService.storeFilesWithChecksum(files, document);
+        fileStorageService.deleteOnRollback(storedFiles);
+
+        List<DocumentAttachment> attachments = storedFiles.stream()
+                .map(stored -> DocumentAttachment.builder()
+                        .document(document)
+                        .originalFilename(stored.originalFilename())
+                        .storedFilename(stored.storedFilename())
+                        .filePath(stored.relativePath())
+                        .contentType(stored.contentType())
+                        .fileSize(stored.size())
+                        .checksum(stored.checksum())
+                        .uploadedBy(uploadedBy)
+                        .build())
+                .toList();
+
+        return documentAttachmentRepository.saveAll(attachments);
     }
 
     /**
@@ -71,15 +71,17 @@ public class DocumentAttachmentService {
             throw new IllegalArgumentException("File cannot be empty");
         }
 
-        String filePath = fileStorageService.storeFile(file, document);
+        StoredFile stored = fileStorageService.storeFileWithChecksum(file, document);
+        fileStorageService.deleteOnRollback(List.of(stored));
 
         DocumentAttachment attachment = DocumentAttachment.builder()
                 .document(document)
                 .originalFilename(file.getOriginalFilename())
-                .storedFilename(extractFilename(filePath))
-                .filePath(filePath)
+                .storedFilename(stored.storedFilename())
+                .filePath(stored.relativePath())
                 .contentType(file.getContentType())
-                .fileSize(file.getSize())
+                .fileSize(stored.size())
+                .checksum(stored.checksum())
                 .uploadedBy(uploadedBy)
                 .description(description)
                 .build();
@@ -105,17 +107,15 @@ public class DocumentAttachmentService {
      * Delete single attachment
      */
     @Transactional
-    public boolean deleteAttachment(Long attachmentId) throws IOException {
+    public boolean deleteAttachment(Long attachmentId) {
         Optional<DocumentAttachment> attachmentOpt = documentAttachmentRepository.findById(attachmentId);
 
         if (attachmentOpt.isPresent()) {
             DocumentAttachment attachment = attachmentOpt.get();
 
-            // Delete file from storage
-            fileStorageService.deleteFile(attachment.getFilePath());
-
-            // Delete database record
+            // Delete database record, the file goes once the deletion is committed
             documentAttachmentRepository.delete(attachment);
+            fileStorageService.deleteAfterCommit(attachment.getFilePath());
 
             return true;
         }
@@ -127,24 +127,24 @@ public class DocumentAttachmentService {
      * Delete all attachments for a document
      */
     @Transactional
-    public void deleteAllAttachments(Long documentId) throws IOException {
+    public void deleteAllAttachments(Long documentId) {
         List<DocumentAttachment> attachments = documentAttachmentRepository.findByDocumentId(documentId);
 
-        // Delete all files from storage
-        List<String> filePaths = attachments.stream()
+        // Delete all database records, the files go once the deletion is committed
+        documentAttachmentRepository.deleteAll(attachments);
+        fileStorageService.deleteAfterCommit(attachments.stream()
                 .map(DocumentAttachment::getFilePath)
-                .toList();
-        fileStorageService.deleteFiles(filePaths);
-
-        // Delete all database records
-        documentAttachmentRepository.deleteByDocumentId(documentId);
+                .toList());
     }
 
     /**
-     * Get total file size for a document
+     * Get total file size for a document, from its storage usage total when it
+     * has one
      */
     public Long getTotalFileSize(Long documentId) {
-        return documentAttachmentRepository.getTotalFileSizeByDocumentId(documentId);
+        return storageUsageService.findDocumentUsage(documentId)
+                .map(StorageUsageService.UsageTotal::totalBytes)
+                .orElseGet(() -> documentAttachmentRepository.getTotalFileSizeByDocumentId(documentId));
     }
 
     /**
@@ -154,22 +154,6 @@ public class DocumentAttachmentService {
         return documentAttachmentRepository.countByDocumentId(documentId);
     }
 
-    /**
-     * Extract filename from file path
-     */
-    private String extractFilename(String filePath) {
-        if (filePath == null) {
-            return null;
-        }
-
-        int lastSlashIndex = filePath.lastIndexOf('/');
-        if (lastSlashIndex >= 0 && lastSlashIndex < filePath.length() - 1) {
-            return filePath.substring(lastSlashIndex + 1);
-        }
-
-        return filePath;
-    }
-
     /**
      * Encode filename for Content-Disposition header to support Unicode characters
      */
@@ -203,7 +187,9 @@ public class DocumentAttachmentService {
     }
 
     /**
-     * Download a specific attachment
+     * Download a specific attachment. With an object store and
+     * {@code storage.s3.redirect-downloads} the client is redirected to a
+     * presigned URL instead of the file passing through the application.
      */
     public ResponseEntity<Resource> downloadAttachment(Long attachmentId) throws IOException {
         Optional<DocumentAttachment> attachmentOpt = documentAttachmentRepository.findById(attachmentId);
@@ -215,18 +201,26 @@ public class DocumentAttachmentService {
         DocumentAttachment attachment = attachmentOpt.get();
 
         try {
-            Path filePath = fileStorageService.getFilePath(attachment.getFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
+            String filename = attachment.getOriginalFilename();
+            String contentType = attachment.getContentType() != null ? attachment.getContentType()
+                    : "application/octet-stream";
+
+            if (storageProperties.getS3().isRedirectDownloads()) {
+                Optional<URI> presigned = fileStorageService.presignedUrl(attachment.getFilePath(),
+                        Duration.ofMinutes(storageProperties.getS3().getPresignTtlMinutes()), filename, contentType);
+                if (presigned.isPresent()) {
+                    return ResponseEntity.status(HttpStatus.FOUND).location(presigned.get()).build();
+                }
+            }
+
+            Resource resource = fileStorageService.loadAsResource(attachment.getFilePath(), filename);
 
             if (resource.exists()) {
-                String filename = attachment.getOriginalFilename();
                 String encodedFilename = encodeFilename(filename);
 
                 return ResponseEntity.ok()
                         .header(HttpHeaders.CONTENT_DISPOSITION, encodedFilename)
-                        .header(HttpHeaders.CONTENT_TYPE,
-                                attachment.getContentType() != null ? attachment.getContentType()
-                                        : "application/octet-stream")
+                        .header(HttpHeaders.CONTENT_TYPE, contentType)
                         .body(resource);
             } else {
                 return ResponseEntity.notFound().build();
@@ -1,7 +1,6 @@
 package com.managementcontent.service;
 
 import com.managementcontent.model.Document;
-import com.managementcontent.model.DocumentHistory;
 import com.managementcontent.model.Role;
 import com.managementcontent.model.User;
 import com.managementcontent.model.enums.DocumentProcessingStatus;
@@ -9,9 +8,13 @@ import com.managementcontent.repository.DocumentHistoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -21,9 +24,31 @@ import java.util.stream.Collectors;
 @Service
 public class DocumentClassificationService {
 
+    private static final int MAX_CACHED_CLASSIFICATIONS = 20_000;
+
     @Autowired
     private DocumentHistoryRepository documentHistoryRepository;
 
+    /**
+     * Classification results keyed by (document, document version, user), least recently used evicted first
+     */
+    private final Map<CacheKey, DocumentProcessingStatus> classificationCache =
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<CacheKey, DocumentProcessingStatus> eldest) {
+                    return size() > MAX_CACHED_CLASSIFICATIONS;
+                }
+            };
+
+    private record CacheKey(Long documentId, LocalDateTime version, Long userId) {
+    }
+
+    /**
+     * What the history of one document says about it for one user
+     */
+    private record HistoryStatuses(String lastUserActionStatus, String latestStatus, boolean leaderApproved) {
+    }
+
     /**
      * Document processing status categories for users
      */
@@ -41,33 +66,82 @@ public class DocumentClassificationService {
      * @return DocumentStatus indicating the user's relationship with this document
      */
     public DocumentProcessingStatus classifyDocumentForUser(Document document, User currentUser) {
-        // Get user roles
+        return classifyDocumentsForUser(List.of(document), currentUser)
+                .getOrDefault(document.getId(), DocumentProcessingStatus.NOT_PROCESSED);
+    }
+
+    /**
+     * Classify a page of documents for one user.
+     * The user's last action and the latest history status of every document that
+     * is not already cached are fetched with a single window-function query.
+     *
+     * @param documents   Documents of the current page
+     * @param currentUser The user the documents are classified for
+     * @return Map of document ID to the user's processing status
+     */
+    public Map<Long, DocumentProcessingStatus> classifyDocumentsForUser(Collection<? extends Document> documents,
+                                                                       User currentUser) {
+        Map<Long, DocumentProcessingStatus> result = new HashMap<>();
+        if (documents == null || documents.isEmpty() || currentUser == null) {
+            return result;
+        }
+
         Set<String> userRoles = currentUser.getRoles().stream()
                 .map(Role::getName)
                 .collect(Collectors.toSet());
 
-        // Get last action performed by this user on this document
-        Optional<DocumentHistory> lastUserAction = documentHistoryRepository
-                .findFirstByDocumentAndPerformedBy_IdOrderByTimestampDesc(document, currentUser.getId());
-//        System.out.println("lastUserAction: " + lastUserAction.get().getDocument().getId());
-        // Get current document status (latest action by anyone)
-        List<DocumentHistory> allHistory = documentHistoryRepository
-                .findByDocumentOrderByTimestampDesc(document);
-        
-        String currentDocumentStatus = document.getStatus().name();
-        System.out.println("currentDocumentStatus: " + currentDocumentStatus);
-        String lastUserActionStatusOrdinal = lastUserAction.map(DocumentHistory::getNewStatus).orElse(null);
-        System.out.println("lastUserActionStatusOrdinal: " + lastUserActionStatusOrdinal);
-        String lastUserActionStatus = null;
-        if (lastUserActionStatusOrdinal != null)
-        { lastUserActionStatus = DocumentProcessingStatus.values()[Integer.parseInt(lastUserActionStatusOrdinal)].toString();
-        System.out.println("lastAction "+lastUserActionStatus);}
+        Map<Long, Document> missing = new LinkedHashMap<>();
+        for (Document document : documents) {
+            DocumentProcessingStatus cached = getCached(document, currentUser.getId());
+            if (cached != null) {
+                result.put(document.getId(), cached);
+            } else {
+                missing.put(document.getId(), document);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, HistoryStatuses> statuses = new HashMap<>();
+        for (Object[] row : documentHistoryRepository.findLastStatusesForUser(missing.keySet(), currentUser.getId())) {
+            Long documentId = ((Number) row[0]).longValue();
+            statuses.put(documentId, new HistoryStatuses(toStatusName((String) row[1]), toStatusName((String) row[2]),
+                    Boolean.TRUE.equals(row[3])));
+        }
+
+        HistoryStatuses noHistory = new HistoryStatuses(null, null, false);
+        for (Document document : missing.values()) {
+            DocumentProcessingStatus status = classify(userRoles, document.getStatus().name(),
+                    statuses.getOrDefault(document.getId(), noHistory));
+            putCached(document, currentUser.getId(), status);
+            result.put(document.getId(), status);
+        }
+        return result;
+    }
 
+    /**
+     * Drop cached classifications of a document, e.g. after a new history entry
+     *
+     * @param documentId Document ID
+     */
+    public void evictDocument(Long documentId) {
+        if (documentId == null) {
+            return;
+        }
+        synchronized (classificationCache) {
+            classificationCache.keySet().removeIf(key -> documentId.equals(key.documentId()));
+        }
+    }
+
+    private DocumentProcessingStatus classify(Set<String> userRoles, String currentDocumentStatus,
+                                              HistoryStatuses history) {
+        String lastUserActionStatus = history.lastUserActionStatus();
         // Classify based on role
         if (hasVanThuRole(userRoles)) {
-            return classifyForVanThu(currentDocumentStatus, lastUserActionStatus, allHistory);
+            return classifyForVanThu(currentDocumentStatus, lastUserActionStatus, history.leaderApproved());
         } else if (hasStaffRole(userRoles)) {
-            return classifyForStaff(currentDocumentStatus, lastUserActionStatus, allHistory);
+            return classifyForStaff(currentDocumentStatus, lastUserActionStatus, history.latestStatus());
         } else if (hasBureauLeaderRole(userRoles)) {
             return classifyForBureauLeader(currentDocumentStatus, lastUserActionStatus);
         } else if (hasDepartmentLeaderRole(userRoles)) {
@@ -77,10 +151,41 @@ public class DocumentClassificationService {
         return DocumentProcessingStatus.NOT_PROCESSED; // Default
     }
 
+    /**
+     * History rows store the new status either as an ordinal or as the enum name
+     */
+    private String toStatusName(String rawStatus) {
+        if (rawStatus == null || rawStatus.isEmpty()) {
+            return null;
+        }
+        if (Character.isDigit(rawStatus.charAt(0))) {
+            try {
+                int ordinal = Integer.parseInt(rawStatus);
+                DocumentProcessingStatus[] values = DocumentProcessingStatus.values();
+                return ordinal < values.length ? values[ordinal].name() : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return rawStatus;
+    }
+
+    private DocumentProcessingStatus getCached(Document document, Long userId) {
+        synchronized (classificationCache) {
+            return classificationCache.get(new CacheKey(document.getId(), document.getChanged(), userId));
+        }
+    }
+
+    private void putCached(Document document, Long userId, DocumentProcessingStatus status) {
+        synchronized (classificationCache) {
+            classificationCache.put(new CacheKey(document.getId(), document.getChanged(), userId), status);
+        }
+    }
+
     /**
      * Classify for ROLE_VAN_THU
      */
-    private DocumentProcessingStatus classifyForVanThu(String currentStatus, String lastUserActionStatus, List<DocumentHistory> allHistory) {
+    private DocumentProcessingStatus classifyForVanThu(String currentStatus, String lastUserActionStatus, boolean leaderApproved) {
         // Đang xử lý: DRAFT, REGISTERED
         if ("DRAFT".equals(currentStatus) || "REGISTERED".equals(currentStatus)) {
             return DocumentProcessingStatus.IN_PROCESS;
@@ -96,9 +201,8 @@ public class DocumentClassificationService {
             return DocumentProcessingStatus.PROCESSED;
         }
 
-        // Chưa xử lý: FORMAT_CORRECTION và trạng thái cuối cùng của công văn trong history là LEADER_APPROVED
-        if ("FORMAT_CORRECTION".equals(currentStatus) && 
-            allHistory.stream().anyMatch(h -> "LEADER_APPROVED".equals(h.getNewStatus()))) {
+        // Chưa xử lý: FORMAT_CORRECTION và history của công văn có LEADER_APPROVED
+        if ("FORMAT_CORRECTION".equals(currentStatus) && leaderApproved) {
             return DocumentProcessingStatus.NOT_PROCESSED;
         }
 
@@ -108,7 +212,7 @@ public class DocumentClassificationService {
     /**
      * Classify for ROLE_NHAN_VIEN, ROLE_TRO_LY
      */
-    private DocumentProcessingStatus classifyForStaff(String currentStatus, String lastUserActionStatus, List<DocumentHistory> allHistory) {
+    private DocumentProcessingStatus classifyForStaff(String currentStatus, String lastUserActionStatus, String latestStatus) {
         // Đang xử lý: SPECIALIST_PROCESSING, DRAFT, REGISTERED
         if ("SPECIALIST_PROCESSING".equals(currentStatus) || 
             "DRAFT".equals(currentStatus) || 
@@ -122,10 +226,10 @@ public class DocumentClassificationService {
         }
 
         // Chưa xử lý: trạng thái cuối cùng của công văn trong history là DEPT_ASSIGNED, LEADER_COMMENTED, HEADER_DEPARTMENT_COMMENTED
-        String latestStatus = allHistory.isEmpty() ? currentStatus : allHistory.get(0).getNewStatus();
-        if ("DEPT_ASSIGNED".equals(latestStatus) || 
-            "LEADER_COMMENTED".equals(latestStatus) || 
-            "HEADER_DEPARTMENT_COMMENTED".equals(latestStatus)) {
+        String latest = latestStatus != null ? latestStatus : currentStatus;
+        if ("DEPT_ASSIGNED".equals(latest) || 
+            "LEADER_COMMENTED".equals(latest) || 
+            "HEADER_DEPARTMENT_COMMENTED".equals(latest)) {
             return DocumentProcessingStatus.NOT_PROCESSED;
         }
 
@@ -155,7 +259,6 @@ public class DocumentClassificationService {
      * CUM_TRUONG, PHO_CUM_TRUONG, CHINH_TRI_VIEN_CUM, TRUONG_BAN, TRUONG_PHONG, PHO_PHONG
      */
     private DocumentProcessingStatus classifyForDepartmentLeader(String currentStatus, String lastUserActionStatus) {
-        System.out.println( lastUserActionStatus );
         // Đang xử lý: HEADER_DEPARTMENT_REVIEWING
         if ("HEADER_DEPARTMENT_REVIEWING".equals(currentStatus)) {
             return DocumentProcessingStatus.IN_PROCESS;
@@ -215,10 +318,6 @@ public class DocumentClassificationService {
      * @return DocumentSummary with counts
      */
     public DocumentSummary getDocumentSummaryForUser(Long userId) {
-        // Get all actions by this user
-        List<DocumentHistory> userActions = documentHistoryRepository
-                .findByPerformedBy_IdOrderByTimestampDesc(userId);
-
         // Count documents by status
         long processingCount = 0;
         long processedCount = 0;
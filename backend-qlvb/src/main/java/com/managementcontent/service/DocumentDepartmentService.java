@@ -33,6 +33,7 @@ public class DocumentDepartmentService {
     private final UserRepository userRepository;
     private final DepartmentService departmentService;
     private final NotificationService notificationService;
+    private final WorkInboxService workInboxService;
 
     /**
      * Assign a document to a department
@@ -111,6 +112,8 @@ public class DocumentDepartmentService {
                                     }
 
                                     DocumentDepartment savedAssignment = documentDepartmentRepository.save(assignment);
+                                    workInboxService.deliverDocument(document,
+                                            userRepository.findByDepartmentIdAndIsCommanderOfUnitTrue(departmentId));
                                     notificationService.createAndSendNotification(
                                             document,
                                             actor,
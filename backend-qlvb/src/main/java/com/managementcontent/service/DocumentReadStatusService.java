@@ -24,6 +24,7 @@ public class DocumentReadStatusService {
 
     private final DocumentReadStatusRepository readStatusRepository;
     private final UserService userService;
+    private final WorkInboxService workInboxService;
 
     /**
      * Mark a document as read for the current user
@@ -51,6 +52,7 @@ public class DocumentReadStatusService {
         if (!readStatus.getIsRead()) {
             readStatus.markAsRead();
             readStatusRepository.save(readStatus);
+            workInboxService.markRead(user, documentType, documentId, true);
             log.info("Marked document {} of type {} as read for user {}",
                     documentId, documentType, user.getName());
         }
@@ -82,6 +84,7 @@ public class DocumentReadStatusService {
         if (readStatus.getIsRead()) {
             readStatus.markAsUnread();
             readStatusRepository.save(readStatus);
+            workInboxService.markRead(user, documentType, documentId, false);
             log.info("Marked document {} of type {} as unread for user {}",
                     documentId, documentType, user.getName());
         }
@@ -114,6 +117,20 @@ public class DocumentReadStatusService {
         return readStatusMap;
     }
 
+    /**
+     * Get read status records for multiple documents and one user in a single query
+     */
+    public Map<Long, DocumentReadStatus> getReadStatusRecords(List<Long> documentIds, DocumentType documentType,
+            User user) {
+        if (documentIds.isEmpty()) {
+            return Map.of();
+        }
+        return readStatusRepository.findByDocumentIdsAndDocumentTypeAndUser(documentIds, documentType, user)
+                .stream()
+                .collect(Collectors.toMap(DocumentReadStatus::getDocumentId, status -> status,
+                        (first, second) -> first));
+    }
+
     /**
      * Count unread documents for the current user
      */
@@ -136,15 +153,15 @@ public class DocumentReadStatusService {
      */
     @Transactional
     public void initializeReadStatusForDocument(Long documentId, DocumentType documentType, List<User> users) {
-        for (User user : users) {
-            DocumentReadStatus readStatus = DocumentReadStatus.builder()
-                    .documentId(documentId)
-                    .documentType(documentType)
-                    .user(user)
-                    .isRead(false)
-                    .build();
-            readStatusRepository.save(readStatus);
-        }
+        // Saved together so the inserts go out as one JDBC batch
+        readStatusRepository.saveAll(users.stream()
+                .map(user -> DocumentReadStatus.builder()
+                        .documentId(documentId)
+                        .documentType(documentType)
+                        .user(user)
+                        .isRead(false)
+                        .build())
+                .toList());
         log.info("Initialized read status for document {} of type {} for {} users",
                 documentId, documentType, users.size());
     }
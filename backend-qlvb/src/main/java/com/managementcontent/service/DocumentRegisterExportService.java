@@ -0,0 +1,205 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.Role;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.model.enums.SecurityLevel;
+import com.managementcontent.repository.IncomingDocumentRepository;
+import com.managementcontent.repository.InternalDocumentRepository;
+import com.managementcontent.repository.OutgoingDocumentRepository;
+import com.managementcontent.service.export.CsvTabularWriter;
+import com.managementcontent.service.export.TabularWriter;
+import com.managementcontent.service.export.XlsxTabularWriter;
+import com.managementcontent.util.DateTimeRange;
+import com.managementcontent.util.RoleGroupUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Exports the incoming, outgoing and internal document registers ("sổ công
+ * văn") of a period as CSV or XLSX. Rows are read through a database cursor
+ * and written as they arrive, so heap use does not grow with the number of
+ * documents. Each register applies the same visibility rules as its list
+ * endpoint.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentRegisterExportService {
+
+    public enum Register {
+        INCOMING("so-cong-van-den", "Sổ công văn đến"),
+        OUTGOING("so-cong-van-di", "Sổ công văn đi"),
+        INTERNAL("so-cong-van-noi-bo", "Sổ công văn nội bộ");
+
+        private final String fileName;
+        private final String title;
+
+        Register(String fileName, String title) {
+            this.fileName = fileName;
+            this.title = title;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    public enum Format {
+        CSV("csv", "text/csv; charset=UTF-8"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private static final List<String> INCOMING_HEADER = List.of("STT", "Số đến", "Ngày đến", "Số, ký hiệu",
+            "Số tham chiếu", "Ngày ký", "Cơ quan ban hành", "Tiêu đề", "Trích yếu", "Độ khẩn", "Độ mật",
+            "Cán bộ xử lý", "Trạng thái");
+
+    private static final List<String> OUTGOING_HEADER = List.of("STT", "Số, ký hiệu", "Ngày ký", "Tiêu đề",
+            "Trích yếu", "Nơi nhận", "Đơn vị soạn thảo", "Người ký", "Độ mật", "Số bản", "Trạng thái");
+
+    private static final List<String> INTERNAL_HEADER = List.of("STT", "Số, ký hiệu", "Số đến", "Ngày ký",
+            "Loại văn bản", "Tiêu đề", "Trích yếu", "Người gửi", "Đơn vị soạn thảo", "Người ký", "Độ khẩn",
+            "Độ mật", "Trạng thái");
+
+    private final IncomingDocumentRepository incomingDocumentRepository;
+    private final OutgoingDocumentRepository outgoingDocumentRepository;
+    private final InternalDocumentRepository internalDocumentRepository;
+    private final DocumentAccessControlService accessControlService;
+
+    /**
+     * Write the register of a period visible to the current user
+     *
+     * @return Number of documents written
+     */
+    @Transactional(readOnly = true)
+    public long export(Register register, DateTimeRange range, Format format, OutputStream out) throws IOException {
+        User currentUser = accessControlService.getCurrentUser();
+        TabularWriter writer = format == Format.XLSX
+                ? new XlsxTabularWriter(out, register.getTitle())
+                : new CsvTabularWriter(out);
+        writer.writeRow(switch (register) {
+            case INCOMING -> INCOMING_HEADER;
+            case OUTGOING -> OUTGOING_HEADER;
+            case INTERNAL -> INTERNAL_HEADER;
+        });
+
+        long count = 0;
+        try (Stream<Object[]> rows = rows(register, range, currentUser)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeRow(toCells(++count, iterator.next()));
+            }
+        }
+        writer.finish();
+        log.info("Xuất {} của {}: {} văn bản", register.getTitle(), currentUser.getName(), count);
+        return count;
+    }
+
+    private Stream<Object[]> rows(Register register, DateTimeRange range, User user) {
+        Long departmentId = user.getDepartment() != null ? user.getDepartment().getId() : null;
+        return switch (register) {
+            case INCOMING -> incomingRows(range, user, departmentId);
+            case OUTGOING -> outgoingRows(range, user, departmentId);
+            case INTERNAL -> internalRows(range, user, departmentId);
+        };
+    }
+
+    /**
+     * Same rules as {@code IncomingDocumentService.getAllIncomingDocuments}
+     */
+    private Stream<Object[]> incomingRows(DateTimeRange range, User user, Long departmentId) {
+        RoleGroupUtil.RoleGroup roleGroup = accessControlService.getUserRoleGroup(user);
+        if (roleGroup == null) {
+            return Stream.empty();
+        }
+        return switch (roleGroup) {
+            case CHI_HUY_CUC, VAN_THU -> incomingDocumentRepository.streamRegister(
+                    range.getStartDate(), range.getEndDate(), true, null, null);
+            case CHI_HUY_DON_VI -> incomingDocumentRepository.streamRegister(
+                    range.getStartDate(), range.getEndDate(), departmentId == null, departmentId, null);
+            case NHAN_VIEN -> incomingDocumentRepository.streamRegister(
+                    range.getStartDate(), range.getEndDate(), false, null, user.getId());
+        };
+    }
+
+    /**
+     * Same rules as {@code OutgoingDocumentService.getAllOutgoingDocuments}
+     */
+    private Stream<Object[]> outgoingRows(DateTimeRange range, User user, Long departmentId) {
+        RoleGroupUtil.RoleGroup roleGroup = accessControlService.getUserRoleGroup(user);
+        if (roleGroup == null) {
+            return Stream.empty();
+        }
+        return switch (roleGroup) {
+            case CHI_HUY_CUC, VAN_THU -> outgoingDocumentRepository.streamRegister(
+                    range.getStartDate(), range.getEndDate(), true, null, null, false);
+            case CHI_HUY_DON_VI -> outgoingDocumentRepository.streamRegister(
+                    range.getStartDate(), range.getEndDate(), departmentId == null, departmentId, null, true);
+            case NHAN_VIEN -> outgoingDocumentRepository.streamRegister(
+                    range.getStartDate(), range.getEndDate(), false, departmentId, user.getId(), false);
+        };
+    }
+
+    /**
+     * Same rules as {@code DocumentAccessControlService.canUserAccessDocument}
+     */
+    private Stream<Object[]> internalRows(DateTimeRange range, User user, Long departmentId) {
+        List<String> roles = user.getRoles() != null
+                ? user.getRoles().stream().map(Role::getName).toList()
+                : List.of();
+        boolean chiHuyCuc = roles.stream().anyMatch(RoleGroupUtil::isChiHuyCuc);
+        boolean chiHuyDonVi = roles.stream().anyMatch(RoleGroupUtil::isChiHuyDonVi);
+        return internalDocumentRepository.streamRegister(range.getStartDate(), range.getEndDate(), chiHuyCuc,
+                departmentId, user.getId(), chiHuyDonVi && departmentId != null);
+    }
+
+    /**
+     * Row number followed by the selected columns without the leading ID
+     */
+    private static List<Object> toCells(long number, Object[] row) {
+        List<Object> cells = new ArrayList<>(row.length);
+        cells.add(number);
+        for (int i = 1; i < row.length; i++) {
+            Object value = row[i];
+            if (value instanceof DocumentProcessingStatus status) {
+                value = status.getDisplayName();
+            } else if (value instanceof SecurityLevel securityLevel) {
+                value = securityLevel.getDisplayName();
+            } else if (value instanceof InternalDocument.Priority priority) {
+                value = priority.getDisplayName();
+            }
+            cells.add(value);
+        }
+        return cells;
+    }
+}
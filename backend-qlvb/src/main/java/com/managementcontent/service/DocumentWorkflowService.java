@@ -32,6 +32,12 @@ public class DocumentWorkflowService {
     @Autowired
     private DocumentTypeRepository documentTypeRepository;
 
+    @Autowired
+    private WorkInboxService workInboxService;
+
+    @Autowired
+    private DocumentAccessControlService accessControlService;
+
     public DocumentWorkflowService(DocumentRepository<Document> documentRepository,
             DocumentHistoryRepository documentHistoryRepository,
             DocumentDepartmentRepository documentDepartmentRepository,
@@ -76,6 +82,7 @@ public class DocumentWorkflowService {
 
             history.setAction("STATUS_CHANGE");
             DocumentHistory savedHistory = documentHistoryRepository.save(history);
+            workInboxService.onStatusChanged(document, newStatus, actor);
 
             // After saving history
             notificationService.createAndSendNotification(
@@ -127,7 +134,9 @@ public class DocumentWorkflowService {
 
             history.setAssignedTo(assignedTo);
 
-            return documentHistoryRepository.save(history);
+            DocumentHistory savedHistory = documentHistoryRepository.save(history);
+            workInboxService.deliverDocument(document, List.of(assignedTo));
+            return savedHistory;
         });
     }
 
@@ -492,6 +501,37 @@ public class DocumentWorkflowService {
         return Optional.empty();
     }
 
+    /**
+     * Kiểm tra người dùng có quyền phê duyệt công văn hay không (thủ trưởng cục)
+     */
+    public boolean canApprove(User user) {
+        return user.getRoles().stream()
+                .anyMatch(role -> role.getName().equals("ROLE_CUC_TRUONG")
+                        || role.getName().equals("ROLE_CUC_PHO"));
+    }
+
+    /**
+     * Check that a user may sign the attachments of a document, and approve
+     * it when asked, before anything is written. Leaders may sign every
+     * document; other users only the documents they created, process, were
+     * assigned or received in their inbox. Approval follows
+     * {@link #canApprove(User)}, like the approve endpoint.
+     *
+     * @throws IllegalArgumentException if the document does not exist
+     * @throws SecurityException        if the user may not sign or approve it
+     */
+    @Transactional(readOnly = true)
+    public void checkCanSign(Long documentId, User user, boolean approve) {
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy công văn"));
+        if (approve && !canApprove(user)) {
+            throw new SecurityException("Chỉ thủ trưởng mới có quyền phê duyệt công văn");
+        }
+        if (!isLeader(user) && !accessControlService.isAssignedTo(document, user)) {
+            throw new SecurityException("Người dùng không được giao xử lý công văn này");
+        }
+    }
+
     /**
      * Mark document as completed (end of workflow)
      */
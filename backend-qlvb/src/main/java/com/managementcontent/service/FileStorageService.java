@@ -1,25 +1,37 @@
 package com.managementcontent.service;
 
 import com.managementcontent.model.Document;
-import org.springframework.beans.factory.annotation.Value;
+import com.managementcontent.service.AttachmentIngestionService.StoredContent;
+import com.managementcontent.service.AttachmentIngestionService.StoredFile;
+import com.managementcontent.service.storage.BlobStore;
+import com.managementcontent.service.storage.BlobStore.LocalCopy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.ArrayList;
 
 @Service
+@RequiredArgsConstructor
+@Slf4j
 public class FileStorageService {
 
-    @Value("${file.upload-dir:./uploads}")
-    private String uploadDir;
+    private final AttachmentIngestionService attachmentIngestionService;
+    @Qualifier("attachmentBlobStore")
+    private final BlobStore blobStore;
 
     /**
      * Store a single file for a document
@@ -28,22 +40,81 @@ public class FileStorageService {
      * @return The relative path to the stored file
      */
     public String storeFile(MultipartFile file, Document document) throws IOException {
+        return storeFileWithChecksum(file, document).relativePath();
+    }
+
+    /**
+     * Store a single file for a document, returning its size and SHA-256
+     * @param file The file to store
+     * @param document The document this file belongs to
+     * @return Information about the stored file
+     */
+    public StoredFile storeFileWithChecksum(MultipartFile file, Document document) throws IOException {
+        return attachmentIngestionService.store(file, blobStore, buildRelativePath(file, document));
+    }
+
+    /**
+     * Store multiple files for a document
+     * @param files List of files to store
+     * @param document The document these files belong to
+     * @return List of relative paths to the stored files
+     */
+    public List<String> storeFiles(List<MultipartFile> files, Document document) throws IOException {
+        return storeFilesWithChecksum(files, document).stream()
+                .map(StoredFile::relativePath)
+                .toList();
+    }
+
+    /**
+     * Store multiple files for a document concurrently. Empty files are skipped;
+     * if one file fails, the others are removed again.
+     * @param files List of files to store
+     * @param document The document these files belong to
+     * @return Information about the stored files, in input order
+     */
+    public List<StoredFile> storeFilesWithChecksum(List<MultipartFile> files, Document document) throws IOException {
+        return attachmentIngestionService.storeAll(files, blobStore,
+                file -> buildRelativePath(file, document));
+    }
+
+    /**
+     * Store content that was not uploaded as a multipart part, such as an entry
+     * of an imported ZIP archive, under a new path for the document
+     * @param content The content, read to the end but not closed
+     * @param originalFilename Original name, used for the file extension
+     * @param length Number of bytes, or -1 if unknown
+     * @param contentType MIME type, may be null
+     * @param document The document this file belongs to
+     * @return Information about the stored file
+     */
+    public StoredContent storeContent(InputStream content, String originalFilename, long length,
+            String contentType, Document document) throws IOException {
+        return attachmentIngestionService.storeContent(content, blobStore,
+                buildRelativePath(originalFilename, document), length, contentType);
+    }
+
+    /**
+     * Delete the given stored files if the current transaction rolls back
+     */
+    public void deleteOnRollback(List<StoredFile> storedFiles) {
+        attachmentIngestionService.deleteOnRollback(blobStore, storedFiles);
+    }
+
+    /**
+     * Build the year/month/day/filename path for a new upload
+     */
+    private String buildRelativePath(MultipartFile file, Document document) {
+        return buildRelativePath(file.getOriginalFilename(), document);
+    }
+
+    private String buildRelativePath(String originalFilename, Document document) {
         // Get current date for folder structure
         LocalDate now = LocalDate.now();
         String year = String.valueOf(now.getYear());
         String month = String.format("%02d", now.getMonthValue());
         String day = String.format("%02d", now.getDayOfMonth());
 
-        // Create year/month/day directory structure
-        String relativePath = year + "/" + month + "/" + day;
-        Path uploadPath = Paths.get(uploadDir, year, month, day).toAbsolutePath().normalize();
-
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
         // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
         String fileExtension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
             fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
@@ -58,40 +129,60 @@ public class FileStorageService {
         }
         String filename = baseFilename + "_" + UUID.randomUUID() + fileExtension;
 
-        // Save file
-        Path targetLocation = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        // Path relative to upload directory (year/month/day/filename)
+        return year + "/" + month + "/" + day + "/" + filename;
+    }
 
-        // Return path relative to upload directory (year/month/day/filename)
-        return relativePath + "/" + filename;
+    /**
+     * The stored file as a resource for a download response
+     * @param relativePath The relative path of the stored file
+     * @param filename File name reported by the resource
+     */
+    public Resource loadAsResource(String relativePath, String filename) {
+        return blobStore.asResource(relativePath, filename);
     }
 
     /**
-     * Store multiple files for a document
-     * @param files List of files to store
-     * @param document The document these files belong to
-     * @return List of relative paths to the stored files
+     * Open the stored file for reading
      */
-    public List<String> storeFiles(List<MultipartFile> files, Document document) throws IOException {
-        List<String> filePaths = new ArrayList<>();
-        for (MultipartFile file : files) {
-            if (!file.isEmpty()) {
-                String filePath = storeFile(file, document);
-                filePaths.add(filePath);
-            }
-        }
-        return filePaths;
+    public InputStream openFile(String relativePath) throws IOException {
+        return blobStore.get(relativePath);
+    }
+
+    /**
+     * A local file with the stored content, for code that needs random access.
+     * Close it when done; a downloaded copy is removed then.
+     */
+    public LocalCopy openLocal(String relativePath) throws IOException {
+        return blobStore.localCopy(relativePath);
+    }
+
+    /**
+     * Time-limited direct download URL, when the storage backend supports it
+     */
+    public Optional<URI> presignedUrl(String relativePath, Duration ttl, String filename, String contentType) {
+        return blobStore.presignedGetUrl(relativePath, ttl, filename, contentType);
+    }
+
+    /**
+     * Store raw content under the given relative path
+     * @param length Number of bytes, or -1 if unknown
+     */
+    public void storeRaw(String relativePath, InputStream content, long length, String contentType)
+            throws IOException {
+        blobStore.put(relativePath, content, length, contentType);
     }
 
-    public Path getFilePath(String relativePath) {
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        return uploadPath.resolve(relativePath);
+    /**
+     * The blob store holding document attachments
+     */
+    public BlobStore getBlobStore() {
+        return blobStore;
     }
 
     public void deleteFile(String relativePath) throws IOException {
         if (relativePath != null) {
-            Path filePath = getFilePath(relativePath);
-            Files.deleteIfExists(filePath);
+            blobStore.delete(relativePath);
         }
     }
 
@@ -107,6 +198,45 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Delete files once the current transaction commits, so a rollback never
+     * leaves rows pointing at deleted files. Failures are logged and the files
+     * are left to the orphan collector.
+     * @param relativePaths Relative paths to delete, null entries are ignored
+     */
+    public void deleteAfterCommit(Collection<String> relativePaths) {
+        List<String> paths = relativePaths.stream()
+                .filter(path -> path != null && !path.isBlank())
+                .toList();
+        if (paths.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteQuietly(paths);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteQuietly(paths);
+            }
+        });
+    }
+
+    public void deleteAfterCommit(String relativePath) {
+        deleteAfterCommit(relativePath != null ? List.of(relativePath) : List.of());
+    }
+
+    private void deleteQuietly(List<String> relativePaths) {
+        for (String relativePath : relativePaths) {
+            try {
+                blobStore.delete(relativePath);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Không thể xóa tệp {}: {}", relativePath, e.getMessage());
+            }
+        }
+    }
+
     /**
      * Store file with a specific date (useful for testing or importing files)
      * 
@@ -120,11 +250,6 @@ public class FileStorageService {
         String day = String.format("%02d", date.getDayOfMonth());
 
         String relativePath = year + "/" + month + "/" + day;
-        Path uploadPath = Paths.get(uploadDir, year, month, day).toAbsolutePath().normalize();
-
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
 
         String originalFilename = file.getOriginalFilename();
         String fileExtension = "";
@@ -133,9 +258,7 @@ public class FileStorageService {
         }
         String filename = UUID.randomUUID().toString() + fileExtension;
 
-        Path targetLocation = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-        return relativePath + "/" + filename;
+        return attachmentIngestionService.store(file, blobStore, relativePath + "/" + filename)
+                .relativePath();
     }
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package com.managementcontent.service;
 import com.managementcontent.model.GuideFile;
 import com.managementcontent.model.User;
 import com.managementcontent.repository.GuideFileRepository;
+import com.managementcontent.service.storage.BlobStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,10 +16,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,8 +31,9 @@ public class GuideFileService {
     @Autowired
     private GuideFileRepository guideFileRepository;
 
-    @Value("${app.upload.guide-files-dir:uploads/guide-files}")
-    private String uploadDir;
+    @Autowired
+    @Qualifier("guideFileBlobStore")
+    private BlobStore guideFileStore;
 
     @Value("${app.upload.max-file-size:10485760}") // 10MB default
     private long maxFileSize;
@@ -245,13 +246,13 @@ public class GuideFileService {
     }
 
     /**
-     * Get guide file path for download
+     * Get guide file content for download
      * 
      * @param fileName File name
-     * @return Path to file
+     * @return Resource with the file content
      */
-    public Path getFilePath(String fileName) {
-        return Paths.get(uploadDir).resolve(fileName);
+    public Resource loadAsResource(String fileName) {
+        return guideFileStore.asResource(fileName, fileName);
     }
 
     /**
@@ -274,19 +275,13 @@ public class GuideFileService {
     }
 
     /**
-     * Store file to filesystem
+     * Store file in the guide file store
      * 
      * @param file File to store
      * @return Stored filename
      * @throws IOException if file operations fail
      */
     private String storeFile(MultipartFile file) throws IOException {
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
-
         // Generate unique filename
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
         String fileExtension = "";
@@ -296,14 +291,15 @@ public class GuideFileService {
         String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
 
         // Store file
-        Path targetLocation = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream in = file.getInputStream()) {
+            guideFileStore.put(uniqueFileName, in, file.getSize(), file.getContentType());
+        }
 
         return uniqueFileName;
     }
 
     /**
-     * Delete physical file from filesystem
+     * Delete physical file from the guide file store
      * 
      * @param fileUrl File URL
      */
@@ -311,8 +307,7 @@ public class GuideFileService {
         try {
             if (fileUrl != null && fileUrl.startsWith("/api/guide-files/download/")) {
                 String fileName = fileUrl.substring("/api/guide-files/download/".length());
-                Path filePath = Paths.get(uploadDir).resolve(fileName);
-                Files.deleteIfExists(filePath);
+                guideFileStore.delete(fileName);
             }
         } catch (IOException e) {
             // Log error but don't throw exception to avoid breaking the delete operation
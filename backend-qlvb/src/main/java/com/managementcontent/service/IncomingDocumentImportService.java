@@ -0,0 +1,788 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.Document;
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.DocumentHistory;
+import com.managementcontent.model.DocumentType;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.Role;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.model.enums.SecurityLevel;
+import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.repository.DocumentHistoryRepository;
+import com.managementcontent.repository.DocumentRepository;
+import com.managementcontent.repository.DocumentTypeRepository;
+import com.managementcontent.repository.IncomingDocumentRepository;
+import com.managementcontent.repository.UserRepository;
+import com.managementcontent.service.AttachmentIngestionService.StoredContent;
+import com.managementcontent.service.importing.CsvTabularReader;
+import com.managementcontent.service.importing.TabularReader;
+import com.managementcontent.service.importing.XlsxTabularReader;
+import com.managementcontent.util.RoleGroupUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Registers incoming documents in bulk from a manifest (CSV or XLSX, one row
+ * per document, with the columns of the incoming register export) and an
+ * optional ZIP holding the attachments named in the manifest.
+ * <p>
+ * All rows are parsed and validated in parallel against lookups loaded once
+ * per import. Valid rows are then inserted in chunks, each in its own
+ * transaction: the attachments of a chunk are stored concurrently first, then
+ * documents, their registration history and attachment rows are saved.
+ * These entities take their ids from pooled sequences, so Hibernate sends the
+ * inserts as JDBC batches. A chunk that fails is retried row by row, so one
+ * bad row only loses itself. Every rejected row is reported with its manifest
+ * row number.
+ */
+@Service
+@Slf4j
+public class IncomingDocumentImportService {
+
+    private static final String INCOMING_TYPE = "incoming_document";
+    private static final String DEFAULT_CONTENT_TYPE = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_TITLE_LENGTH = 2000;
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+    private static final double MAX_EXCEL_SERIAL = 2958465;
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = Stream.of(
+                    "d/M/uuuu[ H:mm[:ss]]",
+                    "d-M-uuuu[ H:mm[:ss]]",
+                    "uuuu-M-d['T'H:mm[:ss]][ H:mm[:ss]]")
+            .map(pattern -> DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT))
+            .toList();
+
+    /**
+     * Manifest columns with the headers they are recognised by: the header of
+     * the register export first, then the field name of the create API
+     */
+    enum Column {
+        RECEIPT_NUMBER("Số đến", "receiptNumber"),
+        RECEIVED_DATE("Ngày đến", "receivedDate"),
+        DOCUMENT_NUMBER("Số, ký hiệu", "documentNumber"),
+        REFERENCE_NUMBER("Số tham chiếu", "referenceNumber"),
+        SIGNING_DATE("Ngày ký", "signingDate"),
+        ISSUING_AUTHORITY("Cơ quan ban hành", "issuingAuthority"),
+        TITLE("Tiêu đề", "title"),
+        SUMMARY("Trích yếu", "summary"),
+        URGENCY_LEVEL("Độ khẩn", "urgencyLevel"),
+        SECURITY_LEVEL("Độ mật", "securityLevel"),
+        PROCESSING_OFFICER("Cán bộ xử lý", "processingOfficer"),
+        DOCUMENT_TYPE("Loại văn bản", "documentType"),
+        PROCESS_DEADLINE("Hạn xử lý", "closureDeadline"),
+        STORAGE_LOCATION("Nơi lưu", "storageLocation"),
+        NOTES("Ghi chú", "notes"),
+        ATTACHMENTS("Tệp đính kèm", "attachments");
+
+        private final List<String> headers;
+
+        Column(String... headers) {
+            this.headers = List.of(headers);
+        }
+    }
+
+    private static final Map<String, Column> COLUMNS_BY_HEADER = new HashMap<>();
+
+    static {
+        for (Column column : Column.values()) {
+            column.headers.forEach(header -> COLUMNS_BY_HEADER.put(normalizeHeader(header), column));
+        }
+    }
+
+    /**
+     * A manifest row that could not be imported
+     */
+    public record RowError(int row, String documentNumber, String message) {
+    }
+
+    /**
+     * Outcome of an import
+     *
+     * @param totalRows  Non-empty data rows in the manifest
+     * @param imported   Rows registered, or that would be registered in a dry run
+     * @param failed     Rows rejected
+     * @param errors     Reason per rejected row, in manifest order
+     * @param dryRun     Whether the rows were only validated
+     * @param durationMs Time taken
+     */
+    public record ImportResult(int totalRows, int imported, int failed, List<RowError> errors, boolean dryRun,
+            long durationMs) {
+    }
+
+    private record StoredAttachment(String originalFilename, String contentType, StoredContent content) {
+    }
+
+    /**
+     * Data loaded once per import and shared by the validating threads
+     */
+    record Lookups(Map<String, Long> documentTypes, Map<String, Long> usersByName,
+            Map<String, Long> usersByFullName, Set<String> ambiguousFullNames, ZipIndex zip) {
+    }
+
+    private final IncomingDocumentRepository incomingDocumentRepository;
+    private final DocumentRepository<Document> documentRepository;
+    private final DocumentHistoryRepository documentHistoryRepository;
+    private final DocumentAttachmentRepository documentAttachmentRepository;
+    private final DocumentTypeRepository documentTypeRepository;
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final DocumentAccessControlService accessControlService;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public IncomingDocumentImportService(IncomingDocumentRepository incomingDocumentRepository,
+            DocumentRepository<Document> documentRepository,
+            DocumentHistoryRepository documentHistoryRepository,
+            DocumentAttachmentRepository documentAttachmentRepository,
+            DocumentTypeRepository documentTypeRepository,
+            UserRepository userRepository,
+            FileStorageService fileStorageService,
+            DocumentAccessControlService accessControlService,
+            @Qualifier("attachmentStorageExecutor") ThreadPoolTaskExecutor executor,
+            PlatformTransactionManager transactionManager,
+            @Value("${import.chunk-size:500}") int chunkSize,
+            @Value("${import.max-rows:20000}") int maxRows) {
+        this.incomingDocumentRepository = incomingDocumentRepository;
+        this.documentRepository = documentRepository;
+        this.documentHistoryRepository = documentHistoryRepository;
+        this.documentAttachmentRepository = documentAttachmentRepository;
+        this.documentTypeRepository = documentTypeRepository;
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.accessControlService = accessControlService;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Validate the manifest and, unless this is a dry run, register its valid
+     * rows as incoming documents in the REGISTERED state
+     *
+     * @param manifest    CSV or XLSX manifest, one document per row
+     * @param attachments Optional ZIP with the files named in the attachment column
+     * @param dryRun      Only validate, store nothing
+     * @throws AccessDeniedException    if the current user may not register documents
+     * @throws IllegalArgumentException if the manifest or the ZIP cannot be read
+     */
+    public ImportResult importDocuments(MultipartFile manifest, MultipartFile attachments, boolean dryRun)
+            throws IOException {
+        long started = System.nanoTime();
+        User currentUser = accessControlService.getCurrentUser();
+        if (!canImport(currentUser)) {
+            throw new AccessDeniedException("Chỉ văn thư hoặc chỉ huy cục được nhập công văn đến hàng loạt");
+        }
+        if (manifest == null || manifest.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu tệp danh sách công văn");
+        }
+
+        Path zipPath = null;
+        ZipFile zip = null;
+        try {
+            if (attachments != null && !attachments.isEmpty()) {
+                zipPath = Files.createTempFile("incoming-import-", ".zip");
+                attachments.transferTo(zipPath);
+                zip = openZip(zipPath);
+            }
+            List<ImportRow> rows = readManifest(manifest);
+            Lookups lookups = loadLookups(zip);
+
+            rows.parallelStream().forEach(row -> row.validate(lookups));
+            checkDocumentNumbers(rows);
+
+            List<ImportRow> valid = rows.stream().filter(ImportRow::isValid).toList();
+            if (!dryRun) {
+                String source = "Nhập hàng loạt từ " + manifest.getOriginalFilename();
+                for (int from = 0; from < valid.size(); from += chunkSize) {
+                    insertChunk(valid.subList(from, Math.min(from + chunkSize, valid.size())), zip,
+                            currentUser.getId(), source);
+                }
+            }
+
+            List<RowError> errors = rows.stream()
+                    .filter(row -> !row.isValid())
+                    .map(row -> new RowError(row.row, row.documentNumber, String.join("; ", row.errors)))
+                    .toList();
+            int imported = (int) rows.stream().filter(row -> dryRun ? row.isValid() : row.imported).count();
+            long durationMs = (System.nanoTime() - started) / 1_000_000;
+            log.info("Nhập công văn đến từ {} bởi {}: {}/{} dòng{} trong {} ms", manifest.getOriginalFilename(),
+                    currentUser.getName(), imported, rows.size(), dryRun ? " (kiểm tra)" : "", durationMs);
+            return new ImportResult(rows.size(), imported, errors.size(), errors, dryRun, durationMs);
+        } finally {
+            if (zip != null) {
+                zip.close();
+            }
+            if (zipPath != null) {
+                Files.deleteIfExists(zipPath);
+            }
+        }
+    }
+
+    private boolean canImport(User user) {
+        if (user == null) {
+            return false;
+        }
+        if (user.getRoles() != null
+                && user.getRoles().stream().map(Role::getName).anyMatch("ROLE_ADMIN"::equals)) {
+            return true;
+        }
+        RoleGroupUtil.RoleGroup roleGroup = accessControlService.getUserRoleGroup(user);
+        return roleGroup == RoleGroupUtil.RoleGroup.VAN_THU || roleGroup == RoleGroupUtil.RoleGroup.CHI_HUY_CUC;
+    }
+
+    // ---------------------------------------------------------------- reading
+
+    private List<ImportRow> readManifest(MultipartFile manifest) throws IOException {
+        String name = manifest.getOriginalFilename() != null
+                ? manifest.getOriginalFilename().toLowerCase(Locale.ROOT)
+                : "";
+        if (name.endsWith(".xlsx")) {
+            Path path = Files.createTempFile("incoming-import-", ".xlsx");
+            try {
+                manifest.transferTo(path);
+                try (TabularReader reader = new XlsxTabularReader(path)) {
+                    return readRows(reader);
+                }
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+        if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            try (TabularReader reader = new CsvTabularReader(manifest.getInputStream())) {
+                return readRows(reader);
+            }
+        }
+        throw new IllegalArgumentException("Tệp danh sách phải là CSV hoặc XLSX");
+    }
+
+    List<ImportRow> readRows(TabularReader reader) throws IOException {
+        Map<Column, Integer> columns = null;
+        List<ImportRow> rows = new ArrayList<>();
+        int rowNumber = 0;
+        List<String> cells;
+        while ((cells = reader.readRow()) != null) {
+            rowNumber++;
+            if (cells.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            if (columns == null) {
+                columns = mapHeader(cells);
+                continue;
+            }
+            if (rows.size() >= maxRows) {
+                throw new IllegalArgumentException("Tệp danh sách vượt quá " + maxRows + " dòng");
+            }
+            rows.add(new ImportRow(rowNumber, columns, cells));
+        }
+        if (columns == null) {
+            throw new IllegalArgumentException("Tệp danh sách trống");
+        }
+        return rows;
+    }
+
+    private static Map<Column, Integer> mapHeader(List<String> header) {
+        Map<Column, Integer> columns = new EnumMap<>(Column.class);
+        for (int i = 0; i < header.size(); i++) {
+            Column column = COLUMNS_BY_HEADER.get(normalizeHeader(header.get(i)));
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (Column required : List.of(Column.DOCUMENT_NUMBER, Column.TITLE)) {
+            if (!columns.containsKey(required)) {
+                missing.add(required.headers.get(0));
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu cột bắt buộc: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static String normalizeHeader(String header) {
+        return Normalizer.normalize(header, Normalizer.Form.NFC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[\\s,._-]", "");
+    }
+
+    private static ZipFile openZip(Path path) throws IOException {
+        try {
+            return new ZipFile(path.toFile(), StandardCharsets.UTF_8);
+        } catch (ZipException e) {
+            // Archives made by older Windows tools store names in the OEM code page
+            try {
+                return new ZipFile(path.toFile(), Charset.forName("CP437"));
+            } catch (ZipException again) {
+                throw new IllegalArgumentException("Tệp ZIP đính kèm không hợp lệ: " + e.getMessage());
+            }
+        }
+    }
+
+    // ------------------------------------------------------------- validation
+
+    private Lookups loadLookups(ZipFile zip) {
+        Map<String, Long> documentTypes = new HashMap<>();
+        for (DocumentType documentType : documentTypeRepository.findAll()) {
+            documentTypes.put(key(documentType.getName()), documentType.getId());
+        }
+        Map<String, Long> usersByName = new HashMap<>();
+        Map<String, Long> usersByFullName = new HashMap<>();
+        Set<String> ambiguousFullNames = new HashSet<>();
+        for (Object[] user : userRepository.findAllNames()) {
+            Long id = (Long) user[0];
+            usersByName.put(key((String) user[1]), id);
+            if (user[2] != null && usersByFullName.putIfAbsent(key((String) user[2]), id) != null) {
+                ambiguousFullNames.add(key((String) user[2]));
+            }
+        }
+        return new Lookups(documentTypes, usersByName, usersByFullName, ambiguousFullNames, new ZipIndex(zip));
+    }
+
+    /**
+     * Reject document numbers repeated within the manifest or already registered
+     */
+    private void checkDocumentNumbers(List<ImportRow> rows) {
+        Set<String> seen = new HashSet<>();
+        List<String> numbers = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.documentNumber == null || row.documentNumber.isEmpty()) {
+                continue;
+            }
+            if (!seen.add(row.documentNumber)) {
+                row.errors.add("Số, ký hiệu " + row.documentNumber + " bị trùng trong tệp danh sách");
+            } else {
+                numbers.add(row.documentNumber);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < numbers.size(); from += LOOKUP_BATCH_SIZE) {
+            existing.addAll(documentRepository.findExistingDocumentNumbers(
+                    numbers.subList(from, Math.min(from + LOOKUP_BATCH_SIZE, numbers.size()))));
+        }
+        for (ImportRow row : rows) {
+            if (existing.contains(row.documentNumber)) {
+                row.errors.add("Số, ký hiệu " + row.documentNumber + " đã tồn tại");
+            }
+        }
+    }
+
+    // -------------------------------------------------------------- inserting
+
+    private void insertChunk(List<ImportRow> chunk, ZipFile zip, Long userId, String source) {
+        storeAttachments(chunk, zip);
+        List<ImportRow> ready = chunk.stream().filter(ImportRow::isValid).toList();
+        if (ready.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(ready, userId, source));
+            ready.forEach(row -> row.imported = true);
+        } catch (RuntimeException e) {
+            log.warn("Lỗi khi lưu lô {} công văn, thử lại từng dòng: {}", ready.size(), e.getMessage());
+            for (ImportRow row : ready) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(row), userId, source));
+                    row.imported = true;
+                } catch (RuntimeException rowFailure) {
+                    row.errors.add("Không thể lưu: " + rootMessage(rowFailure));
+                    deleteStored(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Store the files of every row of a chunk concurrently, one task per row.
+     * A row whose files cannot all be stored is rejected and keeps none.
+     */
+    private void storeAttachments(List<ImportRow> chunk, ZipFile zip) {
+        List<CompletableFuture<Void>> tasks = chunk.stream()
+                .filter(row -> !row.attachments.isEmpty())
+                .map(row -> CompletableFuture.runAsync(() -> storeAttachments(row, zip), executor))
+                .toList();
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void storeAttachments(ImportRow row, ZipFile zip) {
+        IncomingDocument named = new IncomingDocument();
+        named.setDocumentNumber(row.documentNumber);
+        for (ZipEntry entry : row.attachments) {
+            String filename = baseName(entry.getName());
+            String contentType = MediaTypeFactory.getMediaType(filename)
+                    .map(MediaType::toString)
+                    .orElse(DEFAULT_CONTENT_TYPE);
+            try (InputStream in = zip.getInputStream(entry)) {
+                StoredContent content = fileStorageService.storeContent(in, filename, entry.getSize(),
+                        contentType, named);
+                row.stored.add(new StoredAttachment(filename, contentType, content));
+            } catch (IOException | RuntimeException e) {
+                row.errors.add("Không thể lưu tệp " + filename + ": " + e.getMessage());
+                deleteStored(row);
+                return;
+            }
+        }
+    }
+
+    private void persist(List<ImportRow> rows, Long userId, String source) {
+        User user = userRepository.getReferenceById(userId);
+        List<IncomingDocument> documents = new ArrayList<>(rows.size());
+        List<DocumentHistory> histories = new ArrayList<>(rows.size());
+        List<DocumentAttachment> attachments = new ArrayList<>();
+        for (ImportRow row : rows) {
+            IncomingDocument document = row.toDocument();
+            document.setCreator(user);
+            if (row.documentTypeId != null) {
+                document.setDocumentType(documentTypeRepository.getReferenceById(row.documentTypeId));
+            }
+            if (row.processingOfficerId != null) {
+                document.setProcessingOfficer(userRepository.getReferenceById(row.processingOfficerId));
+            }
+            documents.add(document);
+
+            DocumentHistory history = new DocumentHistory();
+            history.setDocument(document);
+            history.setAction("STATUS_CHANGE");
+            history.setNewStatus(String.valueOf(DocumentProcessingStatus.REGISTERED.ordinal()));
+            history.setComments(source);
+            history.setPerformedBy(user);
+            histories.add(history);
+
+            for (StoredAttachment stored : row.stored) {
+                attachments.add(DocumentAttachment.builder()
+                        .document(document)
+                        .originalFilename(stored.originalFilename())
+                        .storedFilename(baseName(stored.content().relativePath()))
+                        .filePath(stored.content().relativePath())
+                        .contentType(stored.contentType())
+                        .fileSize(stored.content().size())
+                        .checksum(stored.content().checksum())
+                        .uploadedBy(user)
+                        .build());
+            }
+        }
+        incomingDocumentRepository.saveAll(documents);
+        documentHistoryRepository.saveAll(histories);
+        documentAttachmentRepository.saveAll(attachments);
+    }
+
+    private void deleteStored(ImportRow row) {
+        fileStorageService.deleteAfterCommit(row.stored.stream()
+                .map(stored -> stored.content().relativePath())
+                .toList());
+        row.stored.clear();
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    /**
+     * One manifest row with its parsed values and the reasons it is rejected
+     */
+    static final class ImportRow {
+
+        private final int row;
+        private final Map<Column, Integer> columns;
+        private final List<String> cells;
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final List<ZipEntry> attachments = new ArrayList<>();
+        private final List<StoredAttachment> stored = new ArrayList<>();
+
+        private String documentNumber;
+        private String title;
+        private String receiptNumber;
+        private LocalDateTime receivedDate;
+        private String referenceNumber;
+        private LocalDateTime signingDate;
+        private String issuingAuthority;
+        private String summary;
+        private String urgencyLevel;
+        private String securityLevel;
+        private Long processingOfficerId;
+        private Long documentTypeId;
+        private LocalDateTime processDeadline;
+        private String storageLocation;
+        private String notes;
+        private volatile boolean imported;
+
+        ImportRow(int row, Map<Column, Integer> columns, List<String> cells) {
+            this.row = row;
+            this.columns = columns;
+            this.cells = cells;
+        }
+
+        boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        List<String> errors() {
+            return errors;
+        }
+
+        void validate(Lookups lookups) {
+            documentNumber = text(Column.DOCUMENT_NUMBER, MAX_TEXT_LENGTH);
+            title = text(Column.TITLE, MAX_TITLE_LENGTH);
+            if (documentNumber == null) {
+                errors.add("Thiếu số, ký hiệu");
+            }
+            if (title == null) {
+                errors.add("Thiếu tiêu đề");
+            }
+            receiptNumber = text(Column.RECEIPT_NUMBER, MAX_TEXT_LENGTH);
+            referenceNumber = text(Column.REFERENCE_NUMBER, MAX_TEXT_LENGTH);
+            issuingAuthority = text(Column.ISSUING_AUTHORITY, MAX_TEXT_LENGTH);
+            summary = text(Column.SUMMARY, MAX_TEXT_LENGTH);
+            urgencyLevel = text(Column.URGENCY_LEVEL, MAX_TEXT_LENGTH);
+            storageLocation = text(Column.STORAGE_LOCATION, MAX_TEXT_LENGTH);
+            notes = text(Column.NOTES, MAX_TEXT_LENGTH);
+            receivedDate = date(Column.RECEIVED_DATE);
+            signingDate = date(Column.SIGNING_DATE);
+            processDeadline = date(Column.PROCESS_DEADLINE);
+
+            String security = text(Column.SECURITY_LEVEL, MAX_TEXT_LENGTH);
+            if (security != null) {
+                SecurityLevel level = securityLevel(security);
+                if (level == null) {
+                    errors.add("Độ mật không hợp lệ: " + security);
+                } else {
+                    securityLevel = level.getCode();
+                }
+            }
+
+            String documentType = text(Column.DOCUMENT_TYPE, MAX_TEXT_LENGTH);
+            if (documentType != null) {
+                documentTypeId = lookups.documentTypes().get(key(documentType));
+                if (documentTypeId == null) {
+                    errors.add("Không tìm thấy loại văn bản: " + documentType);
+                }
+            }
+
+            String officer = text(Column.PROCESSING_OFFICER, MAX_TEXT_LENGTH);
+            if (officer != null) {
+                processingOfficerId = lookups.usersByName().get(key(officer));
+                if (processingOfficerId == null && lookups.ambiguousFullNames().contains(key(officer))) {
+                    errors.add("Có nhiều cán bộ tên " + officer + ", hãy dùng tên đăng nhập");
+                } else if (processingOfficerId == null) {
+                    processingOfficerId = lookups.usersByFullName().get(key(officer));
+                    if (processingOfficerId == null) {
+                        errors.add("Không tìm thấy cán bộ xử lý: " + officer);
+                    }
+                }
+            }
+
+            String files = cell(Column.ATTACHMENTS);
+            if (!files.isEmpty()) {
+                for (String name : files.split("[;\\n]")) {
+                    if (name.isBlank()) {
+                        continue;
+                    }
+                    String error = lookups.zip().resolve(name.trim(), attachments);
+                    if (error != null) {
+                        errors.add(error);
+                    }
+                }
+            }
+        }
+
+        IncomingDocument toDocument() {
+            IncomingDocument document = new IncomingDocument();
+            document.setType(INCOMING_TYPE);
+            document.setStatus(DocumentProcessingStatus.REGISTERED);
+            document.setDocumentNumber(documentNumber);
+            document.setTitle(title);
+            document.setReceiptNumber(receiptNumber);
+            document.setReceivedDate(receivedDate);
+            document.setReferenceNumber(referenceNumber);
+            document.setSigningDate(signingDate);
+            document.setIssuingAuthority(issuingAuthority);
+            document.setSummary(summary);
+            document.setUrgencyLevel(urgencyLevel);
+            document.setSecurityLevel(securityLevel);
+            document.setStorageLocation(storageLocation);
+            document.setNotes(notes);
+            if (processDeadline != null) {
+                document.setProcessDeadline(Date.from(processDeadline.atZone(ZoneId.systemDefault()).toInstant()));
+            }
+            return document;
+        }
+
+        private String cell(Column column) {
+            Integer index = columns.get(column);
+            return index != null && index < cells.size() ? cells.get(index).trim() : "";
+        }
+
+        private String text(Column column, int maxLength) {
+            String value = cell(column);
+            if (value.isEmpty()) {
+                return null;
+            }
+            if (value.length() > maxLength) {
+                errors.add(column.headers.get(0) + " dài quá " + maxLength + " ký tự");
+            }
+            return value;
+        }
+
+        private LocalDateTime date(Column column) {
+            String value = cell(column);
+            if (value.isEmpty()) {
+                return null;
+            }
+            LocalDateTime parsed = parseDate(value);
+            if (parsed == null) {
+                errors.add(column.headers.get(0) + " không hợp lệ: " + value);
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * Entries of the attachment ZIP by path and by file name
+     */
+    static final class ZipIndex {
+
+        private final Map<String, ZipEntry> byPath = new HashMap<>();
+        private final Map<String, ZipEntry> byName = new HashMap<>();
+        private final Set<String> ambiguousNames = new HashSet<>();
+        private final boolean present;
+
+        ZipIndex(ZipFile zip) {
+            this.present = zip != null;
+            if (zip == null) {
+                return;
+            }
+            zip.stream().filter(entry -> !entry.isDirectory()).forEach(entry -> {
+                String path = key(entry.getName().replace('\\', '/'));
+                byPath.put(path, entry);
+                String name = baseName(path);
+                if (byName.putIfAbsent(name, entry) != null) {
+                    ambiguousNames.add(name);
+                }
+            });
+        }
+
+        /**
+         * Add the entry for a name from the manifest to {@code target}
+         *
+         * @return The reason it cannot be found, or null
+         */
+        String resolve(String name, List<ZipEntry> target) {
+            if (!present) {
+                return "Tệp " + name + " không có vì chưa tải lên tệp ZIP đính kèm";
+            }
+            String path = key(name.replace('\\', '/'));
+            ZipEntry entry = byPath.get(path);
+            if (entry == null && !path.contains("/")) {
+                if (ambiguousNames.contains(path)) {
+                    return "Có nhiều tệp tên " + name + " trong tệp ZIP, hãy ghi cả đường dẫn";
+                }
+                entry = byName.get(path);
+            }
+            if (entry == null) {
+                return "Không tìm thấy tệp " + name + " trong tệp ZIP";
+            }
+            target.add(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Accepts the code, the enum name or the Vietnamese name of a security level
+     */
+    private static SecurityLevel securityLevel(String value) {
+        String normalized = key(value);
+        return Arrays.stream(SecurityLevel.values())
+                .filter(level -> level.getCode().equals(normalized)
+                        || level.name().toLowerCase(Locale.ROOT).equals(normalized)
+                        || key(level.getDisplayName()).equals(normalized))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Parse dd/MM/yyyy, dd-MM-yyyy or ISO dates with an optional time, or an
+     * Excel date serial number
+     *
+     * @return The parsed value, or null if it is not a date
+     */
+    static LocalDateTime parseDate(String value) {
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                TemporalAccessor parsed = format.parseBest(value, LocalDateTime::from, LocalDate::from);
+                return parsed instanceof LocalDateTime dateTime ? dateTime : ((LocalDate) parsed).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        if (value.matches("\\d+(\\.\\d+)?")) {
+            double serial = Double.parseDouble(value);
+            if (serial >= 1 && serial <= MAX_EXCEL_SERIAL) {
+                long days = (long) serial;
+                long seconds = Math.round((serial - days) * 86_400);
+                return EXCEL_EPOCH.plusDays(days).atStartOfDay().plusSeconds(seconds);
+            }
+        }
+        return null;
+    }
+
+    private static String key(String value) {
+        return Normalizer.normalize(value.trim(), Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    private static String baseName(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
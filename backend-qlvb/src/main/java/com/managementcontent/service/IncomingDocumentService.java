@@ -22,10 +22,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -33,7 +33,6 @@ import java.util.stream.Collectors;
 
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 
 @Service
@@ -63,6 +62,8 @@ public class IncomingDocumentService {
 
     private DocumentAttachmentService documentAttachmentService;
 
+    private WorkInboxService workInboxService;
+
     public Page<IncomingDocumentDTO> getAllIncomingDocuments(Pageable pageable) {
         User currentUser = getCurrentUser();
         if (currentUser == null) {
@@ -87,8 +88,7 @@ public class IncomingDocumentService {
         switch (highestRoleGroup) {
             case CHI_HUY_CUC:
                 // Chỉ huy cục: Xem tất cả công văn
-                return incomingDocumentRepository.findAll(pageable)
-                        .map(this::convertToDTO);
+                return convertPageToDTO(incomingDocumentRepository.findAll(pageable), currentUser);
 
             case CHI_HUY_DON_VI:
                 // Chỉ huy đơn vị: Xem công văn của phòng ban mình và các phòng ban cấp dưới
@@ -96,19 +96,16 @@ public class IncomingDocumentService {
                     return getAllDocumentsByDepartmentId(currentUser.getDepartment().getId(), pageable);
                 } else {
                     // Nếu không có department, xem tất cả (fallback)
-                    return incomingDocumentRepository.findAll(pageable)
-                            .map(this::convertToDTO);
+                    return convertPageToDTO(incomingDocumentRepository.findAll(pageable), currentUser);
                 }
 
             case VAN_THU:
                 // Văn thư: Xem tất cả công văn để quản lý
-                return incomingDocumentRepository.findAll(pageable)
-                        .map(this::convertToDTO);
+                return convertPageToDTO(incomingDocumentRepository.findAll(pageable), currentUser);
 
             case NHAN_VIEN:
                 // Nhân viên/Trợ lý: Chỉ xem công văn được phân công cho họ hoặc do họ tạo
                 // Lấy công văn được phân công cho user
-                System.out.println("hehehehehehehheeeeeeeeeeeeeeeee");
                 Page<IncomingDocument> assignedDocs = incomingDocumentRepository.findByAssignedUser(currentUser,
                         pageable);
 
@@ -128,7 +125,7 @@ public class IncomingDocumentService {
 
                 // Tạo Page mới từ danh sách kết hợp
                 Page<IncomingDocument> combinedPage = new PageImpl<>(combinedDocs, pageable, combinedDocs.size());
-                return combinedPage.map(this::convertToDTO);
+                return convertPageToDTO(combinedPage, currentUser);
 
             default:
                 // Fallback: trả về empty page
@@ -142,24 +139,20 @@ public class IncomingDocumentService {
     }
 
     public Page<IncomingDocumentDTO> searchIncomingDocuments(String keyword, Pageable pageable) {
-        return incomingDocumentRepository.findByReferenceNumberContaining(keyword, pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(incomingDocumentRepository.findByReferenceNumberContaining(keyword, pageable));
     }
 
     public Page<IncomingDocumentDTO> findByUrgencyLevel(String urgencyLevel, Pageable pageable) {
-        return incomingDocumentRepository.findByUrgencyLevel(urgencyLevel, pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(incomingDocumentRepository.findByUrgencyLevel(urgencyLevel, pageable));
     }
 
     public Page<IncomingDocumentDTO> findByProcessingStatus(String status, Pageable pageable) {
         DocumentProcessingStatus documentProcessingStatus = DocumentProcessingStatus.fromCode(status);
-        return incomingDocumentRepository.findByStatus(documentProcessingStatus, pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(incomingDocumentRepository.findByStatus(documentProcessingStatus, pageable));
     }
 
     public Page<IncomingDocumentDTO> findByDateRange(LocalDateTime start, LocalDateTime end, Pageable pageable) {
-        return incomingDocumentRepository.findBySigningDateBetween(start, end, pageable)
-                .map(this::convertToDTO);
+        return convertPageToDTO(incomingDocumentRepository.findBySigningDateBetween(start, end, pageable));
     }
 
     @Transactional
@@ -324,10 +317,15 @@ public class IncomingDocumentService {
 
     @Transactional
     public boolean deleteIncomingDocument(Long id) {
-        if (!incomingDocumentRepository.existsById(id)) {
+        Optional<IncomingDocument> document = incomingDocumentRepository.findById(id);
+        if (document.isEmpty()) {
             return false;
         }
-        incomingDocumentRepository.deleteById(id);
+        // Attachment rows first, their files and the legacy attachment go after commit
+        documentAttachmentService.deleteAllAttachments(id);
+        fileStorageService.deleteAfterCommit(document.get().getAttachmentFilename());
+        incomingDocumentRepository.delete(document.get());
+        workInboxService.removeDocument(WorkInboxItem.DocumentKind.INCOMING, id);
         return true;
     }
 
@@ -340,7 +338,29 @@ public class IncomingDocumentService {
         return userRepository.findByName(username).orElse(null);
     }
 
+    private Page<IncomingDocumentDTO> convertPageToDTO(Page<IncomingDocument> page) {
+        return convertPageToDTO(page, Objects.requireNonNull(getCurrentUser()));
+    }
+
+    /**
+     * Convert a page of documents, classifying all rows for the user with one query
+     */
+    private Page<IncomingDocumentDTO> convertPageToDTO(Page<IncomingDocument> page, User currentUser) {
+        Map<Long, DocumentProcessingStatus> statuses = documentClassificationService
+                .classifyDocumentsForUser(page.getContent(), currentUser);
+        return page.map(document -> convertToDTO(document, statuses.get(document.getId())));
+    }
+
     private IncomingDocumentDTO convertToDTO(IncomingDocument document) {
+        DocumentProcessingStatus status = documentClassificationService.classifyDocumentForUser(document,
+                Objects.requireNonNull(getCurrentUser()));
+        return convertToDTO(document, status);
+    }
+
+    private IncomingDocumentDTO convertToDTO(IncomingDocument document, DocumentProcessingStatus status) {
+        if (status == null) {
+            status = DocumentProcessingStatus.NOT_PROCESSED;
+        }
         IncomingDocumentDTO dto = new IncomingDocumentDTO();
         dto.setId(document.getId());
         dto.setTitle(document.getTitle());
@@ -373,8 +393,6 @@ public class IncomingDocumentService {
             dto.setReceivedDate(document.getReceivedDate().toLocalDate());
         }
 
-        DocumentProcessingStatus status = documentClassificationService.classifyDocumentForUser(document,
-                Objects.requireNonNull(getCurrentUser()));
         dto.setProcessingStatus(document.getStatus().getCode());
         dto.setDisplayStatus(document.getStatus().getDisplayName());
 
@@ -423,10 +441,8 @@ public class IncomingDocumentService {
         return incomingDocumentRepository.findById(id)
                 .map(document -> {
                     try {
-                        // Delete old file if it exists
-                        if (document.getAttachmentFilename() != null) {
-                            fileStorageService.deleteFile(document.getAttachmentFilename());
-                        }
+                        // Delete old file once the new one is committed
+                        fileStorageService.deleteAfterCommit(document.getAttachmentFilename());
 
                         // Store new file
                         String filename = fileStorageService.storeFile(file, document);
@@ -444,8 +460,8 @@ public class IncomingDocumentService {
         Optional<IncomingDocument> documentOpt = incomingDocumentRepository.findById(id);
         if (documentOpt.isPresent() && documentOpt.get().getAttachmentFilename() != null) {
             IncomingDocument document = documentOpt.get();
-            Path filePath = fileStorageService.getFilePath(document.getAttachmentFilename());
-            Resource resource = new UrlResource(filePath.toUri());
+            Resource resource = fileStorageService.loadAsResource(document.getAttachmentFilename(),
+                    document.getAttachmentFilename());
 
             if (resource.exists()) {
                 return ResponseEntity.ok()
@@ -470,18 +486,12 @@ public class IncomingDocumentService {
         return incomingDocumentRepository.findById(id)
                 .map(document -> {
                     if (document.getAttachmentFilename() != null && !document.getAttachmentFilename().isEmpty()) {
-                        try {
-                            // Delete the file from storage
-                            fileStorageService.deleteFile(document.getAttachmentFilename());
+                        // Clear attachment reference in document, the file goes once this is committed
+                        fileStorageService.deleteAfterCommit(document.getAttachmentFilename());
+                        document.setAttachmentFilename(null);
+                        incomingDocumentRepository.save(document);
 
-                            // Clear attachment reference in document
-                            document.setAttachmentFilename(null);
-                            incomingDocumentRepository.save(document);
-
-                            return true;
-                        } catch (IOException e) {
-                            throw new RuntimeException("Failed to delete attachment", e);
-                        }
+                        return true;
                     }
                     return false;
                 })
@@ -530,19 +540,18 @@ public class IncomingDocumentService {
     public Page<IncomingDocumentDTO> getAllDocumentsByDepartmentId(Long departmentId, Pageable pageable) {
         List<DocumentDepartmentDTO> documentDepartments = documentDepartmentService
                 .getDocumentsByDepartment(departmentId);
-        List<IncomingDocumentDTO> documents = documentDepartments.stream()
+        List<IncomingDocument> documents = documentDepartments.stream()
                 .filter(dto -> dto.getDocumentId() != null)
                 .map(dto -> incomingDocumentRepository.findById(dto.getDocumentId()))
                 .filter(Optional::isPresent)
                 .map(Optional::get)
-                .map(this::convertToDTO)
                 .toList();
 
         final int start = (int) pageable.getOffset();
         final int end = Math.min((start + pageable.getPageSize()), documents.size());
-        final List<IncomingDocumentDTO> pageContent = start < end ? documents.subList(start, end) : List.of();
+        final List<IncomingDocument> pageContent = start < end ? documents.subList(start, end) : List.of();
 
-        return new PageImpl<>(pageContent, pageable, documents.size());
+        return convertPageToDTO(new PageImpl<>(pageContent, pageable, documents.size()));
     }
 
     /**
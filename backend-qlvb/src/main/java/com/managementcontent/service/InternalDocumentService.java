@@ -12,7 +12,9 @@ import com.managementcontent.model.enums.DistributionType;
 import com.managementcontent.model.enums.NotificationType;
 import com.managementcontent.repository.*;
 import lombok.RequiredArgsConstructor;
+import com.managementcontent.service.storage.BlobStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -26,9 +28,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.core.io.UrlResource;
 import com.managementcontent.service.DocumentReadStatusService;
 import com.managementcontent.model.DocumentReadStatus.DocumentType;
+import com.managementcontent.service.AttachmentIngestionService.StoredFile;
 import com.managementcontent.util.RoleGroupUtil;
 import com.managementcontent.util.DateTimeRange;
 
@@ -37,11 +39,7 @@ import java.io.FileNotFoundException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.nio.file.Path;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
-import java.nio.file.Paths;
 import java.util.UUID;
 
 @Service
@@ -61,6 +59,10 @@ public class InternalDocumentService {
         private final NotificationService notificationService;
         private final DocumentAccessControlService accessControlService;
         private final DocumentAuthorizationService authorizationService;
+        private final WorkInboxService workInboxService;
+        private final AttachmentIngestionService attachmentIngestionService;
+        @Qualifier("internalDocumentBlobStore")
+        private final BlobStore internalDocumentStore;
 
         // Create new internal document
         public InternalDocumentDTO createDocument(CreateInternalDocumentDTO createDTO) {
@@ -79,6 +81,7 @@ public class InternalDocumentService {
 
                 // Send notifications to recipients
                 sendNotificationsToRecipients(document, recipients, currentUser);
+                workInboxService.deliverInternalDocument(document, recipients);
 
                 log.info("Created internal document {} by user {}", document.getDocumentNumber(),
                                 currentUser.getName());
@@ -101,27 +104,7 @@ public class InternalDocumentService {
                 // Process recipients using common method
                 List<User> recipients = processRecipients(document, createDTO);
                 // Add files if provided
-                if (files != null && files.length > 0) {
-                        for (int i = 0; i < files.length; i++) {
-                                try {
-                                        MultipartFile file = files[i];
-                                        if (!file.isEmpty()) {
-                                                // Store file
-                                                String filename = storeInternalDocumentFile(file, document);
-                                                // Add attachment record
-                                                document.addAttachment(file.getOriginalFilename(), filename,
-                                                                file.getContentType(), file.getSize());
-                                                // Add history for attachment
-                                                document.addHistory(InternalDocumentHistory.ACTION_ATTACHMENT_ADDED,
-                                                                "Đính kèm file: " + file.getOriginalFilename(),
-                                                                currentUser);
-                                        }
-                                } catch (IOException e) {
-                                        log.error("Failed to upload file: {}", e.getMessage());
-                                        // Continue with other files, don't fail the entire operation
-                                }
-                        }
-                }
+                attachUploadedFiles(document, files, currentUser);
 
                 // Add creation history
                 document.addHistory(InternalDocumentHistory.ACTION_CREATED,
@@ -133,6 +116,7 @@ public class InternalDocumentService {
 
                 // Send notifications to recipients
                 sendNotificationsToRecipients(document, recipients, currentUser);
+                workInboxService.deliverInternalDocument(document, recipients);
 
                 log.info("Created internal document {} by user {} with {} attachments",
                                 document.getDocumentNumber(), currentUser.getName(),
@@ -163,27 +147,7 @@ public class InternalDocumentService {
                 // Process recipients using common method
                 List<User> recipients = processRecipients(internalDocument, createDTO);
                 // Add files if provided
-                if (files != null && files.length > 0) {
-                        for (int i = 0; i < files.length; i++) {
-                                try {
-                                        MultipartFile file = files[i];
-                                        if (!file.isEmpty()) {
-                                                // Store file
-                                                String filename = storeInternalDocumentFile(file, document);
-                                                // Add attachment record
-                                                document.addAttachment(file.getOriginalFilename(), filename,
-                                                                file.getContentType(), file.getSize());
-                                                // Add history for attachment
-                                                document.addHistory(InternalDocumentHistory.ACTION_ATTACHMENT_ADDED,
-                                                                "Đính kèm file: " + file.getOriginalFilename(),
-                                                                currentUser);
-                                        }
-                                } catch (IOException e) {
-                                        log.error("Failed to upload file: {}", e.getMessage());
-                                        // Continue with other files, don't fail the entire operation
-                                }
-                        }
-                }
+                attachUploadedFiles(document, files, currentUser);
 
                 // Add update history
                 document.addHistory(InternalDocumentHistory.ACTION_UPDATED,
@@ -196,6 +160,7 @@ public class InternalDocumentService {
 
                 // Send notifications to recipients
                 updateNotificationsToRecipients(document, recipients, currentUser);
+                workInboxService.deliverInternalDocument(document, recipients);
 
                 log.info("Update internal document {} by user {} with {} attachments",
                                 document.getDocumentNumber(), currentUser.getName(),
@@ -510,11 +475,12 @@ public class InternalDocumentService {
                 }
 
                 // Store file
-                String filename = storeInternalDocumentFile(file, document);
+                StoredFile stored = storeInternalDocumentFile(file, document);
 
                 // Add attachment record
-                document.addAttachment(file.getOriginalFilename(), filename,
-                                file.getContentType(), file.getSize());
+                document.addAttachment(file.getOriginalFilename(), stored.relativePath(),
+                                file.getContentType(), stored.size())
+                                .setChecksum(stored.checksum());
 
                 // Add history
                 document.addHistory(InternalDocumentHistory.ACTION_ATTACHMENT_ADDED,
@@ -542,10 +508,8 @@ public class InternalDocumentService {
                                 .findFirst()
                                 .orElseThrow(() -> new FileNotFoundException("Attachment not found"));
 
-                Resource resource;
-                try {
-                        resource = loadFileAsResource(attachment.getFilePath());
-                } catch (IOException e) {
+                Resource resource = internalDocumentStore.asResource(attachment.getFilePath(), attachment.getFilename());
+                if (!resource.exists()) {
                         throw new FileNotFoundException("File not found: " + attachment.getFilePath());
                 }
 
@@ -626,40 +590,47 @@ public class InternalDocumentService {
                 User currentUser = accessControlService.getCurrentUser();
                 List<Long> userDepartmentIds = accessControlService.getUserDepartmentIds(currentUser);
 
-                InternalDocument document = internalDocumentRepository.findById(documentId)
+                // Resolve the whole thread (root + all nested replies) with one recursive query
+                List<Long> threadIds = internalDocumentRepository.findThreadDocumentIds(documentId);
+                if (threadIds.isEmpty()) {
+                        threadIds = List.of(documentId);
+                }
+
+                // Load documents with recipients, then attachments, into the same persistence context
+                List<InternalDocument> threadDocuments = internalDocumentRepository
+                                .findAllWithRecipientsByIdIn(threadIds);
+                internalDocumentRepository.findAllWithAttachmentsByIdIn(threadIds);
+
+                InternalDocument document = threadDocuments.stream()
+                                .filter(doc -> doc.getId().equals(documentId))
+                                .findFirst()
                                 .orElseThrow(() -> new RuntimeException("Document not found"));
 
                 if (!accessControlService.canUserAccessDocument(document, currentUser, userDepartmentIds)) {
                         throw new RuntimeException("Access denied");
                 }
 
-                // Find the root document (the original document in the thread)
-                InternalDocument rootDocument = document;
-                while (rootDocument.getReplyTo() != null) {
-                        rootDocument = rootDocument.getReplyTo();
-                }
-
-                // Collect all documents in the thread
-                List<InternalDocument> threadDocuments = new ArrayList<>();
-                collectThreadDocuments(rootDocument, threadDocuments, currentUser, userDepartmentIds);
+                Map<Long, Long> replyCounts = threadDocuments.stream()
+                                .filter(doc -> doc.getReplyTo() != null)
+                                .collect(Collectors.groupingBy(doc -> doc.getReplyTo().getId(), Collectors.counting()));
 
-                return threadDocuments.stream()
-                                .sorted((d1, d2) -> d1.getCreatedAt().compareTo(d2.getCreatedAt()))
-                                .map(doc -> convertToDTO(doc, currentUser))
-                                .collect(Collectors.toList());
-        }
+                List<InternalDocument> accessibleDocuments = accessControlService
+                                .filterAccessibleDocuments(threadDocuments, currentUser, userDepartmentIds);
 
-        // Helper method to recursively collect all documents in a thread
-        private void collectThreadDocuments(InternalDocument document, List<InternalDocument> result,
-                        User currentUser, List<Long> userDepartmentIds) {
-                if (accessControlService.canUserAccessDocument(document, currentUser, userDepartmentIds)) {
-                        result.add(document);
-                }
+                Map<Long, DocumentReadStatus> readStatuses = documentReadStatusService.getReadStatusRecords(
+                                accessibleDocuments.stream().map(InternalDocument::getId).collect(Collectors.toList()),
+                                DocumentType.OUTGOING_INTERNAL, currentUser);
 
-                // Add all replies recursively
-                for (InternalDocument reply : document.getReplies()) {
-                        collectThreadDocuments(reply, result, currentUser, userDepartmentIds);
-                }
+                return accessibleDocuments.stream()
+                                .sorted(Comparator.comparing(InternalDocument::getCreatedAt))
+                                .map(doc -> {
+                                        DocumentReadStatus readStatus = readStatuses.get(doc.getId());
+                                        return buildDTO(doc,
+                                                        readStatus != null && Boolean.TRUE.equals(readStatus.getIsRead()),
+                                                        readStatus != null ? readStatus.getReadAt() : null,
+                                                        replyCounts.getOrDefault(doc.getId(), 0L).intValue());
+                                })
+                                .collect(Collectors.toList());
         }
 
         // Helper method to convert history to DTO
@@ -685,6 +656,11 @@ public class InternalDocumentService {
                 LocalDateTime readAt = documentReadStatusService.getDocumentReadTime(document.getId(),
                                 DocumentType.OUTGOING_INTERNAL);
 
+                return buildDTO(document, isRead, readAt, document.getReplies().size());
+        }
+
+        private InternalDocumentDTO buildDTO(InternalDocument document, boolean isRead, LocalDateTime readAt,
+                        int replyCount) {
                 // Convert distribution type to display name
                 String distributionTypeDisplayName = null;
                 if (document.getDistributionType() != null) {
@@ -739,7 +715,7 @@ public class InternalDocumentService {
                                                 .collect(Collectors.toList()))
                                 .replyToId(document.getReplyTo() != null ? document.getReplyTo().getId() : null)
                                 .replyToTitle(document.getReplyTo() != null ? document.getReplyTo().getTitle() : null)
-                                .replyCount(document.getReplies().size())
+                                .replyCount(replyCount)
                                 .createdAt(document.getCreatedAt())
                                 .updatedAt(document.getUpdatedAt())
                                 .isRead(isRead)
@@ -775,22 +751,48 @@ public class InternalDocumentService {
                                 .build();
         }
 
+        // Helper method to store uploaded files concurrently and record them on the document
+        private void attachUploadedFiles(InternalDocument document, MultipartFile[] files, User currentUser) {
+                if (files == null || files.length == 0) {
+                        return;
+                }
+                try {
+                        List<StoredFile> storedFiles = attachmentIngestionService.storeAll(Arrays.asList(files),
+                                        internalDocumentStore,
+                                        file -> buildInternalDocumentFilePath(file, document));
+                        attachmentIngestionService.deleteOnRollback(internalDocumentStore, storedFiles);
+                        for (StoredFile stored : storedFiles) {
+                                // Add attachment record
+                                document.addAttachment(stored.originalFilename(), stored.relativePath(),
+                                                stored.contentType(), stored.size())
+                                                .setChecksum(stored.checksum());
+                                // Add history for attachment
+                                document.addHistory(InternalDocumentHistory.ACTION_ATTACHMENT_ADDED,
+                                                "Đính kèm file: " + stored.originalFilename(),
+                                                currentUser);
+                        }
+                } catch (IOException e) {
+                        log.error("Failed to upload files: {}", e.getMessage());
+                        // Don't fail the entire operation, the document is saved without the files
+                }
+        }
+
         // Helper method to store file for InternalDocument
-        private String storeInternalDocumentFile(MultipartFile file, InternalDocument document) throws IOException {
+        private StoredFile storeInternalDocumentFile(MultipartFile file, InternalDocument document) throws IOException {
+                StoredFile stored = attachmentIngestionService.store(file, internalDocumentStore,
+                                buildInternalDocumentFilePath(file, document));
+                attachmentIngestionService.deleteOnRollback(internalDocumentStore, List.of(stored));
+                return stored;
+        }
+
+        // Helper method to build the year/month/day/filename path for an InternalDocument file
+        private String buildInternalDocumentFilePath(MultipartFile file, InternalDocument document) {
                 // Get current date for folder structure
                 LocalDate now = LocalDate.now();
                 String year = String.valueOf(now.getYear());
                 String month = String.format("%02d", now.getMonthValue());
                 String day = String.format("%02d", now.getDayOfMonth());
 
-                // Create year/month/day directory structure
-                String relativePath = year + "/" + month + "/" + day;
-                Path uploadPath = Paths.get("./document-uploads", year, month, day).toAbsolutePath().normalize();
-
-                if (!Files.exists(uploadPath)) {
-                        Files.createDirectories(uploadPath);
-                }
-
                 // Generate unique filename using document ID and UUID to prevent conflicts
                 String originalFilename = file.getOriginalFilename();
                 String fileExtension = "";
@@ -804,42 +806,17 @@ public class InternalDocumentService {
                 String uuid = UUID.randomUUID().toString();
                 String filename = "doc_" + uniqueIdentifier + "_" + timestamp + "_" + uuid + fileExtension;
 
-                // Save file
-                Path targetLocation = uploadPath.resolve(filename);
-                Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-                // Return path relative to upload directory (year/month/day/filename)
-                return relativePath + "/" + filename;
-        }
-
-        // Helper method to get file path for InternalDocument
-        private Path getInternalDocumentFilePath(String relativePath) {
-                Path uploadPath = Paths.get("./document-uploads").toAbsolutePath().normalize();
-                return uploadPath.resolve(relativePath);
-        }
-
-        // Helper method to load file as resource
-        private Resource loadFileAsResource(String filePath) throws IOException {
-                try {
-                        Path fileStoragePath = getInternalDocumentFilePath(filePath);
-                        Resource resource = new UrlResource(fileStoragePath.toUri());
-
-                        if (resource.exists()) {
-                                return resource;
-                        } else {
-                                throw new IOException("File not found: " + filePath);
-                        }
-                } catch (Exception ex) {
-                        throw new IOException("File not found: " + filePath, ex);
-                }
+                // Path relative to upload directory (year/month/day/filename)
+                return year + "/" + month + "/" + day + "/" + filename;
         }
 
         private InternalDocument findRootDocument(InternalDocument document) {
-                InternalDocument rootDocument = document;
-                while (rootDocument.getReplyTo() != null) {
-                        rootDocument = rootDocument.getReplyTo();
+                if (document.getReplyTo() == null) {
+                        return document;
                 }
-                return rootDocument;
+                return internalDocumentRepository.findRootDocumentId(document.getId())
+                                .flatMap(internalDocumentRepository::findById)
+                                .orElse(document);
         }
 
         /**
@@ -952,6 +929,8 @@ public class InternalDocumentService {
                         recipient.setIsRead(true);
                         recipient.setReadAt(LocalDateTime.now());
                         recipientRepository.save(recipient);
+                        workInboxService.markRead(currentUser.getId(), WorkInboxItem.DocumentKind.INTERNAL,
+                                        internalDocId, true);
 
                         // Gửi thông báo ngược về cho người gửi
                         String notificationContent = String.format(
@@ -1050,17 +1029,32 @@ public class InternalDocumentService {
         private List<User> processRecipients(InternalDocument document, CreateInternalDocumentDTO createDTO) {
                 List<User> recipients = new ArrayList<>();
 
+                // Load all referenced departments and users in two queries instead of one per recipient
+                Map<Long, Department> departments = departmentRepository.findAllById(createDTO.getRecipients().stream()
+                                .map(CreateInternalDocumentDTO.RecipientRequest::getDepartmentId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))
+                                .stream()
+                                .collect(Collectors.toMap(Department::getId, department -> department));
+                Map<Long, User> users = userRepository.findAllById(createDTO.getRecipients().stream()
+                                .map(CreateInternalDocumentDTO.RecipientRequest::getUserId)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))
+                                .stream()
+                                .collect(Collectors.toMap(User::getId, user -> user));
+
                 for (CreateInternalDocumentDTO.RecipientRequest recipientRequest : createDTO.getRecipients()) {
-                        Department department = departmentRepository.findById(recipientRequest.getDepartmentId())
-                                        .orElseThrow(
-                                                        () -> new RuntimeException("Department not found: "
-                                                                        + recipientRequest.getDepartmentId()));
+                        Department department = departments.get(recipientRequest.getDepartmentId());
+                        if (department == null) {
+                                throw new RuntimeException("Department not found: " + recipientRequest.getDepartmentId());
+                        }
 
                         if (recipientRequest.getUserId() != null) {
                                 // Send to specific user
-                                User user = userRepository.findById(recipientRequest.getUserId())
-                                                .orElseThrow(() -> new RuntimeException(
-                                                                "User not found: " + recipientRequest.getUserId()));
+                                User user = users.get(recipientRequest.getUserId());
+                                if (user == null) {
+                                        throw new RuntimeException("User not found: " + recipientRequest.getUserId());
+                                }
                                 document.addRecipient(department, user);
                                 recipients.add(user);
                         } else {
@@ -5,6 +5,7 @@ import com.managementcontent.model.*;
 import com.managementcontent.model.enums.NotificationType;
 import com.managementcontent.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -13,6 +14,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +26,17 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final DocumentAccessControlService documentAccessControlService;
 
+    @Value("${notification.lookback-months:6}")
+    private int lookbackMonths;
+
+    /**
+     * Start of the oldest month whose notifications are still listed and
+     * counted; older ones remain until their partition is dropped
+     */
+    public LocalDateTime visibleSince() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(Math.max(1, lookbackMonths) - 1).atStartOfDay();
+    }
+
     /**
      * Tạo và gửi thông báo cho một thực thể bất kỳ
      * 
@@ -130,7 +143,7 @@ public class NotificationService {
         try {
             User currentUser = getCurrentUser();
             List<Notification> unreadNotifications = notificationRepository
-                    .findByUserAndReadFalseAndActiveTrue(currentUser);
+                    .findRecentUnread(currentUser, visibleSince());
 
             for (Notification notification : unreadNotifications) {
                 notification.setRead(true);
@@ -191,10 +204,10 @@ public class NotificationService {
     public ResponseEntity<ResponseDTO<String>> deleteAllNotifications() {
         try {
             User currentUser = getCurrentUser();
-            long activeCount = notificationRepository.findByUserAndActiveTrue(currentUser, Pageable.unpaged())
-                    .getTotalElements();
+            LocalDateTime since = visibleSince();
+            long activeCount = notificationRepository.countRecentByUser(currentUser, since);
 
-            notificationRepository.softDeleteByUser(currentUser);
+            notificationRepository.softDeleteRecentByUser(currentUser, since);
 
             return ResponseEntity.ok(ResponseDTO.success(
                     "Đã ẩn tất cả thông báo thành công",
@@ -220,8 +233,8 @@ public class NotificationService {
                         .body(ResponseDTO.error("Loại thông báo không hợp lệ: " + type));
             }
 
-            Page<Notification> notifications = notificationRepository.findByUserAndTypeAndActiveTrue(currentUser,
-                    notificationType, pageable);
+            Page<Notification> notifications = notificationRepository.findRecentByUserAndType(currentUser,
+                    notificationType, visibleSince(), pageable);
 
             return ResponseEntity.ok(ResponseDTO.success(notifications));
         } catch (Exception e) {
@@ -0,0 +1,342 @@
+package com.managementcontent.service;
+
+import com.managementcontent.config.StorageProperties;
+import com.managementcontent.service.storage.BlobStore;
+import com.managementcontent.service.storage.LocalBlobStore;
+import com.managementcontent.service.storage.TieredBlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Finds files in local storage that no row refers to any more and moves them
+ * to {@code <root>/.quarantine/<date>/}, where they are deleted after
+ * {@code storage.gc.quarantine-days}. Each store is walked by a fork-join
+ * task per directory, and the files of a directory are checked against the
+ * referencing tables in batches. Object storage is left to bucket lifecycle
+ * rules.
+ */
+@Service
+@Slf4j
+public class OrphanFileCollectorService {
+
+    static final String QUARANTINE_DIR = ".quarantine";
+
+    /**
+     * Outcome of collecting one store
+     */
+    public record CollectionResult(long filesScanned, long orphansFound, long orphanBytes, long filesFailed,
+            int quarantinesPurged, boolean dryRun) {
+    }
+
+    /**
+     * Query returning the values of {@code :refs} present in a column. Stored
+     * values are the key with {@code prefix} in front.
+     */
+    private record Reference(String sql, String prefix) {
+    }
+
+    private record StoreSpec(Path root, List<Reference> references) {
+    }
+
+    private record Candidate(Path file, String key, long size) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final StorageProperties properties;
+    private final StorageUsageService storageUsageService;
+    private final Map<String, StoreSpec> stores = new LinkedHashMap<>();
+    private final Map<String, CollectionResult> lastResults = new LinkedHashMap<>();
+    private volatile Instant lastRunAt;
+
+    public OrphanFileCollectorService(NamedParameterJdbcTemplate jdbcTemplate,
+            StorageProperties properties,
+            StorageUsageService storageUsageService,
+            @Qualifier("attachmentBlobStore") BlobStore attachmentStore,
+            @Qualifier("internalDocumentBlobStore") BlobStore internalDocumentStore,
+            @Qualifier("signatureBlobStore") BlobStore signatureStore,
+            @Qualifier("guideFileBlobStore") BlobStore guideFileStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.storageUsageService = storageUsageService;
+        register("attachments", attachmentStore, List.of(
+                new Reference("SELECT file_path FROM document_attachments WHERE file_path IN (:refs)", ""),
+                new Reference("SELECT attachment_filename FROM node WHERE attachment_filename IN (:refs)", ""),
+                new Reference("SELECT attachment_path FROM document_history WHERE attachment_path IN (:refs)",
+                        "uploads/")));
+        register("internal", internalDocumentStore, List.of(
+                new Reference("SELECT file_path FROM internal_document_attachment WHERE file_path IN (:refs)", "")));
+        register("signatures", signatureStore, List.of(
+                new Reference("SELECT file_name FROM signatures WHERE file_name IN (:refs)", ""),
+                new Reference("SELECT keystore_file_name FROM signatures WHERE keystore_file_name IN (:refs)", "")));
+        register("guide-files", guideFileStore, List.of(
+                new Reference("SELECT file_url FROM guide_files WHERE file_url IN (:refs)",
+                        "/api/guide-files/download/")));
+    }
+
+    private void register(String name, BlobStore store, List<Reference> references) {
+        Path root = null;
+        if (store instanceof TieredBlobStore tiered) {
+            root = tiered.getRoot();
+        } else if (store instanceof LocalBlobStore local) {
+            root = local.getRoot();
+        }
+        if (root != null) {
+            stores.put(name, new StoreSpec(root, references));
+        }
+    }
+
+    @Scheduled(cron = "${storage.gc.cron:0 0 3 * * SUN}")
+    public void scheduledRun() {
+        if (properties.getGc().isEnabled() && !stores.isEmpty()) {
+            collect(false);
+        }
+    }
+
+    /**
+     * Quarantine orphaned files of every local store, purge expired quarantine
+     * and rebuild the storage usage totals
+     *
+     * @param dryRun Only count orphans, move and delete nothing
+     * @return Result per store
+     */
+    public synchronized Map<String, CollectionResult> collect(boolean dryRun) {
+        StorageProperties.Gc gc = properties.getGc();
+        Instant cutoff = Instant.now().minus(Duration.ofHours(gc.getMinAgeHours()));
+        LocalDate today = LocalDate.now();
+        Map<String, CollectionResult> results = new LinkedHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, gc.getParallelism()));
+        try {
+            stores.forEach((name, spec) -> {
+                try {
+                    Scan scan = new Scan(spec, nestedRoots(spec.root()), cutoff,
+                            spec.root().resolve(QUARANTINE_DIR).resolve(today.toString()), dryRun,
+                            Math.max(1, gc.getBatchSize()));
+                    pool.invoke(new DirectoryTask(scan, spec.root()));
+                    int purged = dryRun ? 0 : purgeQuarantine(spec.root(), today.minusDays(gc.getQuarantineDays()));
+                    CollectionResult result = new CollectionResult(scan.scanned.sum(), scan.orphans.sum(),
+                            scan.orphanBytes.sum(), scan.failed.sum(), purged, dryRun);
+                    results.put(name, result);
+                    log.info("Dọn file mồ côi {}{}: quét {} file, {} file mồ côi ({} bytes), {} lỗi, xóa {} thư mục cách ly",
+                            name, dryRun ? " (chạy thử)" : "", result.filesScanned(), result.orphansFound(),
+                            result.orphanBytes(), result.filesFailed(), result.quarantinesPurged());
+                } catch (RuntimeException e) {
+                    log.error("Dọn file mồ côi {} thất bại: {}", name, e.getMessage(), e);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        if (!dryRun) {
+            storageUsageService.recompute();
+        }
+        lastResults.putAll(results);
+        lastRunAt = Instant.now();
+        return results;
+    }
+
+    /**
+     * Configuration and the outcome of the last run per store
+     */
+    public synchronized Map<String, Object> getStatus() {
+        StorageProperties.Gc gc = properties.getGc();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", gc.isEnabled() && !stores.isEmpty());
+        status.put("minAgeHours", gc.getMinAgeHours());
+        status.put("quarantineDays", gc.getQuarantineDays());
+        status.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        Map<String, Object> perStore = new LinkedHashMap<>();
+        stores.forEach((name, spec) -> {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("root", spec.root().toString());
+            info.put("lastRun", lastResults.get(name));
+            perStore.put(name, info);
+        });
+        status.put("stores", perStore);
+        return status;
+    }
+
+    /**
+     * Roots of other stores inside this one, e.g. guide files below the
+     * attachment directory; their files are checked by their own store
+     */
+    private Set<Path> nestedRoots(Path root) {
+        Set<Path> nested = new HashSet<>();
+        for (StoreSpec other : stores.values()) {
+            if (!other.root().equals(root) && other.root().startsWith(root)) {
+                nested.add(other.root());
+            }
+        }
+        return nested;
+    }
+
+    private int purgeQuarantine(Path root, LocalDate expiredBefore) {
+        Path quarantine = root.resolve(QUARANTINE_DIR);
+        if (!Files.isDirectory(quarantine)) {
+            return 0;
+        }
+        int purged = 0;
+        try (DirectoryStream<Path> days = Files.newDirectoryStream(quarantine, Files::isDirectory)) {
+            for (Path day : days) {
+                try {
+                    if (!LocalDate.parse(day.getFileName().toString()).isBefore(expiredBefore)) {
+                        continue;
+                    }
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                try (Stream<Path> paths = Files.walk(day)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.deleteIfExists(path);
+                    }
+                    purged++;
+                } catch (IOException e) {
+                    log.warn("Không thể xóa thư mục cách ly {}: {}", day, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Không thể đọc thư mục cách ly {}: {}", quarantine, e.getMessage());
+        }
+        return purged;
+    }
+
+    /**
+     * State shared by the tasks walking one store
+     */
+    private final class Scan {
+
+        private final StoreSpec spec;
+        private final Set<Path> excluded;
+        private final Instant cutoff;
+        private final Path quarantine;
+        private final boolean dryRun;
+        private final int batchSize;
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder orphans = new LongAdder();
+        private final LongAdder orphanBytes = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        Scan(StoreSpec spec, Set<Path> excluded, Instant cutoff, Path quarantine, boolean dryRun, int batchSize) {
+            this.spec = spec;
+            this.excluded = excluded;
+            this.cutoff = cutoff;
+            this.quarantine = quarantine;
+            this.dryRun = dryRun;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Keys of the batch that some row refers to
+         */
+        Set<String> referenced(List<String> keys) {
+            Set<String> found = new HashSet<>();
+            for (Reference reference : spec.references()) {
+                List<String> refs = keys.stream().map(key -> reference.prefix() + key).toList();
+                for (String value : jdbcTemplate.queryForList(reference.sql(), Map.of("refs", refs), String.class)) {
+                    found.add(value.substring(reference.prefix().length()));
+                }
+            }
+            return found;
+        }
+
+        void quarantine(Candidate candidate) {
+            Path target = quarantine.resolve(candidate.key());
+            try {
+                Files.createDirectories(target.getParent());
+                Files.move(candidate.file(), target);
+            } catch (IOException e) {
+                failed.increment();
+                log.warn("Không thể cách ly file {}: {}", candidate.key(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checks the files of one directory and forks a task per subdirectory.
+     * Dot directories (staging, packs, quarantine) are skipped.
+     */
+    private static final class DirectoryTask extends RecursiveAction {
+
+        private final Scan scan;
+        private final Path dir;
+
+        DirectoryTask(Scan scan, Path dir) {
+            this.scan = scan;
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            List<Candidate> candidates = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    if (entry.getFileName().toString().startsWith(".")) {
+                        continue;
+                    }
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class,
+                            LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isDirectory()) {
+                        if (!scan.excluded.contains(entry)) {
+                            DirectoryTask subtask = new DirectoryTask(scan, entry);
+                            subtask.fork();
+                            subtasks.add(subtask);
+                        }
+                    } else if (attrs.isRegularFile()) {
+                        scan.scanned.increment();
+                        if (attrs.lastModifiedTime().toInstant().isBefore(scan.cutoff)) {
+                            String key = scan.spec.root().relativize(entry).toString().replace('\\', '/');
+                            candidates.add(new Candidate(entry, key, attrs.size()));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                scan.failed.increment();
+                log.warn("Không thể đọc thư mục {}: {}", dir, e.getMessage());
+            }
+
+            for (int from = 0; from < candidates.size(); from += scan.batchSize) {
+                List<Candidate> batch = candidates.subList(from, Math.min(from + scan.batchSize, candidates.size()));
+                Set<String> referenced = scan.referenced(batch.stream().map(Candidate::key).toList());
+                for (Candidate candidate : batch) {
+                    if (referenced.contains(candidate.key())) {
+                        continue;
+                    }
+                    scan.orphans.increment();
+                    scan.orphanBytes.add(candidate.size());
+                    if (!scan.dryRun) {
+                        scan.quarantine(candidate);
+                    }
+                }
+            }
+
+            for (DirectoryTask subtask : subtasks) {
+                subtask.join();
+            }
+        }
+    }
+}
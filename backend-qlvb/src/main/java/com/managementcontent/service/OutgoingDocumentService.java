@@ -9,6 +9,7 @@ import com.managementcontent.model.DocumentAttachment;
 import com.managementcontent.model.OutgoingDocument;
 import com.managementcontent.model.Role;
 import com.managementcontent.model.User;
+import com.managementcontent.model.WorkInboxItem;
 import com.managementcontent.model.enums.DocumentProcessingStatus;
 import com.managementcontent.repository.DepartmentRepository;
 import com.managementcontent.repository.DocumentTypeRepository;
@@ -25,12 +26,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.slf4j.Logger;
@@ -58,6 +57,7 @@ public class OutgoingDocumentService {
     private final DocumentAttachmentService documentAttachmentService;
     private final UserService userService;
     private final DepartmentService departmentService;
+    private final WorkInboxService workInboxService;
 
     public Page<OutgoingDocumentDTO> getAllOutgoingDocuments(Pageable pageable) {
         User currentUser = getCurrentUser();
@@ -428,10 +428,15 @@ public class OutgoingDocumentService {
 
     @Transactional
     public boolean deleteOutgoingDocument(Long id) {
-        if (!outgoingDocumentRepository.existsById(id)) {
+        Optional<OutgoingDocument> document = outgoingDocumentRepository.findById(id);
+        if (document.isEmpty()) {
             return false;
         }
-        outgoingDocumentRepository.deleteById(id);
+        // Attachment rows first, their files and the legacy attachment go after commit
+        documentAttachmentService.deleteAllAttachments(id);
+        fileStorageService.deleteAfterCommit(document.get().getAttachmentFilename());
+        outgoingDocumentRepository.delete(document.get());
+        workInboxService.removeDocument(WorkInboxItem.DocumentKind.OUTGOING, id);
         return true;
     }
 
@@ -587,10 +592,8 @@ public class OutgoingDocumentService {
         return outgoingDocumentRepository.findById(id)
                 .map(document -> {
                     try {
-                        // Delete old file if it exists
-                        if (document.getAttachmentFilename() != null && !document.getAttachmentFilename().isEmpty()) {
-                            fileStorageService.deleteFile(document.getAttachmentFilename());
-                        }
+                        // Delete old file once the new one is committed
+                        fileStorageService.deleteAfterCommit(document.getAttachmentFilename());
 
                         // Store new file
                         String filename = fileStorageService.storeFile(file, document);
@@ -609,8 +612,8 @@ public class OutgoingDocumentService {
         if (documentOpt.isPresent() && documentOpt.get().getAttachmentFilename() != null
                 && !documentOpt.get().getAttachmentFilename().isEmpty()) {
             OutgoingDocument document = documentOpt.get();
-            Path filePath = fileStorageService.getFilePath(document.getAttachmentFilename());
-            Resource resource = new UrlResource(filePath.toUri());
+            Resource resource = fileStorageService.loadAsResource(document.getAttachmentFilename(),
+                    document.getAttachmentFilename());
 
             if (resource.exists()) {
                 return ResponseEntity.ok()
@@ -635,18 +638,12 @@ public class OutgoingDocumentService {
         return outgoingDocumentRepository.findById(id)
                 .map(document -> {
                     if (document.getAttachmentFilename() != null && !document.getAttachmentFilename().isEmpty()) {
-                        try {
-                            // Delete the file from storage
-                            fileStorageService.deleteFile(document.getAttachmentFilename());
+                        // Clear attachment reference in document, the file goes once this is committed
+                        fileStorageService.deleteAfterCommit(document.getAttachmentFilename());
+                        document.setAttachmentFilename(null);
+                        outgoingDocumentRepository.save(document);
 
-                            // Clear attachment reference in document
-                            document.setAttachmentFilename(null);
-                            outgoingDocumentRepository.save(document);
-
-                            return true;
-                        } catch (IOException e) {
-                            throw new RuntimeException("Failed to delete attachment", e);
-                        }
+                        return true;
                     }
                     return false;
                 })
@@ -0,0 +1,102 @@
+package com.managementcontent.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of notifications, activity_logs and
+ * document_download_logs (see the V1 migration): creates the partitions of
+ * the coming months ahead of time, since a row outside every partition cannot
+ * be inserted, and drops whole partitions once they are past retention.
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int premakeMonths;
+
+    /**
+     * Partitioned table to its retention in months, 0 to keep every partition
+     */
+    private final Map<String, Integer> retentionMonths = new LinkedHashMap<>();
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+            @Value("${partition.premake-months:3}") int premakeMonths,
+            @Value("${partition.retention-months.notifications:12}") int notificationRetention,
+            @Value("${partition.retention-months.activity-logs:24}") int activityLogRetention,
+            @Value("${partition.retention-months.document-download-logs:24}") int downloadLogRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.premakeMonths = Math.max(1, premakeMonths);
+        retentionMonths.put("notifications", notificationRetention);
+        retentionMonths.put("activity_logs", activityLogRetention);
+        retentionMonths.put("document_download_logs", downloadLogRetention);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${partition.cron:0 15 1 * * *}")
+    public void maintain() {
+        YearMonth current = YearMonth.now();
+        retentionMonths.forEach((table, retention) -> {
+            try {
+                createPartitions(table, current);
+                if (retention > 0) {
+                    dropPartitionsBefore(table, current.minusMonths(retention));
+                }
+            } catch (DataAccessException e) {
+                log.error("Lỗi khi bảo trì phân vùng của bảng {}", table, e);
+            }
+        });
+    }
+
+    private void createPartitions(String table, YearMonth current) {
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            Boolean created = jdbcTemplate.queryForObject("SELECT create_month_partition(?, ?)", Boolean.class,
+                    table, month.atDay(1));
+            if (Boolean.TRUE.equals(created)) {
+                log.info("Đã tạo phân vùng {} của bảng {}", month, table);
+            }
+        }
+    }
+
+    /**
+     * Drop the partitions of the months before the given one
+     */
+    private void dropPartitionsBefore(String table, YearMonth oldestKept) {
+        Pattern partitionName = Pattern.compile(Pattern.quote(table) + "_p(\\d{4})_(\\d{2})");
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = CAST(? AS regclass)",
+                String.class, table);
+        for (String partition : partitions) {
+            Matcher matcher = partitionName.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(oldestKept)) {
+                // The name matched the pattern above, so it needs no quoting
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Đã xóa phân vùng {} của bảng {} (quá thời hạn lưu trữ)", month, table);
+            }
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.GuideFile;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.repository.GuideFileRepository;
+import com.managementcontent.repository.InternalDocumentAttachmentRepository;
+import com.managementcontent.service.storage.BlobStore;
+import com.managementcontent.service.storage.BlobStore.LocalCopy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Renders page thumbnails and low resolution page images for PDF attachments.
+ * Everything that reads a whole file (rendering, counting pages, hashing a file
+ * without a stored checksum) runs on a bounded worker pool with a timeout, with
+ * PDFBox buffering in temp files rather than on the heap. Results are cached on
+ * disk under the SHA-256 of the source file, so a rendered page is never
+ * rendered again and identical files share their previews. Concurrent requests
+ * for the same work wait for a single run. Cached files that have not been used
+ * for a while, or the least recently used ones once the cache outgrows its
+ * limit, are evicted periodically.
+ */
+@Service
+@Slf4j
+public class PdfPreviewService {
+
+    /**
+     * Kind of file a preview is requested for
+     */
+    public enum SourceType {
+        ATTACHMENT,
+        INTERNAL,
+        GUIDE
+    }
+
+    /**
+     * Rendered image variants: target width in pixels and the maximum scale
+     * relative to 72 dpi, so tiny pages are not blown up
+     */
+    public enum PreviewSize {
+        THUMBNAIL(200, 1.0f),
+        PAGE(1000, 2.0f);
+
+        private final int width;
+        private final float maxScale;
+
+        PreviewSize(int width, float maxScale) {
+            this.width = width;
+            this.maxScale = maxScale;
+        }
+    }
+
+    /**
+     * Page count and content hash of a previewable file
+     */
+    public record PreviewInfo(String checksum, int pageCount) {
+    }
+
+    private record PdfSource(BlobStore store, String key, String checksum) {
+    }
+
+    private record CacheEntry(Path dir, long lastUsed, long size) {
+    }
+
+    private static final float JPEG_QUALITY = 0.8f;
+
+    // Cache directories are marked as used at most this often, and never evicted sooner after use
+    private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final DocumentAttachmentRepository documentAttachmentRepository;
+    private final InternalDocumentAttachmentRepository internalDocumentAttachmentRepository;
+    private final GuideFileRepository guideFileRepository;
+    private final BlobStore attachmentStore;
+    private final BlobStore internalDocumentStore;
+    private final BlobStore guideFileStore;
+    private final DocumentAccessControlService accessControlService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Path cacheRoot;
+    private final long renderTimeoutSeconds;
+    private final long cacheMaxBytes;
+    private final Duration cacheMaxAge;
+
+    private final ConcurrentHashMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    public PdfPreviewService(DocumentAttachmentRepository documentAttachmentRepository,
+            InternalDocumentAttachmentRepository internalDocumentAttachmentRepository,
+            GuideFileRepository guideFileRepository,
+            @Qualifier("attachmentBlobStore") BlobStore attachmentStore,
+            @Qualifier("internalDocumentBlobStore") BlobStore internalDocumentStore,
+            @Qualifier("guideFileBlobStore") BlobStore guideFileStore,
+            DocumentAccessControlService accessControlService,
+            @Qualifier("previewRenderExecutor") ThreadPoolTaskExecutor executor,
+            @Value("${file.preview.cache-dir:./preview-cache}") String cacheDir,
+            @Value("${file.preview.render-timeout-seconds:60}") long renderTimeoutSeconds,
+            @Value("${file.preview.cache-max-size-mb:2048}") long cacheMaxSizeMb,
+            @Value("${file.preview.cache-max-age-days:30}") long cacheMaxAgeDays) {
+        this.documentAttachmentRepository = documentAttachmentRepository;
+        this.internalDocumentAttachmentRepository = internalDocumentAttachmentRepository;
+        this.guideFileRepository = guideFileRepository;
+        this.attachmentStore = attachmentStore;
+        this.internalDocumentStore = internalDocumentStore;
+        this.guideFileStore = guideFileStore;
+        this.accessControlService = accessControlService;
+        this.executor = executor;
+        this.cacheRoot = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.renderTimeoutSeconds = renderTimeoutSeconds;
+        this.cacheMaxBytes = cacheMaxSizeMb * 1024 * 1024;
+        this.cacheMaxAge = Duration.ofDays(cacheMaxAgeDays);
+    }
+
+    /**
+     * Get the page count and content hash of a PDF, rendering nothing
+     */
+    public PreviewInfo getInfo(SourceType type, Long id, User user) throws IOException {
+        PdfSource source = resolveSource(type, id, user);
+        Path countFile = cacheDir(source.checksum()).resolve("pages");
+        if (Files.exists(countFile)) {
+            markUsed(countFile.getParent());
+            return new PreviewInfo(source.checksum(),
+                    Integer.parseInt(Files.readString(countFile, StandardCharsets.UTF_8).trim()));
+        }
+        int pageCount = runBounded("pages:" + source.checksum(), () -> countPages(source));
+        return new PreviewInfo(source.checksum(), pageCount);
+    }
+
+    /**
+     * Get a rendered page image, rendering it first if it is not cached
+     *
+     * @param type Source kind
+     * @param id   Attachment or guide file ID
+     * @param page 1-based page number
+     * @param size Image variant
+     * @param user Current user
+     * @return Path of the cached JPEG
+     */
+    public Path getPageImage(SourceType type, Long id, int page, PreviewSize size, User user) throws IOException {
+        PdfSource source = resolveSource(type, id, user);
+        if (page < 1) {
+            throw new IllegalArgumentException("Số trang không hợp lệ: " + page);
+        }
+        Path cached = cacheDir(source.checksum()).resolve(size.name().toLowerCase(Locale.ROOT) + "-" + page + ".jpg");
+        if (Files.exists(cached)) {
+            markUsed(cached.getParent());
+            return cached;
+        }
+        return runBounded(source.checksum() + ":" + size + ":" + page, () -> render(source, page, size, cached));
+    }
+
+    /**
+     * Run work that reads a whole file on the render pool and wait for it at
+     * most the render timeout. Requests for the same key share one run.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the pool is saturated
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T runBounded(String key, Supplier<T> work) throws IOException {
+        CompletableFuture<T> future = (CompletableFuture<T>) inFlight.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(work, executor));
+        // Attached outside computeIfAbsent: a future that is already done runs this inline
+        future.whenComplete((result, error) -> inFlight.remove(key, future));
+        try {
+            return future.get(renderTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bị gián đoạn khi tạo ảnh xem trước", e);
+        } catch (TimeoutException e) {
+            throw new IOException("Quá thời gian tạo ảnh xem trước", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException illegalArgument) {
+                throw illegalArgument;
+            }
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException("Lỗi khi tạo ảnh xem trước: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private Path render(PdfSource source, int page, PreviewSize size, Path target) {
+        if (Files.exists(target)) {
+            return target;
+        }
+        try (LocalCopy copy = source.store().localCopy(source.key());
+                PDDocument pdf = PDDocument.load(copy.path().toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            int pageCount = pdf.getNumberOfPages();
+            writePageCount(source.checksum(), pageCount);
+            if (page > pageCount) {
+                throw new IllegalArgumentException("Tài liệu chỉ có " + pageCount + " trang");
+            }
+
+            PDPage pdPage = pdf.getPage(page - 1);
+            PDRectangle box = pdPage.getCropBox();
+            boolean rotated = pdPage.getRotation() % 180 != 0;
+            float widthPoints = rotated ? box.getHeight() : box.getWidth();
+            float scale = Math.min(size.maxScale, size.width / Math.max(widthPoints, 1f));
+
+            BufferedImage image = new PDFRenderer(pdf).renderImage(page - 1, scale, ImageType.RGB);
+            writeJpegAtomically(image, target);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int countPages(PdfSource source) {
+        try (LocalCopy copy = source.store().localCopy(source.key());
+                PDDocument pdf = PDDocument.load(copy.path().toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            int pageCount = pdf.getNumberOfPages();
+            writePageCount(source.checksum(), pageCount);
+            return pageCount;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writePageCount(String checksum, int pageCount) throws IOException {
+        Path dir = cacheDir(checksum);
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "pages", ".tmp");
+        Files.writeString(tmp, Integer.toString(pageCount), StandardCharsets.UTF_8);
+        Files.move(tmp, dir.resolve("pages"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeJpegAtomically(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), "render", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            try (OutputStream out = Files.newOutputStream(tmp);
+                    ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+                writer.setOutput(imageOut);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path cacheDir(String checksum) {
+        return cacheRoot.resolve(checksum.substring(0, 2)).resolve(checksum);
+    }
+
+    /**
+     * Record a cache hit in the modification time of the file's cache
+     * directory; writing a rendering into it updates the time as well
+     */
+    private void markUsed(Path dir) {
+        try {
+            long now = System.currentTimeMillis();
+            if (now - Files.getLastModifiedTime(dir).toMillis() > TOUCH_INTERVAL_MILLIS) {
+                Files.setLastModifiedTime(dir, FileTime.fromMillis(now));
+            }
+        } catch (IOException e) {
+            // Evicted meanwhile; the next request renders again
+        }
+    }
+
+    /**
+     * Evict the previews of files unused for longer than the maximum age,
+     * then the least recently used ones until the cache fits its size limit.
+     * Directories used in the last minutes are kept, so a page being served
+     * or rendered is not removed under the request.
+     */
+    @Scheduled(fixedDelayString = "${file.preview.cache-evict-interval-ms:3600000}", initialDelay = 60_000)
+    public void evictCache() {
+        if (!Files.isDirectory(cacheRoot)) {
+            return;
+        }
+        List<CacheEntry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> prefixes = Files.list(cacheRoot)) {
+            for (Path prefix : prefixes.filter(Files::isDirectory).toList()) {
+                try (Stream<Path> dirs = Files.list(prefix)) {
+                    for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                        CacheEntry entry = new CacheEntry(dir, Files.getLastModifiedTime(dir).toMillis(),
+                                directorySize(dir));
+                        entries.add(entry);
+                        total += entry.size();
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Không thể quét bộ nhớ đệm ảnh xem trước: {}", e.getMessage());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expiredBefore = now - cacheMaxAge.toMillis();
+        long idleBefore = now - TOUCH_INTERVAL_MILLIS;
+        entries.sort(Comparator.comparingLong(CacheEntry::lastUsed));
+        int evicted = 0;
+        long freed = 0;
+        for (CacheEntry entry : entries) {
+            if ((entry.lastUsed() >= expiredBefore && total <= cacheMaxBytes) || entry.lastUsed() >= idleBefore) {
+                break;
+            }
+            try {
+                FileSystemUtils.deleteRecursively(entry.dir());
+                total -= entry.size();
+                freed += entry.size();
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Không thể xóa bộ nhớ đệm ảnh xem trước {}: {}", entry.dir(), e.getMessage());
+            }
+        }
+        if (evicted > 0) {
+            log.info("Đã xóa ảnh xem trước của {} file khỏi bộ nhớ đệm ({} MB), còn lại {} MB", evicted,
+                    freed / (1024 * 1024), total / (1024 * 1024));
+        }
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    // Temp file renamed meanwhile
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+
+    /**
+     * Look up the file behind a preview request, check access and make sure it
+     * is a PDF with a known checksum
+     */
+    private PdfSource resolveSource(SourceType type, Long id, User user) throws IOException {
+        switch (type) {
+            case ATTACHMENT -> {
+                DocumentAttachment attachment = documentAttachmentRepository.findById(id)
+                        .orElseThrow(() -> new FileNotFoundException("Không tìm thấy file đính kèm"));
+                if (!accessControlService.canUserAccessDocument(attachment.getDocument(), user,
+                        accessControlService.getUserDepartmentIds(user))) {
+                    throw new AccessDeniedException("Không có quyền xem tài liệu này");
+                }
+                requirePdf(attachment.getContentType(), attachment.getOriginalFilename());
+                if (attachment.getChecksum() == null) {
+                    attachment.setChecksum(sha256(type, attachmentStore, attachment.getFilePath()));
+                    documentAttachmentRepository.save(attachment);
+                }
+                return new PdfSource(attachmentStore, attachment.getFilePath(), attachment.getChecksum());
+            }
+            case INTERNAL -> {
+                InternalDocumentAttachment attachment = internalDocumentAttachmentRepository.findById(id)
+                        .orElseThrow(() -> new FileNotFoundException("Không tìm thấy file đính kèm"));
+                if (!accessControlService.canUserAccessDocument(attachment.getDocument(), user,
+                        accessControlService.getUserDepartmentIds(user))) {
+                    throw new AccessDeniedException("Không có quyền xem tài liệu này");
+                }
+                requirePdf(attachment.getContentType(), attachment.getFilename());
+                if (attachment.getChecksum() == null) {
+                    attachment.setChecksum(sha256(type, internalDocumentStore, attachment.getFilePath()));
+                    internalDocumentAttachmentRepository.save(attachment);
+                }
+                return new PdfSource(internalDocumentStore, attachment.getFilePath(), attachment.getChecksum());
+            }
+            case GUIDE -> {
+                GuideFile guideFile = guideFileRepository.findById(id)
+                        .orElseThrow(() -> new FileNotFoundException("Không tìm thấy file hướng dẫn"));
+                requirePdf(guideFile.getFileType(), guideFile.getFileName());
+                String storedName = guideFile.getFileUrl().substring(guideFile.getFileUrl().lastIndexOf('/') + 1);
+                if (guideFile.getChecksum() == null) {
+                    guideFile.setChecksum(sha256(type, guideFileStore, storedName));
+                    guideFileRepository.save(guideFile);
+                }
+                return new PdfSource(guideFileStore, storedName, guideFile.getChecksum());
+            }
+            default -> throw new IllegalArgumentException("Loại tài liệu không hỗ trợ: " + type);
+        }
+    }
+
+    private void requirePdf(String contentType, String filename) {
+        boolean pdf = "application/pdf".equalsIgnoreCase(contentType)
+                || (filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".pdf"));
+        if (!pdf) {
+            throw new IllegalArgumentException("Chỉ hỗ trợ xem trước file PDF");
+        }
+    }
+
+    /**
+     * Hash a file whose checksum was never stored, on the render pool
+     */
+    private String sha256(SourceType type, BlobStore store, String key) throws IOException {
+        return runBounded("sha256:" + type + ":" + key, () -> {
+            try {
+                return sha256(store, key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String sha256(BlobStore store, String key) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+        try (InputStream in = new DigestInputStream(store.get(key), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Không tìm thấy file trên hệ thống lưu trữ");
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,511 @@
+package com.managementcontent.service;
+
+import com.managementcontent.dto.BatchSignRequestDTO;
+import com.managementcontent.dto.SignDocumentResultDTO;
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.Signature;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.repository.SignatureRepository;
+import com.managementcontent.service.storage.BlobStore.LocalCopy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.ExternalSigningSupport;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureOptions;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.visible.PDVisibleSigProperties;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.visible.PDVisibleSignDesigner;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.DERSet;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.AttributeTable;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.ess.ESSCertIDv2;
+import org.bouncycastle.asn1.ess.SigningCertificateV2;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuerSerial;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSAttributeTableGenerator;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSTypedData;
+import org.bouncycastle.cms.DefaultSignedAttributeTableGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Digitally signs the PDF attachments of documents with a user's stored
+ * signature: the signature image is stamped as the visible appearance and a
+ * PAdES (CAdES detached) signature is added with an incremental update.
+ * <p>
+ * The signed revision is appended to the existing file, which is never
+ * rewritten, and the content to sign is streamed from disk into the CMS
+ * digest. A {@link SigningSession} verifies the password and loads the key
+ * material once, after which a whole batch of documents is signed in parallel.
+ */
+@Service
+@Slf4j
+public class PdfSigningService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final SignatureRepository signatureRepository;
+    private final SignatureService signatureService;
+    private final DocumentAttachmentRepository documentAttachmentRepository;
+    private final FileStorageService fileStorageService;
+    private final DocumentWorkflowService documentWorkflowService;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    // Two batches must not append to the same file at once
+    private final ReentrantLock[] attachmentLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public PdfSigningService(SignatureRepository signatureRepository,
+            SignatureService signatureService,
+            DocumentAttachmentRepository documentAttachmentRepository,
+            FileStorageService fileStorageService,
+            DocumentWorkflowService documentWorkflowService,
+            PasswordEncoder passwordEncoder,
+            @Qualifier("pdfSigningExecutor") ThreadPoolTaskExecutor executor,
+            PlatformTransactionManager transactionManager) {
+        this.signatureRepository = signatureRepository;
+        this.signatureService = signatureService;
+        this.documentAttachmentRepository = documentAttachmentRepository;
+        this.fileStorageService = fileStorageService;
+        this.documentWorkflowService = documentWorkflowService;
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            attachmentLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Unlocked signature: the private key, certificate chain and stamp image of
+     * one signer, loaded once and shared by every document of a batch
+     */
+    public static final class SigningSession {
+        private final User signer;
+        private final PrivateKey privateKey;
+        private final Certificate[] chain;
+        private final byte[] image;
+        private final float imageAspect;
+
+        private SigningSession(User signer, PrivateKey privateKey, Certificate[] chain, byte[] image,
+                float imageAspect) {
+            this.signer = signer;
+            this.privateKey = privateKey;
+            this.chain = chain;
+            this.image = image;
+            this.imageAspect = imageAspect;
+        }
+
+        public User getSigner() {
+            return signer;
+        }
+    }
+
+    /**
+     * Verify the signature password once and load the key material
+     *
+     * @param signatureId Stored signature of the user
+     * @param password    Signature password
+     * @param user        Current user, who must own the signature
+     */
+    public SigningSession openSession(Long signatureId, String password, User user) throws IOException {
+        Signature signature = signatureRepository.findById(signatureId)
+                .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy chữ ký"));
+        if (!signature.getUser().getId().equals(user.getId())) {
+            throw new SecurityException("Người dùng không có quyền sử dụng chữ ký này");
+        }
+        if (password == null || !passwordEncoder.matches(password, signature.getPassword())) {
+            throw new BadCredentialsException("Mật khẩu chữ ký không đúng");
+        }
+        if (signature.getKeystoreFileName() == null) {
+            throw new IllegalArgumentException("Chữ ký chưa có chứng thư số để ký điện tử");
+        }
+
+        char[] secret = password.toCharArray();
+        try (InputStream in = signatureService.openStoredFile(signature.getKeystoreFileName())) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, secret);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.isKeyEntry(alias)) {
+                    PrivateKey key = (PrivateKey) keyStore.getKey(alias, secret);
+                    Certificate[] chain = keyStore.getCertificateChain(alias);
+                    if (chain == null || chain.length == 0) {
+                        continue;
+                    }
+                    ((X509Certificate) chain[0]).checkValidity();
+                    byte[] image;
+                    try (InputStream imageIn = signatureService.openStoredFile(signature.getFileName())) {
+                        image = imageIn.readAllBytes();
+                    }
+                    BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(image));
+                    if (decoded == null) {
+                        throw new IOException("Không đọc được ảnh chữ ký");
+                    }
+                    return new SigningSession(user, key, chain, image,
+                            (float) decoded.getHeight() / decoded.getWidth());
+                }
+            }
+            throw new IllegalArgumentException("Chứng thư số không chứa khóa ký");
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Không thể mở chứng thư số: " + e.getMessage(), e);
+        } finally {
+            Arrays.fill(secret, '\0');
+        }
+    }
+
+    /**
+     * Sign the latest PDF attachment of each document and optionally approve
+     * the documents that were signed. Every document is authorised before the
+     * signature is unlocked; documents the user may not sign are reported and
+     * left alone.
+     *
+     * @param request Signature, password, documents and stamp placement
+     * @param user    Current user
+     * @return One result per requested document, in request order
+     */
+    public List<SignDocumentResultDTO> signBatch(BatchSignRequestDTO request, User user) throws IOException {
+        if (request.getDocumentIds() == null || request.getDocumentIds().isEmpty()) {
+            return List.of();
+        }
+        boolean approve = Boolean.TRUE.equals(request.getApprove());
+        if (approve && !documentWorkflowService.canApprove(user)) {
+            throw new SecurityException("Chỉ thủ trưởng mới có quyền phê duyệt công văn");
+        }
+        List<Long> documentIds = request.getDocumentIds().stream().distinct().toList();
+
+        Map<Long, SignDocumentResultDTO> denied = new HashMap<>();
+        for (Long documentId : documentIds) {
+            try {
+                documentWorkflowService.checkCanSign(documentId, user, approve);
+            } catch (IllegalArgumentException | SecurityException e) {
+                denied.put(documentId, SignDocumentResultDTO.builder()
+                        .documentId(documentId)
+                        .message(e.getMessage())
+                        .build());
+            }
+        }
+        SigningSession session = denied.size() < documentIds.size()
+                ? openSession(request.getSignatureId(), request.getPassword(), user)
+                : null;
+
+        List<CompletableFuture<SignDocumentResultDTO>> futures = documentIds.stream()
+                .map(documentId -> denied.containsKey(documentId)
+                        ? CompletableFuture.completedFuture(denied.get(documentId))
+                        : CompletableFuture.supplyAsync(
+                                () -> signDocument(session, documentId, request, approve), executor))
+                .toList();
+        List<SignDocumentResultDTO> results = futures.stream().map(CompletableFuture::join).toList();
+
+        long signed = results.stream().filter(SignDocumentResultDTO::isSigned).count();
+        log.info("Người dùng {} đã ký {}/{} công văn", user.getName(), signed, results.size());
+        return results;
+    }
+
+    /**
+     * Sign one document. The approval, the upload of a signed copy and the
+     * new checksum commit together; if any of them fails, a file signed in
+     * place is cut back to its original length, so the stored file is never
+     * left signed without the requested approval.
+     */
+    private SignDocumentResultDTO signDocument(SigningSession session, Long documentId, BatchSignRequestDTO request,
+            boolean approve) {
+        SignDocumentResultDTO.SignDocumentResultDTOBuilder result = SignDocumentResultDTO.builder()
+                .documentId(documentId);
+        try {
+            DocumentAttachment attachment = documentAttachmentRepository
+                    .findByDocumentIdOrderByUploadedDateDesc(documentId).stream()
+                    .filter(this::isPdf)
+                    .findFirst()
+                    .orElse(null);
+            if (attachment == null) {
+                return result.message("Công văn không có file PDF để ký").build();
+            }
+            result.attachmentId(attachment.getId());
+
+            ReentrantLock lock = attachmentLocks[Math.floorMod(attachment.getId().hashCode(), LOCK_STRIPES)];
+            lock.lock();
+            try {
+                // Local storage signs the file in place; other stores sign a copy and upload it
+                try (LocalCopy copy = fileStorageService.openLocal(attachment.getFilePath())) {
+                    Path file = copy.path();
+                    long originalSize = Files.size(file);
+                    String checksum = signFile(session, file, request);
+                    long size = Files.size(file);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            if (approve && documentWorkflowService
+                                    .approveDocument(documentId, session.signer, request.getComments()).isEmpty()) {
+                                throw new IllegalStateException("Không thể phê duyệt công văn");
+                            }
+                            attachment.setChecksum(checksum);
+                            attachment.setFileSize(size);
+                            documentAttachmentRepository.save(attachment);
+                            if (copy.isTemporary()) {
+                                try (InputStream in = Files.newInputStream(file)) {
+                                    fileStorageService.storeRaw(attachment.getFilePath(), in, size,
+                                            attachment.getContentType());
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        if (!copy.isTemporary()) {
+                            // The signed revision was only appended, cutting it off restores the original
+                            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                                channel.truncate(originalSize);
+                            }
+                        }
+                        throw e;
+                    }
+                    return result.signed(true).approved(approve).checksum(checksum).message("Ký thành công").build();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            log.warn("Ký công văn {} thất bại: {}", documentId, e.getMessage());
+            return result.message("Ký thất bại: " + e.getMessage()).build();
+        }
+    }
+
+    /**
+     * Append a signed revision to a PDF file
+     *
+     * @return SHA-256 of the file after signing
+     */
+    private String signFile(SigningSession session, Path file, BatchSignRequestDTO request) throws IOException {
+        long originalLength = Files.size(file);
+        try (PDDocument document = PDDocument.load(file.toFile(), MemoryUsageSetting.setupTempFileOnly());
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (document.isEncrypted()) {
+                throw new IllegalArgumentException("Không hỗ trợ ký file PDF được mã hóa");
+            }
+            int pageCount = document.getNumberOfPages();
+            int page = request.getPage() == null ? pageCount : request.getPage();
+            if (page < 1 || page > pageCount) {
+                throw new IllegalArgumentException("Trang ký không hợp lệ: " + page);
+            }
+
+            PDSignature signature = new PDSignature();
+            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+            signature.setSubFilter(PDSignature.SUBFILTER_ETSI_CADES_DETACHED);
+            signature.setName(session.signer.getFullName());
+            signature.setReason(request.getReason());
+            signature.setLocation(request.getLocation());
+            signature.setSignDate(Calendar.getInstance());
+
+            float width = request.getWidth() != null ? request.getWidth() : 150f;
+            PDVisibleSignDesigner designer = new PDVisibleSignDesigner(document,
+                    new ByteArrayInputStream(session.image), page)
+                    .xAxis(request.getX() != null ? request.getX() : 350f)
+                    .yAxis(request.getY() != null ? request.getY() : 600f)
+                    .width(width)
+                    .height(width * session.imageAspect);
+            PDVisibleSigProperties appearance = new PDVisibleSigProperties()
+                    .signerName(session.signer.getFullName())
+                    .signerLocation(request.getLocation())
+                    .signatureReason(request.getReason())
+                    .page(page)
+                    .visualSignEnabled(true)
+                    .setPdVisibleSignature(designer);
+            appearance.buildSignature();
+
+            MessageDigest digest = sha256();
+            try (SignatureOptions options = new SignatureOptions()) {
+                options.setVisualSignature(appearance.getVisibleSignature());
+                options.setPage(page - 1);
+                options.setPreferredSignatureSize(SignatureOptions.DEFAULT_SIGNATURE_SIZE * 2);
+                document.addSignature(signature, options);
+
+                channel.position(originalLength);
+                OutputStream out = new AppendingOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel)), originalLength, digest);
+                ExternalSigningSupport external = document.saveIncrementalForExternalSigning(out);
+                external.setSignature(buildCms(external.getContent(), session));
+                out.flush();
+                channel.force(true);
+            } catch (IOException | RuntimeException e) {
+                // Drop a partially written revision, the original bytes are untouched
+                channel.truncate(originalLength);
+                throw e;
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Build a detached CMS signature with the signing-certificate-v2 attribute
+     * required by PAdES, reading the signed byte ranges as a stream
+     */
+    private byte[] buildCms(InputStream content, SigningSession session) throws IOException {
+        try {
+            X509Certificate certificate = (X509Certificate) session.chain[0];
+            String algorithm = "EC".equals(session.privateKey.getAlgorithm()) ? "SHA256withECDSA" : "SHA256withRSA";
+            ContentSigner signer = new JcaContentSignerBuilder(algorithm).build(session.privateKey);
+
+            ESSCertIDv2 certId = new ESSCertIDv2(new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256),
+                    sha256().digest(certificate.getEncoded()),
+                    new IssuerSerial(new GeneralNames(new GeneralName(
+                            X500Name.getInstance(certificate.getIssuerX500Principal().getEncoded()))),
+                            certificate.getSerialNumber()));
+            ASN1EncodableVector attributes = new ASN1EncodableVector();
+            attributes.add(new Attribute(PKCSObjectIdentifiers.id_aa_signingCertificateV2,
+                    new DERSet(new SigningCertificateV2(new ESSCertIDv2[] { certId }))));
+            CMSAttributeTableGenerator standard = new DefaultSignedAttributeTableGenerator(
+                    new AttributeTable(attributes));
+            // PAdES takes the signing time from the signature dictionary only
+            CMSAttributeTableGenerator signedAttributes = parameters -> standard.getAttributes(parameters)
+                    .remove(CMSAttributes.signingTime);
+
+            CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+            generator.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(
+                    new JcaDigestCalculatorProviderBuilder().build())
+                    .setSignedAttributeGenerator(signedAttributes)
+                    .build(signer, certificate));
+            generator.addCertificates(new JcaCertStore(Arrays.asList(session.chain)));
+            return generator.generate(new StreamingContent(content), false).getEncoded();
+        } catch (GeneralSecurityException | OperatorCreationException | CMSException e) {
+            throw new IOException("Không thể tạo chữ ký số: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isPdf(DocumentAttachment attachment) {
+        return "application/pdf".equalsIgnoreCase(attachment.getContentType())
+                || (attachment.getOriginalFilename() != null
+                        && attachment.getOriginalFilename().toLowerCase(Locale.ROOT).endsWith(".pdf"));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+
+    /**
+     * Content of a detached signature, written to the digest straight from
+     * the source stream
+     */
+    private static final class StreamingContent implements CMSTypedData {
+        private final InputStream in;
+
+        private StreamingContent(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public ASN1ObjectIdentifier getContentType() {
+            return CMSObjectIdentifiers.data;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            try (in) {
+                in.transferTo(out);
+            }
+        }
+
+        @Override
+        public Object getContent() {
+            return in;
+        }
+    }
+
+    /**
+     * Output of an incremental save. PDFBox writes the original file followed
+     * by the new revision; the original bytes are only hashed and the revision
+     * is appended to the file, so the checksum of the result comes for free.
+     */
+    private static final class AppendingOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final MessageDigest digest;
+        private long skip;
+
+        private AppendingOutputStream(OutputStream target, long skip, MessageDigest digest) {
+            this.target = target;
+            this.skip = skip;
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            digest.update((byte) b);
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            digest.update(b, off, len);
+            int skipped = (int) Math.min(skip, len);
+            skip -= skipped;
+            if (len > skipped) {
+                target.write(b, off + skipped, len - skipped);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The channel is closed by the caller
+            target.flush();
+        }
+    }
+}
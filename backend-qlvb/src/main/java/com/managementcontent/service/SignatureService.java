@@ -5,7 +5,11 @@ import com.managementcontent.model.Signature;
 import com.managementcontent.model.User;
 import com.managementcontent.repository.SignatureRepository;
 import com.managementcontent.repository.UserRepository;
+import com.managementcontent.service.SignatureUnlockTokenService.Scope;
+import com.managementcontent.service.SignatureUnlockTokenService.UnlockToken;
+import com.managementcontent.service.storage.BlobStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
@@ -16,11 +20,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.net.URLConnection;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -30,22 +39,33 @@ public class SignatureService {
     private final SignatureRepository signatureRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final Path signatureStorageLocation;
+    private final SignatureUnlockTokenService unlockTokenService;
+    private final BlobStore signatureStore;
+    private final Map<Long, SignatureImage> imageCache;
+
+    /**
+     * Signature image bytes with their media type
+     */
+    public record SignatureImage(byte[] data, String contentType) {
+    }
 
     @Autowired
     public SignatureService(SignatureRepository signatureRepository, UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
-            @Value("${file.signature-upload-dir:./signature-uploads}") String uploadDir) {
+            PasswordEncoder passwordEncoder, SignatureUnlockTokenService unlockTokenService,
+            @Qualifier("signatureBlobStore") BlobStore signatureStore,
+            @Value("${signature.image-cache.max-entries:128}") int imageCacheSize) {
         this.signatureRepository = signatureRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.signatureStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.signatureStorageLocation);
-        } catch (Exception ex) {
-            throw new SignatureStorageException(
-                    "Could not create the directory where the uploaded signatures will be stored.", ex);
-        }
+        this.unlockTokenService = unlockTokenService;
+        this.signatureStore = signatureStore;
+        // Small LRU of signature images; they are tiny and read on every signing screen
+        this.imageCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SignatureImage> eldest) {
+                return size() > imageCacheSize;
+            }
+        });
     }
 
     public List<Signature> getSignaturesForCurrentUser() {
@@ -67,12 +87,13 @@ public class SignatureService {
                 throw new SignatureStorageException("Sorry! Filename contains invalid path sequence " + fileName);
             }
 
-            Path targetLocation = this.signatureStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            try (InputStream in = file.getInputStream()) {
+                signatureStore.put(fileName, in, file.getSize(), file.getContentType());
+            }
 
             Signature signature = Signature.builder()
                     .user(currentUser)
-                    .imagePath(targetLocation.toString())
+                    .imagePath(signatureStore.localPath(fileName).map(Path::toString).orElse(fileName))
                     .fileName(fileName)
                     .password(passwordEncoder.encode(password))
                     .build();
@@ -84,6 +105,96 @@ public class SignatureService {
         }
     }
 
+    /**
+     * Verify the password of a signature once and issue a short-lived token for
+     * the requested operations
+     */
+    public UnlockToken unlockSignature(Long signatureId, String password, Collection<Scope> scopes) {
+        User currentUser = getCurrentUser();
+        Signature signature = signatureRepository.findById(signatureId)
+                .orElseThrow(() -> new RuntimeException("Signature not found"));
+
+        if (!signature.getUser().getId().equals(currentUser.getId())) {
+            throw new SecurityException("User not authorized to use this signature");
+        }
+
+        if (password == null || !passwordEncoder.matches(password, signature.getPassword())) {
+            throw new BadCredentialsException("Invalid password for signature");
+        }
+
+        return unlockTokenService.issue(currentUser.getId(), signatureId, scopes);
+    }
+
+    /**
+     * Get a signature image authorized by an unlock token
+     */
+    public SignatureImage getSignatureImageWithToken(Long signatureId, String token) throws IOException {
+        User currentUser = getCurrentUser();
+        unlockTokenService.verify(token, currentUser.getId(), signatureId, Scope.IMAGE);
+        Signature signature = signatureRepository.findById(signatureId)
+                .orElseThrow(() -> new RuntimeException("Signature not found"));
+        return loadImage(signature);
+    }
+
+    /**
+     * Delete a signature authorized by an unlock token
+     */
+    public void deleteSignatureWithToken(Long signatureId, String token) {
+        User currentUser = getCurrentUser();
+        unlockTokenService.verify(token, currentUser.getId(), signatureId, Scope.DELETE);
+        Signature signature = signatureRepository.findById(signatureId)
+                .orElseThrow(() -> new RuntimeException("Signature not found"));
+        removeSignature(signature);
+    }
+
+    /**
+     * Attach a PKCS#12 keystore to a signature so it can be used for digital
+     * signing. The keystore must open with the signature password.
+     */
+    public Signature attachKeystore(Long signatureId, MultipartFile keystoreFile, String password) {
+        User currentUser = getCurrentUser();
+        Signature signature = signatureRepository.findById(signatureId)
+                .orElseThrow(() -> new RuntimeException("Signature not found"));
+
+        if (!signature.getUser().getId().equals(currentUser.getId())) {
+            throw new SecurityException("User not authorized to modify this signature");
+        }
+
+        if (!passwordEncoder.matches(password, signature.getPassword())) {
+            throw new BadCredentialsException("Invalid password for signature");
+        }
+
+        try {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(keystoreFile.getInputStream(), password.toCharArray());
+            if (!keyStore.aliases().hasMoreElements()) {
+                throw new SignatureStorageException("Keystore does not contain any key");
+            }
+        } catch (IOException | GeneralSecurityException ex) {
+            throw new SignatureStorageException("Keystore cannot be opened with the signature password", ex);
+        }
+
+        String fileName = UUID.randomUUID() + ".p12";
+        try (InputStream in = keystoreFile.getInputStream()) {
+            signatureStore.put(fileName, in, keystoreFile.getSize(), "application/x-pkcs12");
+            if (signature.getKeystoreFileName() != null) {
+                signatureStore.delete(signature.getKeystoreFileName());
+            }
+        } catch (IOException ex) {
+            throw new SignatureStorageException("Could not store keystore. Please try again!", ex);
+        }
+
+        signature.setKeystoreFileName(fileName);
+        return signatureRepository.save(signature);
+    }
+
+    /**
+     * Open a file kept in the signature store
+     */
+    public InputStream openStoredFile(String fileName) throws IOException {
+        return signatureStore.get(fileName);
+    }
+
     // Helper method to get current authenticated user
     private User getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -103,13 +214,20 @@ public class SignatureService {
             throw new BadCredentialsException("Invalid password for signature");
         }
 
+        removeSignature(signature);
+    }
+
+    private void removeSignature(Signature signature) {
         try {
-            Path fileToDelete = this.signatureStorageLocation.resolve(signature.getFileName()).normalize();
-            Files.deleteIfExists(fileToDelete);
+            signatureStore.delete(signature.getFileName());
+            if (signature.getKeystoreFileName() != null) {
+                signatureStore.delete(signature.getKeystoreFileName());
+            }
         } catch (IOException ex) {
             throw new SignatureStorageException("Could not delete signature file. Please try again!", ex);
         }
 
+        imageCache.remove(signature.getId());
         signatureRepository.delete(signature);
     }
 
@@ -123,7 +241,21 @@ public class SignatureService {
             throw new Exception("Invalid password");
         }
 
-        Path path = Paths.get(signature.getImagePath());
-        return Files.readAllBytes(path);
+        return loadImage(signature).data();
+    }
+
+    private SignatureImage loadImage(Signature signature) throws IOException {
+        SignatureImage cached = imageCache.get(signature.getId());
+        if (cached != null) {
+            return cached;
+        }
+        byte[] data;
+        try (InputStream in = signatureStore.get(signature.getFileName())) {
+            data = in.readAllBytes();
+        }
+        String contentType = URLConnection.guessContentTypeFromName(signature.getFileName());
+        SignatureImage image = new SignatureImage(data, contentType != null ? contentType : "image/png");
+        imageCache.put(signature.getId(), image);
+        return image;
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.managementcontent.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Issues and verifies short-lived tokens proving that a user has entered the
+ * password of one of their signatures. The password is checked with bcrypt
+ * once when unlocking; later image fetches or deletions only verify the
+ * token's HMAC. Tokens are stateless, so they work on every node.
+ * <p>
+ * The signing key is derived from the JWT secret but differs from it, so an
+ * unlock token can never be used as a login token.
+ */
+@Service
+public class SignatureUnlockTokenService {
+
+    private static final String TOKEN_TYPE = "signature-unlock";
+
+    /**
+     * Operations a token may authorize
+     */
+    public enum Scope {
+        IMAGE,
+        DELETE
+    }
+
+    /**
+     * Issued token and its expiry
+     */
+    public record UnlockToken(String token, Instant expiresAt, Set<Scope> scopes) {
+    }
+
+    private final Key signingKey;
+    private final Duration ttl;
+
+    public SignatureUnlockTokenService(@Value("${application.security.jwt.secret-key}") String jwtSecret,
+            @Value("${signature.unlock.ttl-minutes:10}") long ttlMinutes) {
+        this.signingKey = Keys.hmacShaKeyFor(deriveKey(Decoders.BASE64.decode(jwtSecret)));
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    /**
+     * Issue a token for one signature of a user
+     */
+    public UnlockToken issue(Long userId, Long signatureId, Collection<Scope> scopes) {
+        Set<Scope> granted = scopes == null || scopes.isEmpty() ? EnumSet.of(Scope.IMAGE) : EnumSet.copyOf(scopes);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        String token = Jwts.builder()
+                .setSubject(String.valueOf(userId))
+                .claim("typ", TOKEN_TYPE)
+                .claim("sig", signatureId)
+                .claim("scope", granted.stream().map(Scope::name).toList())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+        return new UnlockToken(token, expiresAt, granted);
+    }
+
+    /**
+     * Check that a token was issued to the user for the signature and scope
+     *
+     * @throws BadCredentialsException when the token is missing, expired, forged
+     *                                 or issued for something else
+     */
+    public void verify(String token, Long userId, Long signatureId, Scope scope) {
+        if (token == null || token.isBlank()) {
+            throw new BadCredentialsException("Thiếu mã mở khóa chữ ký");
+        }
+        Claims claims;
+        try {
+            claims = Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Mã mở khóa chữ ký không hợp lệ hoặc đã hết hạn");
+        }
+        Object scopes = claims.get("scope");
+        boolean valid = TOKEN_TYPE.equals(claims.get("typ"))
+                && String.valueOf(userId).equals(claims.getSubject())
+                && signatureId != null && signatureId.equals(claims.get("sig", Long.class))
+                && scopes instanceof List<?> list && list.contains(scope.name());
+        if (!valid) {
+            throw new BadCredentialsException("Mã mở khóa không áp dụng cho thao tác này");
+        }
+    }
+
+    private static byte[] deriveKey(byte[] secret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(TOKEN_TYPE.getBytes(StandardCharsets.UTF_8));
+            return digest.digest(secret);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
+    }
+}
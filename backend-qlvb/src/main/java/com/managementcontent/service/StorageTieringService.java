@@ -0,0 +1,97 @@
+package com.managementcontent.service;
+
+import com.managementcontent.config.StorageProperties;
+import com.managementcontent.service.storage.BlobStore;
+import com.managementcontent.service.storage.TieredBlobStore;
+import com.managementcontent.service.storage.TieredBlobStore.TieringResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the hot tier of local attachment storage limited to recent files by
+ * moving attachments that have not changed for
+ * {@code storage.tiering.cold-after-days} into pack files every night.
+ * Object storage manages its own tiers, so nothing happens there.
+ */
+@Service
+@Slf4j
+public class StorageTieringService {
+
+    private final Map<String, TieredBlobStore> stores = new LinkedHashMap<>();
+    private final StorageProperties properties;
+    private final Map<String, TieringResult> lastResults = new LinkedHashMap<>();
+    private volatile Instant lastRunAt;
+
+    public StorageTieringService(StorageProperties properties,
+            @Qualifier("attachmentBlobStore") BlobStore attachmentStore,
+            @Qualifier("internalDocumentBlobStore") BlobStore internalDocumentStore) {
+        this.properties = properties;
+        if (attachmentStore instanceof TieredBlobStore tiered) {
+            stores.put("attachments", tiered);
+        }
+        if (internalDocumentStore instanceof TieredBlobStore tiered) {
+            stores.put("internal", tiered);
+        }
+    }
+
+    @Scheduled(cron = "${storage.tiering.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        if (!stores.isEmpty()) {
+            runTiering();
+        }
+    }
+
+    /**
+     * Move cold files of every tiered store into packs
+     *
+     * @return Result per store
+     */
+    public synchronized Map<String, TieringResult> runTiering() {
+        Instant cutoff = Instant.now().minus(Duration.ofDays(properties.getTiering().getColdAfterDays()));
+        long packSize = properties.getTiering().getPackSize().toBytes();
+        Map<String, TieringResult> results = new LinkedHashMap<>();
+        stores.forEach((name, store) -> {
+            try {
+                TieringResult result = store.tierColdFiles(cutoff, packSize);
+                results.put(name, result);
+                log.info("Phân tầng lưu trữ {}: chuyển {} file ({} bytes) vào {} gói, bỏ qua {} file quá lớn",
+                        name, result.filesMoved(), result.bytesMoved(), result.packsWritten(), result.filesSkipped());
+            } catch (IOException | RuntimeException e) {
+                log.error("Phân tầng lưu trữ {} thất bại: {}", name, e.getMessage(), e);
+            }
+        });
+        lastResults.putAll(results);
+        lastRunAt = Instant.now();
+        return results;
+    }
+
+    /**
+     * Pack counts and sizes per store and the outcome of the last run
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", !stores.isEmpty());
+        status.put("coldAfterDays", properties.getTiering().getColdAfterDays());
+        status.put("lastRunAt", lastRunAt != null ? lastRunAt.toString() : null);
+        Map<String, Object> perStore = new LinkedHashMap<>();
+        stores.forEach((name, store) -> {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("root", store.getRoot().toString());
+            info.put("packs", store.getPackCount());
+            info.put("packedFiles", store.getPackedEntryCount());
+            info.put("packedBytes", store.getPackedBytes());
+            info.put("lastRun", lastResults.get(name));
+            perStore.put(name, info);
+        });
+        status.put("stores", perStore);
+        return status;
+    }
+}
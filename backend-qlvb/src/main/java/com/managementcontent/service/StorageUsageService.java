@@ -0,0 +1,236 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.Department;
+import com.managementcontent.model.Document;
+import com.managementcontent.model.DocumentAttachment;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.InternalDocumentAttachment;
+import com.managementcontent.model.StorageUsage;
+import com.managementcontent.model.StorageUsage.Scope;
+import com.managementcontent.model.User;
+import com.managementcontent.repository.StorageUsageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per-department, per-document-type and per-document storage totals.
+ * Attachment changes are summed per transaction and applied after commit
+ * with one upsert per affected total, so reading a total never aggregates
+ * the attachment tables. {@link #recompute()} rebuilds every total from the
+ * attachment tables and repairs any drift; the V7 migration does the same
+ * once, so installations that had attachments before the totals existed
+ * start from complete totals.
+ */
+@Service
+@Slf4j
+public class StorageUsageService {
+
+    /**
+     * Files and bytes of one total
+     */
+    public record UsageTotal(long fileCount, long totalBytes) {
+        static final UsageTotal EMPTY = new UsageTotal(0, 0);
+    }
+
+    private record UsageKey(Scope scope, String key) {
+    }
+
+    private final StorageUsageRepository storageUsageRepository;
+    private final TransactionTemplate newTransaction;
+
+    public StorageUsageService(StorageUsageRepository storageUsageRepository,
+            PlatformTransactionManager transactionManager) {
+        this.storageUsageRepository = storageUsageRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void attachmentAdded(DocumentAttachment attachment) {
+        record(attachment, 1, sizeOf(attachment.getFileSize()));
+    }
+
+    public void attachmentRemoved(DocumentAttachment attachment) {
+        record(attachment, -1, -sizeOf(attachment.getFileSize()));
+    }
+
+    public void attachmentResized(DocumentAttachment attachment, long byteDelta) {
+        record(attachment, 0, byteDelta);
+    }
+
+    public void attachmentAdded(InternalDocumentAttachment attachment) {
+        record(attachment, 1, sizeOf(attachment.getFileSize()));
+    }
+
+    public void attachmentRemoved(InternalDocumentAttachment attachment) {
+        record(attachment, -1, -sizeOf(attachment.getFileSize()));
+    }
+
+    public void attachmentResized(InternalDocumentAttachment attachment, long byteDelta) {
+        record(attachment, 0, byteDelta);
+    }
+
+    public UsageTotal getDepartmentUsage(Long departmentId) {
+        return get(Scope.DEPARTMENT, departmentId != null ? departmentId.toString() : StorageUsage.UNASSIGNED);
+    }
+
+    public UsageTotal getDocumentTypeUsage(String documentType) {
+        return get(Scope.DOCUMENT_TYPE, keyOf(documentType));
+    }
+
+    /**
+     * Total of an incoming or outgoing document, or empty if no attachment of
+     * it has been counted
+     */
+    public Optional<UsageTotal> findDocumentUsage(Long documentId) {
+        return storageUsageRepository.findByScopeAndScopeKey(Scope.DOCUMENT, documentId.toString())
+                .map(usage -> new UsageTotal(usage.getFileCount(), usage.getTotalBytes()));
+    }
+
+    public UsageTotal getInternalDocumentUsage(Long documentId) {
+        return get(Scope.INTERNAL_DOCUMENT, documentId.toString());
+    }
+
+    /**
+     * All totals of a scope, largest first
+     */
+    public List<StorageUsage> getUsage(Scope scope) {
+        return storageUsageRepository.findByScopeOrderByTotalBytesDesc(scope);
+    }
+
+    /**
+     * Rebuild every total from the attachment tables
+     */
+    @Transactional
+    public void recompute() {
+        storageUsageRepository.deleteAllRows();
+        storageUsageRepository.insertDocumentTotals();
+        storageUsageRepository.insertDepartmentTotals();
+        storageUsageRepository.insertDocumentTypeTotals();
+        log.info("Đã tính lại dung lượng lưu trữ theo phòng ban và loại văn bản");
+    }
+
+    private UsageTotal get(Scope scope, String key) {
+        return storageUsageRepository.findByScopeAndScopeKey(scope, key)
+                .map(usage -> new UsageTotal(usage.getFileCount(), usage.getTotalBytes()))
+                .orElse(UsageTotal.EMPTY);
+    }
+
+    private void record(DocumentAttachment attachment, long files, long bytes) {
+        Document document = attachment.getDocument();
+        Long departmentId = departmentOf(attachment.getUploadedBy());
+        if (departmentId == null && document != null) {
+            departmentId = departmentOf(document.getCreator());
+        }
+        String documentType = document != null && document.getDocumentType() != null
+                ? document.getDocumentType().getName()
+                : null;
+        Map<UsageKey, long[]> pending = pendingDeltas();
+        add(pending, new UsageKey(Scope.DEPARTMENT, departmentId != null ? departmentId.toString()
+                : StorageUsage.UNASSIGNED), files, bytes);
+        add(pending, new UsageKey(Scope.DOCUMENT_TYPE, keyOf(documentType)), files, bytes);
+        if (document != null && document.getId() != null) {
+            add(pending, new UsageKey(Scope.DOCUMENT, document.getId().toString()), files, bytes);
+        }
+        flushIfNoTransaction(pending);
+    }
+
+    private void record(InternalDocumentAttachment attachment, long files, long bytes) {
+        InternalDocument document = attachment.getDocument();
+        Long departmentId = null;
+        if (document != null && document.getDraftingDepartment() != null) {
+            departmentId = document.getDraftingDepartment().getId();
+        }
+        if (departmentId == null) {
+            departmentId = departmentOf(attachment.getUploadedBy());
+        }
+        Map<UsageKey, long[]> pending = pendingDeltas();
+        add(pending, new UsageKey(Scope.DEPARTMENT, departmentId != null ? departmentId.toString()
+                : StorageUsage.UNASSIGNED), files, bytes);
+        add(pending, new UsageKey(Scope.DOCUMENT_TYPE, keyOf(document != null ? document.getDocumentType() : null)),
+                files, bytes);
+        if (document != null && document.getId() != null) {
+            add(pending, new UsageKey(Scope.INTERNAL_DOCUMENT, document.getId().toString()), files, bytes);
+        }
+        flushIfNoTransaction(pending);
+    }
+
+    /**
+     * Deltas of the current transaction, applied together after it commits
+     */
+    @SuppressWarnings("unchecked")
+    private Map<UsageKey, long[]> pendingDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new LinkedHashMap<>();
+        }
+        Map<UsageKey, long[]> pending = (Map<UsageKey, long[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<UsageKey, long[]> created = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(StorageUsageService.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void flushIfNoTransaction(Map<UsageKey, long[]> pending) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(pending);
+        }
+    }
+
+    private void apply(Map<UsageKey, long[]> deltas) {
+        try {
+            newTransaction.executeWithoutResult(status -> deltas.forEach((key, delta) -> {
+                if (delta[0] != 0 || delta[1] != 0) {
+                    storageUsageRepository.add(key.scope().name(), key.key(), delta[0], delta[1]);
+                }
+            }));
+        } catch (RuntimeException e) {
+            // The next recompute repairs the totals
+            log.warn("Không thể cập nhật dung lượng lưu trữ: {}", e.getMessage());
+        }
+    }
+
+    private static void add(Map<UsageKey, long[]> pending, UsageKey key, long files, long bytes) {
+        long[] delta = pending.computeIfAbsent(key, k -> new long[2]);
+        delta[0] += files;
+        delta[1] += bytes;
+    }
+
+    private static Long departmentOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        Department department = user.getDepartment();
+        return department != null ? department.getId() : null;
+    }
+
+    private static String keyOf(String documentType) {
+        return documentType != null && !documentType.isBlank() ? documentType : StorageUsage.UNASSIGNED;
+    }
+
+    private static long sizeOf(Long fileSize) {
+        return fileSize != null ? fileSize : 0L;
+    }
+}
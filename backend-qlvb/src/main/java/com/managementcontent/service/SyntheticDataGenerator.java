@@ -0,0 +1,1021 @@
+package com.managementcontent.service;
+
+import com.managementcontent.config.IdSequenceInitializer;
+import com.managementcontent.config.SyntheticDataProperties;
+import com.managementcontent.model.DocumentReadStatus;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.InternalDocumentHistory;
+import com.managementcontent.model.enums.DepartmentType;
+import com.managementcontent.model.enums.DistributionType;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.model.enums.SecurityLevel;
+import com.managementcontent.model.enums.UserRole;
+import com.managementcontent.model.enums.UserStatus;
+import com.managementcontent.service.storage.BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a synthetic data set shaped like production into the database, for
+ * performance and load testing: a department tree, users with the usual role
+ * mix, incoming and outgoing documents with their workflow history,
+ * department assignments, attachments and read statuses, and internal
+ * documents with recipients, replies, attachments and history.
+ * <p>
+ * Every row is derived from the seed and its own index only, so the same
+ * settings always give the same rows however the work is split. Each table is
+ * cut into chunks that are streamed in parallel with COPY, one connection per
+ * chunk; tables are loaded parent first so foreign keys hold. New ids start
+ * after the ids already in each table, so the data can be added to an
+ * existing database. Attachments point at a small set of placeholder files.
+ * Started by {@link com.managementcontent.config.SyntheticDataRunner}.
+ */
+@Service
+@Slf4j
+public class SyntheticDataGenerator {
+
+    private static final DocumentProcessingStatus[] INCOMING_PATH = {
+            DocumentProcessingStatus.REGISTERED,
+            DocumentProcessingStatus.DISTRIBUTED,
+            DocumentProcessingStatus.DEPT_ASSIGNED,
+            DocumentProcessingStatus.SPECIALIST_PROCESSING,
+            DocumentProcessingStatus.SPECIALIST_SUBMITTED,
+            DocumentProcessingStatus.HEADER_DEPARTMENT_REVIEWING,
+            DocumentProcessingStatus.HEADER_DEPARTMENT_APPROVED,
+            DocumentProcessingStatus.COMPLETED,
+            DocumentProcessingStatus.ARCHIVED
+    };
+
+    private static final DocumentProcessingStatus[] OUTGOING_PATH = {
+            DocumentProcessingStatus.DRAFT,
+            DocumentProcessingStatus.REGISTERED,
+            DocumentProcessingStatus.DISTRIBUTED,
+            DocumentProcessingStatus.DEPT_ASSIGNED,
+            DocumentProcessingStatus.SPECIALIST_PROCESSING,
+            DocumentProcessingStatus.PENDING_APPROVAL,
+            DocumentProcessingStatus.LEADER_REVIEWING,
+            DocumentProcessingStatus.LEADER_APPROVED,
+            DocumentProcessingStatus.PUBLISHED,
+            DocumentProcessingStatus.ARCHIVED
+    };
+
+    /**
+     * Ids reserved per parent row, so a child id is a function of its parent
+     * index and every chunk knows its ids without coordination
+     */
+    private static final int HISTORY_SLOTS = 1 + OUTGOING_PATH.length;
+    private static final int DOCUMENT_DEPARTMENT_SLOTS = 2;
+    private static final int INTERNAL_HISTORY_SLOTS = 2;
+
+    /**
+     * Independent random streams, one per kind of decision
+     */
+    private static final long STREAM_DEPARTMENT = 1;
+    private static final long STREAM_USER = 2;
+    private static final long STREAM_DOCUMENT = 3;
+    private static final long STREAM_READ = 4;
+    private static final long STREAM_INTERNAL = 5;
+    private static final long STREAM_RECIPIENT = 6;
+
+    private static final int POSITION_HEAD = 0;
+    private static final int POSITION_DEPUTY = 1;
+    private static final int POSITION_CLERK = 2;
+    private static final int POSITION_ASSISTANT = 3;
+
+    private static final String[] SURNAMES = { "Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ",
+            "Võ", "Đặng", "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý" };
+    private static final String[] MIDDLE_NAMES = { "Văn", "Thị", "Hữu", "Đức", "Minh", "Ngọc", "Thanh", "Quang",
+            "Xuân", "Thu" };
+    private static final String[] GIVEN_NAMES = { "An", "Bình", "Cường", "Dũng", "Giang", "Hà", "Hải", "Hùng",
+            "Hương", "Khánh", "Lan", "Linh", "Long", "Mai", "Nam", "Phong", "Quân", "Sơn", "Thảo", "Trung",
+            "Tuấn", "Việt", "Yến" };
+    private static final String[] DEPARTMENT_FIELDS = { "Tham mưu", "Chính trị", "Hậu cần", "Kỹ thuật", "Tài chính",
+            "Tổ chức", "Kế hoạch", "Tác chiến", "Thông tin", "Khoa học", "Đào tạo", "Pháp chế", "Thanh tra",
+            "Hành chính" };
+    private static final String[] SUBJECTS = { "triển khai kế hoạch công tác", "báo cáo kết quả thực hiện nhiệm vụ",
+            "tổ chức hội nghị sơ kết", "kiểm tra công tác an toàn", "bảo đảm hậu cần kỹ thuật",
+            "tăng cường quản lý văn bản", "phối hợp huấn luyện", "rà soát định mức kinh phí",
+            "đề nghị cung cấp số liệu", "hướng dẫn thực hiện quy chế" };
+    private static final String[] ISSUING_AUTHORITIES = { "Bộ Quốc phòng", "Bộ Tổng Tham mưu", "Tổng cục Chính trị",
+            "Tổng cục Hậu cần", "Bộ Tài chính", "Bộ Nội vụ", "UBND thành phố Hà Nội", "Bộ Tư lệnh Thủ đô" };
+    private static final String[] INTERNAL_TYPES = { "Thông báo", "Công văn", "Kế hoạch", "Báo cáo", "Tờ trình",
+            "Giấy mời" };
+    private static final InternalDocument.Priority[] PRIORITIES = InternalDocument.Priority.values();
+
+    /**
+     * A placeholder file, stored under the same key in both attachment stores
+     * and shared by many attachment rows
+     */
+    private record Placeholder(String key, long size, String checksum) {
+    }
+
+    /**
+     * Workflow of one incoming or outgoing document: its path, how far along
+     * it is, and when it reached each step
+     */
+    private record DocumentPlan(long id, boolean incoming, int department, int specialist, int creator,
+            DocumentProcessingStatus[] path, int depth, LocalDateTime[] stepTimes) {
+
+        LocalDateTime created() {
+            return stepTimes[0];
+        }
+
+        LocalDateTime changed() {
+            return stepTimes[depth];
+        }
+
+        /**
+         * Whether the document got at least to a status
+         */
+        boolean reached(DocumentProcessingStatus status) {
+            for (int step = 0; step <= depth; step++) {
+                if (path[step] == status) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int step(DocumentProcessingStatus status) {
+            for (int step = 0; step < path.length; step++) {
+                if (path[step] == status) {
+                    return step;
+                }
+            }
+            throw new IllegalArgumentException(status.name());
+        }
+    }
+
+    /**
+     * Sender, time and recipient departments of one internal document
+     */
+    private record InternalPlan(long id, int department, int sender, LocalDateTime created, int[] recipients,
+            boolean reply) {
+    }
+
+    /**
+     * Writes the rows derived from one index
+     */
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(long index, CopyBuffer out) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final SyntheticDataProperties properties;
+    private final BlobStore attachmentBlobStore;
+    private final BlobStore internalDocumentBlobStore;
+    private final IdSequenceInitializer idSequenceInitializer;
+    private final WorkInboxService workInboxService;
+    private final StorageUsageService storageUsageService;
+
+    public SyntheticDataGenerator(DataSource dataSource, JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+            SyntheticDataProperties properties,
+            @Qualifier("attachmentBlobStore") BlobStore attachmentBlobStore,
+            @Qualifier("internalDocumentBlobStore") BlobStore internalDocumentBlobStore,
+            IdSequenceInitializer idSequenceInitializer, WorkInboxService workInboxService,
+            StorageUsageService storageUsageService) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+        this.attachmentBlobStore = attachmentBlobStore;
+        this.internalDocumentBlobStore = internalDocumentBlobStore;
+        this.idSequenceInitializer = idSequenceInitializer;
+        this.workInboxService = workInboxService;
+        this.storageUsageService = storageUsageService;
+    }
+
+    /**
+     * Load the data set described by the properties
+     *
+     * @return Rows loaded per table
+     */
+    public Map<String, Long> generate() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getParallelism()));
+        try {
+            return new Run(executor).execute();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * State of one generation: sizes, id bases and lookups read before loading
+     */
+    private final class Run {
+
+        private final ExecutorService executor;
+        private final Map<String, Long> rowCounts = new LinkedHashMap<>();
+
+        private final long seed = properties.getSeed();
+        private final int departments = Math.max(3, properties.scaled(properties.getDepartments()));
+        private final int usersPerDepartment = Math.max(4, properties.getUsersPerDepartment());
+        private final int topDepartments = Math.max(1, (departments - 1) / 20);
+        private final long incomingDocuments = properties.scaled(properties.getIncomingDocuments());
+        private final long documents = incomingDocuments + properties.scaled(properties.getOutgoingDocuments());
+        private final long internalDocuments = properties.scaled(properties.getInternalDocuments());
+        private final int readers = Math.min(properties.getReadersPerDocument(), usersPerDepartment);
+        private final int recipients = Math.min(properties.getRecipientsPerInternalDocument(), departments - 2);
+
+        private final LocalDateTime end;
+        private final LocalDateTime start;
+        private final long spanSeconds;
+
+        private long departmentBase;
+        private long userBase;
+        private long nodeBase;
+        private long documentDepartmentBase;
+        private long historyBase;
+        private long attachmentBase;
+        private long readStatusBase;
+        private long internalBase;
+        private long recipientBase;
+        private long internalAttachmentBase;
+        private long internalHistoryBase;
+
+        private final Map<String, Long> roleIds = new HashMap<>();
+        private long[] documentTypeIds;
+        private String passwordHash;
+        private Placeholder[] placeholders;
+
+        Run(ExecutorService executor) {
+            this.executor = executor;
+            LocalDate endDate = properties.getEndDate() != null ? properties.getEndDate() : LocalDate.now();
+            end = endDate.atTime(18, 0);
+            start = end.minusMonths(Math.max(1, properties.getMonths()));
+            spanSeconds = ChronoUnit.SECONDS.between(start, end);
+        }
+
+        Map<String, Long> execute() throws IOException {
+            prepare();
+            log.info("Bắt đầu sinh dữ liệu mẫu: {} phòng ban, {} người dùng, {} văn bản đến/đi, {} văn bản nội bộ "
+                    + "(seed {}, {} luồng)", departments, (long) departments * usersPerDepartment, documents,
+                    internalDocuments, seed, properties.getParallelism());
+            long started = System.nanoTime();
+
+            load("department", "id, name, abbreviation, email, code_department, type_code, parent_department_id",
+                    0, 1 + topDepartments, this::writeDepartment);
+            load("department", "id, name, abbreviation, email, code_department, type_code, parent_department_id",
+                    1 + topDepartments, departments, this::writeDepartment);
+            load("users", "id, name, pass, full_name, mail, phone, status, created, department_id, "
+                    + "is_commander_of_unit", 0, (long) departments * usersPerDepartment, this::writeUser);
+            load("users_roles", "uid, rid", 0, (long) departments * usersPerDepartment, this::writeUserRole);
+
+            load("node", "id, type, language, title, uid, status, created, changed, attachment_filename, "
+                    + "document_number, reference_number, signing_date, process_deadline, issuing_agency, "
+                    + "download_count, document_type_id, user_id, is_public", 0, documents, this::writeNode);
+            load("incoming_document", "id, issuing_authority, urgency_level, signing_date, sending_department_text, "
+                    + "security_level, summary, received_date, receipt_number, processing_officer_id",
+                    0, documents, this::writeIncoming);
+            load("outgoing_document", "id, reference_number, signer_id, signing_date, summary, is_internal, "
+                    + "drafting_department_id, security_level, document_signer_id, is_secure_transmission, "
+                    + "processing_deadline, issuing_agency, distribution_type, number_of_copies, number_of_pages, "
+                    + "no_paper_copy", 0, documents, this::writeOutgoing);
+            load("document_department", "id, document_id, department_id, is_primary, assigned_date, due_date, "
+                    + "assigned_by", 0, documents, this::writeDocumentDepartments);
+            load("document_history", "id, document_id, action, previous_status, new_status, comments, "
+                    + "primary_department_id, assigned_to_id, performed_by_id, \"timestamp\"",
+                    0, documents, this::writeHistory);
+            load("document_attachments", "id, document_id, original_filename, stored_filename, file_path, "
+                    + "content_type, file_size, checksum, uploaded_date, uploaded_by", 0, documents,
+                    this::writeAttachment);
+            load("document_read_status", "id, document_id, document_type, user_id, is_read, read_at, created_at, "
+                    + "updated_at", 0, documents, this::writeReadStatuses);
+
+            // Replies reference an earlier original, so originals are loaded first
+            String internalColumns = "id, document_number, number_receive, title, summary, document_type, "
+                    + "signing_date, signer, urgency_level, status, sender_id, created_at, updated_at, "
+                    + "drafting_department_id, security_level, document_signer_id, is_secure_transmission, "
+                    + "processing_deadline, issuing_agency, distribution_type, number_of_copies, number_of_pages, "
+                    + "no_paper_copy, is_publicly_available, reply_to_id";
+            load("internal_document", internalColumns, 0, internalDocuments, (i, out) -> writeInternal(i, out, false));
+            load("internal_document", internalColumns, 0, internalDocuments, (i, out) -> writeInternal(i, out, true));
+            load("internal_document_recipient", "id, document_id, department_id, user_id, is_read, read_at, "
+                    + "received_at", 0, internalDocuments, this::writeRecipients);
+            load("document_read_status", "id, document_id, document_type, user_id, is_read, read_at, created_at, "
+                    + "updated_at", 0, internalDocuments, this::writeInternalReadStatuses);
+            load("internal_document_attachment", "id, document_id, filename, file_path, content_type, file_size, "
+                    + "checksum, uploaded_at, uploaded_by", 0, internalDocuments, this::writeInternalAttachment);
+            load("internal_document_history", "id, document_id, action, details, performed_by, performed_at",
+                    0, internalDocuments, this::writeInternalHistory);
+
+            finish();
+            log.info("Đã sinh {} dòng dữ liệu mẫu trong {} giây",
+                    rowCounts.values().stream().mapToLong(Long::longValue).sum(),
+                    (System.nanoTime() - started) / 1_000_000_000);
+            return rowCounts;
+        }
+
+        private void prepare() throws IOException {
+            departmentBase = maxId("department");
+            userBase = maxId("users");
+            nodeBase = maxId("node");
+            documentDepartmentBase = maxId("document_department");
+            historyBase = maxId("document_history");
+            attachmentBase = maxId("document_attachments");
+            readStatusBase = maxId("document_read_status");
+            internalBase = maxId("internal_document");
+            recipientBase = maxId("internal_document_recipient");
+            internalAttachmentBase = maxId("internal_document_attachment");
+            internalHistoryBase = maxId("internal_document_history");
+
+            jdbcTemplate.query("SELECT name, rid FROM roles", rs -> {
+                roleIds.put(rs.getString(1), rs.getLong(2));
+            });
+            for (String code : List.of(UserRole.CUC_TRUONG.getCode(), UserRole.CUC_PHO.getCode(),
+                    UserRole.TRUONG_PHONG.getCode(), UserRole.PHO_PHONG.getCode(), UserRole.VAN_THU.getCode(),
+                    UserRole.TRO_LY.getCode(), UserRole.NHAN_VIEN.getCode())) {
+                if (!roleIds.containsKey(code)) {
+                    throw new IllegalStateException("Thiếu vai trò " + code + " trong bảng roles");
+                }
+            }
+            documentTypeIds = jdbcTemplate.queryForList("SELECT id FROM document_types ORDER BY id", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+            passwordHash = passwordEncoder.encode(properties.getPassword());
+
+            int files = Math.max(1, properties.getPlaceholderFiles());
+            placeholders = new Placeholder[files];
+            for (int n = 0; n < files; n++) {
+                byte[] content = placeholderPdf(n);
+                String checksum = sha256(content);
+                String key = "synthetic/placeholder-" + n + ".pdf";
+                attachmentBlobStore.put(key, new ByteArrayInputStream(content), content.length, "application/pdf");
+                internalDocumentBlobStore.put(key, new ByteArrayInputStream(content), content.length,
+                        "application/pdf");
+                placeholders[n] = new Placeholder(key, content.length, checksum);
+            }
+        }
+
+        /**
+         * Move the id generators past the loaded rows and rebuild the derived
+         * tables the services would have maintained on the way
+         */
+        private void finish() {
+            for (String table : List.of("department", "users", "document_department", "internal_document",
+                    "internal_document_attachment")) {
+                jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), "
+                        + "(SELECT MAX(id) FROM " + table + "))", Long.class, table);
+            }
+            idSequenceInitializer.alignSequences();
+            workInboxService.rebuild();
+            storageUsageService.recompute();
+            jdbcTemplate.execute("ANALYZE");
+        }
+
+        private long maxId(String table) {
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            return max != null ? max : 0;
+        }
+
+        // -- Departments and users ---------------------------------------------
+
+        private long departmentId(int department) {
+            return departmentBase + 1 + department;
+        }
+
+        private int userIndex(int department, int position) {
+            return department * usersPerDepartment + position;
+        }
+
+        private long userId(int user) {
+            return userBase + 1 + user;
+        }
+
+        private int parentOf(int department) {
+            if (department == 0) {
+                return -1;
+            }
+            if (department <= topDepartments) {
+                return 0;
+            }
+            return 1 + random(STREAM_DEPARTMENT, department).nextInt(topDepartments);
+        }
+
+        private void writeDepartment(long index, CopyBuffer out) throws SQLException {
+            int department = (int) index;
+            long id = departmentId(department);
+            String name;
+            DepartmentType type;
+            if (department == 0) {
+                name = "Cục Tổng hợp";
+                type = DepartmentType.LEADERSHIP;
+            } else if (department <= topDepartments) {
+                name = "Phòng " + DEPARTMENT_FIELDS[(department - 1) % DEPARTMENT_FIELDS.length] + " " + department;
+                type = department % 3 == 0 ? DepartmentType.SUPPORT
+                        : department % 3 == 1 ? DepartmentType.PROFESSIONAL : DepartmentType.ADMINISTRATIVE;
+            } else {
+                name = "Ban " + DEPARTMENT_FIELDS[department % DEPARTMENT_FIELDS.length] + " " + department;
+                type = DepartmentType.SUBSIDIARY;
+            }
+            int parent = parentOf(department);
+            out.add(id).add(name).add("SD" + id).add("phongban" + id + "@synthetic.local").add("SD-" + id)
+                    .add(type.getCode()).add(parent < 0 ? null : departmentId(parent)).endRow();
+        }
+
+        private String roleOf(int user) {
+            int department = user / usersPerDepartment;
+            int position = user % usersPerDepartment;
+            return switch (position) {
+                case POSITION_HEAD -> department == 0 ? UserRole.CUC_TRUONG.getCode() : UserRole.TRUONG_PHONG.getCode();
+                case POSITION_DEPUTY -> department == 0 ? UserRole.CUC_PHO.getCode() : UserRole.PHO_PHONG.getCode();
+                case POSITION_CLERK -> UserRole.VAN_THU.getCode();
+                case POSITION_ASSISTANT -> UserRole.TRO_LY.getCode();
+                default -> UserRole.NHAN_VIEN.getCode();
+            };
+        }
+
+        private String fullName(int user) {
+            SplittableRandom random = random(STREAM_USER, user);
+            return SURNAMES[random.nextInt(SURNAMES.length)] + " " + MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)]
+                    + " " + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+        }
+
+        private void writeUser(long index, CopyBuffer out) throws SQLException {
+            int user = (int) index;
+            long id = userId(user);
+            SplittableRandom random = random(STREAM_USER, user);
+            out.add(id).add("sd" + id).add(passwordHash).add(fullName(user)).add("sd" + id + "@synthetic.local")
+                    .add("09" + String.format("%08d", random.nextInt(100_000_000)))
+                    .add(UserStatus.ACTIVE.getValue())
+                    .add(start.minusDays(random.nextInt(365)))
+                    .add(departmentId(user / usersPerDepartment))
+                    .add(user % usersPerDepartment == POSITION_HEAD)
+                    .endRow();
+        }
+
+        private void writeUserRole(long index, CopyBuffer out) throws SQLException {
+            int user = (int) index;
+            out.add(userId(user)).add(roleIds.get(roleOf(user))).endRow();
+        }
+
+        // -- Incoming and outgoing documents -----------------------------------
+
+        /**
+         * Incoming documents are spread evenly among all documents, so both
+         * kinds cover the whole time range
+         */
+        private boolean isIncoming(long k) {
+            return (k + 1) * incomingDocuments / documents > k * incomingDocuments / documents;
+        }
+
+        private LocalDateTime createdAt(long index, long count, SplittableRandom random) {
+            return start.plusSeconds((long) (spanSeconds * (index + random.nextDouble()) / count));
+        }
+
+        private DocumentPlan document(long k) {
+            SplittableRandom random = random(STREAM_DOCUMENT, k);
+            boolean incoming = isIncoming(k);
+            DocumentProcessingStatus[] path = incoming ? INCOMING_PATH : OUTGOING_PATH;
+            int department = 1 + random.nextInt(departments - 1);
+            int specialist = userIndex(department, POSITION_ASSISTANT
+                    + random.nextInt(usersPerDepartment - POSITION_ASSISTANT));
+
+            // Older documents are further along; a few stay stuck at any step
+            double progress = random.nextDouble() < 0.05
+                    ? random.nextDouble()
+                    : Math.min(1.0, (1.0 - (double) k / documents) * 3 + random.nextDouble() * 0.5);
+            int depth = (int) Math.floor(progress * (path.length - 1));
+
+            LocalDateTime[] stepTimes = new LocalDateTime[path.length];
+            stepTimes[0] = createdAt(k, documents, random);
+            for (int step = 1; step <= depth; step++) {
+                LocalDateTime time = stepTimes[step - 1].plusMinutes(30 + random.nextInt(48 * 60));
+                stepTimes[step] = time.isAfter(end) ? end : time;
+            }
+            int creator = incoming ? userIndex(0, POSITION_CLERK) : specialist;
+            return new DocumentPlan(nodeBase + 1 + k, incoming, department, specialist, creator, path, depth,
+                    stepTimes);
+        }
+
+        private String title(long k, SplittableRandom random) {
+            return "Về việc " + SUBJECTS[random.nextInt(SUBJECTS.length)] + " năm "
+                    + (start.getYear() + random.nextInt(3)) + " (số " + (k + 1) + ")";
+        }
+
+        private void writeNode(long k, CopyBuffer out) throws SQLException {
+            DocumentPlan plan = document(k);
+            SplittableRandom random = random(STREAM_DOCUMENT + 100, k);
+            out.add(plan.id())
+                    .add(plan.incoming() ? "incoming_document" : "outgoing_document")
+                    .add("vi")
+                    .add(title(k, random))
+                    .add(userId(plan.creator()))
+                    .add(plan.path()[plan.depth()].ordinal())
+                    .add(plan.created())
+                    .add(plan.changed())
+                    .add(null)
+                    .add(documentNumber(plan))
+                    .add("SD-" + plan.id())
+                    .add(plan.created().minusDays(random.nextInt(5)))
+                    .add(plan.created().plusDays(7 + random.nextInt(24)))
+                    .add(plan.incoming() ? ISSUING_AUTHORITIES[random.nextInt(ISSUING_AUTHORITIES.length)]
+                            : "Cục Tổng hợp")
+                    .add(0)
+                    .add(documentTypeIds.length == 0 ? null : documentTypeIds[(int) (k % documentTypeIds.length)])
+                    .add(plan.reached(DocumentProcessingStatus.DEPT_ASSIGNED) ? userId(plan.specialist()) : null)
+                    .add(false)
+                    .endRow();
+        }
+
+        private String documentNumber(DocumentPlan plan) {
+            return plan.id() + (plan.incoming() ? "/SD-CVD" : "/SD-CVDI");
+        }
+
+        private void writeIncoming(long k, CopyBuffer out) throws SQLException {
+            if (!isIncoming(k)) {
+                return;
+            }
+            DocumentPlan plan = document(k);
+            SplittableRandom random = random(STREAM_DOCUMENT + 200, k);
+            String authority = ISSUING_AUTHORITIES[random.nextInt(ISSUING_AUTHORITIES.length)];
+            out.add(plan.id())
+                    .add(authority)
+                    .add(PRIORITIES[urgency(random)].name())
+                    .add(plan.created().minusDays(random.nextInt(5)))
+                    .add(authority)
+                    .add(securityLevel(random).name())
+                    .add("Trích yếu công văn đến " + documentNumber(plan))
+                    .add(plan.created())
+                    .add(String.valueOf(k + 1))
+                    .add(plan.reached(DocumentProcessingStatus.SPECIALIST_PROCESSING)
+                            ? userId(plan.specialist()) : null)
+                    .endRow();
+        }
+
+        private void writeOutgoing(long k, CopyBuffer out) throws SQLException {
+            if (isIncoming(k)) {
+                return;
+            }
+            DocumentPlan plan = document(k);
+            SplittableRandom random = random(STREAM_DOCUMENT + 200, k);
+            long signer = userId(userIndex(0, random.nextBoolean() ? POSITION_HEAD : POSITION_DEPUTY));
+            out.add(plan.id())
+                    .add("SD-" + plan.id())
+                    .add(signer)
+                    .add(plan.reached(DocumentProcessingStatus.LEADER_APPROVED) ? plan.changed() : null)
+                    .add("Trích yếu công văn đi " + documentNumber(plan))
+                    .add(false)
+                    .add(departmentId(plan.department()))
+                    .add(securityLevel(random).name())
+                    .add(signer)
+                    .add(false)
+                    .add(plan.created().plusDays(7 + random.nextInt(24)))
+                    .add("Cục Tổng hợp")
+                    .add(DistributionType.REGULAR.ordinal())
+                    .add(1 + random.nextInt(5))
+                    .add(1 + random.nextInt(20))
+                    .add(false)
+                    .endRow();
+        }
+
+        private void writeDocumentDepartments(long k, CopyBuffer out) throws SQLException {
+            DocumentPlan plan = document(k);
+            if (!plan.reached(DocumentProcessingStatus.DISTRIBUTED)) {
+                return;
+            }
+            LocalDateTime assigned = plan.stepTimes()[plan.step(DocumentProcessingStatus.DISTRIBUTED)];
+            long assignedBy = userId(userIndex(0, POSITION_CLERK));
+            long id = documentDepartmentBase + 1 + k * DOCUMENT_DEPARTMENT_SLOTS;
+            out.add(id).add(plan.id()).add(departmentId(plan.department())).add(true).add(assigned)
+                    .add(assigned.plusDays(10)).add(assignedBy).endRow();
+
+            SplittableRandom random = random(STREAM_DOCUMENT + 300, k);
+            if (random.nextDouble() < 0.3) {
+                int collaborator = 1 + random.nextInt(departments - 1);
+                if (collaborator != plan.department()) {
+                    out.add(id + 1).add(plan.id()).add(departmentId(collaborator)).add(false).add(assigned)
+                            .add(assigned.plusDays(10)).add(assignedBy).endRow();
+                }
+            }
+        }
+
+        /**
+         * User who moves a document into a status
+         */
+        private int actorFor(DocumentPlan plan, DocumentProcessingStatus status) {
+            return switch (status) {
+                case DEPT_ASSIGNED, HEADER_DEPARTMENT_REVIEWING, HEADER_DEPARTMENT_APPROVED ->
+                        userIndex(plan.department(), POSITION_HEAD);
+                case SPECIALIST_PROCESSING, SPECIALIST_SUBMITTED, PENDING_APPROVAL -> plan.specialist();
+                case LEADER_REVIEWING, LEADER_APPROVED -> userIndex(0, POSITION_HEAD);
+                default -> userIndex(0, POSITION_CLERK);
+            };
+        }
+
+        private void writeHistory(long k, CopyBuffer out) throws SQLException {
+            DocumentPlan plan = document(k);
+            long slot = historyBase + 1 + k * HISTORY_SLOTS;
+            for (int step = 1; step <= plan.depth(); step++) {
+                DocumentProcessingStatus previous = plan.path()[step - 1];
+                DocumentProcessingStatus status = plan.path()[step];
+                out.add(slot + step).add(plan.id()).add("STATUS_CHANGE").add(previous.name())
+                        .add(String.valueOf(status.ordinal())).add(null).add(null).add(null)
+                        .add(userId(actorFor(plan, status))).add(plan.stepTimes()[step]).endRow();
+            }
+            if (plan.reached(DocumentProcessingStatus.DEPT_ASSIGNED)) {
+                int step = plan.step(DocumentProcessingStatus.DEPT_ASSIGNED);
+                out.add(slot).add(plan.id()).add("ASSIGNMENT").add(DocumentProcessingStatus.DEPT_ASSIGNED.name())
+                        .add(String.valueOf(DocumentProcessingStatus.HEADER_DEPARTMENT_COMMENTED.ordinal()))
+                        .add("Giao chuyên viên xử lý").add(departmentId(plan.department()))
+                        .add(userId(plan.specialist())).add(userId(userIndex(plan.department(), POSITION_HEAD)))
+                        .add(plan.stepTimes()[step].plusMinutes(5)).endRow();
+            }
+        }
+
+        private void writeAttachment(long k, CopyBuffer out) throws SQLException {
+            SplittableRandom random = random(STREAM_DOCUMENT + 400, k);
+            if (random.nextDouble() >= properties.getAttachmentRatio()) {
+                return;
+            }
+            DocumentPlan plan = document(k);
+            Placeholder file = placeholders[random.nextInt(placeholders.length)];
+            String filename = "van-ban-" + (k + 1) + ".pdf";
+            out.add(attachmentBase + 1 + k).add(plan.id()).add(filename).add(filename).add(file.key())
+                    .add("application/pdf").add(file.size()).add(file.checksum()).add(plan.created())
+                    .add(userId(plan.creator())).endRow();
+        }
+
+        private void writeReadStatuses(long k, CopyBuffer out) throws SQLException {
+            DocumentPlan plan = document(k);
+            SplittableRandom random = random(STREAM_READ, k);
+            String type = (plan.incoming() ? DocumentReadStatus.DocumentType.INCOMING_EXTERNAL
+                    : DocumentReadStatus.DocumentType.OUTGOING_EXTERNAL).name();
+            // Older documents were read by more of their readers
+            double readShare = 0.5 + 0.5 * (1.0 - (double) k / documents);
+            for (int reader = 0; reader < readers; reader++) {
+                boolean read = random.nextDouble() < readShare;
+                LocalDateTime readAt = read ? min(plan.created().plusMinutes(random.nextInt(72 * 60)), end) : null;
+                out.add(readStatusBase + 1 + k * readers + reader).add(plan.id()).add(type)
+                        .add(userId(userIndex(plan.department(), reader))).add(read).add(readAt)
+                        .add(plan.created()).add(read ? readAt : plan.created()).endRow();
+            }
+        }
+
+        // -- Internal documents ------------------------------------------------
+
+        private InternalPlan internal(long i) {
+            SplittableRandom random = random(STREAM_INTERNAL, i);
+            int department = random.nextInt(departments);
+            int sender = userIndex(department, random.nextDouble() < 0.6 ? POSITION_CLERK
+                    : POSITION_ASSISTANT + random.nextInt(usersPerDepartment - POSITION_ASSISTANT));
+            LocalDateTime created = createdAt(i, internalDocuments, random);
+            int[] targets = new int[recipients];
+            int chosen = 0;
+            while (chosen < recipients) {
+                int candidate = random.nextInt(departments);
+                boolean duplicate = candidate == department;
+                for (int n = 0; n < chosen && !duplicate; n++) {
+                    duplicate = targets[n] == candidate;
+                }
+                if (!duplicate) {
+                    targets[chosen++] = candidate;
+                }
+            }
+            boolean reply = i > 0 && random.nextDouble() < properties.getReplyRatio();
+            return new InternalPlan(internalBase + 1 + i, department, sender, created, targets, reply);
+        }
+
+        /**
+         * Earlier document a reply answers; never itself a reply
+         */
+        private long repliedTo(long i) {
+            SplittableRandom random = random(STREAM_INTERNAL + 100, i);
+            long target = i - 1 - random.nextInt((int) Math.min(i, 200));
+            while (target > 0 && internal(target).reply()) {
+                target--;
+            }
+            return internalBase + 1 + target;
+        }
+
+        private void writeInternal(long i, CopyBuffer out, boolean replies) throws SQLException {
+            InternalPlan plan = internal(i);
+            if (plan.reply() != replies) {
+                return;
+            }
+            SplittableRandom random = random(STREAM_INTERNAL + 200, i);
+            long sender = userId(plan.sender());
+            long signer = userId(userIndex(plan.department(), POSITION_HEAD));
+            out.add(plan.id())
+                    .add(plan.id() + "/SD-NB")
+                    .add(i + 1)
+                    .add((plan.reply() ? "Phản hồi: " : "") + INTERNAL_TYPES[random.nextInt(INTERNAL_TYPES.length)]
+                            + " " + SUBJECTS[random.nextInt(SUBJECTS.length)] + " (số " + (i + 1) + ")")
+                    .add("Nội dung tóm tắt văn bản nội bộ số " + (i + 1))
+                    .add(INTERNAL_TYPES[random.nextInt(INTERNAL_TYPES.length)])
+                    .add(plan.created())
+                    .add(fullName(userIndex(plan.department(), POSITION_HEAD)))
+                    .add(PRIORITIES[urgency(random)].name())
+                    .add(DocumentProcessingStatus.DRAFT.name())
+                    .add(sender)
+                    .add(plan.created())
+                    .add(plan.created())
+                    .add(departmentId(plan.department()))
+                    .add(securityLevel(random).name())
+                    .add(signer)
+                    .add(false)
+                    .add(plan.created().plusDays(3 + random.nextInt(12)))
+                    .add("Cục Tổng hợp")
+                    .add(DistributionType.REGULAR.ordinal())
+                    .add(1 + random.nextInt(5))
+                    .add(1 + random.nextInt(10))
+                    .add(false)
+                    .add(false)
+                    .add(plan.reply() ? repliedTo(i) : null)
+                    .endRow();
+        }
+
+        /**
+         * Head of the recipient department, or the whole department for about
+         * one recipient in three
+         */
+        private Integer recipientUser(InternalPlan plan, int recipient, SplittableRandom random) {
+            return random.nextInt(3) == 0 ? null : userIndex(plan.recipients()[recipient], POSITION_HEAD);
+        }
+
+        private void writeRecipients(long i, CopyBuffer out) throws SQLException {
+            InternalPlan plan = internal(i);
+            SplittableRandom random = random(STREAM_RECIPIENT, i);
+            double readShare = 0.4 + 0.6 * (1.0 - (double) i / internalDocuments);
+            for (int r = 0; r < recipients; r++) {
+                Integer user = recipientUser(plan, r, random);
+                boolean read = random.nextDouble() < readShare;
+                out.add(recipientBase + 1 + i * recipients + r).add(plan.id())
+                        .add(departmentId(plan.recipients()[r])).add(user == null ? null : userId(user))
+                        .add(read).add(read ? readAt(plan, r) : null).add(plan.created()).endRow();
+            }
+        }
+
+        private LocalDateTime readAt(InternalPlan plan, int recipient) {
+            return min(plan.created().plusMinutes(15 + 97L * recipient % (48 * 60)), end);
+        }
+
+        /**
+         * Read statuses of the recipients that are users, in step with the
+         * recipient rows (same random stream)
+         */
+        private void writeInternalReadStatuses(long i, CopyBuffer out) throws SQLException {
+            InternalPlan plan = internal(i);
+            SplittableRandom random = random(STREAM_RECIPIENT, i);
+            double readShare = 0.4 + 0.6 * (1.0 - (double) i / internalDocuments);
+            long slot = readStatusBase + 1 + documents * readers + i * recipients;
+            String type = DocumentReadStatus.DocumentType.INCOMING_INTERNAL.name();
+            for (int r = 0; r < recipients; r++) {
+                Integer user = recipientUser(plan, r, random);
+                boolean read = random.nextDouble() < readShare;
+                if (user == null) {
+                    continue;
+                }
+                LocalDateTime readAt = read ? readAt(plan, r) : null;
+                out.add(slot + r).add(plan.id()).add(type).add(userId(user)).add(read).add(readAt)
+                        .add(plan.created()).add(read ? readAt : plan.created()).endRow();
+            }
+        }
+
+        private void writeInternalAttachment(long i, CopyBuffer out) throws SQLException {
+            SplittableRandom random = random(STREAM_INTERNAL + 300, i);
+            if (random.nextDouble() >= properties.getAttachmentRatio()) {
+                return;
+            }
+            InternalPlan plan = internal(i);
+            Placeholder file = placeholders[random.nextInt(placeholders.length)];
+            out.add(internalAttachmentBase + 1 + i).add(plan.id()).add("tai-lieu-" + (i + 1) + ".pdf")
+                    .add(file.key()).add("application/pdf").add(file.size()).add(file.checksum())
+                    .add(plan.created()).add(userId(plan.sender())).endRow();
+        }
+
+        private void writeInternalHistory(long i, CopyBuffer out) throws SQLException {
+            InternalPlan plan = internal(i);
+            long slot = internalHistoryBase + 1 + i * INTERNAL_HISTORY_SLOTS;
+            long sender = userId(plan.sender());
+            out.add(slot).add(plan.id()).add(InternalDocumentHistory.ACTION_CREATED).add("Tạo văn bản nội bộ")
+                    .add(sender).add(plan.created()).endRow();
+            out.add(slot + 1).add(plan.id()).add(InternalDocumentHistory.ACTION_SENT)
+                    .add("Gửi tới " + recipients + " đơn vị").add(sender).add(plan.created().plusMinutes(1))
+                    .endRow();
+        }
+
+        // -- Loading -----------------------------------------------------------
+
+        /**
+         * Load the rows of indexes [from, to) of a table, in parallel chunks
+         */
+        private void load(String table, String columns, long from, long to, RowWriter writer) {
+            long started = System.nanoTime();
+            int chunkSize = Math.max(1, properties.getChunkSize());
+            List<Future<Long>> chunks = new ArrayList<>();
+            for (long chunkStart = from; chunkStart < to; chunkStart += chunkSize) {
+                long first = chunkStart;
+                long last = Math.min(to, chunkStart + chunkSize);
+                chunks.add(executor.submit(() -> copy(table, columns, first, last, writer)));
+            }
+            long rows = 0;
+            try {
+                for (Future<Long> chunk : chunks) {
+                    rows += chunk.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunks.forEach(chunk -> chunk.cancel(true));
+                throw new IllegalStateException("Sinh dữ liệu mẫu bị gián đoạn", e);
+            } catch (ExecutionException e) {
+                chunks.forEach(chunk -> chunk.cancel(true));
+                throw new IllegalStateException("Không thể nạp dữ liệu mẫu vào bảng " + table, e.getCause());
+            }
+            rowCounts.merge(table, rows, Long::sum);
+            log.info("Đã nạp {} dòng vào bảng {} trong {} ms", rows, table,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+
+        private long copy(String table, String columns, long from, long to, RowWriter writer) throws SQLException {
+            try (Connection connection = dataSource.getConnection()) {
+                CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY " + table + " (" + columns + ") FROM STDIN");
+                try {
+                    CopyBuffer out = new CopyBuffer(copyIn);
+                    for (long index = from; index < to; index++) {
+                        writer.write(index, out);
+                    }
+                    out.flush();
+                    copyIn.endCopy();
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                    return out.rows;
+                } finally {
+                    if (copyIn.isActive()) {
+                        copyIn.cancelCopy();
+                    }
+                }
+            }
+        }
+
+        private SplittableRandom random(long stream, long index) {
+            return new SplittableRandom(mix(mix(seed ^ stream * 0x9E3779B97F4A7C15L) + index));
+        }
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Index into the priorities, most documents being ordinary
+     */
+    private static int urgency(SplittableRandom random) {
+        double value = random.nextDouble();
+        if (value < 0.6) {
+            return PRIORITIES.length - 1;
+        }
+        return random.nextInt(PRIORITIES.length - 1);
+    }
+
+    private static SecurityLevel securityLevel(SplittableRandom random) {
+        double value = random.nextDouble();
+        return value < 0.9 ? SecurityLevel.NORMAL : value < 0.98 ? SecurityLevel.CONFIDENTIAL : SecurityLevel.SECRET;
+    }
+
+    /**
+     * One-page PDF naming the placeholder, padded with comments so the
+     * placeholders range from 16 KB to 1 MB
+     */
+    static byte[] placeholderPdf(int n) {
+        StringBuilder stream = new StringBuilder("BT /F1 18 Tf 72 770 Td (Synthetic placeholder " + n + ") Tj ET\n");
+        int padding = (16 * 1024) << (n % 7);
+        while (stream.length() < padding) {
+            stream.append("% ").append("0123456789abcdef".repeat(4)).append('\n');
+        }
+        String[] objects = {
+                "<< /Type /Catalog /Pages 2 0 R >>",
+                "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] /Contents 4 0 R "
+                        + "/Resources << /Font << /F1 5 0 R >> >> >>",
+                "<< /Length " + stream.length() + " >>\nstream\n" + stream + "endstream",
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica >>"
+        };
+        StringBuilder pdf = new StringBuilder("%PDF-1.4\n");
+        long[] offsets = new long[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            offsets[i] = pdf.length();
+            pdf.append(i + 1).append(" 0 obj\n").append(objects[i]).append("\nendobj\n");
+        }
+        int xref = pdf.length();
+        pdf.append("xref\n0 ").append(objects.length + 1).append("\n0000000000 65535 f \n");
+        for (long offset : offsets) {
+            pdf.append(String.format("%010d 00000 n \n", offset));
+        }
+        pdf.append("trailer\n<< /Size ").append(objects.length + 1).append(" /Root 1 0 R >>\nstartxref\n")
+                .append(xref).append("\n%%EOF\n");
+        return pdf.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Rows of one COPY in text format, sent to the server in blocks
+     */
+    private static final class CopyBuffer {
+
+        private static final int FLUSH_SIZE = 64 * 1024;
+
+        private final CopyIn copyIn;
+        private final StringBuilder text = new StringBuilder(FLUSH_SIZE + 4096);
+        private boolean rowStart = true;
+        private long rows;
+
+        CopyBuffer(CopyIn copyIn) {
+            this.copyIn = copyIn;
+        }
+
+        CopyBuffer add(Object value) {
+            if (!rowStart) {
+                text.append('\t');
+            }
+            rowStart = false;
+            if (value == null) {
+                text.append("\\N");
+            } else if (value instanceof Boolean bool) {
+                text.append(bool ? 't' : 'f');
+            } else if (value instanceof String string) {
+                escape(string);
+            } else {
+                // Numbers, and timestamps in ISO 8601 which the server accepts as is
+                text.append(value);
+            }
+            return this;
+        }
+
+        void endRow() throws SQLException {
+            text.append('\n');
+            rowStart = true;
+            rows++;
+            if (text.length() >= FLUSH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (text.isEmpty()) {
+                return;
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            text.setLength(0);
+        }
+
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> text.append("\\\\");
+                    case '\t' -> text.append("\\t");
+                    case '\n' -> text.append("\\n");
+                    case '\r' -> text.append("\\r");
+                    default -> text.append(c);
+                }
+            }
+        }
+    }
+}
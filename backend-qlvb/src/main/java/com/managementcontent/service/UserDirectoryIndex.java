@@ -0,0 +1,298 @@
+package com.managementcontent.service;
+
+import com.managementcontent.dto.UserDTO;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.UserStatus;
+import com.managementcontent.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory typeahead index over users for the user pickers.
+ * Full name, username and department name are split into tokens that are
+ * lower-cased and stripped of Vietnamese diacritics, so "nguyen van a" and
+ * "Nguyễn Văn A" match the same users. Every query token must be a prefix of
+ * some token of the user. The index is built on startup and kept up to date
+ * by {@link com.managementcontent.events.UserIndexListener}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDirectoryIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{Alnum}]+");
+    private static final int MAX_LIMIT = 100;
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> tokens = new TreeMap<>();
+    private volatile boolean built;
+
+    /**
+     * Indexed projection of a user. Only what the pickers display is kept.
+     */
+    private record Entry(Long id, String username, String fullName, Long departmentId, String departmentName,
+            Integer status, Boolean isCommanderOfUnit, String sortKey, Set<String> nameTokens,
+            Set<String> allTokens) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Reload every user from the database and replace the index content
+     */
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<User> users = userRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            tokens.clear();
+            users.forEach(this::putLocked);
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Đã xây dựng chỉ mục tìm kiếm người dùng với {} người dùng", users.size());
+    }
+
+    /**
+     * Add or replace a user in the index
+     */
+    public void put(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(user.getId());
+            putLocked(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a user from the index
+     */
+    public void remove(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index the users of a department after it has been renamed
+     */
+    public void renameDepartment(Long departmentId, String departmentName) {
+        lock.writeLock().lock();
+        try {
+            List<Entry> affected = entries.values().stream()
+                    .filter(entry -> Objects.equals(entry.departmentId(), departmentId))
+                    .toList();
+            for (Entry entry : affected) {
+                removeLocked(entry.id());
+                addLocked(newEntry(entry.id(), entry.username(), entry.fullName(), departmentId, departmentName,
+                        entry.status(), entry.isCommanderOfUnit()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the best matching users for a typeahead query.
+     * Users whose name starts with the query rank first, then username matches,
+     * then department-only matches; ties are ordered by full name.
+     *
+     * @param query        Text typed by the user
+     * @param departmentId Optional department restriction
+     * @param activeOnly   Whether to skip users that are not active
+     * @param limit        Maximum number of results
+     * @return Lightweight user DTOs in rank order
+     */
+    public List<UserDTO> search(String query, Long departmentId, boolean activeOnly, int limit) {
+        if (!built) {
+            rebuild();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> queryTokens = tokenize(query);
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = queryTokens.isEmpty() ? entries.keySet() : candidatesFor(queryTokens);
+            String normalizedQuery = String.join(" ", queryTokens);
+
+            Comparator<Map.Entry<Integer, Entry>> best = Comparator.<Map.Entry<Integer, Entry>>comparingInt(
+                    Map.Entry::getKey).thenComparing(e -> e.getValue().sortKey());
+            // Bounded heap whose head is the worst of the current top-k
+            PriorityQueue<Map.Entry<Integer, Entry>> worst = new PriorityQueue<>(best.reversed());
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                if (entry == null
+                        || (departmentId != null && !departmentId.equals(entry.departmentId()))
+                        || (activeOnly && !Objects.equals(entry.status(), UserStatus.ACTIVE.getValue()))) {
+                    continue;
+                }
+                worst.offer(Map.entry(rank(entry, normalizedQuery, queryTokens), entry));
+                if (worst.size() > k) {
+                    worst.poll();
+                }
+            }
+
+            List<Entry> top = new ArrayList<>(worst.size());
+            while (!worst.isEmpty()) {
+                top.add(worst.poll().getValue());
+            }
+            Collections.reverse(top);
+            return top.stream().map(this::toDTO).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed users
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-case a string, strip diacritics and split it into tokens
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        folded = COMBINING_MARKS.matcher(folded).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATOR.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Intersect the posting sets of every query token, starting with the
+     * smallest so the intersection shrinks quickly
+     */
+    private Collection<Long> candidatesFor(List<String> queryTokens) {
+        List<Set<Long>> matches = new ArrayList<>(queryTokens.size());
+        for (String token : queryTokens) {
+            Set<Long> ids = new HashSet<>();
+            for (Set<Long> posting : tokens.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                ids.addAll(posting);
+            }
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            matches.add(ids);
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(matches.get(0));
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Lower is better
+     */
+    private int rank(Entry entry, String normalizedQuery, List<String> queryTokens) {
+        if (queryTokens.isEmpty()) {
+            return 3;
+        }
+        if (entry.sortKey().startsWith(normalizedQuery)) {
+            return 0;
+        }
+        boolean allInName = queryTokens.stream()
+                .allMatch(q -> entry.nameTokens().stream().anyMatch(t -> t.startsWith(q)));
+        if (allInName) {
+            return 1;
+        }
+        return entry.username() != null && entry.username().toLowerCase(Locale.ROOT).startsWith(queryTokens.get(0))
+                ? 2
+                : 3;
+    }
+
+    private void putLocked(User user) {
+        addLocked(newEntry(user.getId(), user.getName(), user.getFullName(),
+                user.getDepartment() != null ? user.getDepartment().getId() : null,
+                user.getDepartment() != null ? user.getDepartment().getName() : null,
+                user.getStatus(), user.getIsCommanderOfUnit()));
+    }
+
+    private Entry newEntry(Long id, String username, String fullName, Long departmentId, String departmentName,
+            Integer status, Boolean isCommanderOfUnit) {
+        Set<String> nameTokens = new LinkedHashSet<>(tokenize(fullName));
+        Set<String> allTokens = new HashSet<>(nameTokens);
+        allTokens.addAll(tokenize(username));
+        allTokens.addAll(tokenize(departmentName));
+        String sortKey = String.join(" ", nameTokens.isEmpty() ? tokenize(username) : new ArrayList<>(nameTokens));
+        return new Entry(id, username, fullName, departmentId, departmentName, status, isCommanderOfUnit,
+                sortKey, nameTokens, allTokens);
+    }
+
+    private void addLocked(Entry entry) {
+        entries.put(entry.id(), entry);
+        for (String token : entry.allTokens()) {
+            tokens.computeIfAbsent(token, t -> new HashSet<>()).add(entry.id());
+        }
+    }
+
+    private void removeLocked(Long userId) {
+        Entry previous = entries.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.allTokens()) {
+            Set<Long> posting = tokens.get(token);
+            if (posting != null) {
+                posting.remove(userId);
+                if (posting.isEmpty()) {
+                    tokens.remove(token);
+                }
+            }
+        }
+    }
+
+    private UserDTO toDTO(Entry entry) {
+        UserDTO dto = new UserDTO();
+        dto.setId(entry.id());
+        dto.setUsername(entry.username());
+        dto.setFullName(entry.fullName());
+        dto.setDepartmentId(entry.departmentId());
+        dto.setDepartmentName(entry.departmentName());
+        dto.setStatus(entry.status());
+        dto.setIsCommanderOfUnit(entry.isCommanderOfUnit());
+        return dto;
+    }
+}
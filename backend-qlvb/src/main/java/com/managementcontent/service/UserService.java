@@ -11,8 +11,12 @@ import com.managementcontent.model.enums.UserStatus;
 import com.managementcontent.repository.RoleRepository;
 import com.managementcontent.repository.UserRepository;
 import com.managementcontent.repository.DepartmentRepository;
+import com.managementcontent.repository.UserSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +34,7 @@ public class UserService {
     private final DepartmentRepository departmentRepository;
     private final PasswordEncoder passwordEncoder;
     private final DocumentAccessControlService documentAccessControlService;
+    private final UserDirectoryIndex userDirectoryIndex;
 
     public List<User> findAll() {
         return userRepository.findAll();
@@ -209,7 +214,6 @@ public class UserService {
                 user.setRoles(roles);
             }
         }
-        System.out.println(user);
         User savedUser = userRepository.save(user);
         return convertToDTO(savedUser);
     }
@@ -384,29 +388,11 @@ public class UserService {
      * @return List of filtered users as DTOs
      */
     public List<UserDTO> getUsersByFilter(UserRole role, UserStatus status) {
-        List<User> users = userRepository.findAll();
-
-        return users.stream()
-                .filter(user -> {
-                    // Filter by role if specified
-                    if (role != null) {
-                        boolean hasRole = user.getRoles().stream()
-                                .map(Role::getName)
-                                .anyMatch(roleName -> roleName.equals(role.getCode()));
-                        if (!hasRole) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by status if specified
-                    if (status != null) {
-                        UserStatus userStatus = user.getUserStatus();
-                        return userStatus != null && userStatus.equals(status);
-                    }
-
-                    // No filters or passed all filters
-                    return true;
-                })
+        Specification<User> spec = Specification
+                .where(UserSpecifications.hasRoleName(role != null ? role.getCode() : null))
+                .and(UserSpecifications.hasStatus(status != null ? status.getValue() : null));
+
+        return userRepository.findAll(spec).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -624,70 +610,56 @@ public class UserService {
      * @return List of filtered users as DTOs
      */
     public List<UserDTO> getFilteredUsers(String roleId, Integer status, String keyword, Long departmentId) {
-        List<User> users = userRepository.findAll();
-
-        return users.stream()
-                .filter(user -> {
-                    // Filter by role if specified
-                    if (roleId != null && !roleId.trim().isEmpty()) {
-                        // Check if user has the specified role ID
-                        boolean hasRole = user.getRoles().stream()
-                                .anyMatch(role -> role.getRid().toString().equals(roleId));
-                        if (!hasRole) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by status if specified
-                    if (status != null) {
-                        System.out.println("User status: " + user.getStatus());
-                        
-                        // Get user status from either field
-                        Integer userStatus = user.getStatus() != null ? user.getStatus()
-                                : (user.getUserStatus() != null ? user.getUserStatus().getValue() : null);
-                        
-                        // If status is 1 (active), filter for active users (status == 1)
-                        if (status == 1) {
-                            if (userStatus == null || userStatus != 1) {
-                                return false;
-                            }
-                        }
-                        // If status is 0, filter for non-active users (status != 1)
-                        else if (status == 0) {
-                            if (userStatus != null && userStatus == 1) {
-                                return false;
-                            }
-                        }
-                        // For other status values, match exactly
-                        else if (userStatus == null || !userStatus.equals(status)) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by keyword if specified (search in name, username, email)
-                    if (keyword != null && !keyword.trim().isEmpty()) {
-                        String lowerKeyword = keyword.toLowerCase().trim();
-                        boolean matchesKeyword = (user.getName() != null
-                                && user.getName().toLowerCase().contains(lowerKeyword)) ||
-                                (user.getFullName() != null && user.getFullName().toLowerCase().contains(lowerKeyword))
-                                ||
-                                (user.getMail() != null && user.getMail().toLowerCase().contains(lowerKeyword));
-                        if (!matchesKeyword) {
-                            return false;
-                        }
-                    }
-
-                    // Filter by department if specified
-                    if (departmentId != null) {
-                        if (user.getDepartment() == null || !user.getDepartment().getId().equals(departmentId)) {
-                            return false;
-                        }
-                    }
-
-                    // Passed all filters
-                    return true;
-                })
+        return userRepository.findAll(buildFilterSpecification(roleId, status, keyword, departmentId)).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Get one page of filtered users, with filtering, sorting and paging done by
+     * the database
+     *
+     * @param roleId       Role ID to filter by (optional)
+     * @param status       Status to filter by (optional, 1 = active, 0 = not active)
+     * @param keyword      Keyword to search in name, username, email (optional)
+     * @param departmentId Department ID to filter by (optional)
+     * @param pageable     Pagination information
+     * @return Page of filtered users as DTOs
+     */
+    @Transactional(readOnly = true)
+    public Page<UserDTO> searchUsers(String roleId, Integer status, String keyword, Long departmentId,
+            Pageable pageable) {
+        return userRepository.findAll(buildFilterSpecification(roleId, status, keyword, departmentId), pageable)
+                .map(this::convertToDTO);
+    }
+
+    /**
+     * Typeahead lookup for user pickers, served from the in-memory index
+     *
+     * @param query        Text typed so far
+     * @param departmentId Department ID to restrict to (optional)
+     * @param activeOnly   Whether to return only active users
+     * @param limit        Maximum number of suggestions
+     * @return Matching users, best match first
+     */
+    public List<UserDTO> suggestUsers(String query, Long departmentId, boolean activeOnly, int limit) {
+        return userDirectoryIndex.search(query, departmentId, activeOnly, limit);
+    }
+
+    private Specification<User> buildFilterSpecification(String roleId, Integer status, String keyword,
+            Long departmentId) {
+        Long parsedRoleId = null;
+        if (roleId != null && !roleId.trim().isEmpty()) {
+            try {
+                parsedRoleId = Long.valueOf(roleId.trim());
+            } catch (NumberFormatException e) {
+                // An unknown role can never match, keep the old "no results" behaviour
+                parsedRoleId = -1L;
+            }
+        }
+        return Specification.where(UserSpecifications.hasRoleId(parsedRoleId))
+                .and(UserSpecifications.matchesScreenStatus(status))
+                .and(UserSpecifications.matchesKeyword(keyword))
+                .and(UserSpecifications.inDepartment(departmentId));
+    }
+}
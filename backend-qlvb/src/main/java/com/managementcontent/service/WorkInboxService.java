@@ -0,0 +1,296 @@
+package com.managementcontent.service;
+
+import com.managementcontent.dto.WorkInboxItemDTO;
+import com.managementcontent.model.Document;
+import com.managementcontent.model.DocumentReadStatus;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.InternalDocument;
+import com.managementcontent.model.User;
+import com.managementcontent.model.WorkInboxItem;
+import com.managementcontent.model.WorkInboxItem.DocumentKind;
+import com.managementcontent.model.WorkInboxItem.State;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.repository.WorkInboxItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the materialized per-user work inbox ({@link WorkInboxItem}).
+ * Writers call in on sends, assignments and workflow transitions; readers get
+ * inbox pages, unread counts and urgent lists from single index range scans.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkInboxService {
+
+    private static final Set<InternalDocument.Priority> URGENT_PRIORITIES = EnumSet.of(
+            InternalDocument.Priority.HOA_TOC,
+            InternalDocument.Priority.HOA_TOC_HEN_GIO,
+            InternalDocument.Priority.THUONG_KHAN);
+
+    /**
+     * Statuses after which nobody has to act on the document any more
+     */
+    private static final Set<DocumentProcessingStatus> CLOSING_STATUSES = EnumSet.of(
+            DocumentProcessingStatus.COMPLETED,
+            DocumentProcessingStatus.ARCHIVED,
+            DocumentProcessingStatus.PUBLISHED);
+
+    private final WorkInboxItemRepository workInboxItemRepository;
+
+    /**
+     * Put an internal document into the inbox of every recipient
+     */
+    @Transactional
+    public void deliverInternalDocument(InternalDocument document, Collection<User> recipients) {
+        InternalDocument.Priority priority = document.getUrgencyLevel();
+        deliver(DocumentKind.INTERNAL, document.getId(), userIds(recipients),
+                priority != null ? priority.name() : null,
+                priority != null && URGENT_PRIORITIES.contains(priority),
+                document.getProcessingDeadline());
+    }
+
+    /**
+     * Older urgency codes still found on incoming documents
+     */
+    private static final Map<String, InternalDocument.Priority> LEGACY_URGENCY_LEVELS = Map.of(
+            "NORMAL", InternalDocument.Priority.THUONG,
+            "URGENT", InternalDocument.Priority.KHAN,
+            "HIGH", InternalDocument.Priority.THUONG_KHAN,
+            "CRITICAL", InternalDocument.Priority.HOA_TOC,
+            "EMERGENCY", InternalDocument.Priority.HOA_TOC_HEN_GIO);
+
+    /**
+     * Put an incoming/outgoing document into the inbox of the given users.
+     * Incoming documents carry their urgency level; outgoing documents have
+     * none and are delivered without priority.
+     */
+    @Transactional
+    public void deliverDocument(Document document, Collection<User> users) {
+        LocalDateTime deadline = document.getProcessDeadline() != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(document.getProcessDeadline().getTime()),
+                        ZoneId.systemDefault())
+                : null;
+        InternalDocument.Priority priority = document instanceof IncomingDocument incoming
+                ? priorityOf(incoming.getUrgencyLevel())
+                : null;
+        deliver(kindOf(document), document.getId(), userIds(users),
+                priority != null ? priority.name() : null,
+                priority != null && URGENT_PRIORITIES.contains(priority),
+                deadline);
+    }
+
+    /**
+     * Urgency level of an incoming document as a priority
+     *
+     * @return The priority, or null for an empty or unknown level
+     */
+    static InternalDocument.Priority priorityOf(String urgencyLevel) {
+        if (urgencyLevel == null || urgencyLevel.isBlank()) {
+            return null;
+        }
+        String code = urgencyLevel.trim().toUpperCase(Locale.ROOT);
+        if (LEGACY_URGENCY_LEVELS.containsKey(code)) {
+            return LEGACY_URGENCY_LEVELS.get(code);
+        }
+        try {
+            return InternalDocument.Priority.valueOf(code);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Insert missing rows and re-open existing ones for a document
+     */
+    @Transactional
+    public void deliver(DocumentKind kind, Long documentId, Collection<Long> userIds, String priority,
+                        boolean urgent, LocalDateTime deadline) {
+        if (documentId == null || userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, WorkInboxItem> existing = workInboxItemRepository
+                .findByDocumentKindAndDocumentIdAndUserIdIn(kind, documentId, userIds).stream()
+                .collect(Collectors.toMap(WorkInboxItem::getUserId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<WorkInboxItem> rows = userIds.stream()
+                .map(userId -> {
+                    WorkInboxItem item = existing.get(userId);
+                    if (item == null) {
+                        item = WorkInboxItem.builder()
+                                .userId(userId)
+                                .documentKind(kind)
+                                .documentId(documentId)
+                                .build();
+                    }
+                    item.setState(State.PENDING);
+                    item.setIsRead(false);
+                    item.setPriority(priority);
+                    item.setUrgent(urgent);
+                    item.setDeadline(deadline);
+                    item.setReceivedAt(now);
+                    return item;
+                })
+                .toList();
+        workInboxItemRepository.saveAll(rows);
+    }
+
+    /**
+     * Whether the document was delivered to the user's inbox
+     */
+    @Transactional(readOnly = true)
+    public boolean isDelivered(Long userId, DocumentKind kind, Long documentId) {
+        return userId != null && documentId != null
+                && workInboxItemRepository.findByUserIdAndDocumentKindAndDocumentId(userId, kind, documentId)
+                        .isPresent();
+    }
+
+    /**
+     * The user has handled the document (e.g. performed a workflow transition on it)
+     */
+    @Transactional
+    public void markProcessed(Long userId, DocumentKind kind, Long documentId) {
+        if (userId != null && documentId != null) {
+            workInboxItemRepository.updateState(userId, kind, documentId, State.PROCESSED);
+        }
+    }
+
+    /**
+     * Apply a workflow transition: the actor's row is processed, and a closing
+     * status closes the document for every user
+     */
+    @Transactional
+    public void onStatusChanged(Document document, DocumentProcessingStatus newStatus, User actor) {
+        DocumentKind kind = kindOf(document);
+        if (newStatus != null && CLOSING_STATUSES.contains(newStatus)) {
+            workInboxItemRepository.updateStateForDocument(kind, document.getId(), State.PROCESSED);
+        } else if (actor != null) {
+            markProcessed(actor.getId(), kind, document.getId());
+        }
+    }
+
+    @Transactional
+    public void markRead(Long userId, DocumentKind kind, Long documentId, boolean isRead) {
+        if (userId != null && documentId != null) {
+            workInboxItemRepository.updateReadFlag(userId, kind, documentId, isRead);
+        }
+    }
+
+    @Transactional
+    public void markRead(User user, DocumentReadStatus.DocumentType documentType, Long documentId,
+                         boolean isRead) {
+        if (user != null) {
+            markRead(user.getId(), kindOf(documentType), documentId, isRead);
+        }
+    }
+
+    @Transactional
+    public void removeDocument(DocumentKind kind, Long documentId) {
+        workInboxItemRepository.deleteByDocument(kind, documentId);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<WorkInboxItemDTO> getInbox(Long userId, State state, DocumentKind kind, Pageable pageable) {
+        State effectiveState = state != null ? state : State.PENDING;
+        Page<WorkInboxItem> page = kind == null
+                ? workInboxItemRepository.findByUserIdAndStateOrderByReceivedAtDesc(userId, effectiveState, pageable)
+                : workInboxItemRepository.findByUserIdAndDocumentKindAndStateOrderByReceivedAtDesc(userId, kind,
+                        effectiveState, pageable);
+        return page.map(this::convertToDTO);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<WorkInboxItemDTO> getUrgent(Long userId, Pageable pageable) {
+        return workInboxItemRepository.findByUserIdAndStateAndUrgentTrueOrderByDeadlineAsc(userId, State.PENDING,
+                pageable).map(this::convertToDTO);
+    }
+
+    /**
+     * Unread documents the user still has to act on: pending rows that were
+     * not opened yet. Processed rows no longer count, even if never opened,
+     * matching what the default inbox page shows.
+     */
+    @Transactional(readOnly = true)
+    public long countUnread(Long userId, DocumentKind kind) {
+        return kind == null
+                ? workInboxItemRepository.countByUserIdAndStateAndIsReadFalse(userId, State.PENDING)
+                : workInboxItemRepository.countByUserIdAndDocumentKindAndStateAndIsReadFalse(userId, kind,
+                        State.PENDING);
+    }
+
+    @Transactional(readOnly = true)
+    public long countPending(Long userId) {
+        return workInboxItemRepository.countByUserIdAndState(userId, State.PENDING);
+    }
+
+    /**
+     * Seed the inbox from existing recipients and workflow assignments.
+     * Rows that already exist are left untouched, so it is safe to run repeatedly.
+     */
+    @Transactional
+    public int rebuild() {
+        int internal = workInboxItemRepository.backfillInternalRecipients();
+        int workflow = workInboxItemRepository.backfillWorkflowAssignments();
+        log.info("Work inbox backfill inserted {} internal and {} workflow rows", internal, workflow);
+        return internal + workflow;
+    }
+
+    public static DocumentKind kindOf(Document document) {
+        return "outgoing_document".equals(document.getType()) ? DocumentKind.OUTGOING : DocumentKind.INCOMING;
+    }
+
+    public static DocumentKind kindOf(DocumentReadStatus.DocumentType documentType) {
+        switch (documentType) {
+            case INCOMING_EXTERNAL:
+                return DocumentKind.INCOMING;
+            case OUTGOING_EXTERNAL:
+                return DocumentKind.OUTGOING;
+            default:
+                return DocumentKind.INTERNAL;
+        }
+    }
+
+    private Set<Long> userIds(Collection<User> users) {
+        return users.stream()
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private WorkInboxItemDTO convertToDTO(WorkInboxItem item) {
+        return WorkInboxItemDTO.builder()
+                .id(item.getId())
+                .documentKind(item.getDocumentKind().name())
+                .documentKindDisplayName(item.getDocumentKind().getDisplayName())
+                .documentId(item.getDocumentId())
+                .state(item.getState().name())
+                .stateDisplayName(item.getState().getDisplayName())
+                .isRead(item.getIsRead())
+                .priority(item.getPriority())
+                .urgent(item.getUrgent())
+                .deadline(item.getDeadline())
+                .receivedAt(item.getReceivedAt())
+                .build();
+    }
+}
@@ -0,0 +1,280 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.ActivityLog;
+import com.managementcontent.model.Document;
+import com.managementcontent.model.DocumentDownloadLog;
+import com.managementcontent.repository.ActivityLogRepository;
+import com.managementcontent.repository.DocumentDownloadLogRepository;
+import com.managementcontent.repository.DocumentRepository;
+import com.managementcontent.repository.UserRepository;
+import com.managementcontent.repository.WorkCaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind sink for activity logs, download logs and document download
+ * counters. Callers only append to a bounded lock-free queue or bump an
+ * in-memory counter and return at once. A scheduled flush writes the queued
+ * rows in batches, pointing at users, documents and work cases through
+ * references instead of loading them, and adds the coalesced download counts
+ * with one batched {@code UPDATE}. When the queue is full new entries are
+ * dropped and counted rather than blocking the request.
+ */
+@Service
+@Slf4j
+public class WriteBehindLogService {
+
+    private static final String ADD_DOWNLOADS_SQL =
+            "UPDATE node SET download_count = COALESCE(download_count, 0) + ? WHERE id = ?";
+
+    /**
+     * A queued log row
+     */
+    private sealed interface Entry permits ActivityEntry, DownloadEntry {
+    }
+
+    private record ActivityEntry(String actionType, String actionDescription, Long userId, Long documentId,
+            Long workCaseId, String ipAddress, String additionalData, LocalDateTime timestamp) implements Entry {
+    }
+
+    /**
+     * @param userName Login name; resolved to the user's ID and full name when written
+     */
+    private record DownloadEntry(Long documentId, Long attachmentId, String userName, String ipAddress,
+            LocalDateTime downloadedAt) implements Entry {
+    }
+
+    /**
+     * Counters since startup
+     */
+    public record Status(int queued, int pendingDownloadCounters, long written, long dropped, long failed) {
+    }
+
+    private final ActivityLogRepository activityLogRepository;
+    private final DocumentDownloadLogRepository downloadLogRepository;
+    private final UserRepository userRepository;
+    private final DocumentRepository<Document> documentRepository;
+    private final WorkCaseRepository workCaseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int batchSize;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<Long, Long> pendingDownloads = new ConcurrentHashMap<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private long droppedReported;
+
+    public WriteBehindLogService(ActivityLogRepository activityLogRepository,
+            DocumentDownloadLogRepository downloadLogRepository,
+            UserRepository userRepository,
+            DocumentRepository<Document> documentRepository,
+            WorkCaseRepository workCaseRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${activity-log.queue-capacity:10000}") int capacity,
+            @Value("${activity-log.batch-size:500}") int batchSize) {
+        this.activityLogRepository = activityLogRepository;
+        this.downloadLogRepository = downloadLogRepository;
+        this.userRepository = userRepository;
+        this.documentRepository = documentRepository;
+        this.workCaseRepository = workCaseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Queue an activity log row
+     *
+     * @return false if the queue was full and the row was dropped
+     */
+    public boolean logActivity(String actionType, String actionDescription, Long userId, Long documentId,
+            Long workCaseId, String ipAddress, String additionalData) {
+        return offer(new ActivityEntry(actionType, actionDescription, userId, documentId, workCaseId, ipAddress,
+                additionalData, LocalDateTime.now()));
+    }
+
+    /**
+     * Count a download of a document attachment and queue its download log row
+     *
+     * @param userName Login name of the downloader, or null if anonymous
+     */
+    public void logDownload(Long documentId, Long attachmentId, String userName, String ipAddress) {
+        pendingDownloads.merge(documentId, 1L, Long::sum);
+        offer(new DownloadEntry(documentId, attachmentId, userName, ipAddress, LocalDateTime.now()));
+    }
+
+    public Status getStatus() {
+        return new Status(queued.get(), pendingDownloads.size(), written.get(), dropped.get(), failed.get());
+    }
+
+    /**
+     * Write everything queued so far
+     */
+    @Scheduled(fixedDelayString = "${activity-log.flush-interval-ms:1000}")
+    public void flush() {
+        flushDownloadCounts();
+        List<Entry> batch;
+        while (!(batch = drain()).isEmpty()) {
+            write(batch);
+        }
+        long droppedNow = dropped.get();
+        if (droppedNow > droppedReported) {
+            log.warn("Hàng đợi nhật ký đầy, đã bỏ {} bản ghi", droppedNow - droppedReported);
+            droppedReported = droppedNow;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean offer(Entry entry) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        queue.offer(entry);
+        return true;
+    }
+
+    private List<Entry> drain() {
+        List<Entry> batch = new ArrayList<>(Math.min(batchSize, Math.max(queued.get(), 1)));
+        Entry entry;
+        while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    private void flushDownloadCounts() {
+        if (pendingDownloads.isEmpty()) {
+            return;
+        }
+        List<Object[]> increments = new ArrayList<>();
+        for (Long documentId : pendingDownloads.keySet()) {
+            Long count = pendingDownloads.remove(documentId);
+            if (count != null) {
+                increments.add(new Object[] { count, documentId });
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(ADD_DOWNLOADS_SQL, increments);
+        } catch (DataAccessException e) {
+            // Keep the counts for the next flush
+            increments.forEach(increment -> pendingDownloads.merge((Long) increment[1], (Long) increment[0], Long::sum));
+            log.warn("Không thể cập nhật số lượt tải xuống: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Insert a batch in one transaction. If that fails, for example because a
+     * referenced row was deleted meanwhile, retry row by row and drop the rows
+     * that still fail.
+     */
+    private void write(List<Entry> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(batch));
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Lỗi khi ghi lô {} bản ghi nhật ký, thử lại từng bản ghi: {}", batch.size(), e.getMessage());
+            for (Entry entry : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(entry)));
+                    written.incrementAndGet();
+                } catch (RuntimeException entryFailure) {
+                    failed.incrementAndGet();
+                    log.warn("Bỏ bản ghi nhật ký {}: {}", entry, entryFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<Entry> batch) {
+        Map<String, Object[]> users = resolveUsers(batch);
+        List<ActivityLog> activities = new ArrayList<>();
+        List<DocumentDownloadLog> downloads = new ArrayList<>();
+        for (Entry entry : batch) {
+            if (entry instanceof ActivityEntry activity) {
+                ActivityLog activityLog = new ActivityLog();
+                activityLog.setActionType(activity.actionType());
+                activityLog.setActionDescription(activity.actionDescription());
+                activityLog.setIpAddress(activity.ipAddress());
+                activityLog.setAdditionalData(activity.additionalData());
+                activityLog.setTimestamp(activity.timestamp());
+                if (activity.userId() != null) {
+                    activityLog.setUser(userRepository.getReferenceById(activity.userId()));
+                }
+                if (activity.documentId() != null) {
+                    activityLog.setDocument(documentRepository.getReferenceById(activity.documentId()));
+                }
+                if (activity.workCaseId() != null) {
+                    activityLog.setWorkCase(workCaseRepository.getReferenceById(activity.workCaseId()));
+                }
+                activities.add(activityLog);
+            } else if (entry instanceof DownloadEntry download) {
+                DocumentDownloadLog downloadLog = DocumentDownloadLog.builder()
+                        .documentId(download.documentId())
+                        .attachmentId(download.attachmentId())
+                        .ipAddress(download.ipAddress())
+                        .downloadedAt(download.downloadedAt())
+                        .userName(download.userName())
+                        .build();
+                Object[] user = download.userName() != null ? users.get(download.userName()) : null;
+                if (user != null) {
+                    downloadLog.setUserId((Long) user[0]);
+                    downloadLog.setUserName((String) user[2]);
+                }
+                downloads.add(downloadLog);
+            }
+        }
+        activityLogRepository.saveAll(activities);
+        downloadLogRepository.saveAll(downloads);
+    }
+
+    /**
+     * [id, name, fullName] of the downloaders of a batch, by login name, in one query
+     */
+    private Map<String, Object[]> resolveUsers(List<Entry> batch) {
+        List<String> names = batch.stream()
+                .filter(DownloadEntry.class::isInstance)
+                .map(entry -> ((DownloadEntry) entry).userName())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, Object[]> users = new HashMap<>();
+        if (!names.isEmpty()) {
+            for (Object[] user : userRepository.findNamesByNameIn(names)) {
+                users.put((String) user[1], user);
+            }
+        }
+        return users;
+    }
+}
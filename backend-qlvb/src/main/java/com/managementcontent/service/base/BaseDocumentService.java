@@ -38,13 +38,8 @@ public abstract class BaseDocumentService<T extends Document, R extends Document
     @Transactional
     public void deleteDocument(Long id) {
         repository.findById(id).ifPresent(document -> {
-            if (document.getAttachmentFilename() != null && !document.getAttachmentFilename().isEmpty()) {
-                try {
-                    fileStorageService.deleteFile(document.getAttachmentFilename());
-                } catch (Exception e) {
-                    // Log error but continue with document deletion
-                }
-            }
+            // The file goes once the deletion is committed, failures are logged there
+            fileStorageService.deleteAfterCommit(document.getAttachmentFilename());
             repository.deleteById(id);
         });
     }
@@ -53,10 +48,8 @@ public abstract class BaseDocumentService<T extends Document, R extends Document
     public Document  addAttachment(Long id, MultipartFile file) throws IOException {
         return  repository.findById(id).map(document -> {
             try {
-                // Delete old file if exists
-                if (document.getAttachmentFilename() != null && !document.getAttachmentFilename().isEmpty()) {
-                    fileStorageService.deleteFile(document.getAttachmentFilename());
-                }
+                // Delete old file once the new one is committed
+                fileStorageService.deleteAfterCommit(document.getAttachmentFilename());
 
                 // Store new file
                 String filename = fileStorageService.storeFile(file, document);
@@ -0,0 +1,18 @@
+package com.managementcontent.service.export;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a table row by row to an output stream without keeping earlier rows.
+ * Values may be {@code null}, strings, numbers or dates.
+ */
+public interface TabularWriter {
+
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * Complete the document and flush it. The underlying stream stays open.
+     */
+    void finish() throws IOException;
+}
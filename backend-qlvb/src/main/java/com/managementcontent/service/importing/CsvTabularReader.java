@@ -0,0 +1,130 @@
+package com.managementcontent.service.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV in UTF-8, with or without a byte order mark. The delimiter is
+ * a comma or, as written by Excel in Vietnamese locales, a semicolon; it is
+ * taken from the header line. The quote that {@code CsvTabularWriter} puts in
+ * front of formula characters is removed again.
+ */
+public class CsvTabularReader implements TabularReader {
+
+    private final Reader reader;
+    private char delimiter;
+    private boolean firstRow = true;
+    private boolean eof;
+
+    public CsvTabularReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public List<String> readRow() throws IOException {
+        if (eof) {
+            return null;
+        }
+        if (firstRow) {
+            firstRow = false;
+            reader.mark(64 * 1024);
+            int first = reader.read();
+            if (first != '\uFEFF') {
+                reader.reset();
+            }
+            reader.mark(64 * 1024);
+            delimiter = detectDelimiter();
+        }
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                eof = true;
+                if (cells.isEmpty() && cell.isEmpty() && !wasQuoted) {
+                    return null;
+                }
+                cells.add(clean(cell, wasQuoted));
+                return cells;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.isEmpty()) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == delimiter) {
+                cells.add(clean(cell, wasQuoted));
+                cell.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                cells.add(clean(cell, wasQuoted));
+                return cells;
+            } else {
+                cell.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Semicolon if the header line has more semicolons than commas outside
+     * quotes. Leaves the reader at the start of the line.
+     */
+    private char detectDelimiter() throws IOException {
+        int commas = 0;
+        int semicolons = 0;
+        boolean quoted = false;
+        int c;
+        int read = 0;
+        while ((c = reader.read()) != -1 && ++read < 64 * 1024) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '\n' || c == '\r')) {
+                break;
+            } else if (!quoted && c == ',') {
+                commas++;
+            } else if (!quoted && c == ';') {
+                semicolons++;
+            }
+        }
+        reader.reset();
+        return semicolons > commas ? ';' : ',';
+    }
+
+    private static String clean(StringBuilder cell, boolean quoted) {
+        String text = quoted ? cell.toString() : cell.toString().trim();
+        if (text.length() > 1 && text.charAt(0) == '\'' && "=+-@".indexOf(text.charAt(1)) >= 0) {
+            text = text.substring(1);
+        }
+        return text.trim();
+    }
+}
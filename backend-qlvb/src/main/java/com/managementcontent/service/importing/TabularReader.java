@@ -0,0 +1,17 @@
+package com.managementcontent.service.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads a table row by row. Cells are returned as trimmed text; empty cells
+ * are empty strings, never {@code null}.
+ */
+public interface TabularReader extends Closeable {
+
+    /**
+     * The next row, or {@code null} at the end of the table
+     */
+    List<String> readRow() throws IOException;
+}
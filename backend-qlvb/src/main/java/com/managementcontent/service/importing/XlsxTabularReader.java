@@ -0,0 +1,255 @@
+package com.managementcontent.service.importing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the first worksheet of an XLSX workbook with a streaming XML parser,
+ * so only the shared string table is held in memory. Rows that Excel leaves
+ * out because they are empty are returned as empty lists, keeping row numbers
+ * in step with the sheet. Cell styles are not read: dates typed into Excel
+ * come back as serial numbers.
+ */
+public class XlsxTabularReader implements TabularReader {
+
+    private static final String RELATIONSHIP_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String DEFAULT_SHEET = "xl/worksheets/sheet1.xml";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private final ZipFile zip;
+    private final List<String> sharedStrings;
+    private final InputStream sheetStream;
+    private final XMLStreamReader sheet;
+
+    /**
+     * Sheet row number of the last returned row
+     */
+    private int rowNumber;
+    private List<String> pendingRow;
+    private int pendingRowNumber;
+
+    public XlsxTabularReader(Path file) throws IOException {
+        this.zip = new ZipFile(file.toFile());
+        try {
+            this.sharedStrings = readSharedStrings();
+            ZipEntry sheetEntry = zip.getEntry(firstSheetName());
+            if (sheetEntry == null) {
+                throw new IOException("Tệp XLSX không có trang tính");
+            }
+            this.sheetStream = zip.getInputStream(sheetEntry);
+            this.sheet = XML_INPUT_FACTORY.createXMLStreamReader(sheetStream);
+        } catch (IOException | XMLStreamException | RuntimeException e) {
+            zip.close();
+            throw e instanceof IOException io ? io : new IOException("Tệp XLSX không hợp lệ: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> readRow() throws IOException {
+        if (pendingRow != null) {
+            if (++rowNumber < pendingRowNumber) {
+                return new ArrayList<>();
+            }
+            List<String> row = pendingRow;
+            pendingRow = null;
+            return row;
+        }
+        try {
+            while (sheet.hasNext()) {
+                if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                    String ref = sheet.getAttributeValue(null, "r");
+                    int number = ref != null ? Integer.parseInt(ref) : rowNumber + 1;
+                    List<String> cells = readCells();
+                    if (number > rowNumber + 1) {
+                        pendingRow = cells;
+                        pendingRowNumber = number;
+                        rowNumber++;
+                        return new ArrayList<>();
+                    }
+                    rowNumber = number;
+                    return cells;
+                }
+            }
+            return null;
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Tệp XLSX không hợp lệ: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sheet.close();
+        } catch (XMLStreamException e) {
+            // The stream is closed below
+        }
+        sheetStream.close();
+        zip.close();
+    }
+
+    private List<String> readCells() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(sheet.getLocalName())) {
+                continue;
+            }
+            String ref = sheet.getAttributeValue(null, "r");
+            String type = sheet.getAttributeValue(null, "t");
+            int column = ref != null ? columnIndex(ref) : -1;
+            if (column < 0) {
+                column = cells.size();
+            }
+            String value = cellValue(type);
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            if (cells.size() == column) {
+                cells.add(value);
+            } else {
+                cells.set(column, value);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Text of the current {@code c} element, leaving the reader on its end tag
+     */
+    private String cellValue(String type) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        boolean inValue = false;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = sheet.getLocalName();
+                inValue = "v".equals(name) || "t".equals(name);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("c".equals(sheet.getLocalName())) {
+                    break;
+                }
+                inValue = false;
+            } else if (inValue && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                text.append(sheet.getText());
+            }
+        }
+        String value = text.toString();
+        if ("s".equals(type) && !value.isBlank()) {
+            int index = Integer.parseInt(value.trim());
+            value = index < sharedStrings.size() ? sharedStrings.get(index) : "";
+        }
+        return value.trim();
+    }
+
+    private List<String> readSharedStrings() throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<>();
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if (entry == null) {
+            return strings;
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            StringBuilder current = null;
+            boolean inText = false;
+            int phoneticDepth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> current = new StringBuilder();
+                        case "rPh" -> phoneticDepth++;
+                        case "t" -> inText = phoneticDepth == 0;
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> {
+                            strings.add(current != null ? current.toString() : "");
+                            current = null;
+                        }
+                        case "rPh" -> phoneticDepth--;
+                        case "t" -> inText = false;
+                        default -> {
+                        }
+                    }
+                } else if (inText && current != null
+                        && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    current.append(reader.getText());
+                }
+            }
+            reader.close();
+        }
+        return strings;
+    }
+
+    /**
+     * Entry name of the first sheet listed in the workbook
+     */
+    private String firstSheetName() throws IOException, XMLStreamException {
+        String relationshipId = null;
+        ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+        if (workbook != null) {
+            try (InputStream in = zip.getInputStream(workbook)) {
+                XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+                while (reader.hasNext() && relationshipId == null) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(reader.getLocalName())) {
+                        relationshipId = reader.getAttributeValue(RELATIONSHIP_NS, "id");
+                    }
+                }
+                reader.close();
+            }
+        }
+        ZipEntry rels = zip.getEntry("xl/_rels/workbook.xml.rels");
+        if (relationshipId == null || rels == null) {
+            return DEFAULT_SHEET;
+        }
+        Map<String, String> targets = new HashMap<>();
+        try (InputStream in = zip.getInputStream(rels)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                        && "Relationship".equals(reader.getLocalName())) {
+                    targets.put(reader.getAttributeValue(null, "Id"), reader.getAttributeValue(null, "Target"));
+                }
+            }
+            reader.close();
+        }
+        String target = targets.get(relationshipId);
+        if (target == null) {
+            return DEFAULT_SHEET;
+        }
+        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+    }
+
+    /**
+     * Zero-based column of a cell reference such as {@code AB12}
+     */
+    private static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+}
@@ -0,0 +1,58 @@
+package com.managementcontent.service.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Spring resource backed by a {@link BlobStore} entry. The content is only
+ * fetched when the response body is written.
+ */
+public class BlobResource extends AbstractResource {
+
+    private final BlobStore store;
+    private final String key;
+    private final String filename;
+
+    public BlobResource(BlobStore store, String key, String filename) {
+        this.store = store;
+        this.key = key;
+        this.filename = filename;
+    }
+
+    @Override
+    public boolean exists() {
+        try {
+            return store.stat(key).isPresent();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return store.stat(key).orElseThrow(() -> new FileNotFoundException(key)).size();
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return store.stat(key).orElseThrow(() -> new FileNotFoundException(key)).lastModified().toEpochMilli();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return store.get(key);
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Blob [" + key + "]";
+    }
+}
@@ -0,0 +1,145 @@
+package com.managementcontent.service.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage for uploaded files, addressed by a relative key such as
+ * {@code 2024/05/17/doc_1234.pdf}. Services never touch upload directories
+ * directly, so the files can live on the local disk of a single node or in an
+ * S3-compatible object store shared by every node.
+ */
+public interface BlobStore {
+
+    /**
+     * Size and modification time of a stored blob
+     */
+    record BlobInfo(String key, long size, Instant lastModified) {
+    }
+
+    /**
+     * Store content under a key, replacing what was there
+     *
+     * @param key         Relative key
+     * @param content     Content, read to the end but not closed
+     * @param length      Number of bytes, or -1 if unknown
+     * @param contentType Media type, may be null
+     */
+    BlobInfo put(String key, InputStream content, long length, String contentType) throws IOException;
+
+    /**
+     * Store a local file under a key. With {@code move} the source is consumed,
+     * which a filesystem store does with a rename.
+     */
+    BlobInfo putFile(String key, Path source, String contentType, boolean move) throws IOException;
+
+    /**
+     * Open a blob for reading
+     *
+     * @throws NoSuchFileException if the blob does not exist
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Open a byte range of a blob for reading
+     *
+     * @param offset First byte
+     * @param length Number of bytes
+     */
+    InputStream getRange(String key, long offset, long length) throws IOException;
+
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    /**
+     * Delete a blob
+     *
+     * @return Whether something was deleted
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Time-limited URL the client can download the blob from directly, for
+     * stores that support it
+     *
+     * @param filename    File name to suggest in Content-Disposition, may be null
+     * @param contentType Media type to answer with, may be null
+     */
+    Optional<URI> presignedGetUrl(String key, Duration ttl, String filename, String contentType);
+
+    /**
+     * Path of the blob on the local filesystem, for filesystem stores only.
+     * The file does not necessarily exist.
+     */
+    Optional<Path> localPath(String key);
+
+    /**
+     * The blob as a Spring resource, e.g. for a download response body
+     */
+    default Resource asResource(String key, String filename) {
+        return new BlobResource(this, key, filename);
+    }
+
+    /**
+     * A local file holding the blob's content, for libraries that need random
+     * access such as PDFBox. Filesystem stores return the file itself; other
+     * stores download a temporary copy that is deleted on close.
+     */
+    default LocalCopy localCopy(String key) throws IOException {
+        Optional<Path> local = localPath(key);
+        if (local.isPresent()) {
+            if (!Files.exists(local.get())) {
+                throw new NoSuchFileException(key);
+            }
+            return new LocalCopy(local.get(), false);
+        }
+        Path temp = Files.createTempFile("blob-", ".tmp");
+        try (InputStream in = get(key)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new LocalCopy(temp, true);
+    }
+
+    /**
+     * Local file handed out by {@link #localCopy(String)}
+     */
+    final class LocalCopy implements AutoCloseable {
+        private final Path path;
+        private final boolean temporary;
+
+        public LocalCopy(Path path, boolean temporary) {
+            this.path = path;
+            this.temporary = temporary;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        /**
+         * Whether the file is a downloaded copy rather than the stored blob
+         */
+        public boolean isTemporary() {
+            return temporary;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (temporary) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.managementcontent.service.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A sealed pack: one large append-only data file holding many blobs, plus a
+ * sorted index of key, offset, length and modification time. The data file is
+ * memory-mapped once; reads hand out slices of the mapping, so serving a
+ * packed blob costs no system call beyond the page faults.
+ */
+final class PackFile {
+
+    private static final int INDEX_MAGIC = 0x514C5650; // "QLVP"
+    private static final int INDEX_VERSION = 1;
+
+    /**
+     * Index entry of a blob written into a pack
+     */
+    record Entry(String key, long offset, long length, long modified) {
+    }
+
+    private final int id;
+    private final Path path;
+    private final MappedByteBuffer data;
+    private final String[] keys;
+    private final long[] offsets;
+    private final long[] lengths;
+    private final long[] modified;
+
+    private PackFile(int id, Path path, MappedByteBuffer data, String[] keys, long[] offsets, long[] lengths,
+            long[] modified) {
+        this.id = id;
+        this.path = path;
+        this.data = data;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.modified = modified;
+    }
+
+    /**
+     * Map a pack and load its index
+     */
+    static PackFile open(int id, Path pack, Path index) throws IOException {
+        String[] keys;
+        long[] offsets;
+        long[] lengths;
+        long[] modified;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                throw new IOException("Chỉ mục gói lưu trữ không hợp lệ: " + index);
+            }
+            int count = in.readInt();
+            keys = new String[count];
+            offsets = new long[count];
+            lengths = new long[count];
+            modified = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = in.readUTF();
+                offsets[i] = in.readLong();
+                lengths[i] = in.readLong();
+                modified[i] = in.readLong();
+            }
+        }
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new PackFile(id, pack, data, keys, offsets, lengths, modified);
+    }
+
+    /**
+     * Write the index of a pack, sorted by key, replacing the file atomically
+     */
+    static void writeIndex(Path index, List<Entry> entries) throws IOException {
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator.comparing(Entry::key));
+        Path temp = index.resolveSibling(index.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(sorted.length);
+            for (Entry entry : sorted) {
+                out.writeUTF(entry.key());
+                out.writeLong(entry.offset());
+                out.writeLong(entry.length());
+                out.writeLong(entry.modified());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    int id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    long dataSize() {
+        return data.capacity();
+    }
+
+    /**
+     * Position of a key in the index, or a negative value if absent
+     */
+    int find(String key) {
+        return Arrays.binarySearch(keys, key);
+    }
+
+    long length(int entry) {
+        return lengths[entry];
+    }
+
+    long modified(int entry) {
+        return modified[entry];
+    }
+
+    /**
+     * Stream over a byte range of an entry, backed by the mapping
+     */
+    InputStream open(int entry, long offset, long length) {
+        long start = Math.min(Math.max(offset, 0), lengths[entry]);
+        long count = Math.min(Math.max(length, 0), lengths[entry] - start);
+        ByteBuffer slice = data.slice((int) (offsets[entry] + start), (int) count);
+        return new ByteBufferInputStream(slice);
+    }
+
+    /**
+     * Input stream over a buffer slice
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.min(Math.max(n, 0), buffer.remaining());
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.managementcontent.service.storage;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * {@link BlobStore} on an S3-compatible object store (AWS S3, MinIO, ...).
+ * Every node of a deployment sees the same files. Keys are stored below a
+ * prefix so several stores can share one bucket.
+ */
+public class S3BlobStore implements BlobStore {
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final String prefix;
+
+    public S3BlobStore(S3Client client, S3Presigner presigner, String bucket, String prefix) {
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    @Override
+    public BlobInfo put(String key, InputStream content, long length, String contentType) throws IOException {
+        if (length < 0) {
+            // S3 needs the length up front; spool unknown-length content to disk
+            Path temp = Files.createTempFile("blob-", ".tmp");
+            try {
+                Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+                return putFile(key, temp, contentType, true);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        try {
+            client.putObject(putRequest(key, length, contentType), RequestBody.fromInputStream(content, length));
+        } catch (SdkException e) {
+            throw new IOException("Không thể lưu tệp " + key + ": " + e.getMessage(), e);
+        }
+        return new BlobInfo(key, length, Instant.now());
+    }
+
+    @Override
+    public BlobInfo putFile(String key, Path source, String contentType, boolean move) throws IOException {
+        long length = Files.size(source);
+        try {
+            client.putObject(putRequest(key, length, contentType), RequestBody.fromFile(source));
+        } catch (SdkException e) {
+            throw new IOException("Không thể lưu tệp " + key + ": " + e.getMessage(), e);
+        }
+        if (move) {
+            Files.deleteIfExists(source);
+        }
+        return new BlobInfo(key, length, Instant.now());
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return open(GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build(), key);
+    }
+
+    @Override
+    public InputStream getRange(String key, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(key))
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build();
+        return open(request, key);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = client.headObject(
+                    HeadObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+            return Optional.of(new BlobInfo(key, head.contentLength(), head.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Không thể đọc thông tin tệp " + key + ": " + e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException("Không thể đọc thông tin tệp " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean existed = stat(key).isPresent();
+        try {
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(objectKey(key)).build());
+        } catch (SdkException e) {
+            throw new IOException("Không thể xóa tệp " + key + ": " + e.getMessage(), e);
+        }
+        return existed;
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration ttl, String filename, String contentType) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(objectKey(key));
+        if (filename != null) {
+            String encoded = URLEncoder.encode(filename, StandardCharsets.UTF_8).replace("+", "%20");
+            request.responseContentDisposition("attachment; filename*=UTF-8''" + encoded);
+        }
+        if (contentType != null) {
+            request.responseContentType(contentType);
+        }
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(request.build())
+                .build();
+        try {
+            return Optional.of(presigner.presignGetObject(presignRequest).url().toURI());
+        } catch (URISyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    private InputStream open(GetObjectRequest request, String key) throws IOException {
+        try {
+            return client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("Không thể đọc tệp " + key + ": " + e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException("Không thể đọc tệp " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private PutObjectRequest putRequest(String key, long length, String contentType) {
+        PutObjectRequest.Builder builder = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(key))
+                .contentLength(length);
+        if (contentType != null) {
+            builder.contentType(contentType);
+        }
+        return builder.build();
+    }
+
+    private String objectKey(String key) {
+        if (key == null || key.isBlank() || key.startsWith("/") || key.contains("..")) {
+            throw new IllegalArgumentException("Khóa lưu trữ không hợp lệ: " + key);
+        }
+        return prefix + key.replace('\\', '/');
+    }
+}
@@ -0,0 +1,649 @@
+package com.managementcontent.service.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local {@link BlobStore} with two tiers. Recent files live as individual
+ * files (the hot tier, a {@link LocalBlobStore}); {@link #tierColdFiles}
+ * moves files of the year/month/day tree that have not changed for a long
+ * time into large append-only pack files under {@code .packs}, which keeps
+ * the number of files on disk small. Reads look at the hot tier first and then at the packs, newest first,
+ * so callers never notice where a blob lives.
+ * <p>
+ * Deleting a packed blob appends a tombstone to {@code .packs/deleted.log};
+ * the bytes stay in the pack.
+ * <p>
+ * The store assumes it is the only process using its directory: packs and
+ * tombstones are loaded when it is created, and writers, readers and the
+ * tiering run are coordinated with in-process locks. Deployments with several
+ * nodes use {@link S3BlobStore} instead.
+ */
+@Slf4j
+public class TieredBlobStore implements BlobStore {
+
+    private static final String PACK_DIR = ".packs";
+    private static final String COPY_PREFIX = ".copy-";
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d+)\\.pack");
+    private static final Pattern YEAR_DIR = Pattern.compile("\\d{4}");
+
+    /**
+     * Outcome of one tiering run
+     */
+    public record TieringResult(int filesMoved, long bytesMoved, int packsWritten, int filesSkipped) {
+    }
+
+    /**
+     * Called after a pack is written and before it is published and the hot
+     * copies of its files are removed
+     */
+    @FunctionalInterface
+    interface PackListener {
+        void packWritten(PackFile pack) throws IOException;
+    }
+
+    private final LocalBlobStore hot;
+    private final PackListener packListener;
+    private final Path packDir;
+    private final Path tombstoneLog;
+    // Sealed packs, newest first
+    private final List<PackFile> packs = new CopyOnWriteArrayList<>();
+    // Key -> id of the newest pack whose copy of the key was deleted
+    private final Map<String, Integer> tombstones = new ConcurrentHashMap<>();
+    // Writers and hot reads take the read side; sealing a pack takes the write side briefly
+    private final ReentrantReadWriteLock sealLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean tiering = new AtomicBoolean();
+    private final Object tombstoneMonitor = new Object();
+
+    public TieredBlobStore(LocalBlobStore hot) throws IOException {
+        this(hot, pack -> {
+        });
+    }
+
+    TieredBlobStore(LocalBlobStore hot, PackListener packListener) throws IOException {
+        this.hot = hot;
+        this.packListener = packListener;
+        this.packDir = hot.getRoot().resolve(PACK_DIR);
+        this.tombstoneLog = packDir.resolve("deleted.log");
+        Files.createDirectories(packDir);
+        loadPacks();
+        loadTombstones();
+    }
+
+    @Override
+    public BlobInfo put(String key, InputStream content, long length, String contentType) throws IOException {
+        sealLock.readLock().lock();
+        try {
+            return hot.put(key, content, length, contentType);
+        } finally {
+            sealLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public BlobInfo putFile(String key, Path source, String contentType, boolean move) throws IOException {
+        sealLock.readLock().lock();
+        try {
+            return hot.putFile(key, source, contentType, move);
+        } finally {
+            sealLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        InputStream in = openHot(key, () -> hot.get(key));
+        if (in != null) {
+            return in;
+        }
+        Located located = locate(key);
+        if (located == null) {
+            throw new NoSuchFileException(key);
+        }
+        return located.pack().open(located.entry(), 0, located.pack().length(located.entry()));
+    }
+
+    @Override
+    public InputStream getRange(String key, long offset, long length) throws IOException {
+        InputStream in = openHot(key, () -> hot.getRange(key, offset, length));
+        if (in != null) {
+            return in;
+        }
+        Located located = locate(key);
+        if (located == null) {
+            throw new NoSuchFileException(key);
+        }
+        return located.pack().open(located.entry(), offset, length);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        Optional<BlobInfo> info;
+        sealLock.readLock().lock();
+        try {
+            info = hot.stat(key);
+        } catch (NoSuchFileException e) {
+            // Deleted between the check and reading its attributes
+            info = Optional.empty();
+        } finally {
+            sealLock.readLock().unlock();
+        }
+        if (info.isPresent()) {
+            return info;
+        }
+        Located located = locate(key);
+        if (located == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new BlobInfo(key, located.pack().length(located.entry()),
+                Instant.ofEpochMilli(located.pack().modified(located.entry()))));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        sealLock.readLock().lock();
+        try {
+            boolean deleted = hot.delete(key);
+            if (locate(key) != null) {
+                addTombstone(key, packs.get(0).id());
+                deleted = true;
+            }
+            return deleted;
+        } finally {
+            sealLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration ttl, String filename, String contentType) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return hot.localPath(key);
+    }
+
+    /**
+     * Always reads through {@link #get}, since a hot file may be moved into a
+     * pack before the resource is read
+     */
+    @Override
+    public Resource asResource(String key, String filename) {
+        return new BlobResource(this, key, filename);
+    }
+
+    /**
+     * Hot files are handed out as a hard link next to the packs, so the copy
+     * stays readable when the file is moved into a pack meanwhile
+     */
+    @Override
+    public LocalCopy localCopy(String key) throws IOException {
+        Path link = packDir.resolve(COPY_PREFIX + UUID.randomUUID() + ".tmp");
+        boolean linked = false;
+        sealLock.readLock().lock();
+        try {
+            if (isHot(key)) {
+                Files.createLink(link, hot.localPath(key).orElseThrow());
+                linked = true;
+            }
+        } catch (NoSuchFileException e) {
+            // Deleted after the check; look in the packs
+        } catch (IOException | UnsupportedOperationException e) {
+            // No hard links here: copy the file while tiering cannot remove it
+            Path temp = Files.createTempFile("blob-", ".tmp");
+            try {
+                Files.copy(hot.localPath(key).orElseThrow(), temp, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException copyFailed) {
+                Files.deleteIfExists(temp);
+                throw copyFailed;
+            }
+            return new LocalCopy(temp, true);
+        } finally {
+            sealLock.readLock().unlock();
+        }
+        if (linked) {
+            return new LocalCopy(link, true);
+        }
+        Located located = locate(key);
+        if (located == null) {
+            throw new NoSuchFileException(key);
+        }
+        Path temp = Files.createTempFile("blob-", ".tmp");
+        try (InputStream in = located.pack().open(located.entry(), 0, located.pack().length(located.entry()))) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new LocalCopy(temp, true);
+    }
+
+    /**
+     * Move hot files last modified before the cutoff into new pack files.
+     * Files larger than a pack stay hot. Only one run per store can be active;
+     * a file lock also keeps a second process that was started on the same
+     * directory by mistake from tiering at the same time.
+     *
+     * @param olderThan    Files modified before this instant are cold
+     * @param maxPackBytes Size at which a pack is sealed and a new one started
+     */
+    public TieringResult tierColdFiles(Instant olderThan, long maxPackBytes) throws IOException {
+        long packLimit = Math.min(maxPackBytes, Integer.MAX_VALUE);
+        if (!tiering.compareAndSet(false, true)) {
+            return new TieringResult(0, 0, 0, 0);
+        }
+        try (FileChannel lockChannel = FileChannel.open(packDir.resolve("tiering.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) {
+                log.info("Bỏ qua phân tầng lưu trữ {}: đang được tiến trình khác thực hiện", hot.getRoot());
+                return new TieringResult(0, 0, 0, 0);
+            }
+            ColdFileCollector collector = new ColdFileCollector(olderThan.toEpochMilli(), packLimit);
+            try {
+                Files.walkFileTree(hot.getRoot(), collector);
+                collector.finish();
+            } catch (IOException | RuntimeException e) {
+                collector.abort();
+                throw e;
+            }
+            return collector.result();
+        } finally {
+            tiering.set(false);
+        }
+    }
+
+    /**
+     * Number of sealed packs
+     */
+    public int getPackCount() {
+        return packs.size();
+    }
+
+    /**
+     * Number of blobs held in packs, including deleted ones
+     */
+    public long getPackedEntryCount() {
+        return packs.stream().mapToLong(PackFile::size).sum();
+    }
+
+    /**
+     * Total size of the pack data files
+     */
+    public long getPackedBytes() {
+        return packs.stream().mapToLong(PackFile::dataSize).sum();
+    }
+
+    public Path getRoot() {
+        return hot.getRoot();
+    }
+
+    private boolean isHot(String key) {
+        return Files.isRegularFile(hot.localPath(key).orElseThrow());
+    }
+
+    /**
+     * Opening a stream of a hot file
+     */
+    @FunctionalInterface
+    private interface HotOpener {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Open a blob in the hot tier. The read lock keeps tiering from removing
+     * the file between the check and the open; an open stream stays readable
+     * after the file is removed.
+     *
+     * @return The stream, or null if the blob is not hot
+     */
+    private InputStream openHot(String key, HotOpener opener) throws IOException {
+        sealLock.readLock().lock();
+        try {
+            return isHot(key) ? opener.open() : null;
+        } catch (NoSuchFileException e) {
+            // Deleted after the check; look in the packs
+            return null;
+        } finally {
+            sealLock.readLock().unlock();
+        }
+    }
+
+    private record Located(PackFile pack, int entry) {
+    }
+
+    private Located locate(String key) {
+        Integer deletedUpTo = tombstones.get(key);
+        for (PackFile pack : packs) {
+            if (deletedUpTo != null && pack.id() <= deletedUpTo) {
+                return null;
+            }
+            int entry = pack.find(key);
+            if (entry >= 0) {
+                return new Located(pack, entry);
+            }
+        }
+        return null;
+    }
+
+    private void loadPacks() throws IOException {
+        List<PackFile> loaded = new ArrayList<>();
+        try (var files = Files.list(packDir)) {
+            for (Path pack : files.toList()) {
+                if (pack.getFileName().toString().startsWith(COPY_PREFIX)) {
+                    // Local copy that was not closed before the last shutdown
+                    Files.deleteIfExists(pack);
+                    continue;
+                }
+                Matcher matcher = PACK_NAME.matcher(pack.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                Path index = indexFor(pack);
+                if (!Files.exists(index)) {
+                    // Interrupted before sealing; the hot files were never removed
+                    log.warn("Xóa gói lưu trữ chưa hoàn tất {}", pack);
+                    Files.deleteIfExists(pack);
+                    continue;
+                }
+                loaded.add(PackFile.open(Integer.parseInt(matcher.group(1)), pack, index));
+            }
+        }
+        loaded.sort(Comparator.comparingInt(PackFile::id).reversed());
+        packs.addAll(loaded);
+    }
+
+    private void loadTombstones() throws IOException {
+        if (!Files.exists(tombstoneLog)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(tombstoneLog, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    tombstones.merge(line.substring(tab + 1), Integer.parseInt(line.substring(0, tab)), Math::max);
+                }
+            }
+        }
+    }
+
+    private void addTombstone(String key, int packId) throws IOException {
+        synchronized (tombstoneMonitor) {
+            try (Writer writer = Files.newBufferedWriter(tombstoneLog, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(packId + "\t" + key + "\n");
+            }
+            tombstones.merge(key, packId, Math::max);
+        }
+    }
+
+    private Path indexFor(Path pack) {
+        String name = pack.getFileName().toString();
+        return pack.resolveSibling(name.substring(0, name.length() - ".pack".length()) + ".idx");
+    }
+
+    private int nextPackId() throws IOException {
+        int max = 0;
+        try (var files = Files.list(packDir)) {
+            for (Path path : files.toList()) {
+                Matcher matcher = PACK_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    max = Math.max(max, Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        return max + 1;
+    }
+
+    private String keyOf(Path file) {
+        return hot.getRoot().relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * Walks the hot tier and appends cold files to packs, sealing a pack when
+     * it is full
+     */
+    private final class ColdFileCollector extends SimpleFileVisitor<Path> {
+        private final long cutoffMillis;
+        private final long packLimit;
+        private PackWriter writer;
+        private int filesMoved;
+        private long bytesMoved;
+        private int packsWritten;
+        private int filesSkipped;
+
+        ColdFileCollector(long cutoffMillis, long packLimit) {
+            this.cutoffMillis = cutoffMillis;
+            this.packLimit = packLimit;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            // Only the year/month/day tree is tiered; working directories such as
+            // .packs or .chunks and stores nested below the root are left alone
+            if (dir.getParent() != null && dir.getParent().equals(hot.getRoot())
+                    && !YEAR_DIR.matcher(dir.getFileName().toString()).matches()) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            if (!attrs.isRegularFile() || file.getParent().equals(hot.getRoot())
+                    || file.getFileName().toString().startsWith(".")
+                    || attrs.lastModifiedTime().toMillis() >= cutoffMillis) {
+                return FileVisitResult.CONTINUE;
+            }
+            if (attrs.size() > packLimit) {
+                filesSkipped++;
+                return FileVisitResult.CONTINUE;
+            }
+            if (writer != null && writer.size() + attrs.size() > packLimit) {
+                seal();
+            }
+            if (writer == null) {
+                writer = new PackWriter(nextPackId());
+            }
+            writer.append(file, keyOf(file), attrs);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            log.warn("Không thể đọc file {} khi phân tầng: {}", file, exc.getMessage());
+            return FileVisitResult.CONTINUE;
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                seal();
+            }
+        }
+
+        /**
+         * Drop the pack being written; its files are still in the hot tier
+         */
+        void abort() {
+            if (writer != null) {
+                writer.discard();
+                writer = null;
+            }
+        }
+
+        TieringResult result() {
+            return new TieringResult(filesMoved, bytesMoved, packsWritten, filesSkipped);
+        }
+
+        /**
+         * Seal the current pack, publish it to readers and remove the hot
+         * copies that did not change while the pack was written
+         */
+        private void seal() throws IOException {
+            PackWriter sealing = writer;
+            writer = null;
+            PackFile pack = sealing.seal();
+            if (pack == null) {
+                return;
+            }
+            packListener.packWritten(pack);
+            sealLock.writeLock().lock();
+            try {
+                packs.add(0, pack);
+                for (PackWriter.Source source : sealing.sources()) {
+                    Path file = source.file();
+                    BasicFileAttributes now;
+                    try {
+                        now = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        // Deleted while the pack was written: keep it deleted
+                        addTombstone(source.key(), pack.id());
+                        continue;
+                    }
+                    if (now.size() != source.size() || now.lastModifiedTime().toMillis() != source.modified()) {
+                        // Changed meanwhile: the hot copy stays and shadows the packed one
+                        continue;
+                    }
+                    Files.delete(file);
+                    removeEmptyParents(file.getParent());
+                    filesMoved++;
+                    bytesMoved += source.size();
+                }
+            } finally {
+                sealLock.writeLock().unlock();
+            }
+            packsWritten++;
+            log.info("Đã ghi gói lưu trữ {} ({} file, {} bytes)", pack.path().getFileName(), pack.size(),
+                    pack.dataSize());
+        }
+
+        private void removeEmptyParents(Path dir) throws IOException {
+            Path current = dir;
+            while (current != null && !current.equals(hot.getRoot()) && current.startsWith(hot.getRoot())) {
+                try {
+                    Files.delete(current);
+                } catch (DirectoryNotEmptyException e) {
+                    return;
+                }
+                current = current.getParent();
+            }
+        }
+    }
+
+    /**
+     * Appends files to a new pack data file and seals it with its index
+     */
+    private final class PackWriter {
+
+        record Source(Path file, String key, long size, long modified) {
+        }
+
+        private final int id;
+        private final Path pack;
+        private final FileChannel channel;
+        private final List<PackFile.Entry> entries = new ArrayList<>();
+        private final List<Source> sources = new ArrayList<>();
+
+        PackWriter(int id) throws IOException {
+            this.id = id;
+            this.pack = packDir.resolve(String.format("pack-%06d.pack", id));
+            this.channel = FileChannel.open(pack, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        long size() throws IOException {
+            return channel.size();
+        }
+
+        List<Source> sources() {
+            return sources;
+        }
+
+        void append(Path file, String key, BasicFileAttributes attrs) throws IOException {
+            long offset = channel.size();
+            long copied = 0;
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                long length = attrs.size();
+                while (copied < length) {
+                    long n = channel.transferFrom(in, offset + copied, length - copied);
+                    if (n <= 0) {
+                        break;
+                    }
+                    copied += n;
+                }
+            } catch (NoSuchFileException e) {
+                return;
+            }
+            if (copied != attrs.size()) {
+                // Truncated meanwhile; leave it hot
+                channel.truncate(offset);
+                return;
+            }
+            long modified = attrs.lastModifiedTime().toMillis();
+            entries.add(new PackFile.Entry(key, offset, copied, modified));
+            sources.add(new Source(file, key, copied, modified));
+        }
+
+        void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(pack);
+            } catch (IOException e) {
+                log.warn("Không thể xóa gói lưu trữ dở dang {}: {}", pack, e.getMessage());
+            }
+        }
+
+        /**
+         * Flush the data, write the index and map the pack
+         *
+         * @return The sealed pack, or null if nothing was written
+         */
+        PackFile seal() throws IOException {
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+            if (entries.isEmpty()) {
+                Files.deleteIfExists(pack);
+                return null;
+            }
+            Path index = indexFor(pack);
+            PackFile.writeIndex(index, entries);
+            return PackFile.open(id, pack, index);
+        }
+    }
+}
@@ -35,6 +35,21 @@ public class DateTimeRange {
         return new DateTimeRange(startDate, endDate);
     }
 
+    /**
+     * Tạo date range cho một quý của năm
+     * 
+     * @param year    năm
+     * @param quarter quý (1-4)
+     * @return DateTimeRange object
+     */
+    public static DateTimeRange ofQuarter(int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            throw new IllegalArgumentException("Quý không hợp lệ: " + quarter);
+        }
+        LocalDateTime startDate = LocalDateTime.of(year, (quarter - 1) * 3 + 1, 1, 0, 0, 0);
+        return new DateTimeRange(startDate, startDate.plusMonths(3).minusSeconds(1));
+    }
+
     public LocalDateTime getStartDate() {
         return startDate;
     }
@@ -0,0 +1,113 @@
+-- Range partitions by month for notifications, activity_logs and
+-- document_download_logs. Partitions are named <table>_pYYYY_MM.
+-- PartitionMaintenanceService creates the coming months and drops the months
+-- past retention with DROP TABLE instead of DELETE.
+
+-- Create the partition of parent holding the month of the given day. Returns
+-- false if it already exists.
+CREATE OR REPLACE FUNCTION create_month_partition(parent text, month_day date) RETURNS boolean AS $$
+DECLARE
+    first_day date := date_trunc('month', month_day)::date;
+    partition_name text := format('%s_p%s', parent, to_char(first_day, 'YYYY_MM'));
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent, first_day, (first_day + interval '1 month')::date);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Replace a plain table with a copy partitioned by month on key_column, with
+-- partitions from the month of its oldest row to three months ahead. The
+-- primary key becomes (id, key_column) since it must include the partition key.
+CREATE OR REPLACE FUNCTION partition_by_month(parent text, key_column text) RETURNS void AS $$
+DECLARE
+    legacy text := parent || '_unpartitioned';
+    first_month date;
+    last_month date;
+    partition_month date;
+    pkey text;
+BEGIN
+    IF (SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass(parent)) = 'p' THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, legacy);
+    SELECT c.conname INTO pkey FROM pg_constraint c
+        WHERE c.conrelid = to_regclass(legacy) AND c.contype = 'p';
+    IF pkey IS NOT NULL THEN
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I CASCADE', legacy, pkey);
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (%I)',
+            parent, legacy, key_column);
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, %I)', parent, key_column);
+
+    EXECUTE format('SELECT date_trunc(''month'', MIN(%1$I))::date, date_trunc(''month'', MAX(%1$I))::date FROM %2$I',
+            key_column, legacy) INTO first_month, last_month;
+    partition_month := LEAST(COALESCE(first_month, date_trunc('month', now())::date), date_trunc('month', now())::date);
+    last_month := GREATEST(COALESCE(last_month, partition_month), (date_trunc('month', now()) + interval '3 months')::date);
+    WHILE partition_month <= last_month LOOP
+        PERFORM create_month_partition(parent, partition_month);
+        partition_month := (partition_month + interval '1 month')::date;
+    END LOOP;
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', parent, legacy);
+    EXECUTE format('DROP TABLE %I', legacy);
+END;
+$$ LANGUAGE plpgsql;
+
+-- On an empty database the tables do not exist yet; create them with the
+-- columns of the entities so they can be partitioned below. Their foreign keys
+-- are added by V2, which creates the tables they refer to.
+CREATE TABLE IF NOT EXISTS notifications (
+    id bigint NOT NULL PRIMARY KEY,
+    type varchar(255) NOT NULL,
+    content varchar(255) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    is_read boolean NOT NULL,
+    read boolean NOT NULL,
+    active boolean,
+    user_id bigint,
+    entity_id bigint,
+    entity_type varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS activity_logs (
+    id bigint NOT NULL PRIMARY KEY,
+    action_type varchar(255) NOT NULL,
+    action_description text,
+    user_id bigint,
+    "timestamp" timestamp(6) NOT NULL,
+    document_id bigint,
+    work_case_id bigint,
+    ip_address varchar(255),
+    additional_data text
+);
+
+CREATE TABLE IF NOT EXISTS document_download_logs (
+    id bigint NOT NULL PRIMARY KEY,
+    document_id bigint,
+    attachment_id bigint,
+    user_id bigint,
+    user_name varchar(255),
+    ip_address varchar(255),
+    downloaded_at timestamp(6) NOT NULL
+);
+
+-- The partition key cannot be null
+UPDATE document_download_logs SET downloaded_at = now() WHERE downloaded_at IS NULL;
+ALTER TABLE document_download_logs ALTER COLUMN downloaded_at SET NOT NULL;
+
+SELECT partition_by_month('notifications', 'created_at');
+SELECT partition_by_month('activity_logs', 'timestamp');
+SELECT partition_by_month('document_download_logs', 'downloaded_at');
+
+-- Created on the partitioned tables, so every partition gets them. Each list
+-- or count is bounded by the partition key, which lets the planner skip the
+-- months outside the range.
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created ON notifications (user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_activity_logs_timestamp ON activity_logs ("timestamp");
+CREATE INDEX IF NOT EXISTS idx_document_download_logs_document ON document_download_logs (document_id, downloaded_at);
@@ -0,0 +1,712 @@
+-- Baseline of the tables that used to be created by ddl-auto=update. From this
+-- version on the migrations own the schema and Hibernate no longer changes it.
+-- Every statement is a no-op on a database where the object already exists,
+-- so existing installations only gain what is missing.
+
+-- Add a foreign key unless the column already has one (those created by the
+-- schema update have generated names)
+CREATE OR REPLACE FUNCTION add_foreign_key(child text, child_column text, parent text, parent_column text DEFAULT 'id')
+        RETURNS void AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_constraint c
+            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+            WHERE c.contype = 'f' AND c.conrelid = to_regclass(child) AND a.attname = child_column) THEN
+        RETURN;
+    END IF;
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I FOREIGN KEY (%I) REFERENCES %I (%I)',
+            child, left(format('fk_%s_%s', child, child_column), 63), child_column, parent, parent_column);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Pooled id sequences (allocation size 50, see IdSequenceInitializer)
+CREATE SEQUENCE IF NOT EXISTS node_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS document_history_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS document_attachments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS internal_document_recipient_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS internal_document_history_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS document_read_status_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS notifications_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS activity_logs_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS document_download_logs_seq START WITH 1 INCREMENT BY 50;
+
+-- Users, roles and departments
+
+CREATE TABLE IF NOT EXISTS department (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255),
+    abbreviation varchar(255),
+    storage_location varchar(255),
+    email varchar(255),
+    code_department varchar(255),
+    type_code integer,
+    external_id varchar(255),
+    dept_group varchar(255),
+    parent_department_id bigint
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    rid bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(60) NOT NULL UNIQUE,
+    description varchar(255),
+    display_name varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(60) NOT NULL UNIQUE,
+    pass varchar(100) NOT NULL,
+    full_name varchar(255),
+    mail varchar(64),
+    phone varchar(20),
+    status integer NOT NULL,
+    created timestamp(6),
+    access timestamp(6),
+    login timestamp(6),
+    department_id bigint,
+    is_commander_of_unit boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS users_roles (
+    uid bigint NOT NULL,
+    rid bigint NOT NULL,
+    PRIMARY KEY (uid, rid)
+);
+
+CREATE TABLE IF NOT EXISTS permissions (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE,
+    description varchar(255),
+    category varchar(255),
+    is_system_permission boolean NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS custom_roles (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE,
+    description varchar(255),
+    is_system_role boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    created_by bigint
+);
+
+CREATE TABLE IF NOT EXISTS role_permissions (
+    role_id bigint NOT NULL,
+    permission_id bigint NOT NULL,
+    PRIMARY KEY (role_id, permission_id)
+);
+
+CREATE TABLE IF NOT EXISTS signatures (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id bigint NOT NULL,
+    image_path varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    file_name varchar(255) NOT NULL,
+    keystore_file_name varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+-- Columns added after the tables already existed on older installations
+ALTER TABLE signatures ADD COLUMN IF NOT EXISTS keystore_file_name varchar(255);
+
+-- Incoming and outgoing documents (joined inheritance on node)
+
+CREATE TABLE IF NOT EXISTS document_types (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    is_active boolean
+);
+
+CREATE TABLE IF NOT EXISTS node (
+    id bigint NOT NULL PRIMARY KEY,
+    vid bigint,
+    type varchar(255) NOT NULL,
+    language varchar(255) NOT NULL,
+    title varchar(2000) NOT NULL,
+    uid bigint,
+    status smallint NOT NULL,
+    created timestamp(6) NOT NULL,
+    changed timestamp(6) NOT NULL,
+    attachment_filename varchar(255),
+    document_number varchar(255) UNIQUE,
+    reference_number varchar(255),
+    signing_date timestamp(6),
+    process_deadline timestamp(6),
+    issuing_agency varchar(255),
+    download_count bigint,
+    document_type_id bigint,
+    user_id bigint,
+    is_public boolean,
+    published_at timestamp(6),
+    uploader_name varchar(255),
+    uploader_email varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS incoming_document (
+    id bigint NOT NULL PRIMARY KEY,
+    issuing_authority varchar(255),
+    urgency_level varchar(255),
+    compute_value integer,
+    signing_date timestamp(6),
+    closure_request varchar(255),
+    email_source varchar(255),
+    sending_department_text varchar(255),
+    security_level varchar(255),
+    summary varchar(255),
+    notes varchar(255),
+    storage_location varchar(255),
+    received_date timestamp(6),
+    receipt_number varchar(255),
+    processing_officer_id bigint
+);
+
+CREATE TABLE IF NOT EXISTS outgoing_document (
+    id bigint NOT NULL PRIMARY KEY,
+    reference_number varchar(255),
+    get_document_number varchar(255),
+    signer_id bigint,
+    signing_date timestamp(6),
+    summary varchar(2000),
+    drafting_department varchar(255),
+    related_documents varchar(255),
+    storage_location integer,
+    document_volume varchar(255),
+    email_address varchar(255),
+    resend varchar(255),
+    receiving_department_text varchar(255),
+    is_internal boolean NOT NULL,
+    drafting_department_id bigint,
+    security_level varchar(255),
+    document_signer_id bigint,
+    is_secure_transmission boolean,
+    processing_deadline timestamp(6),
+    issuing_agency varchar(255),
+    distribution_type smallint,
+    number_of_copies integer,
+    number_of_pages integer,
+    no_paper_copy boolean
+);
+
+CREATE TABLE IF NOT EXISTS document_relationship (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    incoming_document_id bigint,
+    outgoing_document_id bigint,
+    relationship_type varchar(255),
+    created_at timestamp(6),
+    created_by_id bigint,
+    comments varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS document_categories (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    slug varchar(255) NOT NULL UNIQUE,
+    name varchar(255) NOT NULL,
+    description text,
+    parent_id bigint,
+    is_active boolean NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS document_category_links (
+    document_id bigint NOT NULL,
+    category_id bigint NOT NULL,
+    PRIMARY KEY (document_id, category_id)
+);
+
+CREATE TABLE IF NOT EXISTS document_attachments (
+    id bigint NOT NULL PRIMARY KEY,
+    document_id bigint NOT NULL,
+    original_filename varchar(255) NOT NULL,
+    stored_filename varchar(255) NOT NULL,
+    file_path varchar(255) NOT NULL,
+    content_type varchar(255),
+    file_size bigint,
+    checksum varchar(64),
+    uploaded_date timestamp(6) NOT NULL,
+    uploaded_by bigint,
+    description varchar(255)
+);
+ALTER TABLE document_attachments ADD COLUMN IF NOT EXISTS checksum varchar(64);
+
+CREATE TABLE IF NOT EXISTS document_department (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_id bigint NOT NULL,
+    department_id bigint NOT NULL,
+    is_primary boolean NOT NULL,
+    comments text,
+    assigned_date timestamp(6) NOT NULL,
+    due_date timestamp(6),
+    assigned_by bigint,
+    processing_status varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS document_history (
+    id bigint NOT NULL PRIMARY KEY,
+    document_id bigint NOT NULL,
+    action varchar(255) NOT NULL,
+    previous_status varchar(255),
+    new_status varchar(255),
+    comments text,
+    attachment_path varchar(255),
+    primary_department_id bigint,
+    assigned_to_id bigint,
+    performed_by_id bigint,
+    "timestamp" timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS document_history_collaborating_departments (
+    document_history_id bigint NOT NULL,
+    department_id bigint NOT NULL,
+    PRIMARY KEY (document_history_id, department_id)
+);
+
+CREATE TABLE IF NOT EXISTS document_comments (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    content varchar(2000) NOT NULL,
+    created timestamp(6) NOT NULL,
+    comment_type varchar(50)
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    content text,
+    document_id bigint,
+    author_id bigint,
+    created_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS document_read_status (
+    id bigint NOT NULL PRIMARY KEY,
+    document_id bigint NOT NULL,
+    document_type varchar(255) NOT NULL,
+    user_id bigint NOT NULL,
+    is_read boolean NOT NULL,
+    read_at timestamp(6),
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS senders (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE,
+    description varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+-- Internal documents
+
+CREATE TABLE IF NOT EXISTS internal_document (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_number varchar(255) UNIQUE,
+    number_receive bigint,
+    title varchar(2000) NOT NULL,
+    summary text,
+    document_type varchar(255),
+    signing_date timestamp(6),
+    signer varchar(255),
+    urgency_level varchar(255) NOT NULL,
+    notes text,
+    status varchar(255) NOT NULL,
+    sender_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    drafting_department_id bigint,
+    security_level varchar(255),
+    document_signer_id bigint,
+    is_secure_transmission boolean,
+    processing_deadline timestamp(6),
+    issuing_agency varchar(255),
+    distribution_type smallint,
+    number_of_copies integer,
+    number_of_pages integer,
+    no_paper_copy boolean,
+    is_publicly_available boolean,
+    reply_to_id bigint
+);
+
+CREATE TABLE IF NOT EXISTS internal_document_recipient (
+    id bigint NOT NULL PRIMARY KEY,
+    document_id bigint NOT NULL,
+    department_id bigint,
+    user_id bigint,
+    is_read boolean NOT NULL,
+    read_at timestamp(6),
+    received_at timestamp(6) NOT NULL,
+    forwarded_at timestamp(6),
+    forwarded_by bigint,
+    notes text
+);
+
+CREATE TABLE IF NOT EXISTS internal_document_attachment (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    document_id bigint NOT NULL,
+    filename varchar(255) NOT NULL,
+    file_path varchar(255) NOT NULL,
+    content_type varchar(255),
+    file_size bigint,
+    checksum varchar(64),
+    uploaded_at timestamp(6) NOT NULL,
+    uploaded_by bigint,
+    description varchar(255)
+);
+ALTER TABLE internal_document_attachment ADD COLUMN IF NOT EXISTS checksum varchar(64);
+
+CREATE TABLE IF NOT EXISTS internal_document_history (
+    id bigint NOT NULL PRIMARY KEY,
+    document_id bigint NOT NULL,
+    action varchar(255) NOT NULL,
+    details text,
+    performed_by bigint NOT NULL,
+    performed_at timestamp(6) NOT NULL,
+    ip_address varchar(255),
+    user_agent varchar(255)
+);
+
+-- Work cases, plans and schedules
+
+CREATE TABLE IF NOT EXISTS work_cases (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    case_code varchar(255) UNIQUE,
+    description text,
+    status varchar(255),
+    priority varchar(255),
+    deadline timestamp(6),
+    created_date timestamp(6) NOT NULL,
+    last_modified_date timestamp(6) NOT NULL,
+    created_by bigint,
+    assigned_to bigint,
+    progress integer,
+    tags varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS workcase_documents (
+    workcase_id bigint NOT NULL,
+    document_id bigint NOT NULL,
+    PRIMARY KEY (workcase_id, document_id)
+);
+
+CREATE TABLE IF NOT EXISTS work_plans (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    description text,
+    department_id bigint,
+    start_date timestamp(6),
+    end_date timestamp(6),
+    status varchar(255) NOT NULL,
+    created_by bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    approved_by bigint,
+    approved_at timestamp(6),
+    approval_comments text
+);
+
+CREATE TABLE IF NOT EXISTS work_plan_tasks (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    description text,
+    assignee_id bigint,
+    start_date timestamp(6),
+    end_date timestamp(6),
+    status varchar(255) NOT NULL,
+    progress integer,
+    status_comments text,
+    last_updated_by bigint,
+    work_plan_id bigint NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS schedules (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    description text,
+    department_id bigint,
+    status varchar(255) NOT NULL,
+    created_by bigint,
+    approved_by bigint,
+    approval_date timestamp(6),
+    approval_comments varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    period varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS schedule_events (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title varchar(255) NOT NULL,
+    description text,
+    "date" date NOT NULL,
+    start_time time(6),
+    end_time time(6),
+    location varchar(255),
+    type varchar(255) NOT NULL,
+    schedule_id bigint NOT NULL,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS schedule_event_participants (
+    event_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    PRIMARY KEY (event_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS schedule_event_attendances (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    status varchar(255) NOT NULL,
+    comments text,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS work_inbox (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id bigint NOT NULL,
+    document_kind varchar(20) NOT NULL,
+    document_id bigint NOT NULL,
+    state varchar(20) NOT NULL,
+    is_read boolean NOT NULL,
+    priority varchar(50),
+    urgent boolean NOT NULL,
+    deadline timestamp(6),
+    received_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    CONSTRAINT uk_work_inbox_user_document UNIQUE (user_id, document_kind, document_id)
+);
+
+-- Equipment and guides
+
+CREATE TABLE IF NOT EXISTS equipment (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL,
+    category varchar(50),
+    serial_number varchar(100),
+    status varchar(50),
+    condition_label varchar(50),
+    quantity integer,
+    purchase_date timestamp(6),
+    last_maintenance_date timestamp(6),
+    notes text,
+    department_id bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS equipment_categories (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code varchar(64) NOT NULL UNIQUE,
+    name varchar(200) NOT NULL,
+    is_active boolean,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS equipment_conditions (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code varchar(64) NOT NULL UNIQUE,
+    name varchar(200) NOT NULL,
+    is_active boolean,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS equipment_statuses (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code varchar(64) NOT NULL UNIQUE,
+    name varchar(200) NOT NULL,
+    is_active boolean,
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+CREATE TABLE IF NOT EXISTS guide_files (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL,
+    description text,
+    file_name varchar(255) NOT NULL,
+    file_type varchar(255) NOT NULL,
+    file_size bigint NOT NULL,
+    file_url varchar(255) NOT NULL,
+    checksum varchar(64),
+    category varchar(255) NOT NULL,
+    is_active boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    created_by_id bigint,
+    created_by_name varchar(255)
+);
+ALTER TABLE guide_files ADD COLUMN IF NOT EXISTS checksum varchar(64);
+
+-- Uploads, attachment text search and storage totals
+
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id varchar(36) NOT NULL PRIMARY KEY,
+    user_id bigint NOT NULL,
+    filename varchar(255) NOT NULL,
+    content_type varchar(255),
+    total_size bigint NOT NULL,
+    received_bytes bigint NOT NULL,
+    expected_checksum varchar(64),
+    status varchar(20) NOT NULL,
+    staging_path varchar(255) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    expires_at timestamp(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_status_expires ON upload_sessions (status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_user ON upload_sessions (user_id);
+
+CREATE TABLE IF NOT EXISTS attachment_text_jobs (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    source_type varchar(20) NOT NULL,
+    attachment_id bigint NOT NULL,
+    document_id bigint,
+    status varchar(20) NOT NULL,
+    attempts integer NOT NULL,
+    last_error varchar(1000),
+    page_count integer,
+    char_count bigint,
+    next_attempt_at timestamp(6) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    CONSTRAINT uk_attachment_text_jobs_source UNIQUE (source_type, attachment_id)
+);
+CREATE INDEX IF NOT EXISTS idx_attachment_text_jobs_status_next ON attachment_text_jobs (status, next_attempt_at);
+
+CREATE TABLE IF NOT EXISTS attachment_text_pages (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    source_type varchar(20) NOT NULL,
+    attachment_id bigint NOT NULL,
+    document_id bigint,
+    page_number integer NOT NULL,
+    content text NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_attachment_text_pages_source ON attachment_text_pages (source_type, attachment_id);
+CREATE INDEX IF NOT EXISTS idx_attachment_text_pages_document ON attachment_text_pages (document_id);
+CREATE INDEX IF NOT EXISTS idx_attachment_text_pages_fts ON attachment_text_pages USING gin (to_tsvector('simple', content));
+
+CREATE TABLE IF NOT EXISTS storage_usage (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    scope varchar(20) NOT NULL,
+    scope_key varchar(255) NOT NULL,
+    file_count bigint NOT NULL,
+    total_bytes bigint NOT NULL,
+    updated_at timestamp(6),
+    CONSTRAINT uk_storage_usage_scope_key UNIQUE (scope, scope_key)
+);
+
+-- Activity rollups
+
+CREATE TABLE IF NOT EXISTS activity_log_rollup (
+    id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    granularity varchar(10) NOT NULL,
+    bucket_start timestamp(6) NOT NULL,
+    user_id bigint NOT NULL,
+    action_type varchar(255) NOT NULL,
+    document_id bigint NOT NULL,
+    event_count bigint NOT NULL,
+    CONSTRAINT uk_activity_log_rollup_bucket UNIQUE (granularity, bucket_start, user_id, action_type, document_id)
+);
+
+CREATE TABLE IF NOT EXISTS activity_log_rollup_watermark (
+    granularity varchar(10) NOT NULL PRIMARY KEY,
+    rolled_up_to timestamp(6) NOT NULL,
+    updated_at timestamp(6)
+);
+
+-- Foreign keys
+
+SELECT add_foreign_key('department', 'parent_department_id', 'department');
+SELECT add_foreign_key('users', 'department_id', 'department');
+SELECT add_foreign_key('users_roles', 'uid', 'users');
+SELECT add_foreign_key('users_roles', 'rid', 'roles', 'rid');
+SELECT add_foreign_key('custom_roles', 'created_by', 'users');
+SELECT add_foreign_key('role_permissions', 'role_id', 'custom_roles');
+SELECT add_foreign_key('role_permissions', 'permission_id', 'permissions');
+SELECT add_foreign_key('signatures', 'user_id', 'users');
+
+SELECT add_foreign_key('node', 'uid', 'users');
+SELECT add_foreign_key('node', 'user_id', 'users');
+SELECT add_foreign_key('node', 'document_type_id', 'document_types');
+SELECT add_foreign_key('incoming_document', 'id', 'node');
+SELECT add_foreign_key('incoming_document', 'processing_officer_id', 'users');
+SELECT add_foreign_key('outgoing_document', 'id', 'node');
+SELECT add_foreign_key('outgoing_document', 'signer_id', 'users');
+SELECT add_foreign_key('outgoing_document', 'document_signer_id', 'users');
+SELECT add_foreign_key('outgoing_document', 'drafting_department_id', 'department');
+SELECT add_foreign_key('document_relationship', 'incoming_document_id', 'incoming_document');
+SELECT add_foreign_key('document_relationship', 'outgoing_document_id', 'outgoing_document');
+SELECT add_foreign_key('document_categories', 'parent_id', 'document_categories');
+SELECT add_foreign_key('document_category_links', 'document_id', 'node');
+SELECT add_foreign_key('document_category_links', 'category_id', 'document_categories');
+SELECT add_foreign_key('document_attachments', 'document_id', 'node');
+SELECT add_foreign_key('document_attachments', 'uploaded_by', 'users');
+SELECT add_foreign_key('document_department', 'document_id', 'node');
+SELECT add_foreign_key('document_department', 'department_id', 'department');
+SELECT add_foreign_key('document_department', 'assigned_by', 'users');
+SELECT add_foreign_key('document_history', 'document_id', 'node');
+SELECT add_foreign_key('document_history', 'primary_department_id', 'department');
+SELECT add_foreign_key('document_history', 'assigned_to_id', 'users');
+SELECT add_foreign_key('document_history', 'performed_by_id', 'users');
+SELECT add_foreign_key('document_history_collaborating_departments', 'document_history_id', 'document_history');
+SELECT add_foreign_key('document_history_collaborating_departments', 'department_id', 'department');
+SELECT add_foreign_key('document_comments', 'document_id', 'node');
+SELECT add_foreign_key('document_comments', 'user_id', 'users');
+SELECT add_foreign_key('comments', 'document_id', 'node');
+SELECT add_foreign_key('comments', 'author_id', 'users');
+SELECT add_foreign_key('document_read_status', 'user_id', 'users');
+
+SELECT add_foreign_key('internal_document', 'sender_id', 'users');
+SELECT add_foreign_key('internal_document', 'drafting_department_id', 'department');
+SELECT add_foreign_key('internal_document', 'document_signer_id', 'users');
+SELECT add_foreign_key('internal_document', 'reply_to_id', 'internal_document');
+SELECT add_foreign_key('internal_document_recipient', 'document_id', 'internal_document');
+SELECT add_foreign_key('internal_document_recipient', 'department_id', 'department');
+SELECT add_foreign_key('internal_document_recipient', 'user_id', 'users');
+SELECT add_foreign_key('internal_document_recipient', 'forwarded_by', 'users');
+SELECT add_foreign_key('internal_document_attachment', 'document_id', 'internal_document');
+SELECT add_foreign_key('internal_document_attachment', 'uploaded_by', 'users');
+SELECT add_foreign_key('internal_document_history', 'document_id', 'internal_document');
+SELECT add_foreign_key('internal_document_history', 'performed_by', 'users');
+
+SELECT add_foreign_key('work_cases', 'created_by', 'users');
+SELECT add_foreign_key('work_cases', 'assigned_to', 'users');
+SELECT add_foreign_key('workcase_documents', 'workcase_id', 'work_cases');
+SELECT add_foreign_key('workcase_documents', 'document_id', 'node');
+SELECT add_foreign_key('work_plans', 'department_id', 'department');
+SELECT add_foreign_key('work_plans', 'created_by', 'users');
+SELECT add_foreign_key('work_plans', 'approved_by', 'users');
+SELECT add_foreign_key('work_plan_tasks', 'assignee_id', 'users');
+SELECT add_foreign_key('work_plan_tasks', 'last_updated_by', 'users');
+SELECT add_foreign_key('work_plan_tasks', 'work_plan_id', 'work_plans');
+SELECT add_foreign_key('schedules', 'department_id', 'department');
+SELECT add_foreign_key('schedules', 'created_by', 'users');
+SELECT add_foreign_key('schedules', 'approved_by', 'users');
+SELECT add_foreign_key('schedule_events', 'schedule_id', 'schedules');
+SELECT add_foreign_key('schedule_event_participants', 'event_id', 'schedule_events');
+SELECT add_foreign_key('schedule_event_attendances', 'event_id', 'schedule_events');
+SELECT add_foreign_key('schedule_event_attendances', 'user_id', 'users');
+SELECT add_foreign_key('equipment', 'department_id', 'department');
+
+-- The partitioned tables of V1, created there before the tables they refer
+-- to. The document and attachment ids of a download log come unchecked from
+-- the public download URL and stay plain columns.
+SELECT add_foreign_key('notifications', 'user_id', 'users');
+SELECT add_foreign_key('activity_logs', 'user_id', 'users');
+SELECT add_foreign_key('activity_logs', 'document_id', 'node');
+SELECT add_foreign_key('activity_logs', 'work_case_id', 'work_cases');
+UPDATE document_download_logs l SET user_id = NULL
+WHERE user_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = l.user_id);
+SELECT add_foreign_key('document_download_logs', 'user_id', 'users');
+
+DROP FUNCTION add_foreign_key(text, text, text, text);
@@ -0,0 +1,45 @@
+-- Indexes for the predicates of the repository queries, checked by
+-- QueryPlanExplainTest. Column order follows the equality predicates first and
+-- the range or sort column last.
+
+-- DocumentReadStatusRepository: unread counts and ids per user and type, and
+-- the status of one or more documents for a user
+CREATE INDEX IF NOT EXISTS idx_document_read_status_user_type_read ON document_read_status (user_id, document_type, is_read);
+CREATE INDEX IF NOT EXISTS idx_document_read_status_document ON document_read_status (document_id, document_type, user_id);
+
+-- NotificationRepository: every list and count filters on the user, active and
+-- read flags within the lookback window. Replaces (user_id, created_at) of V1.
+CREATE INDEX IF NOT EXISTS idx_notifications_user_active_read_created ON notifications (user_id, active, read, created_at);
+DROP INDEX IF EXISTS idx_notifications_user_created;
+
+-- DocumentHistoryRepository: history of a document and last action of a user,
+-- both newest first
+CREATE INDEX IF NOT EXISTS idx_document_history_document_timestamp ON document_history (document_id, "timestamp");
+CREATE INDEX IF NOT EXISTS idx_document_history_performer_timestamp ON document_history (performed_by_id, "timestamp");
+
+-- InternalDocumentRecipientRepository and the inbox queries
+CREATE INDEX IF NOT EXISTS idx_internal_document_recipient_user_read ON internal_document_recipient (user_id, is_read);
+CREATE INDEX IF NOT EXISTS idx_internal_document_recipient_document ON internal_document_recipient (document_id);
+CREATE INDEX IF NOT EXISTS idx_internal_document_recipient_department ON internal_document_recipient (department_id);
+
+-- DocumentRepository: lists by status and by creation date
+CREATE INDEX IF NOT EXISTS idx_node_status ON node (status);
+CREATE INDEX IF NOT EXISTS idx_node_created ON node (created);
+
+-- Foreign keys followed from a document to its children
+CREATE INDEX IF NOT EXISTS idx_document_department_document ON document_department (document_id);
+CREATE INDEX IF NOT EXISTS idx_document_department_department ON document_department (department_id);
+CREATE INDEX IF NOT EXISTS idx_document_attachments_document ON document_attachments (document_id);
+CREATE INDEX IF NOT EXISTS idx_internal_document_attachment_document ON internal_document_attachment (document_id);
+CREATE INDEX IF NOT EXISTS idx_internal_document_history_document ON internal_document_history (document_id);
+
+-- InternalDocumentRepository: sent documents of a user, newest first, and replies
+CREATE INDEX IF NOT EXISTS idx_internal_document_sender_created ON internal_document (sender_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_internal_document_created ON internal_document (created_at);
+CREATE INDEX IF NOT EXISTS idx_internal_document_reply_to ON internal_document (reply_to_id);
+
+-- ActivityLogRepository: activity of a user within a range
+CREATE INDEX IF NOT EXISTS idx_activity_logs_user_timestamp ON activity_logs (user_id, "timestamp");
+
+-- UserRepository: users of a department
+CREATE INDEX IF NOT EXISTS idx_users_department ON users (department_id);
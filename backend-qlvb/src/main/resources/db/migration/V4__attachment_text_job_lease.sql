@@ -0,0 +1,12 @@
+-- Lease of a text extraction job: the worker that claimed it and until when.
+-- The worker renews the lease while it runs; only jobs whose lease expired
+-- are put back in the queue, so several nodes can share it.
+ALTER TABLE attachment_text_jobs ADD COLUMN IF NOT EXISTS locked_by varchar(100);
+ALTER TABLE attachment_text_jobs ADD COLUMN IF NOT EXISTS lease_until timestamp(6);
+
+-- Jobs claimed before the lease existed expire after the old stale delay
+UPDATE attachment_text_jobs
+SET lease_until = updated_at + interval '30 minutes'
+WHERE status = 'PROCESSING' AND lease_until IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_attachment_text_jobs_status_lease ON attachment_text_jobs (status, lease_until);
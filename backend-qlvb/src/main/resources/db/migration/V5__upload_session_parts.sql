@@ -0,0 +1,10 @@
+-- Chunked uploads stage their chunks as part objects in the attachment store,
+-- so any node can take the next chunk. A session is written by one request at
+-- a time under a lease: the request that holds it and until when.
+ALTER TABLE upload_sessions ADD COLUMN IF NOT EXISTS locked_by varchar(100);
+ALTER TABLE upload_sessions ADD COLUMN IF NOT EXISTS lease_until timestamp(6);
+
+-- Sessions still writing into a node-local staging file cannot be resumed as
+-- parts; the client starts them again. Their files are removed on expiry.
+UPDATE upload_sessions SET status = 'CANCELLED'
+WHERE status = 'UPLOADING' AND staging_path LIKE '%.part';
@@ -0,0 +1,8 @@
+-- Indexes of the work inbox, which the baseline created without them. The
+-- unread count is restricted to pending rows, so its index leads with state.
+DROP INDEX IF EXISTS idx_work_inbox_user_unread;
+CREATE INDEX IF NOT EXISTS idx_work_inbox_user_state_received ON work_inbox (user_id, state, received_at);
+CREATE INDEX IF NOT EXISTS idx_work_inbox_user_kind_state_received ON work_inbox (user_id, document_kind, state, received_at);
+CREATE INDEX IF NOT EXISTS idx_work_inbox_user_state_unread ON work_inbox (user_id, state, is_read, document_kind);
+CREATE INDEX IF NOT EXISTS idx_work_inbox_user_urgent_deadline ON work_inbox (user_id, state, urgent, deadline);
+CREATE INDEX IF NOT EXISTS idx_work_inbox_document ON work_inbox (document_kind, document_id);
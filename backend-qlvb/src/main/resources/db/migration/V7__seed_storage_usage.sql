@@ -0,0 +1,33 @@
+-- Storage totals are kept up to date by the application from the moment
+-- storage_usage exists, so installations that already had attachments start
+-- with no totals, or with totals of only the changes since. Rebuild them from
+-- the attachment tables, with the queries of StorageUsageService.recompute().
+DELETE FROM storage_usage;
+
+INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at)
+SELECT 'DOCUMENT', CAST(a.document_id AS varchar), COUNT(*), COALESCE(SUM(a.file_size), 0), now()
+FROM document_attachments a GROUP BY a.document_id
+UNION ALL
+SELECT 'INTERNAL_DOCUMENT', CAST(a.document_id AS varchar), COUNT(*), COALESCE(SUM(a.file_size), 0), now()
+FROM internal_document_attachment a GROUP BY a.document_id;
+
+INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at)
+SELECT 'DEPARTMENT', x.k, COUNT(*), COALESCE(SUM(x.s), 0), now() FROM (
+    SELECT COALESCE(CAST(COALESCE(u.department_id, c.department_id) AS varchar), '-') AS k, a.file_size AS s
+    FROM document_attachments a JOIN node n ON n.id = a.document_id
+    LEFT JOIN users u ON u.id = a.uploaded_by LEFT JOIN users c ON c.id = n.uid
+    UNION ALL
+    SELECT COALESCE(CAST(COALESCE(d.drafting_department_id, u.department_id) AS varchar), '-'), a.file_size
+    FROM internal_document_attachment a JOIN internal_document d ON d.id = a.document_id
+    LEFT JOIN users u ON u.id = a.uploaded_by
+) x GROUP BY x.k;
+
+INSERT INTO storage_usage (scope, scope_key, file_count, total_bytes, updated_at)
+SELECT 'DOCUMENT_TYPE', x.k, COUNT(*), COALESCE(SUM(x.s), 0), now() FROM (
+    SELECT COALESCE(t.name, '-') AS k, a.file_size AS s
+    FROM document_attachments a JOIN node n ON n.id = a.document_id
+    LEFT JOIN document_types t ON t.id = n.document_type_id
+    UNION ALL
+    SELECT COALESCE(NULLIF(d.document_type, ''), '-'), a.file_size
+    FROM internal_document_attachment a JOIN internal_document d ON d.id = a.document_id
+) x GROUP BY x.k;
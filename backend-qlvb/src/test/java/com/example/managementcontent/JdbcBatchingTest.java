@@ -0,0 +1,246 @@
+package com.example.managementcontent;
+
+import com.managementcontent.ManagementContentApplication;
+import com.managementcontent.dto.CreateInternalDocumentDTO;
+import com.managementcontent.model.Department;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.repository.DepartmentRepository;
+import com.managementcontent.repository.IncomingDocumentRepository;
+import com.managementcontent.repository.UserRepository;
+import com.managementcontent.service.DocumentWorkflowService;
+import com.managementcontent.service.InternalDocumentService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the JDBC statements and batches of the send and distribute flows
+ * with JDBC batching turned off for the session and with the configured
+ * batch size, and fails if batching does not cut the round trips. Runs the
+ * application against the PostgreSQL database of {@link QueryPlanExplainTest}
+ * (same EXPLAIN_TEST_DB_* variables), migrated into the batching_test schema,
+ * which is dropped afterwards.
+ * <p>
+ * The counts come from a Hibernate session event listener, which sees the
+ * same prepare and batch events as Hibernate's statistics but only for the
+ * test thread, so the scheduled jobs of the application do not skew them.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_TEST_DB_URL", matches = ".+")
+@SpringBootTest(classes = ManagementContentApplication.class, properties = {
+        "spring.datasource.url=${EXPLAIN_TEST_DB_URL}",
+        "spring.datasource.username=${EXPLAIN_TEST_DB_USER:}",
+        "spring.datasource.password=${EXPLAIN_TEST_DB_PASSWORD:}",
+        "spring.datasource.hikari.schema=" + JdbcBatchingTest.SCHEMA,
+        "spring.flyway.schemas=" + JdbcBatchingTest.SCHEMA,
+        "spring.flyway.default-schema=" + JdbcBatchingTest.SCHEMA,
+        "spring.jpa.properties.hibernate.session.events.auto="
+                + "com.example.managementcontent.JdbcBatchingTest$JdbcCounter"
+})
+class JdbcBatchingTest {
+
+    static final String SCHEMA = "batching_test";
+
+    private static final int RECIPIENTS = 40;
+    private static final int DEPARTMENTS = 10;
+
+    /**
+     * Prepared statements and executed batches of the sessions opened by the
+     * current thread
+     */
+    public static class JdbcCounter extends BaseSessionEventListener {
+        private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+        static void reset() {
+            COUNTS.remove();
+        }
+
+        static long statements() {
+            return COUNTS.get()[0];
+        }
+
+        static long batches() {
+            return COUNTS.get()[1];
+        }
+
+        @Override
+        public void jdbcPrepareStatementStart() {
+            COUNTS.get()[0]++;
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            COUNTS.get()[1]++;
+        }
+    }
+
+    private record Counts(long statements, long batches) {
+    }
+
+    @Autowired
+    private InternalDocumentService internalDocumentService;
+
+    @Autowired
+    private DocumentWorkflowService documentWorkflowService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private IncomingDocumentRepository incomingDocumentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private User sender;
+    private List<Department> departments;
+    private List<User> recipients;
+
+    @BeforeAll
+    static void dropLeftoverSchema() throws SQLException {
+        dropSchema();
+    }
+
+    @AfterAll
+    static void dropTestSchema() throws SQLException {
+        dropSchema();
+    }
+
+    private static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(System.getenv("EXPLAIN_TEST_DB_URL"),
+                System.getenv("EXPLAIN_TEST_DB_USER"), System.getenv("EXPLAIN_TEST_DB_PASSWORD"));
+                Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        String run = Long.toString(System.nanoTime(), 36);
+        departments = departmentRepository.saveAll(IntStream.range(0, DEPARTMENTS)
+                .mapToObj(i -> Department.builder().name("Phòng " + run + "-" + i).build())
+                .toList());
+        sender = userRepository.save(User.builder()
+                .name("sender-" + run)
+                .pass("x")
+                .fullName("Người gửi")
+                .department(departments.get(0))
+                .build());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < RECIPIENTS; i++) {
+            users.add(User.builder()
+                    .name("recipient-" + run + "-" + i)
+                    .pass("x")
+                    .fullName("Người nhận " + i)
+                    .department(departments.get(i % DEPARTMENTS))
+                    .isCommanderOfUnit(i < DEPARTMENTS)
+                    .build());
+        }
+        recipients = userRepository.saveAll(users);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(sender.getName(), null, List.of()));
+    }
+
+    @Test
+    void sendingInternalDocumentBatchesRecipientRows() {
+        Counts unbatched = measure(false, () -> internalDocumentService.createDocument(internalDocument("A")));
+        Counts batched = measure(true, () -> internalDocumentService.createDocument(internalDocument("B")));
+        String counts = describe(unbatched, batched);
+
+        assertEquals(0, unbatched.batches(), counts);
+        assertTrue(batched.batches() > 0, "send must write JDBC batches; " + counts);
+        // Recipient, read status and notification rows each go out as one batch instead of one per recipient
+        assertTrue(unbatched.statements() - batched.statements() >= RECIPIENTS,
+                "batching must save at least one statement per recipient; " + counts);
+    }
+
+    @Test
+    void distributingDocumentBatchesNotifications() {
+        Long first = incomingDocument("A");
+        Long second = incomingDocument("B");
+        List<Long> collaborating = departments.subList(1, DEPARTMENTS).stream().map(Department::getId).toList();
+
+        Counts unbatched = measure(false, () -> documentWorkflowService.distributeDocument(first,
+                departments.get(0).getId(), collaborating, sender, "Phân phối"));
+        Counts batched = measure(true, () -> documentWorkflowService.distributeDocument(second,
+                departments.get(0).getId(), collaborating, sender, "Phân phối"));
+        String counts = describe(unbatched, batched);
+
+        assertEquals(0, unbatched.batches(), counts);
+        assertTrue(batched.batches() > 0, "distribute must write JDBC batches; " + counts);
+        assertTrue(batched.statements() < unbatched.statements(), "batching must save statements; " + counts);
+    }
+
+    /**
+     * Run a flow in one transaction and count its JDBC work, with batching
+     * of the session turned off or left at the configured size
+     */
+    private Counts measure(boolean batching, Runnable flow) {
+        JdbcCounter.reset();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!batching) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+            }
+            flow.run();
+        });
+        return new Counts(JdbcCounter.statements(), JdbcCounter.batches());
+    }
+
+    private static String describe(Counts unbatched, Counts batched) {
+        return "%d statements without batching, %d statements and %d batches with batching"
+                .formatted(unbatched.statements(), batched.statements(), batched.batches());
+    }
+
+    private CreateInternalDocumentDTO internalDocument(String suffix) {
+        return CreateInternalDocumentDTO.builder()
+                .documentNumber("BATCH-" + sender.getName() + "-" + suffix)
+                .title("Kiểm tra ghi theo lô " + suffix)
+                .recipients(recipients.stream()
+                        .map(user -> CreateInternalDocumentDTO.RecipientRequest.builder()
+                                .departmentId(user.getDepartment().getId())
+                                .userId(user.getId())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private Long incomingDocument(String suffix) {
+        IncomingDocument document = new IncomingDocument();
+        document.setType("incoming_document");
+        document.setTitle("Công văn đến " + suffix);
+        document.setDocumentNumber("BATCH-" + sender.getName() + "-IN-" + suffix);
+        document.setCreator(sender);
+        document.setStatus(DocumentProcessingStatus.REGISTERED);
+        return incomingDocumentRepository.save(document).getId();
+    }
+}
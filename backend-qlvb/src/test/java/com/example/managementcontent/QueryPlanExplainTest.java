@@ -0,0 +1,184 @@
+package com.example.managementcontent;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the hot repository queries against a schema built by the
+ * migrations and seeded with generated data, and fails if any of them scans
+ * a large table sequentially. Needs a PostgreSQL database:
+ * EXPLAIN_TEST_DB_URL (e.g. jdbc:postgresql://localhost:5433/qlvb),
+ * EXPLAIN_TEST_DB_USER and EXPLAIN_TEST_DB_PASSWORD. Everything is created
+ * in the explain_test schema, which is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_TEST_DB_URL", matches = ".+")
+class QueryPlanExplainTest {
+
+    private static final String SCHEMA = "explain_test";
+
+    private static final Set<String> LARGE_TABLES = Set.of("node", "document_read_status", "notifications",
+            "document_history", "internal_document", "internal_document_recipient", "activity_logs");
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    /**
+     * Native equivalents of the repository queries, with literal parameters
+     */
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("DocumentReadStatusRepository.countUnreadDocuments",
+                "SELECT COUNT(*) FROM document_read_status WHERE user_id = 42 " +
+                        "AND document_type = 'INCOMING_INTERNAL' AND is_read = false");
+        QUERIES.put("DocumentReadStatusRepository.findByDocumentIdsAndDocumentTypeAndUser",
+                "SELECT * FROM document_read_status WHERE document_id IN (10, 20, 30) " +
+                        "AND document_type = 'INCOMING_EXTERNAL' AND user_id = 42");
+        QUERIES.put("NotificationRepository.countRecentUnread",
+                "SELECT COUNT(*) FROM notifications WHERE user_id = 42 AND read = false AND active = true " +
+                        "AND created_at >= now() - interval '6 months'");
+        QUERIES.put("NotificationRepository.findRecentByUser",
+                "SELECT * FROM notifications WHERE user_id = 42 AND active = true " +
+                        "AND created_at >= now() - interval '6 months' ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("DocumentHistoryRepository.findByDocumentOrderByTimestampDesc",
+                "SELECT * FROM document_history WHERE document_id = 1234 ORDER BY \"timestamp\" DESC");
+        QUERIES.put("DocumentHistoryRepository.findFirstByPerformedBy_IdOrderByTimestampDesc",
+                "SELECT * FROM document_history WHERE performed_by_id = 42 ORDER BY \"timestamp\" DESC LIMIT 1");
+        QUERIES.put("InternalDocumentRecipientRepository.unreadOfUser",
+                "SELECT * FROM internal_document_recipient WHERE user_id = 42 AND is_read = false");
+        QUERIES.put("InternalDocumentRecipientRepository.findByDocument",
+                "SELECT * FROM internal_document_recipient WHERE document_id = 1234");
+        QUERIES.put("InternalDocumentRepository.findBySenderOrderByCreatedAtDesc",
+                "SELECT * FROM internal_document WHERE sender_id = 42 ORDER BY created_at DESC LIMIT 20");
+        QUERIES.put("DocumentRepository.countByStatus",
+                "SELECT COUNT(*) FROM node WHERE status = 1");
+        QUERIES.put("DocumentRepository.countByCreatedBetween",
+                "SELECT COUNT(*) FROM node WHERE created BETWEEN now() - interval '30 days' AND now()");
+        QUERIES.put("ActivityLogRepository.findByUserAndTimeRange",
+                "SELECT * FROM activity_logs WHERE user_id = 42 " +
+                        "AND \"timestamp\" BETWEEN now() - interval '7 days' AND now()");
+    }
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        String url = System.getenv("EXPLAIN_TEST_DB_URL");
+        String user = System.getenv("EXPLAIN_TEST_DB_USER");
+        String password = System.getenv("EXPLAIN_TEST_DB_PASSWORD");
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+            seed(statement);
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (connection != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    private static void seed(Statement statement) throws SQLException {
+        // Partitions for the past year, the migration only creates the coming months
+        statement.execute("SELECT create_month_partition(t, (date_trunc('month', now()) - m * interval '1 month')::date) " +
+                "FROM unnest(ARRAY['notifications', 'activity_logs', 'document_download_logs']) t, " +
+                "generate_series(1, 12) m");
+
+        statement.execute("INSERT INTO users (id, name, pass, full_name, status, created, is_commander_of_unit) " +
+                "SELECT g, 'user' || g, 'x', 'User ' || g, 1, now(), false FROM generate_series(1, 2000) g");
+
+        // Most documents have reached a final status, as in production
+        statement.execute("INSERT INTO node (id, type, language, title, status, created, changed, user_id) " +
+                "SELECT g, 'incoming_document', 'vi', 'Document ' || g, " +
+                "CASE WHEN g % 50 = 0 THEN g % 12 ELSE 20 END, " +
+                "now() - (g % 730) * interval '1 day', now(), 1 + g % 2000 FROM generate_series(1, 200000) g");
+
+        statement.execute("INSERT INTO document_read_status (id, document_id, document_type, user_id, is_read, " +
+                "created_at, updated_at) " +
+                "SELECT g, 1 + g % 200000, (ARRAY['INCOMING_EXTERNAL', 'INCOMING_INTERNAL', 'OUTGOING_INTERNAL', " +
+                "'OUTGOING_EXTERNAL'])[1 + g % 4], 1 + (g / 4) % 2000, g % 7 <> 0, now(), now() " +
+                "FROM generate_series(1, 500000) g");
+
+        statement.execute("INSERT INTO notifications (id, type, content, created_at, is_read, read, active, user_id) " +
+                "SELECT g, 'NEW_DOCUMENT', 'Notification ' || g, now() - (g % 360) * interval '1 day', " +
+                "g % 5 = 0, g % 5 = 0, g % 10 <> 0, 1 + g % 2000 FROM generate_series(1, 300000) g");
+
+        statement.execute("INSERT INTO document_history (id, document_id, action, performed_by_id, \"timestamp\") " +
+                "SELECT g, 1 + g % 200000, 'UPDATE', 1 + g % 2000, now() - (g % 730) * interval '1 day' " +
+                "FROM generate_series(1, 400000) g");
+
+        statement.execute("INSERT INTO internal_document (id, title, urgency_level, status, sender_id, " +
+                "created_at, updated_at) " +
+                "SELECT g, 'Internal ' || g, 'KHAN', 'SENT', 1 + g % 2000, now() - (g % 730) * interval '1 day', " +
+                "now() FROM generate_series(1, 60000) g");
+
+        statement.execute("INSERT INTO internal_document_recipient (id, document_id, user_id, is_read, received_at) " +
+                "SELECT g, 1 + g % 60000, 1 + (g / 3) % 2000, g % 6 <> 0, now() FROM generate_series(1, 300000) g");
+
+        statement.execute("INSERT INTO activity_logs (id, action_type, user_id, \"timestamp\") " +
+                "SELECT g, 'VIEW_DOCUMENT', 1 + g % 2000, now() - (g % 360) * interval '1 day' " +
+                "FROM generate_series(1, 300000) g");
+
+        statement.execute("VACUUM ANALYZE");
+    }
+
+    @Test
+    void hotQueriesDoNotScanLargeTables() throws SQLException {
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            String plan = explain(query.getValue());
+            Matcher matcher = SEQ_SCAN.matcher(plan);
+            while (matcher.find()) {
+                String table = matcher.group(1);
+                if (LARGE_TABLES.stream().anyMatch(t -> table.equals(t) || table.startsWith(t + "_p"))) {
+                    failures.add(query.getKey() + " scans " + table + ":\n" + plan);
+                    break;
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n\n", failures));
+    }
+
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,282 @@
+package com.managementcontent.service;
+
+import com.managementcontent.model.Document;
+import com.managementcontent.model.IncomingDocument;
+import com.managementcontent.model.User;
+import com.managementcontent.model.enums.DocumentProcessingStatus;
+import com.managementcontent.repository.DocumentAttachmentRepository;
+import com.managementcontent.repository.DocumentHistoryRepository;
+import com.managementcontent.repository.DocumentRepository;
+import com.managementcontent.repository.DocumentTypeRepository;
+import com.managementcontent.repository.IncomingDocumentRepository;
+import com.managementcontent.repository.InternalDocumentRepository;
+import com.managementcontent.repository.OutgoingDocumentRepository;
+import com.managementcontent.repository.UserRepository;
+import com.managementcontent.service.IncomingDocumentImportService.ImportRow;
+import com.managementcontent.service.IncomingDocumentImportService.Lookups;
+import com.managementcontent.service.IncomingDocumentImportService.ZipIndex;
+import com.managementcontent.service.importing.CsvTabularReader;
+import com.managementcontent.service.importing.TabularReader;
+import com.managementcontent.service.importing.XlsxTabularReader;
+import com.managementcontent.util.DateTimeRange;
+import com.managementcontent.util.RoleGroupUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Manifest reading and row validation of {@link IncomingDocumentImportService},
+ * and re-importing a register written by {@link DocumentRegisterExportService}
+ */
+class IncomingDocumentImportServiceTest {
+
+    private static final Lookups LOOKUPS = new Lookups(
+            Map.of("công văn", 3L),
+            Map.of("nva", 7L),
+            Map.of("nguyễn văn a", 7L, "trần thị b", 8L),
+            Set.of("lê văn c"),
+            new ZipIndex(null));
+
+    @TempDir
+    Path dir;
+
+    private final IncomingDocumentImportService service = importService(100);
+
+    @Test
+    void validRowIsConvertedToADocument() throws IOException {
+        ImportRow row = validated("""
+                Số, ký hiệu;Tiêu đề;Số đến;Ngày đến;Ngày ký;Hạn xử lý;Độ mật;Loại văn bản;Cán bộ xử lý;Ghi chú
+                12/QĐ-BQP;Về việc kiểm tra;CV-01;15/02/2024;2024-02-10;15-02-2024 08:30;Mật;CÔNG VĂN;NVA;ghi chú
+                """).get(0);
+
+        assertTrue(row.isValid(), () -> row.errors().toString());
+        IncomingDocument document = row.toDocument();
+        assertEquals("12/QĐ-BQP", document.getDocumentNumber());
+        assertEquals("Về việc kiểm tra", document.getTitle());
+        assertEquals("CV-01", document.getReceiptNumber());
+        assertEquals(LocalDateTime.of(2024, 2, 15, 0, 0), document.getReceivedDate());
+        assertEquals(LocalDateTime.of(2024, 2, 10, 0, 0), document.getSigningDate());
+        assertEquals(LocalDateTime.of(2024, 2, 15, 8, 30),
+                LocalDateTime.ofInstant(document.getProcessDeadline().toInstant(), ZoneId.systemDefault()));
+        assertEquals("confidential", document.getSecurityLevel());
+        assertEquals("ghi chú", document.getNotes());
+        assertEquals(DocumentProcessingStatus.REGISTERED, document.getStatus());
+        assertEquals("incoming_document", document.getType());
+    }
+
+    @Test
+    void excelSerialDatesAreConverted() throws IOException {
+        ImportRow row = validated("""
+                Số, ký hiệu;Tiêu đề;Ngày đến;Ngày ký
+                1/A;B;45337;45337.75
+                """).get(0);
+
+        assertTrue(row.isValid(), () -> row.errors().toString());
+        assertEquals(LocalDateTime.of(2024, 2, 15, 0, 0), row.toDocument().getReceivedDate());
+        assertEquals(LocalDateTime.of(2024, 2, 15, 18, 0), row.toDocument().getSigningDate());
+    }
+
+    @Test
+    void parseDateAcceptsTextFormatsAndSerials() {
+        assertEquals(LocalDateTime.of(2024, 2, 5, 0, 0), IncomingDocumentImportService.parseDate("5/2/2024"));
+        assertEquals(LocalDateTime.of(2024, 2, 5, 9, 15, 30),
+                IncomingDocumentImportService.parseDate("05-02-2024 9:15:30"));
+        assertEquals(LocalDateTime.of(2024, 2, 5, 9, 15),
+                IncomingDocumentImportService.parseDate("2024-02-05T09:15"));
+        assertEquals(LocalDateTime.of(1899, 12, 31, 0, 0), IncomingDocumentImportService.parseDate("1"));
+        assertEquals(LocalDateTime.of(9999, 12, 31, 0, 0), IncomingDocumentImportService.parseDate("2958465"));
+        assertNull(IncomingDocumentImportService.parseDate("0"));
+        assertNull(IncomingDocumentImportService.parseDate("2958466"));
+        assertNull(IncomingDocumentImportService.parseDate("31/02/2024"));
+        assertNull(IncomingDocumentImportService.parseDate("-45337"));
+        assertNull(IncomingDocumentImportService.parseDate("hôm nay"));
+    }
+
+    @Test
+    void invalidRowCollectsEveryError() throws IOException {
+        ImportRow row = validated("""
+                Số, ký hiệu;Tiêu đề;Ngày đến;Độ mật;Loại văn bản;Cán bộ xử lý;Nơi lưu;Tệp đính kèm
+                ;;32/13/2024;Bí mật;Quyết định;Người lạ;%s;a.pdf
+                """.formatted("x".repeat(256))).get(0);
+
+        assertEquals(List.of(
+                "Thiếu số, ký hiệu",
+                "Thiếu tiêu đề",
+                "Nơi lưu dài quá 255 ký tự",
+                "Ngày đến không hợp lệ: 32/13/2024",
+                "Độ mật không hợp lệ: Bí mật",
+                "Không tìm thấy loại văn bản: Quyết định",
+                "Không tìm thấy cán bộ xử lý: Người lạ",
+                "Tệp a.pdf không có vì chưa tải lên tệp ZIP đính kèm"), row.errors());
+    }
+
+    @Test
+    void officerIsFoundByUserNameOrUniqueFullName() throws IOException {
+        List<ImportRow> rows = validated("""
+                "Số, ký hiệu",Tiêu đề,Cán bộ xử lý
+                1,A,nva
+                2,B,Trần Thị B
+                3,C,Lê Văn C
+                """);
+
+        assertTrue(rows.get(0).isValid());
+        assertTrue(rows.get(1).isValid());
+        assertEquals(List.of("Có nhiều cán bộ tên Lê Văn C, hãy dùng tên đăng nhập"), rows.get(2).errors());
+    }
+
+    @Test
+    void headersAreMatchedIgnoringCaseSpacingPunctuationAndNormalisation() throws IOException {
+        String decomposedTitle = Normalizer.normalize("TIÊU ĐỀ", Normalizer.Form.NFD);
+        List<ImportRow> rows = validated("""
+                STT,document_number,%s,"Ngày  đến",Received-Date,Không biết
+                1,12/QĐ,Tiêu đề,15/02/2024,01/01/2000,x
+                """.formatted(decomposedTitle));
+
+        IncomingDocument document = rows.get(0).toDocument();
+        assertEquals("12/QĐ", document.getDocumentNumber());
+        assertEquals("Tiêu đề", document.getTitle());
+        // The first of two headers for the same column wins
+        assertEquals(LocalDateTime.of(2024, 2, 15, 0, 0), document.getReceivedDate());
+    }
+
+    @Test
+    void missingRequiredColumnsAreReported() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> rows("STT,Ghi chú\n1,x\n"));
+
+        assertEquals("Thiếu cột bắt buộc: Số, ký hiệu, Tiêu đề", error.getMessage());
+    }
+
+    @Test
+    void blankRowsAreSkippedAndRowLimitIsEnforced() throws IOException {
+        assertEquals(2, rows("\n , \ndocumentNumber,title\n1,A\n,\n2,B\n").size());
+        assertThrows(IllegalArgumentException.class, () -> importService(2).readRows(
+                csv("Số, ký hiệu,Tiêu đề\n1,A\n2,B\n3,C\n")));
+        assertThrows(IllegalArgumentException.class, () -> rows("\n\n"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentRegisterExportService.Format.class)
+    void exportedRegisterImportsBack(DocumentRegisterExportService.Format format) throws IOException {
+        List<Object[]> register = List.of(
+                new Object[] {11L, "CV-01", LocalDateTime.of(2024, 2, 15, 0, 0), "12/QĐ-BQP, 2024",
+                        "TC-7", LocalDateTime.of(2024, 2, 10, 0, 0), "Bộ Quốc phòng",
+                        "Về việc \"khẩn\"\nvà tiếp theo", "=trích yếu", "Khẩn", "confidential", "Trần Thị B",
+                        DocumentProcessingStatus.REGISTERED},
+                new Object[] {12L, null, null, "13/TB", null, null, null, "Thông báo", null, null, null, null,
+                        DocumentProcessingStatus.COMPLETED});
+        byte[] exported = export(format, register);
+
+        List<ImportRow> rows = read(format, exported);
+        rows.forEach(row -> row.validate(LOOKUPS));
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isValid(), () -> rows.get(0).errors().toString());
+        IncomingDocument first = rows.get(0).toDocument();
+        assertEquals("CV-01", first.getReceiptNumber());
+        assertEquals(LocalDateTime.of(2024, 2, 15, 0, 0), first.getReceivedDate());
+        assertEquals("12/QĐ-BQP, 2024", first.getDocumentNumber());
+        assertEquals("TC-7", first.getReferenceNumber());
+        assertEquals(LocalDateTime.of(2024, 2, 10, 0, 0), first.getSigningDate());
+        assertEquals("Bộ Quốc phòng", first.getIssuingAuthority());
+        assertEquals("Về việc \"khẩn\"\nvà tiếp theo", first.getTitle());
+        assertEquals("=trích yếu", first.getSummary());
+        assertEquals("Khẩn", first.getUrgencyLevel());
+        assertEquals("confidential", first.getSecurityLevel());
+
+        assertTrue(rows.get(1).isValid(), () -> rows.get(1).errors().toString());
+        IncomingDocument second = rows.get(1).toDocument();
+        assertEquals("13/TB", second.getDocumentNumber());
+        assertEquals("Thông báo", second.getTitle());
+        assertNull(second.getReceiptNumber());
+        assertNull(second.getReceivedDate());
+        assertNull(second.getSecurityLevel());
+    }
+
+    private byte[] export(DocumentRegisterExportService.Format format, List<Object[]> register) throws IOException {
+        IncomingDocumentRepository incomingDocumentRepository = mock(IncomingDocumentRepository.class);
+        DocumentAccessControlService accessControlService = mock(DocumentAccessControlService.class);
+        User clerk = User.builder().name("vanthu").build();
+        when(accessControlService.getCurrentUser()).thenReturn(clerk);
+        when(accessControlService.getUserRoleGroup(clerk)).thenReturn(RoleGroupUtil.RoleGroup.VAN_THU);
+        when(incomingDocumentRepository.streamRegister(any(), any(), eq(true), isNull(), isNull()))
+                .thenReturn(register.stream());
+        DocumentRegisterExportService exportService = new DocumentRegisterExportService(incomingDocumentRepository,
+                mock(OutgoingDocumentRepository.class), mock(InternalDocumentRepository.class), accessControlService);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(register.size(), exportService.export(DocumentRegisterExportService.Register.INCOMING,
+                DateTimeRange.of(2024, null), format, out));
+        return out.toByteArray();
+    }
+
+    private List<ImportRow> read(DocumentRegisterExportService.Format format, byte[] content) throws IOException {
+        if (format == DocumentRegisterExportService.Format.XLSX) {
+            try (TabularReader reader = new XlsxTabularReader(Files.write(dir.resolve("register.xlsx"), content))) {
+                return service.readRows(reader);
+            }
+        }
+        try (TabularReader reader = new CsvTabularReader(new ByteArrayInputStream(content))) {
+            return service.readRows(reader);
+        }
+    }
+
+    private List<ImportRow> validated(String manifest) throws IOException {
+        List<ImportRow> rows = rows(manifest);
+        rows.forEach(row -> row.validate(LOOKUPS));
+        return rows;
+    }
+
+    private List<ImportRow> rows(String manifest) throws IOException {
+        try (TabularReader reader = csv(manifest)) {
+            return service.readRows(reader);
+        }
+    }
+
+    private static TabularReader csv(String manifest) {
+        return new CsvTabularReader(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IncomingDocumentImportService importService(int maxRows) {
+        return new IncomingDocumentImportService(
+                mock(IncomingDocumentRepository.class),
+                (DocumentRepository<Document>) mock(DocumentRepository.class),
+                mock(DocumentHistoryRepository.class),
+                mock(DocumentAttachmentRepository.class),
+                mock(DocumentTypeRepository.class),
+                mock(UserRepository.class),
+                mock(FileStorageService.class),
+                mock(DocumentAccessControlService.class),
+                mock(ThreadPoolTaskExecutor.class),
+                mock(PlatformTransactionManager.class),
+                500,
+                maxRows);
+    }
+}
@@ -0,0 +1,80 @@
+package com.managementcontent.service.export;
+
+import com.managementcontent.service.importing.CsvTabularReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Output of {@link CsvTabularWriter}, and reading it back with
+ * {@link CsvTabularReader}
+ */
+class CsvTabularWriterTest {
+
+    @Test
+    void startsWithByteOrderMarkAndEndsRowsWithCrLf() throws IOException {
+        byte[] bytes = write(List.of("STT", "Tiêu đề"), List.of(1, "Công văn"));
+
+        assertArrayEquals(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, Arrays.copyOf(bytes, 3));
+        assertEquals("\uFEFFSTT,Tiêu đề\r\n1,Công văn\r\n", new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void quotesOnlyWhereNeeded() throws IOException {
+        String csv = new String(write(Arrays.asList("12/QĐ, BQP", "Về \"khẩn\"", "dòng 1\ndòng 2", null, "thường")),
+                StandardCharsets.UTF_8);
+
+        assertEquals("\uFEFF\"12/QĐ, BQP\",\"Về \"\"khẩn\"\"\",\"dòng 1\ndòng 2\",,thường\r\n", csv);
+    }
+
+    @Test
+    void datesAndFormulaCharacters() throws IOException {
+        String csv = new String(write(List.of(LocalDateTime.of(2024, 2, 15, 9, 30), LocalDate.of(2024, 12, 1),
+                "=HYPERLINK(\"x\")", "+84", "@x", -5)), StandardCharsets.UTF_8);
+
+        assertEquals("\uFEFF15/02/2024,01/12/2024,\"'=HYPERLINK(\"\"x\"\")\",'+84,'@x,-5\r\n", csv);
+    }
+
+    @Test
+    void readerReturnsWhatWasWritten() throws IOException {
+        List<List<?>> written = List.of(
+                List.of("Số, ký hiệu", "Tiêu đề", "Ghi chú"),
+                List.of("12/QĐ, BQP", "Về việc \"khẩn\"", "dòng 1\r\ndòng 2"),
+                List.of("-1/TB", "=1+1", 42));
+
+        byte[] bytes = write(written.toArray(List<?>[]::new));
+
+        List<List<String>> read = new ArrayList<>();
+        try (CsvTabularReader reader = new CsvTabularReader(new ByteArrayInputStream(bytes))) {
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                read.add(row);
+            }
+        }
+        assertEquals(List.of(
+                List.of("Số, ký hiệu", "Tiêu đề", "Ghi chú"),
+                List.of("12/QĐ, BQP", "Về việc \"khẩn\"", "dòng 1\r\ndòng 2"),
+                List.of("-1/TB", "=1+1", "42")), read);
+    }
+
+    private static byte[] write(List<?>... rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvTabularWriter writer = new CsvTabularWriter(out);
+        for (List<?> row : rows) {
+            writer.writeRow(row);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+}
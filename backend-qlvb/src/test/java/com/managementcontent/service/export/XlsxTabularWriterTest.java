@@ -0,0 +1,101 @@
+package com.managementcontent.service.export;
+
+import com.managementcontent.service.importing.XlsxTabularReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Workbooks written by {@link XlsxTabularWriter}, checked part by part and
+ * read back with {@link XlsxTabularReader}
+ */
+class XlsxTabularWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesAMinimalWorkbookWithInlineStrings() throws IOException {
+        Path file = write("Sổ công văn đến năm 2024 của Cục Quân y", List.of("STT", "Tiêu đề"),
+                Arrays.asList(1, "A & <B>", null));
+
+        Map<String, String> parts = parts(file);
+        assertTrue(parts.keySet().containsAll(List.of("[Content_Types].xml", "_rels/.rels",
+                "xl/_rels/workbook.xml.rels", "xl/styles.xml", "xl/workbook.xml", "xl/worksheets/sheet1.xml")));
+        assertTrue(parts.get("xl/workbook.xml").contains("name=\"Sổ công văn đến năm 2024 của Cụ\""));
+        String sheet = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(sheet.contains("<row><c s=\"1\" t=\"inlineStr\"><is><t xml:space=\"preserve\">STT</t></is></c>"));
+        assertTrue(sheet.contains("<row><c><v>1</v></c><c t=\"inlineStr\"><is><t xml:space=\"preserve\">"
+                + "A &amp; &lt;B&gt;</t></is></c><c/></row>"));
+    }
+
+    @Test
+    void readerReturnsWhatWasWritten() throws IOException {
+        Path file = write("Sổ", List.of("Số, ký hiệu", "Ngày ký", "Ghi chú"),
+                List.of("12/QĐ", LocalDateTime.of(2024, 2, 15, 0, 0), "dòng 1\ndòng 2\u0001"),
+                List.of(2, 3.5, "\"trích\" & 'dẫn'"));
+
+        List<List<String>> rows = new ArrayList<>();
+        try (XlsxTabularReader reader = new XlsxTabularReader(file)) {
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                rows.add(row);
+            }
+        }
+
+        assertEquals(List.of(
+                List.of("Số, ký hiệu", "Ngày ký", "Ghi chú"),
+                List.of("12/QĐ", "15/02/2024", "dòng 1\ndòng 2"),
+                List.of("2", "3.5", "\"trích\" & 'dẫn'")), rows);
+    }
+
+    @Test
+    void overlongTextIsCutToTheCellLimit() throws IOException {
+        Path file = write("Sổ", List.of("x".repeat(40_000)));
+
+        try (XlsxTabularReader reader = new XlsxTabularReader(file)) {
+            assertEquals(32_767, reader.readRow().get(0).length());
+        }
+    }
+
+    private Path write(String sheetName, List<?>... rows) throws IOException {
+        Path file = Files.createTempFile(dir, "register-", ".xlsx");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            XlsxTabularWriter writer = new XlsxTabularWriter(out, sheetName);
+            for (List<?> row : rows) {
+                writer.writeRow(row);
+            }
+            writer.finish();
+        }
+        return file;
+    }
+
+    private static Map<String, String> parts(Path file) throws IOException {
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(Files.readAllBytes(file)),
+                StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                parts.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return parts;
+    }
+}
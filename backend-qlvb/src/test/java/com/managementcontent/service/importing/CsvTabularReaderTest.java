@@ -0,0 +1,103 @@
+package com.managementcontent.service.importing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Parsing of {@link CsvTabularReader}
+ */
+class CsvTabularReaderTest {
+
+    @Test
+    void quotedFieldsKeepDelimitersQuotesAndNewlines() throws IOException {
+        List<List<String>> rows = readAll("""
+                "Số, ký hiệu",Tiêu đề,Ghi chú\r
+                "12/QĐ, BQP","Về việc ""khẩn""\","dòng 1\r
+                dòng 2
+                dòng 3"\r
+                13/TB,Thông báo,\r
+                """);
+
+        assertEquals(List.of(
+                List.of("Số, ký hiệu", "Tiêu đề", "Ghi chú"),
+                List.of("12/QĐ, BQP", "Về việc \"khẩn\"", "dòng 1\r\ndòng 2\ndòng 3"),
+                List.of("13/TB", "Thông báo", "")), rows);
+    }
+
+    @Test
+    void byteOrderMarkIsSkipped() throws IOException {
+        List<List<String>> rows = readAll("\uFEFFSố đến,Tiêu đề\n1,A\n");
+
+        assertEquals(List.of("Số đến", "Tiêu đề"), rows.get(0));
+        assertEquals("Số đến".length(), rows.get(0).get(0).length());
+        assertEquals(List.of("1", "A"), rows.get(1));
+    }
+
+    @Test
+    void quotedFirstCellAfterByteOrderMark() throws IOException {
+        List<List<String>> rows = readAll("\uFEFF\"Số, ký hiệu\",Tiêu đề\n\"1/A\",B");
+
+        assertEquals(List.of(List.of("Số, ký hiệu", "Tiêu đề"), List.of("1/A", "B")), rows);
+    }
+
+    @Test
+    void semicolonDelimiterIsDetectedFromTheHeader() throws IOException {
+        List<List<String>> rows = readAll("Số, ký hiệu;Tiêu đề;Ngày đến\n1,2;A;01/02/2024\n");
+
+        assertEquals(List.of(
+                List.of("Số, ký hiệu", "Tiêu đề", "Ngày đến"),
+                List.of("1,2", "A", "01/02/2024")), rows);
+    }
+
+    @Test
+    void lineEndingsAndWhitespace() throws IOException {
+        List<List<String>> rows = readAll("a,b\rc , d \r\ne,\"  f  \"");
+
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f")), rows);
+    }
+
+    @Test
+    void formulaGuardOfTheWriterIsRemoved() throws IOException {
+        List<List<String>> rows = readAll("a,b,c,d\n'=SUM(1),'-5,'@x,'không\n");
+
+        assertEquals(List.of("=SUM(1)", "-5", "@x", "'không"), rows.get(1));
+    }
+
+    @Test
+    void emptyInputHasNoRows() throws IOException {
+        assertEquals(List.of(), readAll(""));
+        assertEquals(List.of(), readAll("\uFEFF"));
+    }
+
+    @Test
+    void endOfTableIsReportedRepeatedly() throws IOException {
+        try (CsvTabularReader reader = reader("a\n")) {
+            assertEquals(List.of("a"), reader.readRow());
+            assertNull(reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (CsvTabularReader reader = reader(csv)) {
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static CsvTabularReader reader(String csv) {
+        return new CsvTabularReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
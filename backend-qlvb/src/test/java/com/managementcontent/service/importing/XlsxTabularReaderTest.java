@@ -0,0 +1,141 @@
+package com.managementcontent.service.importing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Parsing of {@link XlsxTabularReader} on workbooks put together by hand, in
+ * the shapes Excel and other spreadsheet programs write
+ */
+class XlsxTabularReaderTest {
+
+    private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sharedAndInlineStrings() throws IOException {
+        Path file = workbook(Map.of(
+                "xl/sharedStrings.xml", """
+                        <sst xmlns="%s" count="3" uniqueCount="3">
+                        <si><t>Số, ký hiệu</t></si>
+                        <si><r><t>Tiêu </t></r><r><rPr><b/></rPr><t>đề</t></r></si>
+                        <si><t>Cục</t><rPh sb="0" eb="1"><t>phonetic</t></rPh></si>
+                        </sst>""".formatted(MAIN_NS),
+                "xl/worksheets/sheet1.xml", sheet("""
+                        <row r="1"><c r="A1" t="s"><v>0</v></c><c r="B1" t="s"><v>1</v></c></row>
+                        <row r="2"><c r="A2" t="inlineStr"><is><t xml:space="preserve">  12/QĐ &amp; BQP  </t></is></c>\
+                        <c r="B2" t="s"><v>2</v></c><c r="C2" t="str"><v>công thức</v></c>\
+                        <c r="D2" t="s"><v>99</v></c></row>""")));
+
+        assertEquals(List.of(
+                List.of("Số, ký hiệu", "Tiêu đề"),
+                List.of("12/QĐ & BQP", "Cục", "công thức", "")), readAll(file));
+    }
+
+    @Test
+    void serialDatesAndNumbersComeBackAsTyped() throws IOException {
+        Path file = workbook(Map.of("xl/worksheets/sheet1.xml", sheet("""
+                <row r="1"><c r="A1" s="1"><v>45338</v></c><c r="B1" s="2"><v>45338.5</v></c><c r="C1"><v>7</v></c></row>""")));
+
+        assertEquals(List.of(List.of("45338", "45338.5", "7")), readAll(file));
+    }
+
+    @Test
+    void missingRowsAndCellsKeepTheirPositions() throws IOException {
+        Path file = workbook(Map.of("xl/worksheets/sheet1.xml", sheet("""
+                <row r="1"><c r="A1" t="inlineStr"><is><t>a</t></is></c></row>
+                <row r="4"><c r="C4" t="inlineStr"><is><t>c</t></is></c><c r="AA4"><v>1</v></c></row>
+                <row><c><v>2</v></c><c><v>3</v></c></row>""")));
+
+        List<List<String>> rows = readAll(file);
+
+        assertEquals(5, rows.size());
+        assertEquals(List.of("a"), rows.get(0));
+        assertEquals(List.of(), rows.get(1));
+        assertEquals(List.of(), rows.get(2));
+        assertEquals(27, rows.get(3).size());
+        assertEquals("", rows.get(3).get(0));
+        assertEquals("c", rows.get(3).get(2));
+        assertEquals("", rows.get(3).get(25));
+        assertEquals("1", rows.get(3).get(26));
+        assertEquals(List.of("2", "3"), rows.get(4));
+    }
+
+    @Test
+    void firstSheetIsFoundThroughTheWorkbookRelationships() throws IOException {
+        Map<String, String> parts = new LinkedHashMap<>();
+        parts.put("xl/workbook.xml", """
+                <workbook xmlns="%s" xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">
+                <sheets><sheet name="Sổ công văn đến" sheetId="1" r:id="rId7"/><sheet name="Khác" sheetId="2" r:id="rId1"/></sheets>
+                </workbook>""".formatted(MAIN_NS));
+        parts.put("xl/_rels/workbook.xml.rels", """
+                <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">
+                <Relationship Id="rId1" Type="worksheet" Target="worksheets/sheet1.xml"/>
+                <Relationship Id="rId7" Type="worksheet" Target="/xl/worksheets/register.xml"/>
+                </Relationships>""");
+        parts.put("xl/worksheets/sheet1.xml", sheet("<row r=\"1\"><c t=\"inlineStr\"><is><t>khác</t></is></c></row>"));
+        parts.put("xl/worksheets/register.xml", sheet("<row r=\"1\"><c t=\"inlineStr\"><is><t>sổ</t></is></c></row>"));
+
+        assertEquals(List.of(List.of("sổ")), readAll(workbook(parts)));
+    }
+
+    @Test
+    void workbookWithoutSheetIsRejected() throws IOException {
+        Path file = workbook(Map.of("xl/styles.xml", "<styleSheet/>"));
+
+        assertThrows(IOException.class, () -> new XlsxTabularReader(file));
+    }
+
+    @Test
+    void fileThatIsNotAWorkbookIsRejected() throws IOException {
+        Path file = dir.resolve("manifest.xlsx");
+        Files.writeString(file, "Số, ký hiệu,Tiêu đề\n", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> new XlsxTabularReader(file));
+    }
+
+    private static String sheet(String rows) {
+        return "<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>" + rows + "</sheetData></worksheet>";
+    }
+
+    private Path workbook(Map<String, String> parts) throws IOException {
+        Path file = Files.createTempFile(dir, "workbook-", ".xlsx");
+        try (OutputStream out = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> part : parts.entrySet()) {
+                zip.putNextEntry(new ZipEntry(part.getKey()));
+                zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" + part.getValue())
+                        .getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    private static List<List<String>> readAll(Path file) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (XlsxTabularReader reader = new XlsxTabularReader(file)) {
+            List<String> row;
+            while ((row = reader.readRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
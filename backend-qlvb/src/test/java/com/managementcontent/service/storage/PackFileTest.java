@@ -0,0 +1,147 @@
+package com.managementcontent.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Index round trip, key lookup and ranged reads of {@link PackFile}
+ */
+class PackFileTest {
+
+    @TempDir
+    Path dir;
+
+    private Path pack;
+    private Path index;
+
+    @BeforeEach
+    void setUp() {
+        pack = dir.resolve("pack-000001.pack");
+        index = dir.resolve("pack-000001.idx");
+    }
+
+    @Test
+    void indexRoundTripKeepsEveryEntry() throws IOException {
+        // Written out of key order, as the tiering walk appends them
+        PackFile packFile = write(
+                "2024/05/17/c.pdf", "ccc",
+                "2023/01/02/a.pdf", "a",
+                "2024/05/17/b.pdf", "bb");
+
+        assertEquals(1, packFile.id());
+        assertEquals(3, packFile.size());
+        assertEquals(6, packFile.dataSize());
+        assertFalse(Files.exists(index.resolveSibling(index.getFileName() + ".tmp")));
+
+        int c = packFile.find("2024/05/17/c.pdf");
+        assertEquals(3, packFile.length(c));
+        assertEquals(1_000L, packFile.modified(c));
+        assertEquals("ccc", read(packFile, c, 0, Long.MAX_VALUE));
+        int a = packFile.find("2023/01/02/a.pdf");
+        assertEquals(1_001L, packFile.modified(a));
+        assertEquals("a", read(packFile, a, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void findLooksUpSortedKeys() throws IOException {
+        PackFile packFile = write(
+                "2024/05/17/c.pdf", "c",
+                "2023/01/02/a.pdf", "a",
+                "2024/05/17/b.pdf", "b");
+
+        assertEquals(0, packFile.find("2023/01/02/a.pdf"));
+        assertEquals(1, packFile.find("2024/05/17/b.pdf"));
+        assertEquals(2, packFile.find("2024/05/17/c.pdf"));
+        assertTrue(packFile.find("2000/01/01/first.pdf") < 0);
+        assertTrue(packFile.find("2024/05/17/bb.pdf") < 0);
+        assertTrue(packFile.find("2099/12/31/last.pdf") < 0);
+    }
+
+    @Test
+    void rangedOpenStaysWithinTheEntry() throws IOException {
+        PackFile packFile = write(
+                "a", "0123",
+                "b", "456789",
+                "c", "ab");
+        int b = packFile.find("b");
+
+        assertEquals("456789", read(packFile, b, 0, 6));
+        assertEquals("4", read(packFile, b, 0, 1));
+        assertEquals("9", read(packFile, b, 5, 1));
+        // Ranges past either end are clamped to the entry, never reaching its neighbours
+        assertEquals("89", read(packFile, b, 4, 100));
+        assertEquals("456", read(packFile, b, -3, 3));
+        assertEquals("", read(packFile, b, 6, 10));
+        assertEquals("", read(packFile, b, 100, 10));
+        assertEquals("", read(packFile, b, 2, 0));
+        assertEquals("0123", read(packFile, packFile.find("a"), 0, 10));
+        assertEquals("ab", read(packFile, packFile.find("c"), 0, 10));
+    }
+
+    @Test
+    void skipAndAvailableFollowTheRange() throws IOException {
+        PackFile packFile = write("a", "0123456789");
+
+        try (InputStream in = packFile.open(0, 2, 5)) {
+            assertEquals(5, in.available());
+            assertEquals(2, in.skip(2));
+            assertEquals('4', in.read());
+            assertEquals(2, in.skip(10));
+            assertEquals(-1, in.read());
+            assertEquals(-1, in.read(new byte[4], 0, 4));
+        }
+    }
+
+    @Test
+    void emptyPackHasNoEntries() throws IOException {
+        PackFile packFile = write();
+
+        assertEquals(0, packFile.size());
+        assertTrue(packFile.find("a") < 0);
+    }
+
+    @Test
+    void foreignIndexIsRejected() throws IOException {
+        Files.write(pack, new byte[0]);
+        Files.write(index, new byte[] {'P', 'K', 3, 4, 0, 0, 0, 1, 0, 0, 0, 0});
+
+        assertThrows(IOException.class, () -> PackFile.open(1, pack, index));
+    }
+
+    /**
+     * Write a pack holding the given key/content pairs in order, with
+     * increasing modification times, and open it
+     */
+    private PackFile write(String... keysAndContents) throws IOException {
+        List<PackFile.Entry> entries = new ArrayList<>();
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < keysAndContents.length; i += 2) {
+            String content = keysAndContents[i + 1];
+            entries.add(new PackFile.Entry(keysAndContents[i], data.length(), content.length(), 1_000L + i / 2));
+            data.append(content);
+        }
+        Files.writeString(pack, data, StandardCharsets.US_ASCII);
+        PackFile.writeIndex(index, entries);
+        return PackFile.open(1, pack, index);
+    }
+
+    private static String read(PackFile packFile, int entry, long offset, long length) throws IOException {
+        try (InputStream in = packFile.open(entry, offset, length)) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
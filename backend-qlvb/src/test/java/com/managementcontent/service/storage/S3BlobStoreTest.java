@@ -0,0 +1,205 @@
+package com.managementcontent.service.storage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link S3BlobStore} against a real S3-compatible server such as MinIO.
+ * Needs S3_TEST_ENDPOINT (e.g. http://localhost:9000), S3_TEST_ACCESS_KEY and
+ * S3_TEST_SECRET_KEY; S3_TEST_BUCKET defaults to qlvb-test and is created if
+ * missing. Every run works below its own prefix and deletes it afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "S3_TEST_ENDPOINT", matches = ".+")
+class S3BlobStoreTest {
+
+    private static final String ROOT = "blob-store-test-" + UUID.randomUUID() + "/";
+
+    private static S3Client client;
+    private static S3Presigner presigner;
+    private static String bucket;
+
+    @BeforeAll
+    static void connect() {
+        URI endpoint = URI.create(System.getenv("S3_TEST_ENDPOINT"));
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                System.getenv("S3_TEST_ACCESS_KEY"), System.getenv("S3_TEST_SECRET_KEY")));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        client = S3Client.builder()
+                .endpointOverride(endpoint)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        presigner = S3Presigner.builder()
+                .endpointOverride(endpoint)
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(pathStyle)
+                .build();
+        String configured = System.getenv("S3_TEST_BUCKET");
+        bucket = configured == null || configured.isBlank() ? "qlvb-test" : configured;
+        try {
+            client.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+        } catch (NoSuchBucketException e) {
+            try {
+                client.createBucket(CreateBucketRequest.builder().bucket(bucket).build());
+            } catch (BucketAlreadyOwnedByYouException ignored) {
+                // Created concurrently
+            }
+        }
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        if (client == null) {
+            return;
+        }
+        List<S3Object> objects = client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                .bucket(bucket).prefix(ROOT).build()).contents().stream().toList();
+        for (S3Object object : objects) {
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(object.key()).build());
+        }
+        presigner.close();
+        client.close();
+    }
+
+    @Test
+    void putGetStatAndDelete() throws IOException {
+        BlobStore store = store("attachments/");
+
+        BlobStore.BlobInfo info = store.put("2024/05/17/a.pdf", stream("công văn"), bytes("công văn").length,
+                "application/pdf");
+
+        assertEquals(bytes("công văn").length, info.size());
+        assertEquals("công văn", read(store.get("2024/05/17/a.pdf")));
+        BlobStore.BlobInfo stat = store.stat("2024/05/17/a.pdf").orElseThrow();
+        assertEquals(info.size(), stat.size());
+        assertEquals("application/pdf", client.headObject(HeadObjectRequest.builder()
+                .bucket(bucket).key(ROOT + "attachments/2024/05/17/a.pdf").build()).contentType());
+
+        assertTrue(store.delete("2024/05/17/a.pdf"));
+        assertFalse(store.delete("2024/05/17/a.pdf"));
+        assertTrue(store.stat("2024/05/17/a.pdf").isEmpty());
+        assertThrows(NoSuchFileException.class, () -> store.get("2024/05/17/a.pdf"));
+    }
+
+    @Test
+    void unknownLengthAndFilesAreStored() throws IOException {
+        BlobStore store = store("attachments/");
+        Path source = Files.createTempFile("s3-blob-", ".txt");
+        Files.writeString(source, "từ tệp", StandardCharsets.UTF_8);
+
+        store.put("unknown.txt", stream("không rõ độ dài"), -1, null);
+        store.putFile("moved.txt", source, "text/plain", true);
+
+        assertEquals("không rõ độ dài", read(store.get("unknown.txt")));
+        assertEquals("từ tệp", read(store.get("moved.txt")));
+        assertFalse(Files.exists(source));
+        try (BlobStore.LocalCopy copy = store.localCopy("moved.txt")) {
+            assertTrue(copy.isTemporary());
+            assertEquals("từ tệp", Files.readString(copy.path(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void rangedReads() throws IOException {
+        BlobStore store = store("attachments/");
+        store.put("range.bin", stream("0123456789"), 10, null);
+
+        assertEquals("345", read(store.getRange("range.bin", 3, 3)));
+        assertEquals("89", read(store.getRange("range.bin", 8, 5)));
+        assertEquals("", read(store.getRange("range.bin", 4, 0)));
+        assertThrows(NoSuchFileException.class, () -> store.getRange("missing.bin", 0, 1));
+    }
+
+    @Test
+    void presignedUrlServesTheBlobWithItsFilename() throws IOException, InterruptedException {
+        BlobStore store = store("attachments/");
+        store.put("signed.pdf", stream("đã ký"), bytes("đã ký").length, null);
+
+        Optional<URI> url = store.presignedGetUrl("signed.pdf", Duration.ofMinutes(5), "Quyết định số 1.pdf",
+                "application/pdf");
+
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(url.orElseThrow()).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, response.statusCode());
+        assertEquals("đã ký", new String(response.body(), StandardCharsets.UTF_8));
+        assertEquals("application/pdf", response.headers().firstValue("Content-Type").orElseThrow());
+        assertTrue(response.headers().firstValue("Content-Disposition").orElseThrow()
+                .contains("filename*=UTF-8''Quy%E1%BA%BFt%20%C4%91%E1%BB%8Bnh%20s%E1%BB%91%201.pdf"));
+    }
+
+    @Test
+    void storesSharingABucketAreKeptApartByPrefix() throws IOException {
+        BlobStore attachments = store("attachments/");
+        BlobStore internal = store("internal/");
+
+        attachments.put("same.txt", stream("đến"), bytes("đến").length, null);
+        internal.put("same.txt", stream("nội bộ"), bytes("nội bộ").length, null);
+
+        assertEquals("đến", read(attachments.get("same.txt")));
+        assertEquals("nội bộ", read(internal.get("same.txt")));
+        client.headObject(HeadObjectRequest.builder().bucket(bucket).key(ROOT + "attachments/same.txt").build());
+        client.headObject(HeadObjectRequest.builder().bucket(bucket).key(ROOT + "internal/same.txt").build());
+
+        assertTrue(internal.delete("same.txt"));
+        assertEquals("đến", read(attachments.get("same.txt")));
+        assertThrows(IllegalArgumentException.class, () -> attachments.get("../internal/same.txt"));
+        assertThrows(IllegalArgumentException.class, () -> attachments.get("/same.txt"));
+    }
+
+    private static BlobStore store(String prefix) {
+        return new S3BlobStore(client, presigner, bucket, ROOT + prefix);
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(bytes(content));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.managementcontent.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tiering of {@link TieredBlobStore} on a temporary directory: reads across
+ * tiers, tombstones, files changed while a pack is written and recovery of
+ * packs that were never sealed
+ */
+class TieredBlobStoreTest {
+
+    private static final Instant CUTOFF = Instant.now().minus(Duration.ofDays(30));
+    private static final long PACK_BYTES = 1024 * 1024;
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore hot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hot = new LocalBlobStore(root);
+    }
+
+    @Test
+    void coldFilesMoveIntoAPackAndStayReadable() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot);
+        putCold(store, "2023/01/02/a.pdf", "alpha");
+        putCold(store, "2023/01/03/b.pdf", "bravo");
+        store.put("2023/01/03/recent.pdf", stream("recent"), 6, null);
+
+        TieredBlobStore.TieringResult result = store.tierColdFiles(CUTOFF, PACK_BYTES);
+
+        assertEquals(2, result.filesMoved());
+        assertEquals(10, result.bytesMoved());
+        assertEquals(1, result.packsWritten());
+        assertFalse(Files.exists(root.resolve("2023/01/02")));
+        assertTrue(Files.exists(root.resolve("2023/01/03/recent.pdf")));
+        assertEquals("alpha", read(store, "2023/01/02/a.pdf"));
+        assertEquals("rav", readRange(store, "2023/01/03/b.pdf", 1, 3));
+        assertEquals(5, store.stat("2023/01/03/b.pdf").orElseThrow().size());
+        assertEquals("recent", read(store, "2023/01/03/recent.pdf"));
+
+        TieredBlobStore reopened = new TieredBlobStore(new LocalBlobStore(root));
+        assertEquals(1, reopened.getPackCount());
+        assertEquals("bravo", read(reopened, "2023/01/03/b.pdf"));
+    }
+
+    @Test
+    void tombstoneHidesOlderPacksOnly() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot);
+        putCold(store, "2023/01/02/a.pdf", "first");
+        putCold(store, "2023/01/02/b.pdf", "kept");
+        store.tierColdFiles(CUTOFF, PACK_BYTES);
+
+        assertTrue(store.delete("2023/01/02/a.pdf"));
+
+        assertTrue(store.stat("2023/01/02/a.pdf").isEmpty());
+        assertThrows(NoSuchFileException.class, () -> store.get("2023/01/02/a.pdf"));
+        assertEquals("kept", read(store, "2023/01/02/b.pdf"));
+        assertTrue(new TieredBlobStore(new LocalBlobStore(root)).stat("2023/01/02/a.pdf").isEmpty());
+
+        // Stored again and packed later: the newer pack is above the tombstone
+        putCold(store, "2023/01/02/a.pdf", "second");
+        store.tierColdFiles(CUTOFF, PACK_BYTES);
+
+        assertEquals(2, store.getPackCount());
+        assertEquals("second", read(store, "2023/01/02/a.pdf"));
+        TieredBlobStore reopened = new TieredBlobStore(new LocalBlobStore(root));
+        assertEquals("second", read(reopened, "2023/01/02/a.pdf"));
+        assertEquals("kept", read(reopened, "2023/01/02/b.pdf"));
+    }
+
+    @Test
+    void fileModifiedWhilePackIsWrittenStaysHot() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot,
+                pack -> hot.put("2023/01/02/a.pdf", stream("changed"), 7, null));
+        putCold(store, "2023/01/02/a.pdf", "original");
+        putCold(store, "2023/01/02/b.pdf", "other");
+
+        TieredBlobStore.TieringResult result = store.tierColdFiles(CUTOFF, PACK_BYTES);
+
+        assertEquals(1, result.filesMoved());
+        assertEquals(2, store.getPackedEntryCount());
+        assertTrue(Files.exists(root.resolve("2023/01/02/a.pdf")));
+        assertEquals("changed", read(store, "2023/01/02/a.pdf"));
+        assertEquals("other", read(store, "2023/01/02/b.pdf"));
+        assertEquals("changed", read(new TieredBlobStore(new LocalBlobStore(root)), "2023/01/02/a.pdf"));
+    }
+
+    @Test
+    void fileDeletedWhilePackIsWrittenStaysDeleted() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot,
+                pack -> assertTrue(hot.delete("2023/01/02/a.pdf")));
+        putCold(store, "2023/01/02/a.pdf", "original");
+        putCold(store, "2023/01/02/b.pdf", "other");
+
+        TieredBlobStore.TieringResult result = store.tierColdFiles(CUTOFF, PACK_BYTES);
+
+        assertEquals(1, result.filesMoved());
+        assertTrue(store.stat("2023/01/02/a.pdf").isEmpty());
+        assertThrows(NoSuchFileException.class, () -> store.get("2023/01/02/a.pdf"));
+        assertEquals("other", read(store, "2023/01/02/b.pdf"));
+        TieredBlobStore reopened = new TieredBlobStore(new LocalBlobStore(root));
+        assertTrue(reopened.stat("2023/01/02/a.pdf").isEmpty());
+        assertEquals("other", read(reopened, "2023/01/02/b.pdf"));
+    }
+
+    @Test
+    void localCopyOfAHotFileSurvivesTiering() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot);
+        putCold(store, "2023/01/02/a.pdf", "alpha");
+
+        try (BlobStore.LocalCopy copy = store.localCopy("2023/01/02/a.pdf")) {
+            store.tierColdFiles(CUTOFF, PACK_BYTES);
+
+            assertFalse(Files.exists(root.resolve("2023/01/02/a.pdf")));
+            assertEquals("alpha", Files.readString(copy.path(), StandardCharsets.UTF_8));
+        }
+        try (var files = Files.list(root.resolve(".packs"))) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().startsWith(".copy-")));
+        }
+        try (BlobStore.LocalCopy copy = store.localCopy("2023/01/02/a.pdf")) {
+            assertEquals("alpha", Files.readString(copy.path(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void unsealedPackIsDroppedOnLoad() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot);
+        putCold(store, "2023/01/02/a.pdf", "sealed");
+        store.tierColdFiles(CUTOFF, PACK_BYTES);
+        putCold(store, "2023/01/02/b.pdf", "still hot");
+        // A run that stopped before writing the index leaves a bare data file
+        Path unsealed = root.resolve(".packs/pack-000002.pack");
+        Files.writeString(unsealed, "still hot", StandardCharsets.UTF_8);
+
+        TieredBlobStore reopened = new TieredBlobStore(new LocalBlobStore(root));
+
+        assertFalse(Files.exists(unsealed));
+        assertEquals(1, reopened.getPackCount());
+        assertEquals("sealed", read(reopened, "2023/01/02/a.pdf"));
+        assertEquals("still hot", read(reopened, "2023/01/02/b.pdf"));
+
+        TieredBlobStore.TieringResult result = reopened.tierColdFiles(CUTOFF, PACK_BYTES);
+
+        assertEquals(1, result.filesMoved());
+        assertTrue(Files.exists(root.resolve(".packs/pack-000002.idx")));
+        assertEquals("still hot", read(reopened, "2023/01/02/b.pdf"));
+    }
+
+    @Test
+    void packIsSealedWhenFullAndLargeFilesStayHot() throws IOException {
+        TieredBlobStore store = new TieredBlobStore(hot);
+        putCold(store, "2023/01/02/a.pdf", "aaaaaa");
+        putCold(store, "2023/01/02/b.pdf", "bbbbbb");
+        putCold(store, "2023/01/02/large.pdf", "0123456789ab");
+
+        TieredBlobStore.TieringResult result = store.tierColdFiles(CUTOFF, 10);
+
+        assertEquals(2, result.filesMoved());
+        assertEquals(2, result.packsWritten());
+        assertEquals(1, result.filesSkipped());
+        assertTrue(Files.exists(root.resolve("2023/01/02/large.pdf")));
+        assertEquals("aaaaaa", read(store, "2023/01/02/a.pdf"));
+        assertEquals("bbbbbb", read(store, "2023/01/02/b.pdf"));
+    }
+
+    private void putCold(BlobStore store, String key, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        store.put(key, new ByteArrayInputStream(bytes), bytes.length, null);
+        Files.setLastModifiedTime(root.resolve(key), FileTime.from(CUTOFF.minus(Duration.ofDays(1))));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(BlobStore store, String key) throws IOException {
+        try (InputStream in = store.get(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String readRange(BlobStore store, String key, long offset, long length) throws IOException {
+        try (InputStream in = store.getRange(key, offset, length)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}